@@ -0,0 +1,193 @@
+package nablarch.fw.batch.ee.benchmark;
+
+import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.Iterator;
+
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.BeanManager;
+import javax.enterprise.inject.spi.CDI;
+import javax.enterprise.inject.spi.CDIProvider;
+import javax.enterprise.util.TypeLiteral;
+
+/**
+ * ベンチマークで使用する{@link CDI}の実装クラス。
+ * <p/>
+ * CDIコンテナを起動せずに{@link nablarch.fw.batch.ee.cdi.StepScopedContext}を実行するため、
+ * {@link StepContext}の取得のみをサポートする。
+ */
+public class BenchmarkCdi extends CDI<Object> {
+
+    /** 現在のステップコンテキスト */
+    private final Instance<Object> stepContext;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param stepContext {@link #select(Class, Annotation...)}で返すステップコンテキスト
+     */
+    public BenchmarkCdi(final StepContext stepContext) {
+        this.stepContext = new FixedInstance<Object>(stepContext);
+    }
+
+    /**
+     * 本クラスのインスタンスを{@link CDI#current()}で返すよう設定する。
+     *
+     * @param stepContext {@link #select(Class, Annotation...)}で返すステップコンテキスト
+     */
+    public static void install(final StepContext stepContext) {
+        final BenchmarkCdi cdi = new BenchmarkCdi(stepContext);
+        CDI.setCDIProvider(new CDIProvider() {
+            @Override
+            public CDI<Object> getCDI() {
+                return cdi;
+            }
+        });
+    }
+
+    @Override
+    public BeanManager getBeanManager() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Instance<Object> select(final Annotation... qualifiers) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <U> Instance<U> select(final Class<U> subtype, final Annotation... qualifiers) {
+        if (!StepContext.class.equals(subtype)) {
+            throw new UnsupportedOperationException(subtype.getName());
+        }
+        return (Instance<U>) stepContext;
+    }
+
+    @Override
+    public <U> Instance<U> select(final TypeLiteral<U> subtype, final Annotation... qualifiers) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isUnsatisfied() {
+        return false;
+    }
+
+    @Override
+    public boolean isAmbiguous() {
+        return false;
+    }
+
+    @Override
+    public void destroy(final Object instance) {
+        // nop
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        return Collections.emptyList().iterator();
+    }
+
+    @Override
+    public Object get() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 固定の値を返す{@link Instance}の実装クラス。
+     *
+     * @param <T> 値の型
+     */
+    private static final class FixedInstance<T> implements Instance<T> {
+
+        /** 値 */
+        private final T value;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param value 値
+         */
+        private FixedInstance(final T value) {
+            this.value = value;
+        }
+
+        @Override
+        public T get() {
+            return value;
+        }
+
+        @Override
+        public Instance<T> select(final Annotation... qualifiers) {
+            return this;
+        }
+
+        @Override
+        public <U extends T> Instance<U> select(final Class<U> subtype, final Annotation... qualifiers) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <U extends T> Instance<U> select(final TypeLiteral<U> subtype, final Annotation... qualifiers) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isUnsatisfied() {
+            return false;
+        }
+
+        @Override
+        public boolean isAmbiguous() {
+            return false;
+        }
+
+        @Override
+        public void destroy(final T instance) {
+            // nop
+        }
+
+        @Override
+        public Iterator<T> iterator() {
+            return Collections.singletonList(value).iterator();
+        }
+    }
+
+    /**
+     * ベンチマークで使用する{@link Contextual}の実装クラス。
+     * <p/>
+     * {@link #create(CreationalContext)}の呼び出し毎に新しい{@link Object}を生成する。
+     */
+    public static final class BenchmarkContextual implements Contextual<Object> {
+
+        @Override
+        public Object create(final CreationalContext<Object> creationalContext) {
+            return new Object();
+        }
+
+        @Override
+        public void destroy(final Object instance, final CreationalContext<Object> creationalContext) {
+            // nop
+        }
+    }
+
+    /**
+     * 何もしない{@link CreationalContext}の実装クラス。
+     */
+    public static final class BenchmarkCreationalContext implements CreationalContext<Object> {
+
+        @Override
+        public void push(final Object incompleteInstance) {
+            // nop
+        }
+
+        @Override
+        public void release() {
+            // nop
+        }
+    }
+}
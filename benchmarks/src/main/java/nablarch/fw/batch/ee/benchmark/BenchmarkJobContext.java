@@ -0,0 +1,77 @@
+package nablarch.fw.batch.ee.benchmark;
+
+import java.util.Properties;
+
+import javax.batch.runtime.BatchStatus;
+import javax.batch.runtime.context.JobContext;
+
+/**
+ * ベンチマークで使用する{@link JobContext}の実装クラス。
+ * <p/>
+ * バッチランタイムを起動せずにリスナー等を実行するため、値を保持するだけの実装としている。
+ */
+public class BenchmarkJobContext implements JobContext {
+
+    /** ジョブ名 */
+    private final String jobName;
+
+    /** 一時領域 */
+    private Object transientUserData;
+
+    /** 終了ステータス */
+    private String exitStatus;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param jobName ジョブ名
+     */
+    public BenchmarkJobContext(final String jobName) {
+        this.jobName = jobName;
+    }
+
+    @Override
+    public String getJobName() {
+        return jobName;
+    }
+
+    @Override
+    public Object getTransientUserData() {
+        return transientUserData;
+    }
+
+    @Override
+    public void setTransientUserData(final Object data) {
+        transientUserData = data;
+    }
+
+    @Override
+    public long getInstanceId() {
+        return 1L;
+    }
+
+    @Override
+    public long getExecutionId() {
+        return 1L;
+    }
+
+    @Override
+    public Properties getProperties() {
+        return new Properties();
+    }
+
+    @Override
+    public BatchStatus getBatchStatus() {
+        return BatchStatus.STARTED;
+    }
+
+    @Override
+    public String getExitStatus() {
+        return exitStatus;
+    }
+
+    @Override
+    public void setExitStatus(final String status) {
+        exitStatus = status;
+    }
+}
@@ -0,0 +1,49 @@
+package nablarch.fw.batch.ee.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * ベンチマークを実行するメインクラス。
+ * <p/>
+ * 引数はJMHのコマンドラインオプションとして解釈する。
+ * 計測結果はリリース間で比較できるよう、JSON形式で出力する。
+ * 出力先はシステムプロパティ{@code benchmark.result}で指定でき、省略時は{@code jmh-result.json}となる。
+ * <pre>
+ * {@code
+ * java -Dbenchmark.result=target/jmh-result-1.3.0.json -jar target/benchmarks.jar -prof gc
+ * }
+ * </pre>
+ */
+public final class BenchmarkRunner {
+
+    /** 計測結果の出力先を指定するシステムプロパティ名 */
+    private static final String RESULT_PROPERTY_NAME = "benchmark.result";
+
+    /** 計測結果のデフォルトの出力先 */
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    /**
+     * プライベートコンストラクタ
+     */
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * ベンチマークを実行する。
+     *
+     * @param args JMHのコマンドラインオプション
+     * @throws Exception ベンチマークの実行に失敗した場合
+     */
+    public static void main(final String... args) throws Exception {
+        final Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .resultFormat(ResultFormatType.JSON)
+                .result(System.getProperty(RESULT_PROPERTY_NAME, DEFAULT_RESULT_FILE))
+                .build();
+        new Runner(options).run();
+    }
+}
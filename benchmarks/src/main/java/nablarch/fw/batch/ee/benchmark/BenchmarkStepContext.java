@@ -0,0 +1,154 @@
+package nablarch.fw.batch.ee.benchmark;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+import javax.batch.runtime.BatchStatus;
+import javax.batch.runtime.Metric;
+import javax.batch.runtime.context.StepContext;
+
+/**
+ * ベンチマークで使用する{@link StepContext}の実装クラス。
+ * <p/>
+ * バッチランタイムを起動せずにリスナー等を実行するため、値を保持するだけの実装としている。
+ * メトリクスは{@link Metric.MetricType}の全種類を保持し、READ_COUNTのみ{@link #setReadCount(long)}で更新できる。
+ */
+public class BenchmarkStepContext implements StepContext {
+
+    /** ステップ名 */
+    private final String stepName;
+
+    /** メトリクス */
+    private final BenchmarkMetric[] metrics;
+
+    /** READ_COUNTのメトリクス */
+    private final BenchmarkMetric readCount;
+
+    /** 一時領域 */
+    private Object transientUserData;
+
+    /** 永続領域 */
+    private Serializable persistentUserData;
+
+    /** 終了ステータス */
+    private String exitStatus;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param stepName ステップ名
+     */
+    public BenchmarkStepContext(final String stepName) {
+        this.stepName = stepName;
+        final Metric.MetricType[] types = Metric.MetricType.values();
+        metrics = new BenchmarkMetric[types.length];
+        BenchmarkMetric read = null;
+        for (int i = 0; i < types.length; i++) {
+            metrics[i] = new BenchmarkMetric(types[i]);
+            if (types[i] == Metric.MetricType.READ_COUNT) {
+                read = metrics[i];
+            }
+        }
+        readCount = read;
+    }
+
+    /**
+     * READ_COUNTを設定する。
+     *
+     * @param count READ_COUNT
+     */
+    public void setReadCount(final long count) {
+        readCount.value = count;
+    }
+
+    @Override
+    public String getStepName() {
+        return stepName;
+    }
+
+    @Override
+    public Object getTransientUserData() {
+        return transientUserData;
+    }
+
+    @Override
+    public void setTransientUserData(final Object data) {
+        transientUserData = data;
+    }
+
+    @Override
+    public long getStepExecutionId() {
+        return 1L;
+    }
+
+    @Override
+    public Properties getProperties() {
+        return new Properties();
+    }
+
+    @Override
+    public Serializable getPersistentUserData() {
+        return persistentUserData;
+    }
+
+    @Override
+    public void setPersistentUserData(final Serializable data) {
+        persistentUserData = data;
+    }
+
+    @Override
+    public BatchStatus getBatchStatus() {
+        return BatchStatus.STARTED;
+    }
+
+    @Override
+    public String getExitStatus() {
+        return exitStatus;
+    }
+
+    @Override
+    public void setExitStatus(final String status) {
+        exitStatus = status;
+    }
+
+    @Override
+    public Exception getException() {
+        return null;
+    }
+
+    @Override
+    public Metric[] getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * ベンチマークで使用する{@link Metric}の実装クラス。
+     */
+    private static final class BenchmarkMetric implements Metric {
+
+        /** メトリクスの種類 */
+        private final MetricType type;
+
+        /** 値 */
+        private long value;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param type メトリクスの種類
+         */
+        private BenchmarkMetric(final MetricType type) {
+            this.type = type;
+        }
+
+        @Override
+        public MetricType getType() {
+            return type;
+        }
+
+        @Override
+        public long getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package nablarch.fw.batch.ee.benchmark;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.core.repository.ObjectLoader;
+import nablarch.core.repository.SystemRepository;
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+import nablarch.fw.batch.ee.listener.chunk.AbstractNablarchItemWriteListener;
+import nablarch.fw.batch.ee.listener.chunk.NablarchItemWriteListener;
+import nablarch.fw.batch.ee.listener.chunk.NablarchItemWriteListenerExecutor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link NablarchItemWriteListenerExecutor}のチャンク毎の処理コストを計測するベンチマーク。
+ * <p/>
+ * 1回の計測で1チャンク分の{@code beforeWrite}と{@code afterWrite}を実行する。
+ * 定常状態でチャンク毎のオブジェクト生成が行われないことは、GCプロファイラを指定して実行し、
+ * {@code gc.alloc.rate.norm}(1回の計測あたりの割り当てバイト数)が0となることで確認する。
+ * <pre>
+ * {@code
+ * java -jar target/benchmarks.jar ItemWriteListenerDispatchBenchmark -prof gc
+ * }
+ * </pre>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemWriteListenerDispatchBenchmark {
+
+    /** リポジトリに登録するリスナーの数 */
+    @Param({"0", "1", "5", "20"})
+    public int listenerCount;
+
+    /** ベンチマーク対象 */
+    private NablarchItemWriteListenerExecutor sut;
+
+    /** 書き込み対象のオブジェクト */
+    private List<Object> items;
+
+    /**
+     * リスナーを登録し、ベンチマーク対象を構築する。
+     *
+     * @throws Exception 例外
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        final List<NablarchItemWriteListener> listeners = new ArrayList<NablarchItemWriteListener>();
+        for (int i = 0; i < listenerCount; i++) {
+            listeners.add(new CountingListener());
+        }
+        SystemRepository.load(new ObjectLoader() {
+            @Override
+            public Map<String, Object> load() {
+                final Map<String, Object> objects = new HashMap<String, Object>();
+                objects.put("itemWriteListeners", listeners);
+                return objects;
+            }
+        });
+
+        sut = new NablarchItemWriteListenerExecutor();
+        inject(sut, "jobContext", new BenchmarkJobContext("benchmarkJob"));
+        inject(sut, "stepContext", new BenchmarkStepContext("benchmarkStep"));
+
+        items = new ArrayList<Object>();
+        for (int i = 0; i < 10; i++) {
+            items.add(i);
+        }
+    }
+
+    /**
+     * リポジトリをクリアする。
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SystemRepository.clear();
+    }
+
+    /**
+     * 1チャンク分のリスナーの事前処理と事後処理を実行する。
+     *
+     * @throws Exception 例外
+     */
+    @Benchmark
+    public void chunk() throws Exception {
+        sut.beforeWrite(items);
+        sut.afterWrite(items);
+    }
+
+    /**
+     * フィールドに値を設定する。
+     *
+     * @param target 設定対象のオブジェクト
+     * @param name フィールド名
+     * @param value 設定する値
+     * @throws Exception 例外
+     */
+    static void inject(final Object target, final String name, final Object value) throws Exception {
+        final Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    /**
+     * 呼び出し回数を数えるリスナー。
+     * <p/>
+     * 呼び出しがJITコンパイラにより除去されないよう、フィールドを更新する。
+     */
+    private static final class CountingListener extends AbstractNablarchItemWriteListener {
+
+        /** 呼び出し回数 */
+        private long count;
+
+        @Override
+        public void beforeWrite(final NablarchListenerContext context, final List<Object> items) {
+            count += items.size();
+        }
+
+        @Override
+        public void afterWrite(final NablarchListenerContext context, final List<Object> items) {
+            count += items.size();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package nablarch.fw.batch.ee.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link NablarchListenerContext#getReadCount()}のコストを計測するベンチマーク。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerContextBenchmark {
+
+    /** ベンチマーク対象 */
+    private NablarchListenerContext sut;
+
+    /**
+     * ベンチマーク対象を構築する。
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        final BenchmarkStepContext stepContext = new BenchmarkStepContext("benchmarkStep");
+        stepContext.setReadCount(100L);
+        sut = new NablarchListenerContext(new BenchmarkJobContext("benchmarkJob"), stepContext);
+    }
+
+    /**
+     * READ_COUNTを取得する。
+     *
+     * @return READ_COUNT
+     */
+    @Benchmark
+    public long getReadCount() {
+        return sut.getReadCount();
+    }
+}
@@ -0,0 +1,113 @@
+package nablarch.fw.batch.ee.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.core.repository.ObjectLoader;
+import nablarch.core.repository.SystemRepository;
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+import nablarch.fw.batch.ee.listener.NablarchListenerExecutor;
+import nablarch.fw.batch.ee.listener.NablarchListenerExecutor.Runner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link NablarchListenerExecutor}によるリスナーの呼び出しコストを計測するベンチマーク。
+ * <p/>
+ * 1回の計測で事前処理と事後処理を1回ずつ実行する。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListenerExecutorBenchmark {
+
+    /** リポジトリに登録するリスナーの数 */
+    @Param({"0", "1", "5", "20"})
+    public int listenerCount;
+
+    /** ベンチマーク対象 */
+    private NablarchListenerExecutor<Counter> sut;
+
+    /** 事前処理を行う{@link Runner} */
+    private final Runner<Counter> before = new Runner<Counter>() {
+        @Override
+        public void run(final Counter listener, final NablarchListenerContext context) {
+            listener.count++;
+        }
+    };
+
+    /** 事後処理を行う{@link Runner} */
+    private final Runner<Counter> after = new Runner<Counter>() {
+        @Override
+        public void run(final Counter listener, final NablarchListenerContext context) {
+            listener.count--;
+        }
+    };
+
+    /**
+     * リスナーを登録し、ベンチマーク対象を構築する。
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        final List<Counter> listeners = new ArrayList<Counter>();
+        for (int i = 0; i < listenerCount; i++) {
+            listeners.add(new Counter());
+        }
+        SystemRepository.load(new ObjectLoader() {
+            @Override
+            public Map<String, Object> load() {
+                final Map<String, Object> objects = new HashMap<String, Object>();
+                objects.put("benchmarkListeners", listeners);
+                return objects;
+            }
+        });
+        sut = new NablarchListenerExecutor<Counter>("benchmarkListeners",
+                new BenchmarkJobContext("benchmarkJob"), new BenchmarkStepContext("benchmarkStep"));
+    }
+
+    /**
+     * リポジトリをクリアする。
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SystemRepository.clear();
+    }
+
+    /**
+     * リスナーの事前処理と事後処理を実行する。
+     *
+     * @throws Exception 例外
+     */
+    @Benchmark
+    public void dispatch() throws Exception {
+        sut.executeBefore(before);
+        sut.executeAfter(after);
+    }
+
+    /**
+     * 呼び出し回数を保持するリスナー。
+     */
+    static final class Counter {
+
+        /** 呼び出し回数 */
+        long count;
+    }
+}
@@ -0,0 +1,28 @@
+package nablarch.fw.batch.ee.benchmark;
+
+import nablarch.core.log.basic.LogContext;
+import nablarch.core.log.basic.LogWriter;
+import nablarch.core.log.basic.ObjectSettings;
+
+/**
+ * 出力を破棄する{@link LogWriter}の実装クラス。
+ * <p/>
+ * ベンチマークでログ出力先のI/Oコストを計測対象から除外するために使用する。
+ */
+public class NullLogWriter implements LogWriter {
+
+    @Override
+    public void initialize(final ObjectSettings settings) {
+        // nop
+    }
+
+    @Override
+    public void terminate() {
+        // nop
+    }
+
+    @Override
+    public void write(final LogContext context) {
+        // nop
+    }
+}
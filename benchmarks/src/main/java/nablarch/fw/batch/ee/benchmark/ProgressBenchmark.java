@@ -0,0 +1,86 @@
+package nablarch.fw.batch.ee.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.fw.batch.ee.progress.BasicProgressManager;
+import nablarch.fw.batch.ee.progress.JBatchProcessName;
+import nablarch.fw.batch.progress.Progress;
+import nablarch.fw.batch.progress.ProgressLogPrinter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 進捗状況の算出と出力のコストを計測するベンチマーク。
+ * <p/>
+ * ログの出力先は{@link NullLogWriter}としているため、I/Oのコストは計測結果に含まれない。
+ * 進捗状況の出力は、{@link ProgressLogPrinter}の1行あたりのコストを計測する。
+ * 割り当て量は{@code -prof gc}で確認する。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgressBenchmark {
+
+    /** ステップコンテキスト */
+    private BenchmarkStepContext stepContext;
+
+    /** 進捗管理 */
+    private BasicProgressManager progressManager;
+
+    /** 進捗状況を出力する機能 */
+    private ProgressLogPrinter printer;
+
+    /** プロセス名 */
+    private JBatchProcessName processName;
+
+    /** 出力する進捗状況 */
+    private Progress progress;
+
+    /** 処理済み件数 */
+    private long processedCount;
+
+    /**
+     * ベンチマーク対象を構築する。
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        stepContext = new BenchmarkStepContext("benchmarkStep");
+        progressManager = new BasicProgressManager(new BenchmarkJobContext("benchmarkJob"), stepContext);
+        progressManager.setInputCount(Long.MAX_VALUE);
+        printer = new ProgressLogPrinter();
+        processName = new JBatchProcessName("benchmarkJob", "benchmarkStep");
+        progress = new Progress(1234.56, 2345.67, new Date(), 1000000L);
+    }
+
+    /**
+     * チャンク毎に呼び出される進捗状況の算出と出力を行う。
+     */
+    @Benchmark
+    public void outputProgressInfo() {
+        processedCount += 10;
+        stepContext.setReadCount(processedCount);
+        progressManager.outputProgressInfo();
+    }
+
+    /**
+     * 進捗状況の出力のみを行う。
+     */
+    @Benchmark
+    public void print() {
+        printer.print(processName, progress);
+    }
+}
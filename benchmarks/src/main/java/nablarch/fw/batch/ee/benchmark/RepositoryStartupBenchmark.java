@@ -0,0 +1,47 @@
+package nablarch.fw.batch.ee.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import nablarch.core.repository.di.DiContainer;
+import nablarch.core.repository.di.config.xml.XmlComponentDefinitionLoader;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * コンポーネント設定ファイルの読み込みにかかる起動時間を計測するベンチマーク。
+ * <p/>
+ * 起動直後(コールドスタート)の時間を計測するため、フォークごとに1回だけ実行する。
+ * {@link nablarch.fw.batch.ee.initializer.RepositoryInitializer}と同じ方法で設定ファイルを直接読み込む。
+ * 起動時間を短縮する変更は、本ベンチマークの結果と比較して評価する。
+ *
+ * @author Naoki Yamamoto
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(15)
+public class RepositoryStartupBenchmark {
+
+    /** ルートのコンポーネント設定ファイル(10ファイルをimportし、200コンポーネントを定義) */
+    private static final String DI_CONFIG_FILE_PATH = "benchmark/startup/root.xml";
+
+    /**
+     * コンポーネント設定ファイルを読み込み、コンポーネントを構築する。
+     *
+     * @return DIコンテナ
+     */
+    @Benchmark
+    public DiContainer load() {
+        return new DiContainer(new XmlComponentDefinitionLoader(DI_CONFIG_FILE_PATH));
+    }
+}
@@ -0,0 +1,30 @@
+package nablarch.fw.batch.ee.benchmark;
+
+/**
+ * 起動時間の計測に使用するコンポーネント。
+ *
+ * @author Naoki Yamamoto
+ */
+public class StartupComponent {
+
+    /** 値 */
+    private String value;
+
+    /**
+     * 値を取得する。
+     *
+     * @return 値
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * 値を設定する。
+     *
+     * @param value 値
+     */
+    public void setValue(String value) {
+        this.value = value;
+    }
+}
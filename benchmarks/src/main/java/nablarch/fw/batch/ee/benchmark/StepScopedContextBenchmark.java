@@ -0,0 +1,97 @@
+package nablarch.fw.batch.ee.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import nablarch.fw.batch.ee.benchmark.BenchmarkCdi.BenchmarkContextual;
+import nablarch.fw.batch.ee.benchmark.BenchmarkCdi.BenchmarkCreationalContext;
+import nablarch.fw.batch.ee.cdi.StepScopedContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link StepScopedContext}からステップスコープのBeanを取得するコストを計測するベンチマーク。
+ * <p/>
+ * ステップスコープのBeanのメソッド呼び出し毎に行われる、生成済みのBeanの取得を計測対象とする。
+ * <ul>
+ * <li>lookup:{@link javax.enterprise.inject.spi.CDI}から{@link javax.batch.runtime.context.StepContext}を取得する。</li>
+ * <li>bound:{@link StepScopedContext#bind(javax.batch.runtime.context.StepContext)}でスレッドに関連付けた値の保持領域を使用する
+ * (関連付けた{@link javax.batch.runtime.context.StepContext}の一時領域が値の保持領域のままであることの確認を含む)。</li>
+ * </ul>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StepScopedContextBenchmark {
+
+    /** 値の保持領域の取得方法 */
+    @Param({"lookup", "bound"})
+    public String mode;
+
+    /** ベンチマーク対象 */
+    private StepScopedContext sut;
+
+    /** 取得対象のBeanの定義 */
+    private BenchmarkContextual contextual;
+
+    /** {@link javax.enterprise.context.spi.CreationalContext} */
+    private BenchmarkCreationalContext creationalContext;
+
+    /**
+     * CDIを設定し、取得対象のBeanを生成しておく。
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        final BenchmarkStepContext stepContext = new BenchmarkStepContext("benchmarkStep");
+        BenchmarkCdi.install(stepContext);
+        if ("bound".equals(mode)) {
+            StepScopedContext.bind(stepContext);
+        }
+        sut = new StepScopedContext();
+        contextual = new BenchmarkContextual();
+        creationalContext = new BenchmarkCreationalContext();
+        sut.get(contextual, creationalContext);
+    }
+
+    /**
+     * スレッドへの関連付けを解除する。
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        StepScopedContext.unbind();
+    }
+
+    /**
+     * 生成済みのBeanを取得する。
+     *
+     * @return Bean
+     */
+    @Benchmark
+    public Object get() {
+        return sut.get(contextual, creationalContext);
+    }
+
+    /**
+     * コンテキストが有効か否かを判定する。
+     *
+     * @return 有効な場合は{@code true}
+     */
+    @Benchmark
+    public boolean isActive() {
+        return sut.isActive();
+    }
+}
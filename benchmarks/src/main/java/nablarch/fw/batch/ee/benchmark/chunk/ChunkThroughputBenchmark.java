@@ -0,0 +1,290 @@
+package nablarch.fw.batch.ee.benchmark.chunk;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.Charset;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.fw.batch.ee.JobExecutor;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * 組み込みのバッチランタイムとH2を使用して、chunkステップのスループットを計測するベンチマーク。
+ * <p/>
+ * {@code chunk-throughput}ジョブを{@link JobExecutor}で実行し、item-count(チャンクサイズ)と件数の組み合わせ毎に
+ * 以下を計測する。
+ * <ul>
+ * <li>1秒あたりの処理件数</li>
+ * <li>コミットに要した時間のパーセンタイル(50%、90%、99%、最大)</li>
+ * <li>1秒あたりのメモリ割り当て量</li>
+ * </ul>
+ * 計測条件は以下のシステムプロパティで指定する。
+ * <ul>
+ * <li>{@code benchmark.itemCounts} - item-countのカンマ区切り(デフォルト: 1,10,100,1000)</li>
+ * <li>{@code benchmark.rowCounts} - 件数のカンマ区切り(デフォルト: 10000,100000,1000000)</li>
+ * <li>{@code benchmark.result} - 計測結果(JSON)の出力先(デフォルト: chunk-throughput-result.json)</li>
+ * </ul>
+ * <pre>
+ * {@code
+ * java -Dbenchmark.rowCounts=1000000,10000000 -cp target/benchmarks.jar nablarch.fw.batch.ee.benchmark.chunk.ChunkThroughputBenchmark
+ * }
+ * </pre>
+ */
+public final class ChunkThroughputBenchmark {
+
+    /** 計測対象のジョブ */
+    private static final String JOB_XML_NAME = "chunk-throughput";
+
+    /** H2の接続URL(コンポーネント設定ファイルのデータソースと同じデータベースを指す) */
+    private static final String JDBC_URL = "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1";
+
+    /** ウォームアップで処理する件数 */
+    private static final int WARMUP_ROW_COUNT = 10000;
+
+    /**
+     * 隠蔽コンストラクタ
+     */
+    private ChunkThroughputBenchmark() {
+    }
+
+    /**
+     * ベンチマークを実行する。
+     *
+     * @param args 使用しない
+     * @throws Exception ベンチマークの実行に失敗した場合
+     */
+    public static void main(final String... args) throws Exception {
+        final int[] itemCounts = toIntArray(System.getProperty("benchmark.itemCounts", "1,10,100,1000"));
+        final int[] rowCounts = toIntArray(System.getProperty("benchmark.rowCounts", "10000,100000,1000000"));
+        final String resultFile = System.getProperty("benchmark.result", "chunk-throughput-result.json");
+
+        final Connection connection = DriverManager.getConnection(JDBC_URL, "sa", "");
+        try {
+            // JITコンパイルとコンポーネントの初期化を済ませておく
+            run(connection, 100, WARMUP_ROW_COUNT);
+
+            final List<Result> results = new ArrayList<Result>();
+            for (final int rowCount : rowCounts) {
+                for (final int itemCount : itemCounts) {
+                    final Result result = run(connection, itemCount, rowCount);
+                    System.out.println(result.toText());
+                    results.add(result);
+                }
+            }
+            writeJson(new File(resultFile), results);
+        } finally {
+            connection.close();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * 指定の条件でジョブを1回実行し、計測結果を返す。
+     *
+     * @param connection テーブル準備用の接続
+     * @param itemCount item-count
+     * @param rowCount 件数
+     * @return 計測結果
+     * @throws Exception ジョブの実行に失敗した場合
+     */
+    private static Result run(final Connection connection, final int itemCount, final int rowCount) throws Exception {
+        prepareTable(connection, rowCount);
+        System.gc();
+        CommitLatencyRecorder.reset();
+
+        final Properties properties = new Properties();
+        properties.setProperty("itemCount", String.valueOf(itemCount));
+        final JobExecutor executor = new JobExecutor(JOB_XML_NAME, properties);
+
+        final long allocatedBefore = allocatedBytes();
+        final long start = System.nanoTime();
+        final int exitCode = executor.execute(1);
+        final long elapsed = System.nanoTime() - start;
+        final long allocated = allocatedBytes() - allocatedBefore;
+
+        if (exitCode != 0) {
+            throw new IllegalStateException("job failed. item count: [" + itemCount + "] row count: [" + rowCount
+                    + "] exit code: [" + exitCode + ']');
+        }
+        return new Result(itemCount, rowCount, elapsed, allocated, CommitLatencyRecorder.snapshot());
+    }
+
+    /**
+     * 計測用のテーブルを作成し、指定件数のレコードを登録する。
+     *
+     * @param connection 接続
+     * @param rowCount 件数
+     * @throws Exception SQLの実行に失敗した場合
+     */
+    private static void prepareTable(final Connection connection, final int rowCount) throws Exception {
+        final Statement statement = connection.createStatement();
+        try {
+            statement.execute("DROP TABLE IF EXISTS BENCH_ITEM");
+            statement.execute("CREATE TABLE BENCH_ITEM (ID BIGINT PRIMARY KEY, AMOUNT BIGINT NOT NULL)");
+            statement.execute("INSERT INTO BENCH_ITEM SELECT X, X FROM SYSTEM_RANGE(1, " + rowCount + ')');
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * JVM内の全スレッドがこれまでに割り当てたメモリ量を返す。
+     * <p/>
+     * 計測中に終了したスレッドの割り当て量は含まれないが、バッチランタイムはスレッドをプールして再利用するため、
+     * 計測への影響は小さい。
+     *
+     * @return 割り当てたメモリ量(バイト)
+     */
+    private static long allocatedBytes() {
+        final com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0L;
+        for (final long bytes : threadMXBean.getThreadAllocatedBytes(threadMXBean.getAllThreadIds())) {
+            if (bytes > 0L) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * カンマ区切りの数値を配列に変換する。
+     *
+     * @param value カンマ区切りの数値
+     * @return 数値の配列
+     */
+    private static int[] toIntArray(final String value) {
+        final String[] values = value.split(",");
+        final int[] result = new int[values.length];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = Integer.parseInt(values[i].trim());
+        }
+        return result;
+    }
+
+    /**
+     * 計測結果をJSON形式でファイルに出力する。
+     *
+     * @param file 出力先
+     * @param results 計測結果
+     * @throws Exception 出力に失敗した場合
+     */
+    private static void writeJson(final File file, final List<Result> results) throws Exception {
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charset.forName("UTF-8"));
+        try {
+            writer.write("[\n");
+            for (int i = 0; i < results.size(); i++) {
+                writer.write("  ");
+                writer.write(results.get(i).toJson());
+                writer.write(i < results.size() - 1 ? ",\n" : "\n");
+            }
+            writer.write("]\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * 1回の計測結果。
+     */
+    private static final class Result {
+
+        /** item-count */
+        private final int itemCount;
+
+        /** 件数 */
+        private final int rowCount;
+
+        /** 1秒あたりの処理件数 */
+        private final double recordsPerSecond;
+
+        /** 1秒あたりのメモリ割り当て量(MB) */
+        private final double allocationRate;
+
+        /** コミット回数 */
+        private final long commitCount;
+
+        /** コミット時間の50パーセンタイル(マイクロ秒) */
+        private final double commitP50;
+
+        /** コミット時間の90パーセンタイル(マイクロ秒) */
+        private final double commitP90;
+
+        /** コミット時間の99パーセンタイル(マイクロ秒) */
+        private final double commitP99;
+
+        /** コミット時間の最大値(マイクロ秒) */
+        private final double commitMax;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param itemCount item-count
+         * @param rowCount 件数
+         * @param elapsedNanos 処理時間(ナノ秒)
+         * @param allocatedBytes 割り当てたメモリ量(バイト)
+         * @param commitLatency コミットに要した時間(ナノ秒)のヒストグラム
+         */
+        private Result(final int itemCount, final int rowCount, final long elapsedNanos, final long allocatedBytes,
+                final Histogram commitLatency) {
+            this.itemCount = itemCount;
+            this.rowCount = rowCount;
+            final double elapsedSeconds = (double) elapsedNanos / TimeUnit.SECONDS.toNanos(1);
+            recordsPerSecond = rowCount / elapsedSeconds;
+            allocationRate = allocatedBytes / elapsedSeconds / (1024 * 1024);
+            commitCount = commitLatency.getTotalCount();
+            commitP50 = toMicros(commitLatency.getValueAtPercentile(50));
+            commitP90 = toMicros(commitLatency.getValueAtPercentile(90));
+            commitP99 = toMicros(commitLatency.getValueAtPercentile(99));
+            commitMax = toMicros(commitLatency.getMaxValue());
+        }
+
+        /**
+         * ナノ秒をマイクロ秒に変換する。
+         *
+         * @param nanos ナノ秒
+         * @return マイクロ秒
+         */
+        private static double toMicros(final long nanos) {
+            return nanos / 1000.0;
+        }
+
+        /**
+         * 計測結果を表示用の文字列に変換する。
+         *
+         * @return 表示用の文字列
+         */
+        private String toText() {
+            return String.format(Locale.ROOT,
+                    "item count: [%d] row count: [%d] records/sec: [%.2f] commits: [%d]"
+                            + " commit latency(us) p50: [%.1f] p90: [%.1f] p99: [%.1f] max: [%.1f] allocation rate(MB/sec): [%.2f]",
+                    itemCount, rowCount, recordsPerSecond, commitCount,
+                    commitP50, commitP90, commitP99, commitMax, allocationRate);
+        }
+
+        /**
+         * 計測結果をJSON形式の文字列に変換する。
+         *
+         * @return JSON形式の文字列
+         */
+        private String toJson() {
+            return String.format(Locale.ROOT,
+                    "{\"itemCount\":%d,\"rowCount\":%d,\"recordsPerSecond\":%.2f,\"commitCount\":%d,"
+                            + "\"commitLatencyMicros\":{\"p50\":%.1f,\"p90\":%.1f,\"p99\":%.1f,\"max\":%.1f},"
+                            + "\"allocationRateMBPerSecond\":%.2f}",
+                    itemCount, rowCount, recordsPerSecond, commitCount,
+                    commitP50, commitP90, commitP99, commitMax, allocationRate);
+        }
+    }
+}
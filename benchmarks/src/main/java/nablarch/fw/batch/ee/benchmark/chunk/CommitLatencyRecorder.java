@@ -0,0 +1,50 @@
+package nablarch.fw.batch.ee.benchmark.chunk;
+
+import java.util.concurrent.TimeUnit;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * コミットに要した時間を記録するクラス。
+ * <p/>
+ * 計測毎に{@link #reset()}で記録を破棄し、計測後に{@link #snapshot()}で記録した値を取得する。
+ */
+public final class CommitLatencyRecorder {
+
+    /** 記録可能な最大値(ナノ秒) */
+    private static final long HIGHEST_TRACKABLE_VALUE = TimeUnit.MINUTES.toNanos(10);
+
+    /** コミットに要した時間(ナノ秒)のヒストグラム */
+    private static final Histogram HISTOGRAM = new Histogram(HIGHEST_TRACKABLE_VALUE, 3);
+
+    /**
+     * 隠蔽コンストラクタ
+     */
+    private CommitLatencyRecorder() {
+    }
+
+    /**
+     * コミットに要した時間を記録する。
+     *
+     * @param nanos コミットに要した時間(ナノ秒)
+     */
+    public static synchronized void record(final long nanos) {
+        HISTOGRAM.recordValue(Math.min(nanos, HIGHEST_TRACKABLE_VALUE));
+    }
+
+    /**
+     * 記録を破棄する。
+     */
+    public static synchronized void reset() {
+        HISTOGRAM.reset();
+    }
+
+    /**
+     * 記録した値の複製を返す。
+     *
+     * @return 記録した値の複製
+     */
+    public static synchronized Histogram snapshot() {
+        return HISTOGRAM.copy();
+    }
+}
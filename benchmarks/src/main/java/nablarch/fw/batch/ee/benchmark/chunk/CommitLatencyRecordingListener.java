@@ -0,0 +1,19 @@
+package nablarch.fw.batch.ee.benchmark.chunk;
+
+import java.util.List;
+
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+import nablarch.fw.batch.ee.listener.chunk.ItemWriteTransactionManagementListener;
+
+/**
+ * コミットに要した時間を{@link CommitLatencyRecorder}に記録する{@link ItemWriteTransactionManagementListener}。
+ */
+public class CommitLatencyRecordingListener extends ItemWriteTransactionManagementListener {
+
+    @Override
+    public void afterWrite(final NablarchListenerContext context, final List<Object> items) {
+        final long start = System.nanoTime();
+        super.afterWrite(context, items);
+        CommitLatencyRecorder.record(System.nanoTime() - start);
+    }
+}
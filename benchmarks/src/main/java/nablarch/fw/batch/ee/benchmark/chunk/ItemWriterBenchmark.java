@@ -0,0 +1,201 @@
+package nablarch.fw.batch.ee.benchmark.chunk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.batch.api.chunk.AbstractItemWriter;
+import javax.batch.api.chunk.ItemWriter;
+
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.statement.ParameterizedSqlPStatement;
+import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.repository.SystemRepository;
+import nablarch.core.repository.di.DiContainer;
+import nablarch.core.repository.di.config.xml.XmlComponentDefinitionLoader;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.fw.batch.ee.chunk.BaseDatabaseItemWriter;
+import nablarch.fw.batch.ee.chunk.MultiRowDatabaseItemWriter;
+import nablarch.fw.batch.ee.chunk.MultiRowSqlType;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * H2に対して、1チャンク分の要素を書き込む時間をライタの方式ごとに計測するベンチマーク。
+ * <ul>
+ * <li>single:1件ずつINSERT</li>
+ * <li>batch:{@link BaseDatabaseItemWriter}によるJDBCのバッチ更新</li>
+ * <li>multiRow:{@link MultiRowDatabaseItemWriter}による複数行のINSERT</li>
+ * <li>multiRowMerge:{@link MultiRowDatabaseItemWriter}による複数行のMERGE(H2のUPSERT)</li>
+ * </ul>
+ * 書き込みごとにコミットし、次の書き込みの前に表を空にする。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemWriterBenchmark {
+
+    /** 列名 */
+    private static final List<String> COLUMN_NAMES = Arrays.asList("ID", "AMOUNT");
+
+    /** ライタの方式 */
+    @Param({"single", "batch", "multiRow", "multiRowMerge"})
+    public String writer;
+
+    /** 1チャンクの要素数 */
+    @Param({"100", "1000"})
+    public int itemCount;
+
+    /** ベンチマーク対象 */
+    private ItemWriter sut;
+
+    /** 書き込む要素 */
+    private List<Object> items;
+
+    /** 書き込みに使用する接続 */
+    private TransactionManagerConnection connection;
+
+    /**
+     * 接続と表、ベンチマーク対象を準備する。
+     *
+     * @throws Exception 準備に失敗した場合
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SystemRepository.load(new DiContainer(new XmlComponentDefinitionLoader("benchmark/chunk-throughput.xml")));
+        final ConnectionFactory connectionFactory = SystemRepository.get("connectionFactory");
+        connection = connectionFactory.getConnection(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY);
+        DbConnectionContext.setConnection(connection);
+
+        connection.prepareStatement("DROP TABLE IF EXISTS BENCH_OUTPUT").executeUpdate();
+        connection.prepareStatement("CREATE TABLE BENCH_OUTPUT (ID BIGINT PRIMARY KEY, AMOUNT BIGINT NOT NULL)")
+                  .executeUpdate();
+        connection.commit();
+
+        items = new ArrayList<Object>(itemCount);
+        for (int i = 1; i <= itemCount; i++) {
+            items.add(new ThroughputItem(i, i));
+        }
+        sut = createWriter(writer);
+    }
+
+    /**
+     * 表を空にする。
+     */
+    @Setup(Level.Invocation)
+    public void truncate() {
+        connection.prepareStatement("TRUNCATE TABLE BENCH_OUTPUT").executeUpdate();
+        connection.commit();
+    }
+
+    /**
+     * 接続を閉じる。
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        DbConnectionContext.removeConnection();
+        connection.terminate();
+        SystemRepository.clear();
+    }
+
+    /**
+     * 1チャンク分の要素を書き込み、コミットする。
+     *
+     * @throws Exception 書き込みに失敗した場合
+     */
+    @Benchmark
+    public void writeItems() throws Exception {
+        sut.writeItems(items);
+        connection.commit();
+    }
+
+    /**
+     * ライタの方式に対応するライタを生成する。
+     *
+     * @param writer ライタの方式
+     * @return ライタ
+     */
+    private static ItemWriter createWriter(final String writer) {
+        if ("single".equals(writer)) {
+            return new SingleRowWriter();
+        }
+        if ("batch".equals(writer)) {
+            return new BatchWriter();
+        }
+        final MultiRowWriter multiRowWriter = new MultiRowWriter();
+        if ("multiRowMerge".equals(writer)) {
+            multiRowWriter.setSqlType(MultiRowSqlType.MERGE_KEY);
+            multiRowWriter.setKeyColumnNames(Arrays.asList("ID"));
+        }
+        return multiRowWriter;
+    }
+
+    /**
+     * 1件ずつINSERTするライタ。
+     */
+    private static final class SingleRowWriter extends AbstractItemWriter {
+
+        @Override
+        public void writeItems(final List<Object> items) throws Exception {
+            final SqlPStatement statement = DbConnectionContext.getConnection()
+                                                               .prepareStatement("INSERT INTO BENCH_OUTPUT (ID, AMOUNT) VALUES (?, ?)");
+            for (final Object item : items) {
+                final ThroughputItem entity = (ThroughputItem) item;
+                statement.setLong(1, entity.getId());
+                statement.setLong(2, entity.getAmount());
+                statement.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * JDBCのバッチ更新でINSERTするライタ。
+     */
+    private static final class BatchWriter extends BaseDatabaseItemWriter {
+
+        @Override
+        protected ParameterizedSqlPStatement prepareStatement(final AppDbConnection connection) {
+            return connection.prepareParameterizedSqlStatement(
+                    "INSERT INTO BENCH_OUTPUT (ID, AMOUNT) VALUES (:id, :amount)");
+        }
+    }
+
+    /**
+     * 複数行のSQLで書き込むライタ。
+     */
+    private static final class MultiRowWriter extends MultiRowDatabaseItemWriter {
+
+        /**
+         * ライタを生成する。
+         */
+        private MultiRowWriter() {
+            setTableName("BENCH_OUTPUT");
+            setColumnNames(COLUMN_NAMES);
+        }
+
+        @Override
+        protected Object[] toValues(final Object item) {
+            final ThroughputItem entity = (ThroughputItem) item;
+            return new Object[] {entity.getId(), entity.getAmount()};
+        }
+    }
+}
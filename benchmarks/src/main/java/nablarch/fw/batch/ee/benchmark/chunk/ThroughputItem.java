@@ -0,0 +1,42 @@
+package nablarch.fw.batch.ee.benchmark.chunk;
+
+/**
+ * スループット計測で読み書きするレコード。
+ */
+public class ThroughputItem {
+
+    /** ID */
+    private final long id;
+
+    /** 金額 */
+    private final long amount;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param id ID
+     * @param amount 金額
+     */
+    public ThroughputItem(final long id, final long amount) {
+        this.id = id;
+        this.amount = amount;
+    }
+
+    /**
+     * IDを返す。
+     *
+     * @return ID
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * 金額を返す。
+     *
+     * @return 金額
+     */
+    public long getAmount() {
+        return amount;
+    }
+}
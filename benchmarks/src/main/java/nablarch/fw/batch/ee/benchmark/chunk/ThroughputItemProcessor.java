@@ -0,0 +1,19 @@
+package nablarch.fw.batch.ee.benchmark.chunk;
+
+import javax.batch.api.chunk.ItemProcessor;
+import javax.enterprise.context.Dependent;
+import javax.inject.Named;
+
+/**
+ * 読み込んだレコードの金額を更新するプロセッサ。
+ */
+@Named
+@Dependent
+public class ThroughputItemProcessor implements ItemProcessor {
+
+    @Override
+    public Object processItem(final Object item) throws Exception {
+        final ThroughputItem input = (ThroughputItem) item;
+        return new ThroughputItem(input.getId(), input.getAmount() + 1);
+    }
+}
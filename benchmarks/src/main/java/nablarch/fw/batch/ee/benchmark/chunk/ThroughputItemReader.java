@@ -0,0 +1,50 @@
+package nablarch.fw.batch.ee.benchmark.chunk;
+
+import java.io.Serializable;
+import java.util.Iterator;
+
+import javax.enterprise.context.Dependent;
+import javax.inject.Named;
+
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.statement.ResultSetIterator;
+import nablarch.core.db.statement.SqlRow;
+import nablarch.fw.batch.ee.chunk.BaseDatabaseItemReader;
+
+/**
+ * スループット計測用のテーブルを全件読み込むリーダ。
+ */
+@Named
+@Dependent
+public class ThroughputItemReader extends BaseDatabaseItemReader {
+
+    /** 読み込み対象のレコード */
+    private ResultSetIterator resultSet;
+
+    /** 読み込み対象のレコードのイテレータ */
+    private Iterator<SqlRow> rows;
+
+    @Override
+    protected void doOpen(final Serializable checkpoint) throws Exception {
+        resultSet = DbConnectionContext.getConnection()
+                                       .prepareStatement("SELECT ID, AMOUNT FROM BENCH_ITEM ORDER BY ID")
+                                       .executeQuery();
+        rows = resultSet.iterator();
+    }
+
+    @Override
+    public Object readItem() throws Exception {
+        if (!rows.hasNext()) {
+            return null;
+        }
+        final SqlRow row = rows.next();
+        return new ThroughputItem(row.getLong("ID"), row.getLong("AMOUNT"));
+    }
+
+    @Override
+    protected void doClose() throws Exception {
+        if (resultSet != null) {
+            resultSet.close();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package nablarch.fw.batch.ee.benchmark.chunk;
+
+import java.util.List;
+
+import javax.batch.api.chunk.AbstractItemWriter;
+import javax.enterprise.context.Dependent;
+import javax.inject.Named;
+
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.statement.SqlPStatement;
+
+/**
+ * レコードを1件ずつ更新するライタ。
+ * <p/>
+ * トランザクション制御はリスナーで行うため、本クラスでは更新のみを行う。
+ */
+@Named
+@Dependent
+public class ThroughputItemWriter extends AbstractItemWriter {
+
+    @Override
+    public void writeItems(final List<Object> items) throws Exception {
+        final SqlPStatement statement = DbConnectionContext.getConnection()
+                                                           .prepareStatement("UPDATE BENCH_ITEM SET AMOUNT = ? WHERE ID = ?");
+        for (final Object item : items) {
+            final ThroughputItem entity = (ThroughputItem) item;
+            statement.setLong(1, entity.getAmount());
+            statement.setLong(2, entity.getId());
+            statement.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package nablarch.fw.batch.ee;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * JOBの終了を、終了を待機しているスレッドに通知するクラス。
+ * <p/>
+ * {@link JobExecutor}がJOBの実行IDで待機用のラッチを登録し、
+ * {@link nablarch.fw.batch.ee.listener.job.NablarchJobListenerExecutor}がJOBの終了時にラッチを解放する。
+ * これにより、{@link JobExecutor}はバッチステータスをポーリングせずにJOBの終了を検知できる。
+ * <p/>
+ * 待機するスレッドが存在しない(ラッチが登録されていない)実行IDの通知は無視する。
+ * 通知したラッチは登録を解除するため、待機するスレッドが登録を解除しなくてもラッチが残り続けることはない。
+ */
+public final class JobEndNotifier {
+
+    /** 実行IDをキーとした待機用のラッチ */
+    private static final ConcurrentMap<Long, CountDownLatch> LATCHES = new ConcurrentHashMap<Long, CountDownLatch>();
+
+    /**
+     * 隠蔽コンストラクタ
+     */
+    private JobEndNotifier() {
+    }
+
+    /**
+     * 指定された実行IDのJOBの終了を待機するためのラッチを登録する。
+     * <p/>
+     * 既に登録されている場合は、登録済みのラッチを返す。
+     *
+     * @param executionId 実行ID
+     * @return JOBの終了時に解放されるラッチ
+     */
+    public static CountDownLatch register(final long executionId) {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final CountDownLatch registered = LATCHES.putIfAbsent(executionId, latch);
+        return registered != null ? registered : latch;
+    }
+
+    /**
+     * 指定された実行IDのラッチの登録を解除する。
+     *
+     * @param executionId 実行ID
+     */
+    public static void unregister(final long executionId) {
+        LATCHES.remove(executionId);
+    }
+
+    /**
+     * 指定された実行IDのJOBが終了したことを通知し、ラッチの登録を解除する。
+     *
+     * @param executionId 実行ID
+     */
+    public static void notifyEnd(final long executionId) {
+        final CountDownLatch latch = LATCHES.remove(executionId);
+        if (latch != null) {
+            latch.countDown();
+        }
+    }
+}
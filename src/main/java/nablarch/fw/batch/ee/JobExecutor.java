@@ -1,8 +1,13 @@
 package nablarch.fw.batch.ee;
 
-import java.util.HashSet;
+import java.util.EnumSet;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.batch.operations.JobOperator;
 import javax.batch.runtime.BatchRuntime;
@@ -20,6 +25,9 @@ import javax.batch.runtime.JobExecution;
  * </ul>
  * なお、JOBの終了待ちの間に中断された場合は、異常終了のコードを返す。
  * <p/>
+ * JOBの終了は、{@link nablarch.fw.batch.ee.listener.job.NablarchJobListenerExecutor}からの通知({@link JobEndNotifier})により検知する。
+ * 通知が行われない場合(JOBリスナーが設定されていない場合など)に備え、バッチステータスのポーリングも併せて行う。
+ * <p/>
  * バリデーションエラーなど警告すべき事項が発生している場合に、警告終了させることができる。
  * 警告終了の方法はchunkまたはbatchlet内で、{@link javax.batch.runtime.context.JobContext#setExitStatus(String)}を
  * 呼び出し "WARNING" を終了ステータスとして設定する。警告終了時は、バッチステータスは任意の値を許可するため、
@@ -30,6 +38,17 @@ import javax.batch.runtime.JobExecution;
  */
 public class JobExecutor {
 
+    /** JOBの終了を表すバッチステータス */
+    private static final Set<BatchStatus> END_STATUSES = EnumSet.of(
+            BatchStatus.ABANDONED, BatchStatus.COMPLETED, BatchStatus.FAILED, BatchStatus.STOPPED);
+
+    /**
+     * JOBの終了通知を受けてから、バッチステータスが終了状態に遷移するまでのチェック間隔(ミリ秒)
+     * <p/>
+     * 終了通知はJOBリスナーの事後処理で行われるため、通知の時点ではバッチステータスが終了状態になっていない場合がある。
+     */
+    private static final long NOTIFIED_CHECK_INTERVAL_MILLS = 1L;
+
     /** JOB XMLファイル名（.xmlを除いた名前） */
     private final String jobXmlName;
 
@@ -41,6 +60,16 @@ public class JobExecutor {
      */
     private JobExecution jobExecution;
 
+    /**
+     * JOBの実行ID。
+     */
+    private long executionId;
+
+    /**
+     * JOBの終了時に解放されるラッチ。
+     */
+    private CountDownLatch endLatch;
+
     /**
      * コンストラクタ
      * @param jobXmlName JOB XMLファイル名
@@ -78,21 +107,66 @@ public class JobExecutor {
 
     /**
      * JOBを実行する。JOBが終了または中断されるまで待機する。
-     * 指定したミリ秒間隔で終了しているかどうかのチェックを行う。
+     * JOBの終了通知を受けた時点で待機を終了し、通知を受けられない場合に備えて指定したミリ秒間隔で終了しているかどうかのチェックを行う。
      * @param mills 終了をチェックするミリ秒の間隔
      * @return 終了コード
      * @throws IllegalArgumentException ミリ秒が0以下の場合
      */
     public int execute(final long mills) {
+        verifyMills(mills);
+        start();
+        return waitForEnd(mills);
+    }
+
+    /**
+     * JOBを非同期で実行する。JOBの終了を待たずに、終了コードを取得するための{@link Future}を返す。
+     * <p/>
+     * {@link Future#get()}はJOBが終了するまで待機し、{@link #execute()}と同じ規則で導出した終了コードを返す。
+     * 待機は{@link Future#get()}を呼び出したスレッドで行うため、JOB毎に待機用のスレッドを必要としない。
+     * 複数のJOBを並行して実行する場合は、全てのJOBを本メソッドで開始した後に、それぞれの{@link Future#get()}を呼び出せばよい。
+     * <p/>
+     * JOBの実行情報は、本メソッドの呼び出し後に{@link #getJobExecution()}で取得できる。
+     * 返却する{@link Future}はキャンセルをサポートしない。JOBを停止する場合は{@link JobOperator#stop(long)}を使用すること。
+     *
+     * @return 終了コードを取得するための{@link Future}
+     * @throws IllegalStateException JOBが既に開始されている場合
+     */
+    public Future<Integer> executeAsync() {
+        return executeAsync(100);
+    }
+
+    /**
+     * JOBを非同期で実行する。JOBの終了を待たずに、終了コードを取得するための{@link Future}を返す。
+     * <p/>
+     * {@link Future#get()}での待機中は、通知を受けられない場合に備えて指定したミリ秒間隔で終了しているかどうかのチェックを行う。
+     * 詳細は{@link #executeAsync()}を参照。
+     *
+     * @param mills 終了をチェックするミリ秒の間隔
+     * @return 終了コードを取得するための{@link Future}
+     * @throws IllegalArgumentException ミリ秒が0以下の場合
+     * @throws IllegalStateException JOBが既に開始されている場合
+     */
+    public Future<Integer> executeAsync(final long mills) {
+        verifyMills(mills);
+        start();
+        return new ExitCodeFuture(mills);
+    }
+
+    /**
+     * 終了をチェックするミリ秒の間隔が正しいか検証する。
+     * @param mills 終了をチェックするミリ秒の間隔
+     * @throws IllegalArgumentException ミリ秒が0以下の場合
+     */
+    private static void verifyMills(final long mills) {
         if (mills < 1) {
             throw new IllegalArgumentException("mills must be greater than 0.");
         }
-        start();
-        return waitForEnd(mills);
     }
 
     /**
      * JOBを開始する。非同期で開始するため、終了を待つには、{@link JobExecutor#waitForEnd}を呼び出す。
+     * <p/>
+     * JOBの開始後、終了通知を受けるためのラッチを登録する。
      * @throws IllegalStateException JOBが既に開始されている場合
      */
     private void start() {
@@ -100,34 +174,71 @@ public class JobExecutor {
             throw new IllegalStateException(String.format("Job is already started. JobXmlName=[%s]", jobXmlName));
         }
         final JobOperator jobOperator = BatchRuntime.getJobOperator();
-        final long executionId = jobOperator.start(jobXmlName, properties);
+        executionId = jobOperator.start(jobXmlName, properties);
+        endLatch = JobEndNotifier.register(executionId);
         jobExecution = jobOperator.getJobExecution(executionId);
     }
 
     /**
      * 開始したJOBの終了を待つ。
-     * 指定したミリ秒間隔で終了しているかどうかのチェックを行う。
+     * JOBの終了通知を受けるまで待機し、指定したミリ秒間隔で終了しているかどうかのチェックを行う。
      * @param mills チェックを行うミリ秒
      * @return 終了コード
      */
     private int waitForEnd(final long mills) {
-        final Set<BatchStatus> endStatuses = new HashSet<BatchStatus>();
-        endStatuses.add(BatchStatus.ABANDONED);
-        endStatuses.add(BatchStatus.COMPLETED);
-        endStatuses.add(BatchStatus.FAILED);
-        endStatuses.add(BatchStatus.STOPPED);
-        while (true) {
-            try {
+        try {
+            awaitEnd(mills, Long.MAX_VALUE);
+        } catch (InterruptedException ignored) {
+            return 1;//中断された場合は例外はスローせず、異常終了とする。
+        }
+        return getExitCode();
+    }
+
+    /**
+     * 開始したJOBの終了を、指定した時間を上限として待つ。
+     * <p/>
+     * 待機を終えた時点で、JOBの終了の有無にかかわらず終了通知のラッチの登録を解除する。
+     * 上限まで待機した後に再度待機する場合は、ラッチを登録し直す
+     * (登録を解除していた間に通知された場合は、バッチステータスのポーリングで終了を検知する)。
+     *
+     * @param mills チェックを行うミリ秒
+     * @param timeoutNanos 待機する時間の上限(ナノ秒)
+     * @return JOBが終了した場合は{@code true}、上限まで待機しても終了しなかった場合は{@code false}
+     * @throws InterruptedException 待機中に中断された場合
+     */
+    private boolean awaitEnd(final long mills, final long timeoutNanos) throws InterruptedException {
+        final long start = System.nanoTime();
+        final CountDownLatch latch = endLatch != null ? endLatch : JobEndNotifier.register(executionId);
+        boolean notified = false;
+        try {
+            while (true) {
                 BatchStatus batchStatus = jobExecution.getBatchStatus();
-                if (endStatuses.contains(batchStatus)) {
-                    break;
+                if (END_STATUSES.contains(batchStatus)) {
+                    return true;
+                }
+                final long remainingNanos = timeoutNanos - (System.nanoTime() - start);
+                if (remainingNanos <= 0L) {
+                    return false;
+                }
+                final long waitMills = Math.max(1L, Math.min(
+                        notified ? NOTIFIED_CHECK_INTERVAL_MILLS : mills, TimeUnit.NANOSECONDS.toMillis(remainingNanos)));
+                if (notified) {
+                    Thread.sleep(waitMills);
+                } else {
+                    notified = latch.await(waitMills, TimeUnit.MILLISECONDS);
                 }
-                Thread.sleep(mills);
-            } catch (InterruptedException ignored) {
-                return 1;//中断された場合は例外はスローせず、異常終了とする。
             }
+        } finally {
+            unregisterEndLatch();
         }
-        return getExitCode();
+    }
+
+    /**
+     * 終了通知のラッチの登録を解除する。
+     */
+    private void unregisterEndLatch() {
+        endLatch = null;
+        JobEndNotifier.unregister(executionId);
     }
 
     /**
@@ -148,4 +259,61 @@ public class JobExecutor {
         // 上記いずれにも当てはまらない場合は、正常終了
         return 0;
     }
+
+    /**
+     * 非同期で実行したJOBの終了コードを取得する{@link Future}実装クラス。
+     */
+    private final class ExitCodeFuture implements Future<Integer> {
+
+        /** 終了をチェックするミリ秒の間隔 */
+        private final long mills;
+
+        /**
+         * コンストラクタ。
+         * @param mills 終了をチェックするミリ秒の間隔
+         */
+        private ExitCodeFuture(final long mills) {
+            this.mills = mills;
+        }
+
+        /**
+         * JOBの停止はサポートしないため、常に{@code false}を返す。
+         * @param mayInterruptIfRunning 使用しない
+         * @return {@code false}
+         */
+        @Override
+        public boolean cancel(final boolean mayInterruptIfRunning) {
+            return false;
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return false;
+        }
+
+        @Override
+        public boolean isDone() {
+            if (END_STATUSES.contains(jobExecution.getBatchStatus())) {
+                unregisterEndLatch();
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public Integer get() throws InterruptedException, ExecutionException {
+            awaitEnd(mills, Long.MAX_VALUE);
+            return getExitCode();
+        }
+
+        @Override
+        public Integer get(final long timeout, final TimeUnit unit)
+                throws InterruptedException, ExecutionException, TimeoutException {
+            if (!awaitEnd(mills, unit.toNanos(timeout))) {
+                throw new TimeoutException(String.format(
+                        "Job did not end within the timeout. JobXmlName=[%s], executionId=[%d]", jobXmlName, executionId));
+            }
+            return getExitCode();
+        }
+    }
 }
@@ -31,13 +31,24 @@ public final class Main {
      * @throws IllegalArgumentException mainメソッドの引数の指定が正しくない場合
      */
     public static void main(final String... args) {
+        final JobExecutor executor = createJobExecutor(args);
+        System.exit(executor.execute());
+    }
+
+    /**
+     * 実行引数から、指定されたJOBを実行する{@link JobExecutor}を生成する。
+     *
+     * @param args 第一引数にJOBのXMLファイル名、以降にJOBのパラメータ(--name value形式)を指定する。
+     * @return {@link JobExecutor}
+     * @throws IllegalArgumentException 引数の指定が正しくない場合
+     */
+    static JobExecutor createJobExecutor(final String... args) {
         if (args.length == 0 || StringUtil.isNullOrEmpty(args[0])) {
             throw new IllegalArgumentException("Please specify JOB XML name as the first argument.");
         }
         final String jobId = args[0];
         final Properties properties = toProperties(args);
-        final JobExecutor executor = new JobExecutor(jobId, properties);
-        System.exit(executor.execute());
+        return new JobExecutor(jobId, properties);
     }
 
     /**
@@ -0,0 +1,277 @@
+package nablarch.fw.batch.ee;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+
+/**
+ * バッチアプリケーションを常駐させて実行するメインクラス
+ * <p/>
+ * JOB毎にJVMを起動せず、JVM、コンポーネント({@link nablarch.core.repository.SystemRepository})及び
+ * バッチランタイムを起動したまま、スプールディレクトリに配置された実行要求に従ってJOBを順次実行する。
+ * <p/>
+ * 実行引数として、スプールディレクトリのパスを指定する。
+ * スプールディレクトリは以下のファイルで構成される。
+ * <ul>
+ * <li>{@code 任意の名前.request} - 実行要求。1行目にJOBのXMLファイル名(.xmlを除いたファイル名)、
+ * 2行目以降にJOBのパラメータを1行に1つずつ指定する(例: 2行目に{@code --name1}、3行目に{@code value1})。
+ * 各行は改行のみを除いてそのまま使用する(前後の空白は除去せず、空行は空文字列のパラメータとなる)。
+ * 書き込み途中のファイルを読み込まないよう、別名で作成したファイルを{@code .request}にリネームして配置すること。</li>
+ * <li>{@code 任意の名前.running} - 実行中の要求。実行を開始する際に{@code .request}からリネームされる。</li>
+ * <li>{@code 任意の名前.result} - 実行結果。JOBの終了コード({@link JobExecutor}と同じ0/1/2)が出力される。
+ * 実行要求が不正な場合は異常終了(1)が出力される。</li>
+ * <li>{@code stop} - 停止要求。このファイルが配置されると、実行中のJOBの終了後に常駐を終了する。</li>
+ * </ul>
+ * 実行要求はファイル名の昇順に1件ずつ実行する。
+ * 実行要求がない間は、一定間隔({@value #CHECK_INTERVAL_MILLS}ミリ秒)でスプールディレクトリを確認する。
+ * <p/>
+ * 起動時に{@code .running}が残っている場合は、前回の常駐がJOBの実行中に終了したと判断し、異常終了(1)の実行結果を出力する。
+ * JOBがどこまで処理したか分からないため、自動では再実行しない。
+ * 再実行する場合は、JOBの状態を確認した上で、改めて実行要求を配置すること。
+ * <p/>
+ * 実行要求の処理(ファイルのリネームや実行結果の出力)に失敗した場合は、ワーニングログを出力して次の実行要求を処理する。
+ * このため、1件の実行要求の失敗で常駐が終了することはない。
+ */
+public final class ResidentMain {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(ResidentMain.class);
+
+    /** 実行要求ファイルの拡張子 */
+    static final String REQUEST_SUFFIX = ".request";
+
+    /** 実行中の要求ファイルの拡張子 */
+    static final String RUNNING_SUFFIX = ".running";
+
+    /** 実行結果ファイルの拡張子 */
+    static final String RESULT_SUFFIX = ".result";
+
+    /** 停止要求ファイルの名前 */
+    static final String STOP_FILE_NAME = "stop";
+
+    /** ファイルの文字コード */
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    /** 実行要求がない場合に、スプールディレクトリを確認する間隔(ミリ秒) */
+    static final long CHECK_INTERVAL_MILLS = 1000L;
+
+    /** 実行要求ファイルを選択するフィルタ */
+    private static final FilenameFilter REQUEST_FILTER = new FilenameFilter() {
+        @Override
+        public boolean accept(final File dir, final String name) {
+            return name.endsWith(REQUEST_SUFFIX);
+        }
+    };
+
+    /** 実行中の要求ファイルを選択するフィルタ */
+    private static final FilenameFilter RUNNING_FILTER = new FilenameFilter() {
+        @Override
+        public boolean accept(final File dir, final String name) {
+            return name.endsWith(RUNNING_SUFFIX);
+        }
+    };
+
+    /** スプールディレクトリ */
+    private final File spoolDirectory;
+
+    /**
+     * コンストラクタ
+     *
+     * @param spoolDirectory スプールディレクトリ
+     */
+    ResidentMain(final File spoolDirectory) {
+        this.spoolDirectory = spoolDirectory;
+    }
+
+    /**
+     * メインメソッド。<br>
+     * 指定されたスプールディレクトリの実行要求に従ってJOBを実行する。停止要求が配置されるまで終了しない。
+     *
+     * @param args 第一引数にスプールディレクトリのパスを指定すること。
+     * @throws IllegalArgumentException mainメソッドの引数の指定が正しくない場合
+     * @throws Exception 待機中に中断された場合
+     */
+    public static void main(final String... args) throws Exception {
+        if (args.length != 1 || !new File(args[0]).isDirectory()) {
+            throw new IllegalArgumentException("Please specify spool directory as the first argument.");
+        }
+        new ResidentMain(new File(args[0])).run();
+        System.exit(0);
+    }
+
+    /**
+     * 停止要求が配置されるまで、実行要求を検知してJOBを実行する。
+     *
+     * @throws InterruptedException 待機中に中断された場合
+     */
+    void run() throws InterruptedException {
+        LOGGER.logInfo("resident batch started. spool directory: [" + spoolDirectory + ']');
+        recoverRunningRequests();
+        while (!isStopRequested()) {
+            if (processRequests() == 0) {
+                Thread.sleep(CHECK_INTERVAL_MILLS);
+            }
+        }
+        LOGGER.logInfo("resident batch stopped. spool directory: [" + spoolDirectory + ']');
+    }
+
+    /**
+     * 停止要求が配置されているか否か。
+     *
+     * @return 停止要求が配置されている場合は{@code true}
+     */
+    boolean isStopRequested() {
+        return new File(spoolDirectory, STOP_FILE_NAME).exists();
+    }
+
+    /**
+     * スプールディレクトリに配置されている実行要求をファイル名の昇順に実行する。
+     * <p/>
+     * 停止要求が配置された場合は、残りの実行要求は実行せずに終了する。
+     * 実行要求の処理に失敗した場合は、ワーニングログを出力して次の実行要求を処理する。
+     *
+     * @return 実行を開始した要求の件数
+     */
+    int processRequests() {
+        final File[] requests = spoolDirectory.listFiles(REQUEST_FILTER);
+        if (requests == null) {
+            LOGGER.logWarn("failed to list requests. spool directory: [" + spoolDirectory + ']');
+            return 0;
+        }
+        Arrays.sort(requests);
+
+        int processed = 0;
+        for (final File request : requests) {
+            if (isStopRequested()) {
+                break;
+            }
+            final String fileName = request.getName();
+            final String name = fileName.substring(0, fileName.length() - REQUEST_SUFFIX.length());
+            final File running = new File(spoolDirectory, name + RUNNING_SUFFIX);
+            if (!request.renameTo(running)) {
+                // 他のプロセスが移動した場合などは、実行しない
+                LOGGER.logWarn("failed to rename request. request: [" + name + ']');
+                continue;
+            }
+            processed++;
+            try {
+                processRequest(name, running);
+            } catch (Exception e) {
+                LOGGER.logWarn("failed to process request. request: [" + name + ']', e);
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * 前回の常駐で実行中のまま残った要求に、異常終了の実行結果を出力する。
+     * <p/>
+     * 実行結果の出力に失敗した場合は、ワーニングログを出力して次の要求を処理する。
+     *
+     * @return 実行結果を出力した要求の件数
+     */
+    int recoverRunningRequests() {
+        final File[] runningRequests = spoolDirectory.listFiles(RUNNING_FILTER);
+        if (runningRequests == null) {
+            LOGGER.logWarn("failed to list running requests. spool directory: [" + spoolDirectory + ']');
+            return 0;
+        }
+        Arrays.sort(runningRequests);
+
+        int recovered = 0;
+        for (final File running : runningRequests) {
+            final String fileName = running.getName();
+            final String name = fileName.substring(0, fileName.length() - RUNNING_SUFFIX.length());
+            LOGGER.logWarn("request was interrupted by the previous shutdown. request: [" + name + ']');
+            try {
+                writeResult(name, running, 1);
+                recovered++;
+            } catch (Exception e) {
+                LOGGER.logWarn("failed to recover running request. request: [" + name + ']', e);
+            }
+        }
+        return recovered;
+    }
+
+    /**
+     * 実行要求に従ってJOBを実行し、終了コードを実行結果ファイルに出力する。
+     *
+     * @param name 実行要求の名前
+     * @param running 実行中の要求ファイル
+     * @throws IOException 実行結果ファイルの出力に失敗した場合
+     */
+    private void processRequest(final String name, final File running) throws IOException {
+        int exitCode;
+        try {
+            final JobExecutor executor = Main.createJobExecutor(readArgs(running));
+            exitCode = executor.execute();
+        } catch (Exception e) {
+            LOGGER.logWarn("failed to execute request. request: [" + name + ']', e);
+            exitCode = 1;
+        }
+        writeResult(name, running, exitCode);
+        LOGGER.logInfo("request finished. request: [" + name + "] exit code: [" + exitCode + ']');
+    }
+
+    /**
+     * 終了コードを実行結果ファイルに出力し、実行中の要求ファイルを削除する。
+     *
+     * @param name 実行要求の名前
+     * @param running 実行中の要求ファイル
+     * @param exitCode 終了コード
+     * @throws IOException 実行結果ファイルの出力に失敗した場合
+     */
+    private void writeResult(final String name, final File running, final int exitCode) throws IOException {
+        final File temporary = new File(spoolDirectory, name + RESULT_SUFFIX + ".tmp");
+        final OutputStream out = new FileOutputStream(temporary);
+        try {
+            out.write(String.valueOf(exitCode).getBytes(CHARSET));
+        } finally {
+            out.close();
+        }
+        final File result = new File(spoolDirectory, name + RESULT_SUFFIX);
+        if (result.exists() && !result.delete()) {
+            throw new IOException("failed to delete the previous result. result: [" + result + ']');
+        }
+        if (!temporary.renameTo(result)) {
+            throw new IOException("failed to rename result. result: [" + result + ']');
+        }
+        if (!running.delete()) {
+            LOGGER.logWarn("failed to delete running request. request: [" + name + ']');
+        }
+    }
+
+    /**
+     * 実行要求ファイルからJOBの実行引数を読み込む。
+     * 各行は改行のみを除いてそのまま実行引数とする。
+     *
+     * @param request 実行要求ファイル
+     * @return JOBの実行引数
+     * @throws IOException 実行要求ファイルの読み込みに失敗した場合
+     */
+    private static String[] readArgs(final File request) throws IOException {
+        final List<String> args = new ArrayList<String>();
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(request), CHARSET));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                args.add(line);
+            }
+        } finally {
+            reader.close();
+        }
+        return args.toArray(new String[args.size()]);
+    }
+}
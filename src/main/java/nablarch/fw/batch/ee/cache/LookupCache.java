@@ -0,0 +1,216 @@
+package nablarch.fw.batch.ee.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.batch.runtime.context.StepContext;
+import javax.inject.Inject;
+
+import nablarch.core.util.annotation.Published;
+import nablarch.fw.batch.ee.progress.ProgressStatistics;
+import nablarch.fw.batch.ee.progress.ProgressStatisticsRegistry;
+
+/**
+ * マスタやコードなどの参照データを、読み込み時にキャッシュするクラス。
+ * <p/>
+ * {@link #get(Object)}はキャッシュに値が無い場合のみ{@link LookupLoader}から値を読み込み、以降はキャッシュから返す。
+ * 存在しないキーもキャッシュするため、同じキーで繰り返しデータベースにアクセスすることはない。
+ * キャッシュする件数は{@code maxSize}までとし、超えた場合は最も長い間参照されていない値を破棄する。
+ * {@link #preload()}で、事前に値を一括で読み込むこともできる。
+ * <p/>
+ * ItemProcessorなどから使用する場合は、本クラスを継承し、{@link nablarch.fw.batch.ee.cdi.StepScoped}や
+ * {@link nablarch.fw.batch.ee.cdi.JobScoped}を設定したクラスを作成する。
+ * <pre>
+ * {@code
+ * @StepScoped
+ * public class CodeCache extends LookupCache<String, CodeEntity> {
+ *     public CodeCache() {
+ *         super(new CodeLoader(), 1000);
+ *     }
+ * }
+ * }
+ * </pre>
+ * CDIで生成した場合は、生成したステップ(パーティション)の{@link ProgressStatisticsRegistry}に登録され、
+ * ヒット数、ミス数、件数、破棄した件数が進捗ログに出力される。
+ * 登録はBeanの生成時に1回だけ行うため、{@link nablarch.fw.batch.ee.cdi.JobScoped}を設定した場合は、
+ * 最初に使用したステップの進捗ログにのみ出力され、後続のステップの進捗ログには出力されない。
+ * 後続のステップでも出力する場合は、ステップの開始時に{@link ProgressStatisticsRegistry#register}で登録すること。
+ * <p/>
+ * 本クラスはスレッドセーフであり、パーティションのスレッド間で共有できる。
+ * 値の読み込みはロックを保持せずに行うため、同じキーを同時に読み込んだ場合は、複数回読み込むことがある。
+ *
+ * @param <K> キーの型
+ * @param <V> 値の型
+ */
+@Published
+public class LookupCache<K, V> implements ProgressStatistics {
+
+    /** 存在しないキーを表す値 */
+    private static final Object NOT_FOUND = new Object();
+
+    /** 値を読み込む機能 */
+    private final LookupLoader<K, V> loader;
+
+    /** キャッシュ(参照順) */
+    private final Map<K, Object> cache;
+
+    /** ヒット数 */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /** ミス数 */
+    private final AtomicLong missCount = new AtomicLong();
+
+    /** 破棄した件数 */
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    /**
+     * キャッシュを生成する。
+     *
+     * @param loader 値を読み込む機能
+     * @param maxSize キャッシュする最大件数
+     */
+    public LookupCache(final LookupLoader<K, V> loader, final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be greater than 0. maxSize=[" + maxSize + ']');
+        }
+        this.loader = loader;
+        cache = new LinkedHashMap<K, Object>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, Object> eldest) {
+                if (size() > maxSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * キーに対応する値を取得する。
+     * <p/>
+     * キャッシュに無い場合は、{@link LookupLoader#load(Object)}で読み込んでキャッシュする。
+     *
+     * @param key キー
+     * @return 値(存在しない場合は{@code null})
+     */
+    @SuppressWarnings("unchecked")
+    public V get(final K key) {
+        Object value;
+        synchronized (cache) {
+            value = cache.get(key);
+        }
+        if (value != null) {
+            hitCount.incrementAndGet();
+            return value == NOT_FOUND ? null : (V) value;
+        }
+        missCount.incrementAndGet();
+        final V loaded = loader.load(key);
+        synchronized (cache) {
+            cache.put(key, loaded == null ? NOT_FOUND : loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * {@link LookupLoader#loadAll()}で値を一括で読み込み、キャッシュする。
+     * <p/>
+     * 読み込んだ件数がキャッシュする最大件数を超えた場合は、超えた分が破棄される。
+     *
+     * @return 読み込んだ件数
+     */
+    public int preload() {
+        final Map<K, V> values = loader.loadAll();
+        synchronized (cache) {
+            for (Map.Entry<K, V> entry : values.entrySet()) {
+                cache.put(entry.getKey(), entry.getValue() == null ? NOT_FOUND : entry.getValue());
+            }
+        }
+        return values.size();
+    }
+
+    /**
+     * キャッシュを空にする。
+     * <p/>
+     * ヒット数などの統計情報は初期化しない。
+     */
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * キャッシュしている件数を取得する。
+     *
+     * @return キャッシュしている件数
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * ヒット数を取得する。
+     *
+     * @return ヒット数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * ミス数(読み込んだ回数)を取得する。
+     *
+     * @return ミス数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * キャッシュする最大件数を超えたために破棄した件数を取得する。
+     *
+     * @return 破棄した件数
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * ステップの統計情報として、進捗ログに出力するよう登録する。
+     * <p/>
+     * CDIで生成した場合に呼び出される。
+     * 登録はステップの終了時に解除されるため、ジョブスコープで生成した場合は、生成したステップでのみ出力される。
+     *
+     * @param stepContext ステップコンテキスト
+     */
+    @Inject
+    protected void registerStatistics(final StepContext stepContext) {
+        if (stepContext != null) {
+            ProgressStatisticsRegistry.register(stepContext, this);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * デフォルトではクラス名を返す。
+     */
+    @Override
+    public String getStatisticsName() {
+        return getClass().getSimpleName();
+    }
+
+    @Override
+    public Map<String, Long> getStatistics() {
+        final Map<String, Long> statistics = new LinkedHashMap<String, Long>();
+        statistics.put("hit", getHitCount());
+        statistics.put("miss", getMissCount());
+        statistics.put("size", (long) size());
+        statistics.put("evicted", getEvictionCount());
+        return statistics;
+    }
+}
@@ -0,0 +1,30 @@
+package nablarch.fw.batch.ee.cache;
+
+import java.util.Map;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link LookupCache}に格納する値を読み込むインタフェース。
+ *
+ * @param <K> キーの型
+ * @param <V> 値の型
+ */
+@Published
+public interface LookupLoader<K, V> {
+
+    /**
+     * キーに対応する値を読み込む。
+     *
+     * @param key キー
+     * @return 値(存在しない場合は{@code null})
+     */
+    V load(K key);
+
+    /**
+     * 事前に読み込む値を一括で読み込む。
+     *
+     * @return キーと値(事前に読み込まない場合は空のマップ)
+     */
+    Map<K, V> loadAll();
+}
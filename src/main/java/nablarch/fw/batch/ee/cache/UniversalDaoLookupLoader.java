@@ -0,0 +1,63 @@
+package nablarch.fw.batch.ee.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import nablarch.common.dao.NoDataException;
+import nablarch.common.dao.UniversalDao;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link UniversalDao}を使用して、エンティティを主キーで読み込む{@link LookupLoader}の抽象クラス。
+ * <p/>
+ * {@link #load(Object)}は{@link UniversalDao#findById(Class, Object...)}で主キーに対応するエンティティを読み込む。
+ * {@link #loadAll()}は{@link UniversalDao#findAll(Class)}で全てのエンティティを読み込むため、
+ * 件数の少ないマスタやコードの表に使用すること。
+ * <p/>
+ * 本クラスを継承するクラスは、{@link #getKey(Object)}でエンティティから主キーを取得する。
+ * 複合主キーの表には使用できない。
+ *
+ * @param <K> 主キーの型
+ * @param <V> エンティティの型
+ */
+@Published
+public abstract class UniversalDaoLookupLoader<K, V> implements LookupLoader<K, V> {
+
+    /** エンティティの型 */
+    private final Class<V> entityClass;
+
+    /**
+     * エンティティの型を指定してローダを生成する。
+     *
+     * @param entityClass エンティティの型
+     */
+    protected UniversalDaoLookupLoader(final Class<V> entityClass) {
+        this.entityClass = entityClass;
+    }
+
+    @Override
+    public V load(final K key) {
+        try {
+            return UniversalDao.findById(entityClass, key);
+        } catch (NoDataException ignored) {
+            return null;
+        }
+    }
+
+    @Override
+    public Map<K, V> loadAll() {
+        final Map<K, V> result = new HashMap<K, V>();
+        for (V entity : UniversalDao.findAll(entityClass)) {
+            result.put(getKey(entity), entity);
+        }
+        return result;
+    }
+
+    /**
+     * エンティティから主キーを取得する。
+     *
+     * @param entity エンティティ
+     * @return 主キー
+     */
+    protected abstract K getKey(V entity);
+}
@@ -0,0 +1,4 @@
+/**
+ * マスタやコードなどの参照データを、ステップやジョブの間キャッシュする機能を提供する。
+ */
+package nablarch.fw.batch.ee.cache;
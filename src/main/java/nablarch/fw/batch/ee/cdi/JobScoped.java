@@ -0,0 +1,21 @@
+package nablarch.fw.batch.ee.cdi;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import javax.enterprise.context.NormalScope;
+
+/**
+ * ジョブ単位での値の共有を表すアノテーション。
+ * <p/>
+ * 値はジョブ内の全てのステップで共有されるため、マスタデータのキャッシュなどをステップを跨いで再利用できる。
+ * 複数のスレッドから同時に使用される可能性があるため、Beanはスレッドセーフにすること。
+ */
+@Target({ElementType.TYPE, ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@NormalScope
+@Inherited
+public @interface JobScoped {
+}
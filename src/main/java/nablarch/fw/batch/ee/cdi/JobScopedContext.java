@@ -0,0 +1,104 @@
+package nablarch.fw.batch.ee.cdi;
+
+import java.lang.annotation.Annotation;
+
+import javax.batch.operations.BatchRuntimeException;
+import javax.batch.runtime.context.JobContext;
+import javax.enterprise.context.spi.Context;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.CDI;
+
+import nablarch.fw.batch.ee.partition.ParentContextRegistry;
+
+/**
+ * ジョブ単位で値を共有するための{@link Context}実装クラス
+ * <p/>
+ * {@link JobContext}の一時領域を使用してジョブ単位での値の共有を実現している。
+ * そのため、ジョブスコープのBeanを使用する場合は、
+ * バッチアプリケーション側で{@link JobContext#setTransientUserData(Object)}を直接使用することはできない点に注意すること。
+ * <p/>
+ * 保持しているBeanは、{@link nablarch.fw.batch.ee.listener.job.NablarchJobListenerExecutor}がジョブの終了時に破棄する。
+ * <p/>
+ * パーティションやスプリットのフローを実行するスレッドでは、{@link ParentContextRegistry}から取得したジョブの{@link JobContext}で
+ * 値を共有するため、全てのステップとパーティションで同じBeanを使用する。
+ */
+public class JobScopedContext implements Context {
+
+    /**
+     * ジョブで保持しているBeanを破棄する。
+     *
+     * @param jobContext ジョブコンテキスト
+     */
+    public static void destroy(final JobContext jobContext) {
+        final Object transientUserData = jobContext.getTransientUserData();
+        if (transientUserData instanceof StepScopedHolder) {
+            ((StepScopedHolder) transientUserData).destroy();
+        }
+    }
+
+    @Override
+    public Class<? extends Annotation> getScope() {
+        return JobScoped.class;
+    }
+
+    @Override
+    public <T> T get(final Contextual<T> contextual, final CreationalContext<T> creationalContext) {
+        final StepScopedHolder holder = getHolder();
+        final T bean = holder.get(contextual);
+        if (bean != null) {
+            return bean;
+        } else {
+            return holder.add(contextual, contextual.create(creationalContext), creationalContext);
+        }
+    }
+
+    @Override
+    public <T> T get(final Contextual<T> contextual) {
+        return getHolder().get(contextual);
+    }
+
+    @Override
+    public boolean isActive() {
+        return getJobContext() != null;
+    }
+
+    /**
+     * 実行中のジョブの値の保持領域を取得する。
+     *
+     * @return 値の保持領域
+     */
+    private static StepScopedHolder getHolder() {
+        return getHolder(ParentContextRegistry.getJobContext(getJobContext()));
+    }
+
+    /**
+     * {@link JobContext}から値の保持領域を取得する。
+     *
+     * @param jobContext ジョブコンテキスト
+     * @return 値の保持領域
+     */
+    private static StepScopedHolder getHolder(final JobContext jobContext) {
+        synchronized (jobContext) {
+            final Object transientUserData = jobContext.getTransientUserData();
+            if (transientUserData != null) {
+                if (!(transientUserData instanceof StepScopedHolder)) {
+                    throw new BatchRuntimeException("TransientUserData of JobContext must be StepScopedHolder type.");
+                }
+                return (StepScopedHolder) transientUserData;
+            }
+            final StepScopedHolder holder = new StepScopedHolder();
+            jobContext.setTransientUserData(holder);
+            return holder;
+        }
+    }
+
+    /**
+     * ジョブコンテキストを取得する。
+     *
+     * @return ジョブコンテキスト
+     */
+    private static JobContext getJobContext() {
+        return CDI.current().select(JobContext.class).get();
+    }
+}
@@ -19,5 +19,7 @@ public class NablarchBatchCdiExtension implements Extension {
      */
     public void afterBeanDiscovery(@Observes final AfterBeanDiscovery afterBeanDiscovery) {
         afterBeanDiscovery.addContext(new StepScopedContext());
+        afterBeanDiscovery.addContext(new PartitionScopedContext());
+        afterBeanDiscovery.addContext(new JobScopedContext());
     }
 }
@@ -0,0 +1,20 @@
+package nablarch.fw.batch.ee.cdi;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import javax.enterprise.context.NormalScope;
+
+/**
+ * パーティション単位(パーティションを使用しないステップではステップ単位)での値の共有を表すアノテーション。
+ * <p/>
+ * 値はパーティションを実行するスレッドごとに保持されるため、Beanをスレッドセーフにする必要はない。
+ */
+@Target({ElementType.TYPE, ElementType.FIELD, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@NormalScope
+@Inherited
+public @interface PartitionScoped {
+}
@@ -0,0 +1,172 @@
+package nablarch.fw.batch.ee.cdi;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.spi.Context;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.spi.CDI;
+
+import nablarch.fw.batch.ee.partition.ParentContextRegistry;
+
+/**
+ * パーティション単位で値を共有するための{@link Context}実装クラス
+ * <p/>
+ * パーティションごとに生成される{@link StepContext}のインスタンス単位で値を保持する。
+ * パーティションを使用しないステップでは、ステップ単位で値を保持する。
+ * <p/>
+ * {@link nablarch.fw.batch.ee.listener.step.NablarchStepListenerExecutor}を設定している場合は、
+ * ステップ(パーティション)の開始時に値の保持領域をスレッドに関連付けて高速に取得し、終了時に保持しているBeanを破棄する。
+ * 設定していない場合は、{@link CDI}から取得した{@link StepContext}をもとに値の保持領域を取得し、
+ * {@link StepContext}が不要となった時点で値の保持を解除する(Beanの破棄は行わない)。
+ * <p/>
+ * JBatch RIのように、パーティションのスレッドでステップリスナーが実行されない場合は、
+ * パーティションの値の保持領域を、{@link ParentContextRegistry}から取得したステップの{@link StepContext}に関連付けて記録し、
+ * ステップの終了時({@link #unbind(StepContext)})に、全パーティションの保持しているBeanを破棄する。
+ */
+public class PartitionScopedContext implements Context {
+
+    /** {@link StepContext}ごとの値の保持領域 */
+    private static final Map<StepContext, StepScopedHolder> HOLDERS =
+            Collections.synchronizedMap(new WeakHashMap<StepContext, StepScopedHolder>());
+
+    /** ステップごとの、パーティションの値の保持領域(ロックは{@link #HOLDERS}を使用する) */
+    private static final Map<StepContext, List<StepScopedHolder>> PARTITIONS =
+            new WeakHashMap<StepContext, List<StepScopedHolder>>();
+
+    /** 現在のスレッドで実行中のパーティションの値の保持領域 */
+    private static final ThreadLocal<StepScopedHolder> CURRENT_HOLDER = new ThreadLocal<StepScopedHolder>();
+
+    /**
+     * 現在のスレッドに、パーティションの値の保持領域を関連付ける。
+     *
+     * @param stepContext 実行中のパーティションのステップコンテキスト
+     */
+    public static void bind(final StepContext stepContext) {
+        CURRENT_HOLDER.set(getHolder(stepContext));
+        synchronized (HOLDERS) {
+            if (!PARTITIONS.containsKey(stepContext)) {
+                PARTITIONS.put(stepContext, new ArrayList<StepScopedHolder>());
+            }
+        }
+    }
+
+    /**
+     * 現在のスレッドから値の保持領域の関連付けを解除し、保持しているBeanを破棄する。
+     * <p/>
+     * ステップで実行したパーティションの値の保持領域が記録されている場合は、それらの保持しているBeanも破棄する。
+     *
+     * @param stepContext 実行中のパーティションのステップコンテキスト
+     */
+    public static void unbind(final StepContext stepContext) {
+        CURRENT_HOLDER.remove();
+        final StepScopedHolder holder;
+        final List<StepScopedHolder> partitions;
+        synchronized (HOLDERS) {
+            holder = HOLDERS.remove(stepContext);
+            partitions = PARTITIONS.remove(stepContext);
+        }
+        if (partitions != null) {
+            for (StepScopedHolder partition : partitions) {
+                partition.destroy();
+            }
+        }
+        if (holder != null) {
+            holder.destroy();
+        }
+    }
+
+    @Override
+    public Class<? extends Annotation> getScope() {
+        return PartitionScoped.class;
+    }
+
+    @Override
+    public <T> T get(final Contextual<T> contextual, final CreationalContext<T> creationalContext) {
+        final StepScopedHolder holder = getHolder();
+        final T bean = holder.get(contextual);
+        if (bean != null) {
+            return bean;
+        } else {
+            return holder.add(contextual, contextual.create(creationalContext), creationalContext);
+        }
+    }
+
+    @Override
+    public <T> T get(final Contextual<T> contextual) {
+        return getHolder().get(contextual);
+    }
+
+    @Override
+    public boolean isActive() {
+        return CURRENT_HOLDER.get() != null || getStepContext() != null;
+    }
+
+    /**
+     * 実行中のパーティションの値の保持領域を取得する。
+     *
+     * @return 値の保持領域
+     */
+    private static StepScopedHolder getHolder() {
+        final StepScopedHolder holder = CURRENT_HOLDER.get();
+        if (holder != null) {
+            return holder;
+        }
+        final StepContext stepContext = getStepContext();
+        synchronized (HOLDERS) {
+            final StepScopedHolder exists = HOLDERS.get(stepContext);
+            if (exists != null) {
+                return exists;
+            }
+            final StepScopedHolder partition = getHolder(stepContext);
+            final StepContext parent = ParentContextRegistry.getStepContext(getJobContext(), stepContext);
+            final List<StepScopedHolder> partitions = parent != stepContext ? PARTITIONS.get(parent) : null;
+            if (partitions != null) {
+                partitions.add(partition);
+            }
+            return partition;
+        }
+    }
+
+    /**
+     * {@link StepContext}に対応する値の保持領域を取得する。
+     *
+     * @param stepContext ステップコンテキスト
+     * @return 値の保持領域
+     */
+    private static StepScopedHolder getHolder(final StepContext stepContext) {
+        synchronized (HOLDERS) {
+            StepScopedHolder holder = HOLDERS.get(stepContext);
+            if (holder == null) {
+                holder = new StepScopedHolder();
+                HOLDERS.put(stepContext, holder);
+            }
+            return holder;
+        }
+    }
+
+    /**
+     * ステップコンテキストを取得する。
+     *
+     * @return ステップコンテキスト
+     */
+    private static StepContext getStepContext() {
+        return CDI.current().select(StepContext.class).get();
+    }
+
+    /**
+     * ジョブコンテキストを取得する。
+     *
+     * @return ジョブコンテキスト
+     */
+    private static JobContext getJobContext() {
+        return CDI.current().select(JobContext.class).get();
+    }
+}
@@ -2,22 +2,87 @@ package nablarch.fw.batch.ee.cdi;
 
 import java.lang.annotation.Annotation;
 import javax.batch.operations.BatchRuntimeException;
+import javax.batch.runtime.context.JobContext;
 import javax.batch.runtime.context.StepContext;
 import javax.enterprise.context.spi.Context;
 import javax.enterprise.context.spi.Contextual;
 import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.inject.spi.CDI;
 
+import nablarch.fw.batch.ee.partition.ParentContextRegistry;
+
 /**
  * ステップ単位で値を共有するための{@link Context}実装クラス
  * <p/>
  * {@link StepContext}の一時領域を使用してステップ単位での値の共有を実現している。
  * そのため、バッチアプリケーション側で{@link StepContext#setTransientUserData(Object)}を直接使用することはできない点に注意すること。
+ * <p/>
+ * ステップスコープのBeanはメソッド呼び出しの度に本クラスから取得されるため、
+ * {@link #bind(StepContext)}でステップを実行するスレッドに{@link StepScopedHolder}を関連付けている場合は、
+ * {@link CDI}による{@link StepContext}の取得を行わずに、スレッドに関連付けた{@link StepScopedHolder}を使用する。
+ * ただし、関連付けた{@link StepContext}の一時領域が{@link StepScopedHolder}以外で上書きされている場合は、
+ * 関連付けていない場合と同様に一時領域の型を検証し、例外を送出する。
+ * 関連付けは{@link nablarch.fw.batch.ee.listener.step.NablarchStepListenerExecutor}がステップの開始時と終了時に行う。
+ * <p/>
+ * ステップの終了時には、{@link #unbind()}で関連付けを解除し、{@link #release(StepContext)}で保持しているBeanを破棄する。
+ * これにより、{@link javax.annotation.PreDestroy}が付与されたメソッドがステップの終了時に実行され、
+ * ステップスコープのBeanが保持するリソースが解放される。
+ * <p/>
+ * パーティションを使用したステップでは、全てのパーティションで同じ{@link StepScopedHolder}を使用するため、
+ * ステップスコープのBeanはスレッドセーフにする必要がある(パーティションごとに値を保持する場合は{@link PartitionScoped}を使用する)。
+ * JBatch RIのように、パーティションごとに{@link StepContext}が生成される場合は、
+ * {@link ParentContextRegistry}から取得したステップの{@link StepContext}の{@link StepScopedHolder}を、
+ * パーティションの{@link StepContext}の一時領域にも設定して使用する。
+ * バッチ実行環境によってはパーティションのスレッドでもステップリスナーが実行され、同じ{@link StepScopedHolder}が使用される。
+ * このため、{@link #bind(StepContext)}から{@link #release(StepContext)}までを実行中のステップリスナーとして
+ * {@link StepScopedHolder}ごとに数え、実行中のステップリスナーが無くなった時点でBeanを破棄する。
+ * パーティションの開始前から全パーティションの終了後までステップリスナーを実行するメインスレッドが数えられるため、
+ * パーティションの終了時に、他のパーティションが使用中のBeanが破棄されることはない。
+ * スレッドではなくステップリスナーの実行を数えるため、パーティションの実行が重ならない場合でも、ステップの途中で破棄されることはない。
  *
  * @author Naoki Yamamoto
  */
 public class StepScopedContext implements Context {
 
+    /** 現在のスレッドで実行中のステップ */
+    private static final ThreadLocal<BoundStep> CURRENT_STEP = new ThreadLocal<BoundStep>();
+
+    /**
+     * 現在のスレッドに、ステップの{@link StepScopedHolder}を関連付ける。
+     * <p/>
+     * 関連付けた{@link StepScopedHolder}は、{@link #release(StepContext)}を呼び出すまで使用中として数える。
+     *
+     * @param stepContext 実行中のステップのステップコンテキスト
+     */
+    public static void bind(final StepContext stepContext) {
+        final StepScopedHolder holder = getStepScopedHolder(stepContext);
+        holder.acquire();
+        CURRENT_STEP.set(new BoundStep(stepContext, holder));
+    }
+
+    /**
+     * 現在のスレッドから、{@link StepScopedHolder}の関連付けを解除する。
+     * <p/>
+     * 保持しているBeanは破棄しない。
+     */
+    public static void unbind() {
+        CURRENT_STEP.remove();
+    }
+
+    /**
+     * {@link #bind(StepContext)}で開始した{@link StepScopedHolder}の使用を終了する。
+     * <p/>
+     * 使用中のステップリスナーが無くなった場合は、ステップで保持しているBeanを破棄する。
+     *
+     * @param stepContext ステップコンテキスト
+     */
+    public static void release(final StepContext stepContext) {
+        final Object transientUserData = stepContext.getTransientUserData();
+        if (transientUserData instanceof StepScopedHolder) {
+            ((StepScopedHolder) transientUserData).release();
+        }
+    }
+
     @Override
     public Class<? extends Annotation> getScope() {
         return StepScoped.class;
@@ -30,7 +95,7 @@ public class StepScopedContext implements Context {
         if (bean != null) {
             return bean;
         } else {
-            return holder.add(contextual, contextual.create(creationalContext));
+            return holder.add(contextual, contextual.create(creationalContext), creationalContext);
         }
     }
 
@@ -42,16 +107,56 @@ public class StepScopedContext implements Context {
 
     @Override
     public boolean isActive() {
-        return getStepContext() != null;
+        return CURRENT_STEP.get() != null || getStepContext() != null;
     }
 
     /**
-     * {@link StepContext}から{@link StepScopedHolder}を取得する。
+     * 実行中のステップの{@link StepScopedHolder}を取得する。
+     * <p/>
+     * 現在のスレッドに関連付けられていて、{@link StepContext}の一時領域が関連付けたインスタンスのままの場合は、
+     * そのインスタンスを返す。
      *
      * @return {@link StepScopedHolder}
      */
     private StepScopedHolder getStepScopedHolder() {
-        final StepContext stepContext = getStepContext();
+        final BoundStep step = CURRENT_STEP.get();
+        if (step == null) {
+            return getSharedStepScopedHolder(getStepContext());
+        }
+        if (step.stepContext.getTransientUserData() == step.holder) {
+            return step.holder;
+        }
+        return getStepScopedHolder(step.stepContext);
+    }
+
+    /**
+     * {@link StepContext}から、パーティション間で共有する{@link StepScopedHolder}を取得する。
+     * <p/>
+     * パーティションの{@link StepContext}の一時領域が未設定の場合は、
+     * パーティションを実行しているステップの{@link StepScopedHolder}を一時領域に設定して返す。
+     *
+     * @param stepContext ステップコンテキスト
+     * @return {@link StepScopedHolder}
+     */
+    private static StepScopedHolder getSharedStepScopedHolder(final StepContext stepContext) {
+        if (stepContext.getTransientUserData() == null) {
+            final StepContext parent = ParentContextRegistry.getStepContext(getJobContext(), stepContext);
+            if (parent != stepContext) {
+                final StepScopedHolder holder = getStepScopedHolder(parent);
+                stepContext.setTransientUserData(holder);
+                return holder;
+            }
+        }
+        return getStepScopedHolder(stepContext);
+    }
+
+    /**
+     * {@link StepContext}から{@link StepScopedHolder}を取得する。
+     *
+     * @param stepContext ステップコンテキスト
+     * @return {@link StepScopedHolder}
+     */
+    private static StepScopedHolder getStepScopedHolder(final StepContext stepContext) {
         final Object transientUserData = stepContext.getTransientUserData();
 
         if (transientUserData != null) {
@@ -71,7 +176,39 @@ public class StepScopedContext implements Context {
      *
      * @return ステップコンテキスト
      */
-    private StepContext getStepContext() {
+    private static StepContext getStepContext() {
         return CDI.current().select(StepContext.class).get();
     }
+
+    /**
+     * ジョブコンテキストを取得する。
+     *
+     * @return ジョブコンテキスト
+     */
+    private static JobContext getJobContext() {
+        return CDI.current().select(JobContext.class).get();
+    }
+
+    /**
+     * スレッドに関連付けたステップを保持するクラス。
+     */
+    private static final class BoundStep {
+
+        /** ステップコンテキスト */
+        private final StepContext stepContext;
+
+        /** ステップコンテキストの一時領域に設定した{@link StepScopedHolder} */
+        private final StepScopedHolder holder;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param stepContext ステップコンテキスト
+         * @param holder ステップコンテキストの一時領域に設定した{@link StepScopedHolder}
+         */
+        private BoundStep(final StepContext stepContext, final StepScopedHolder holder) {
+            this.stepContext = stepContext;
+            this.holder = holder;
+        }
+    }
 }
@@ -1,19 +1,35 @@
 package nablarch.fw.batch.ee.cdi;
 
+import java.util.Iterator;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
 
 /**
  * ステップ単位で共有する値を保持するクラス。
+ * <p/>
+ * {@link CreationalContext}とともに保持した値は、{@link #destroy()}で{@link Contextual#destroy(Object, CreationalContext)}
+ * を呼び出して破棄する。これにより、{@link javax.annotation.PreDestroy}が付与されたメソッドが実行される。
  *
  * @author Naoki Yamamoto
  */
 public class StepScopedHolder {
 
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(StepScopedHolder.class);
+
     /** ステップ単位で共有する値を持つMap */
-    private final ConcurrentMap<Contextual<?>, Object> holder = new ConcurrentHashMap<Contextual<?>, Object>();
+    private final ConcurrentMap<Contextual<?>, ContextualInstance<?>> holder =
+            new ConcurrentHashMap<Contextual<?>, ContextualInstance<?>>();
+
+    /** 値を使用中のステップリスナーの数 */
+    private int activeCount;
 
     /**
      * 値を取得する。
@@ -24,20 +40,124 @@ public class StepScopedHolder {
      */
     @SuppressWarnings("unchecked")
     public <T> T get(final Contextual<?> contextual) {
-        return (T) holder.get(contextual);
+        final ContextualInstance<?> instance = holder.get(contextual);
+        return instance != null ? (T) instance.value : null;
     }
 
     /**
      * 値を設定する。
+     * <p/>
+     * 本メソッドで設定した値は、{@link #destroy()}で保持を解除するのみで破棄しない。
      *
      * @param contextual contextual
      * @param value 値
      * @param <T> 設定する値の型
      * @return StepScopeなBean
      */
-    @SuppressWarnings("unchecked")
     public <T> T add(final Contextual<?> contextual, final T value) {
-        final Object existsBean = holder.putIfAbsent(contextual, value);
-        return existsBean != null ? (T) existsBean : value;
+        return add(contextual, value, null);
+    }
+
+    /**
+     * 値を、値の生成に使用した{@link CreationalContext}とともに設定する。
+     * <p/>
+     * 既に値が設定されている場合は、設定済みの値を返す(指定した値は破棄する)。
+     *
+     * @param contextual contextual
+     * @param value 値
+     * @param creationalContext 値の生成に使用した{@link CreationalContext}
+     * @param <T> 設定する値の型
+     * @return StepScopeなBean
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T add(final Contextual<?> contextual, final T value, final CreationalContext<T> creationalContext) {
+        final ContextualInstance<T> instance = new ContextualInstance<T>((Contextual<T>) contextual, value,
+                creationalContext);
+        final ContextualInstance<?> exists = holder.putIfAbsent(contextual, instance);
+        if (exists != null) {
+            instance.destroy();
+            return (T) exists.value;
+        }
+        return value;
+    }
+
+    /**
+     * 保持している値を全て破棄する。
+     * <p/>
+     * 破棄に失敗した場合は、ワーニングログを出力して後続の値を破棄する。
+     * 破棄した後も本インスタンスは使用でき、値を取得すると新たに生成される。
+     */
+    public void destroy() {
+        final Iterator<Map.Entry<Contextual<?>, ContextualInstance<?>>> iterator = holder.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final ContextualInstance<?> instance = iterator.next().getValue();
+            iterator.remove();
+            try {
+                instance.destroy();
+            } catch (RuntimeException e) {
+                LOGGER.logWarn("failed to destroy step scoped bean. bean=[" + instance.value + ']', e);
+            }
+        }
+    }
+
+    /**
+     * ステップリスナーが値の使用を開始したことを記録する。
+     */
+    synchronized void acquire() {
+        activeCount++;
+    }
+
+    /**
+     * ステップリスナーが値の使用を終了したことを記録し、使用中のステップリスナーが無くなった場合は保持している値を全て破棄する。
+     * <p/>
+     * 使用の開始と終了は同じロックで記録するため、破棄中に他のスレッドが使用を開始することはない。
+     */
+    synchronized void release() {
+        if (activeCount > 0) {
+            activeCount--;
+        }
+        if (activeCount == 0) {
+            destroy();
+        }
+    }
+
+    /**
+     * 値と、値の生成に使用した{@link CreationalContext}を保持するクラス。
+     *
+     * @param <T> 値の型
+     */
+    private static final class ContextualInstance<T> {
+
+        /** contextual */
+        private final Contextual<T> contextual;
+
+        /** 値 */
+        private final T value;
+
+        /** 値の生成に使用した{@link CreationalContext}(破棄しない場合は{@code null}) */
+        private final CreationalContext<T> creationalContext;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param contextual contextual
+         * @param value 値
+         * @param creationalContext 値の生成に使用した{@link CreationalContext}
+         */
+        private ContextualInstance(final Contextual<T> contextual, final T value,
+                final CreationalContext<T> creationalContext) {
+            this.contextual = contextual;
+            this.value = value;
+            this.creationalContext = creationalContext;
+        }
+
+        /**
+         * 値を破棄する。
+         */
+        private void destroy() {
+            if (creationalContext != null) {
+                contextual.destroy(value, creationalContext);
+            }
+        }
     }
 }
@@ -0,0 +1,164 @@
+package nablarch.fw.batch.ee.chunk;
+
+import java.sql.BatchUpdateException;
+import java.sql.Statement;
+import java.util.List;
+
+import javax.batch.api.chunk.AbstractItemWriter;
+
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.statement.ParameterizedSqlPStatement;
+import nablarch.core.db.statement.exception.SqlStatementException;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * データベースを出力先とする{@link javax.batch.api.chunk.ItemWriter}の抽象クラス。
+ * <p/>
+ * チャンクの要素を、JDBCのバッチ更新({@code addBatch/executeBatch})でまとめてデータベースに書き込む。
+ * 1回のバッチ更新で送信する件数は{@link #setBatchSize(int)}で指定する。
+ * <p/>
+ * 書き込みには{@link DbConnectionContext}に設定されたデータベース接続を使用するため、
+ * トランザクションは{@link nablarch.fw.batch.ee.listener.step.StepTransactionManagementListener}と
+ * {@link nablarch.fw.batch.ee.listener.chunk.ItemWriteTransactionManagementListener}で制御される。
+ * <p/>
+ * バッチ更新に失敗した場合は{@link BatchWriteFailedException}を送出する。
+ * JDBCドライバから失敗した行を特定できる場合、例外には失敗した要素とチャンク内のインデックスが設定される。
+ * ただし、{@link nablarch.core.db.statement.exception.DuplicateStatementException}など、
+ * {@link SqlStatementException}のサブクラスが発生した場合は、その例外をそのまま送出する。
+ * これにより、{@code catch}やジョブ定義の{@code skippable-exception-classes}などで、発生した例外の型を指定できる。
+ * <p/>
+ * 本クラスを継承するクラスは、{@link #prepareStatement(AppDbConnection)}で書き込みに使用するステートメントを返す。
+ * 要素は{@link ParameterizedSqlPStatement#addBatchObject(Object)}でステートメントに設定されるため、
+ * 要素のプロパティ名をSQLの名前付きパラメータとする。
+ */
+@Published
+public abstract class BaseDatabaseItemWriter extends AbstractItemWriter {
+
+    /** デフォルトの1回のバッチ更新で送信する件数 */
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /** 1回のバッチ更新で送信する件数 */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /** 書き込みに使用するデータベース接続名 */
+    private String connectionName = TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY;
+
+    @Override
+    public void writeItems(final List<Object> items) throws Exception {
+        final ParameterizedSqlPStatement statement = prepareStatement(
+                DbConnectionContext.getConnection(connectionName));
+        int from = 0;
+        for (int i = 0; i < items.size(); i++) {
+            addBatch(statement, items.get(i));
+            if (i + 1 - from == batchSize) {
+                executeBatch(statement, items, from, i + 1);
+                from = i + 1;
+            }
+        }
+        if (from < items.size()) {
+            executeBatch(statement, items, from, items.size());
+        }
+    }
+
+    /**
+     * 書き込みに使用するステートメントを生成する。
+     *
+     * @param connection データベース接続
+     * @return ステートメント
+     */
+    protected abstract ParameterizedSqlPStatement prepareStatement(AppDbConnection connection);
+
+    /**
+     * 要素をステートメントのバッチに追加する。
+     * <p/>
+     * デフォルトでは、要素のプロパティを名前付きパラメータに設定する。
+     *
+     * @param statement ステートメント
+     * @param item 要素
+     */
+    protected void addBatch(final ParameterizedSqlPStatement statement, final Object item) {
+        statement.addBatchObject(item);
+    }
+
+    /**
+     * 1回のバッチ更新で送信する件数を設定する。
+     * <p/>
+     * デフォルトは1000件。
+     *
+     * @param batchSize 1回のバッチ更新で送信する件数
+     */
+    public void setBatchSize(final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be greater than 0.");
+        }
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 書き込みに使用するデータベース接続名を設定する。
+     * <p/>
+     * デフォルトは{@link TransactionContext#DEFAULT_TRANSACTION_CONTEXT_KEY}。
+     *
+     * @param connectionName データベース接続名
+     */
+    public void setConnectionName(final String connectionName) {
+        this.connectionName = connectionName;
+    }
+
+    /**
+     * バッチ更新を実行する。
+     * <p/>
+     * {@link SqlStatementException}のサブクラスが発生した場合は、その例外をそのまま送出する。
+     *
+     * @param statement ステートメント
+     * @param items チャンクの要素
+     * @param from バッチに追加した最初の要素のインデックス
+     * @param to バッチに追加した最後の要素の次のインデックス
+     */
+    private static void executeBatch(final ParameterizedSqlPStatement statement,
+            final List<Object> items, final int from, final int to) {
+        try {
+            statement.executeBatch();
+        } catch (SqlStatementException e) {
+            if (e.getClass() != SqlStatementException.class) {
+                throw e;
+            }
+            final int failedIndex = findFailedIndex(e, from, to);
+            throw new BatchWriteFailedException(failedIndex, failedIndex < 0 ? null : items.get(failedIndex), e);
+        }
+    }
+
+    /**
+     * バッチ更新で失敗した要素のインデックスを特定する。
+     * <p/>
+     * 失敗した行以降を処理しないドライバは、失敗した行より前の更新件数のみを返す。
+     * 失敗した行以降も処理するドライバは、失敗した行の更新件数に{@link Statement#EXECUTE_FAILED}を返す。
+     *
+     * @param e バッチ更新で発生した例外
+     * @param from バッチに追加した最初の要素のインデックス
+     * @param to バッチに追加した最後の要素の次のインデックス
+     * @return 失敗した要素のインデックス(特定できない場合は-1)
+     */
+    private static int findFailedIndex(final SqlStatementException e, final int from, final int to) {
+        Throwable cause = e.getCause();
+        while (cause != null && !(cause instanceof BatchUpdateException)) {
+            cause = cause.getCause();
+        }
+        if (cause == null) {
+            return -1;
+        }
+        final int[] updateCounts = ((BatchUpdateException) cause).getUpdateCounts();
+        if (updateCounts == null) {
+            return -1;
+        }
+        for (int i = 0; i < updateCounts.length; i++) {
+            if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+                return from + i;
+            }
+        }
+        final int index = from + updateCounts.length;
+        return index < to ? index : -1;
+    }
+}
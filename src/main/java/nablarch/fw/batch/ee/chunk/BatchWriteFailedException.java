@@ -0,0 +1,54 @@
+package nablarch.fw.batch.ee.chunk;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * チャンクの要素のバッチ更新に失敗したことを表す例外。
+ * <p/>
+ * 失敗した要素を特定できた場合は、チャンク内のインデックスと要素を保持する。
+ * 特定できるかどうかはJDBCドライバが返す{@link java.sql.BatchUpdateException#getUpdateCounts()}に依存する。
+ * <p/>
+ * 要素には個人情報などが含まれる可能性があるため、メッセージにはインデックスのみを出力し、要素は出力しない。
+ */
+@Published
+public class BatchWriteFailedException extends RuntimeException {
+
+    /** 失敗した要素のチャンク内のインデックス(特定できない場合は-1) */
+    private final int failedIndex;
+
+    /** 失敗した要素(特定できない場合は{@code null}) */
+    private final transient Object failedItem;
+
+    /**
+     * 例外を生成する。
+     *
+     * @param failedIndex 失敗した要素のチャンク内のインデックス(特定できない場合は-1)
+     * @param failedItem 失敗した要素(特定できない場合は{@code null})
+     * @param cause 原因となった例外
+     */
+    public BatchWriteFailedException(final int failedIndex, final Object failedItem, final Throwable cause) {
+        super(failedIndex < 0
+                ? "failed to write items. failed item could not be identified."
+                : "failed to write item. index=[" + failedIndex + ']', cause);
+        this.failedIndex = failedIndex;
+        this.failedItem = failedItem;
+    }
+
+    /**
+     * 失敗した要素のチャンク内のインデックスを取得する。
+     *
+     * @return 失敗した要素のインデックス(特定できない場合は-1)
+     */
+    public int getFailedIndex() {
+        return failedIndex;
+    }
+
+    /**
+     * 失敗した要素を取得する。
+     *
+     * @return 失敗した要素(特定できない場合は{@code null})
+     */
+    public Object getFailedItem() {
+        return failedItem;
+    }
+}
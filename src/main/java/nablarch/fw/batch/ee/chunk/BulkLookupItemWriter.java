@@ -0,0 +1,216 @@
+package nablarch.fw.batch.ee.chunk;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.batch.api.chunk.ItemWriter;
+
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.db.statement.SqlRow;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * チャンクの要素に必要な参照データをまとめて取得してから、委譲先の{@link ItemWriter}に書き込ませる{@link ItemWriter}の抽象クラス。
+ * <p/>
+ * {@link javax.batch.api.chunk.ItemProcessor}は要素を1件ずつ処理するため、プロセッサで参照データを取得すると、
+ * 要素ごとにデータベースとの往復が発生する。
+ * 本ライタは、チャンクの要素からキーを集め、{@code IN}句を使用したSQLでまとめて取得してから要素に設定するため、
+ * 参照データの取得はチャンクごとに1回(バインド変数の上限を超える場合は分割した回数)となる。
+ * <p/>
+ * 本クラスを継承するクラスは、以下を実装する。
+ * <ul>
+ * <li>{@link #getSql()}:参照データを取得するSQL。キーを指定する位置に{@value #KEYS}を記述する
+ * (例:{@code SELECT CODE_ID, CODE_NAME FROM CODE WHERE CODE_ID IN ($keys)})。</li>
+ * <li>{@link #getItemKey(Object)}:要素のキー</li>
+ * <li>{@link #getRowKey(SqlRow)}:取得した行のキー。{@link #getItemKey(Object)}と同じ型で返すこと。</li>
+ * <li>{@link #enrich(Object, SqlRow)}:取得した行を要素に設定する処理</li>
+ * </ul>
+ * 同じキーの行が複数取得された場合は、後に取得した行を使用する。
+ * <p/>
+ * 参照データの取得には{@link DbConnectionContext}に設定されたデータベース接続を使用するため、
+ * 委譲先のライタの書き込みと同じトランザクションで取得する。
+ *
+ * @see MultiRowDatabaseItemWriter
+ */
+@Published
+public abstract class BulkLookupItemWriter implements ItemWriter {
+
+    /** SQLでキーを指定する位置を表す文字列 */
+    public static final String KEYS = "$keys";
+
+    /** デフォルトの1つのSQLに含めるバインド変数の上限 */
+    private static final int DEFAULT_MAX_BIND_PARAMETERS = 1000;
+
+    /** 委譲先のライタ */
+    private final ItemWriter delegate;
+
+    /** 1つのSQLに含めるバインド変数の上限 */
+    private int maxBindParameters = DEFAULT_MAX_BIND_PARAMETERS;
+
+    /** 参照データの取得に使用するデータベース接続名 */
+    private String connectionName = TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY;
+
+    /** 生成したSQL(キーはキーの数) */
+    private final Map<Integer, String> sqlCache = new HashMap<Integer, String>();
+
+    /**
+     * ライタを生成する。
+     *
+     * @param delegate 委譲先のライタ
+     */
+    protected BulkLookupItemWriter(final ItemWriter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void open(final Serializable checkpoint) throws Exception {
+        delegate.open(checkpoint);
+    }
+
+    @Override
+    public void writeItems(final List<Object> items) throws Exception {
+        final Set<Object> keys = new LinkedHashSet<Object>();
+        for (Object item : items) {
+            final Object key = getItemKey(item);
+            if (key != null) {
+                keys.add(key);
+            }
+        }
+        final Map<Object, SqlRow> rows = lookup(new ArrayList<Object>(keys));
+        for (Object item : items) {
+            final Object key = getItemKey(item);
+            enrich(item, key == null ? null : rows.get(key));
+        }
+        delegate.writeItems(items);
+    }
+
+    @Override
+    public Serializable checkpointInfo() throws Exception {
+        return delegate.checkpointInfo();
+    }
+
+    @Override
+    public void close() throws Exception {
+        delegate.close();
+    }
+
+    /**
+     * 参照データを取得するSQLを返す。
+     * <p/>
+     * キーを指定する位置に{@value #KEYS}を記述すること。
+     *
+     * @return SQL
+     */
+    protected abstract String getSql();
+
+    /**
+     * 要素から参照データのキーを取得する。
+     *
+     * @param item 要素
+     * @return キー(参照データが不要な場合は{@code null})
+     */
+    protected abstract Object getItemKey(Object item);
+
+    /**
+     * 取得した行から参照データのキーを取得する。
+     *
+     * @param row 行
+     * @return キー
+     */
+    protected abstract Object getRowKey(SqlRow row);
+
+    /**
+     * 取得した行を要素に設定する。
+     *
+     * @param item 要素
+     * @param row 要素のキーに対応する行(キーが{@code null}の場合や、行が存在しない場合は{@code null})
+     */
+    protected abstract void enrich(Object item, SqlRow row);
+
+    /**
+     * 1つのSQLに含めるバインド変数の上限を設定する。
+     * <p/>
+     * デフォルトは1000。キーの数が上限を超える場合は、SQLを分割して実行する。
+     *
+     * @param maxBindParameters 1つのSQLに含めるバインド変数の上限
+     */
+    public void setMaxBindParameters(final int maxBindParameters) {
+        if (maxBindParameters < 1) {
+            throw new IllegalArgumentException("maxBindParameters must be greater than 0.");
+        }
+        this.maxBindParameters = maxBindParameters;
+    }
+
+    /**
+     * 参照データの取得に使用するデータベース接続名を設定する。
+     * <p/>
+     * デフォルトは{@link TransactionContext#DEFAULT_TRANSACTION_CONTEXT_KEY}。
+     *
+     * @param connectionName データベース接続名
+     */
+    public void setConnectionName(final String connectionName) {
+        this.connectionName = connectionName;
+    }
+
+    /**
+     * キーに対応する参照データを取得する。
+     *
+     * @param keys キー(重複なし)
+     * @return キーと行
+     */
+    private Map<Object, SqlRow> lookup(final List<Object> keys) {
+        final Map<Object, SqlRow> rows = new HashMap<Object, SqlRow>();
+        if (keys.isEmpty()) {
+            return rows;
+        }
+        final AppDbConnection connection = DbConnectionContext.getConnection(connectionName);
+        for (int from = 0; from < keys.size(); from += maxBindParameters) {
+            final List<Object> subList = keys.subList(from, Math.min(from + maxBindParameters, keys.size()));
+            final SqlPStatement statement = connection.prepareStatement(getSql(subList.size()));
+            int index = 1;
+            for (Object key : subList) {
+                statement.setObject(index++, key);
+            }
+            for (SqlRow row : statement.retrieve()) {
+                rows.put(getRowKey(row), row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * 指定した数のキーを指定するSQLを取得する。
+     * <p/>
+     * キーは最後の端数を除いて同じ数で分割されるため、生成したSQLをキーの数ごとに再利用する。
+     *
+     * @param count キーの数
+     * @return SQL
+     */
+    private String getSql(final int count) {
+        String sql = sqlCache.get(count);
+        if (sql == null) {
+            final String template = getSql();
+            if (template == null || !template.contains(KEYS)) {
+                throw new IllegalStateException("sql must contain " + KEYS + ". sql=[" + template + ']');
+            }
+            final StringBuilder placeholders = new StringBuilder(count * 3);
+            for (int i = 0; i < count; i++) {
+                if (i > 0) {
+                    placeholders.append(", ");
+                }
+                placeholders.append('?');
+            }
+            sql = template.replace(KEYS, placeholders);
+            sqlCache.put(count, sql);
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,205 @@
+package nablarch.fw.batch.ee.chunk;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * キーセットページネーションでデータベースを読み込む{@link javax.batch.api.chunk.ItemReader}の抽象クラス。
+ * <p/>
+ * 1つのカーソルをステップ全体で開き続けるのではなく、「キー &gt; 前ページの最後のキー ORDER BY キー」で
+ * ページ単位に読み込む。ページを読み込むたびにリーダ専用のコネクションのトランザクションを確定するため、
+ * 長時間のスナップショットを保持しない。
+ * <p/>
+ * チェックポイントの扱いは{@link RestartableDatabaseItemReader}と同じで、
+ * リスタート時はコミット済みの最後の要素のキーの次のページから読み込みを再開する。
+ * <p/>
+ * 次ページの読み込みはバックグラウンドのスレッドで先行して行うため、
+ * プロセッサやライタの処理中にデータベースからの読み込みを待つことがない。
+ * <p/>
+ * 本クラスを継承するクラスは、以下のメソッドを実装する。
+ * <ul>
+ * <li>{@link #readPage(Serializable, int)}:指定したキーより大きいキーを持つ要素をキーの昇順に最大件数分読み込む</li>
+ * <li>{@link #getKey(Object)}:要素のキーを返す</li>
+ * </ul>
+ * {@link #readPage(Serializable, int)}はバックグラウンドのスレッドで呼び出されるが、
+ * 呼び出し中はリーダ専用のコネクションがデフォルトのデータベース接続として設定されているため、
+ * {@link nablarch.common.dao.UniversalDao}や{@link DbConnectionContext#getConnection()}を使用してデータベースにアクセスできる。
+ */
+@Published
+public abstract class KeysetPaginationItemReader extends RestartableDatabaseItemReader {
+
+    /** デフォルトの1ページあたりの件数 */
+    private static final int DEFAULT_PAGE_SIZE = 1000;
+
+    /** 1ページあたりの件数 */
+    private int pageSize = DEFAULT_PAGE_SIZE;
+
+    /** リーダ専用のコネクション */
+    private TransactionManagerConnection connection;
+
+    /** ページを読み込むスレッド */
+    private ExecutorService executor;
+
+    /** 読み込み中の次ページ(次ページが存在しない場合は{@code null}) */
+    private Future<List<?>> nextPage;
+
+    /** 現在のページ */
+    private Iterator<?> currentPage = Collections.emptyList().iterator();
+
+    @Override
+    protected final void openAfter(final Serializable lastKey) throws Exception {
+        connection = DbConnectionContext.getTransactionManagerConnection();
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "keyset-pagination-reader");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        nextPage = executor.submit(new PageReader(lastKey));
+    }
+
+    @Override
+    protected final Object readNextItem() throws Exception {
+        while (!currentPage.hasNext()) {
+            if (nextPage == null) {
+                return null;
+            }
+            final List<?> page = getPage(nextPage);
+            nextPage = page.size() < pageSize
+                    ? null
+                    : executor.submit(new PageReader(getKey(page.get(page.size() - 1))));
+            currentPage = page.iterator();
+        }
+        return currentPage.next();
+    }
+
+    /**
+     * 読み込み中のページを取り消し、ページを読み込むスレッドを終了した後に、{@link #closeReader()}を呼び出す。
+     * <p/>
+     * 本メソッドの後にリーダ専用のコネクションが閉じられるため、読み込み中のページの終了を待ってから戻る。
+     * 継承クラスの終了処理は{@link #closeReader()}で行う。
+     *
+     * @throws Exception 発生した例外
+     */
+    @Override
+    protected final void doClose() throws Exception {
+        try {
+            if (executor != null) {
+                if (nextPage != null) {
+                    nextPage.cancel(true);
+                }
+                executor.shutdownNow();
+                // リーダ専用のコネクションを閉じる前に、読み込み中のページの終了を待つ。
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor = null;
+            nextPage = null;
+            currentPage = Collections.emptyList().iterator();
+            closeReader();
+        }
+    }
+
+    /**
+     * リーダの終了処理(リソースの解放など)を行う。
+     * <p/>
+     * ページの読み込みが終了した後、リーダ専用のコネクションを閉じる前に呼び出される。
+     * デフォルトの実装は何もしない。
+     *
+     * @throws Exception 発生した例外
+     */
+    protected void closeReader() throws Exception {
+        // nop
+    }
+
+    /**
+     * 指定したキーより大きいキーを持つ要素を、キーの昇順に最大で{@code pageSize}件読み込む。
+     * <p/>
+     * 読み込んだ件数が{@code pageSize}より少ない場合、最後のページと判断する。
+     *
+     * @param lastKey 前ページの最後の要素のキー(最初のページの場合はチェックポイント。チェックポイントがない場合は{@code null})
+     * @param pageSize 1ページあたりの件数
+     * @return 読み込んだ要素
+     * @throws Exception 発生した例外
+     */
+    protected abstract List<?> readPage(Serializable lastKey, int pageSize) throws Exception;
+
+    /**
+     * 1ページあたりの件数を設定する。
+     * <p/>
+     * デフォルトは1000件。
+     *
+     * @param pageSize 1ページあたりの件数
+     */
+    public void setPageSize(final int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be greater than 0.");
+        }
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * 読み込み中のページを取得する。
+     *
+     * @param page 読み込み中のページ
+     * @return ページ
+     * @throws Exception ページの読み込みで発生した例外
+     */
+    private static List<?> getPage(final Future<List<?>> page) throws Exception {
+        try {
+            return page.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * リーダ専用のコネクションで1ページを読み込むタスク。
+     */
+    private final class PageReader implements Callable<List<?>> {
+
+        /** 前ページの最後の要素のキー */
+        private final Serializable after;
+
+        /**
+         * タスクを生成する。
+         *
+         * @param after 前ページの最後の要素のキー
+         */
+        private PageReader(final Serializable after) {
+            this.after = after;
+        }
+
+        @Override
+        public List<?> call() throws Exception {
+            DbConnectionContext.setConnection(connection);
+            try {
+                final List<?> page = readPage(after, pageSize);
+                // ページごとにトランザクションを確定し、スナップショットを解放する。
+                connection.commit();
+                return page;
+            } finally {
+                DbConnectionContext.removeConnection();
+            }
+        }
+    }
+}
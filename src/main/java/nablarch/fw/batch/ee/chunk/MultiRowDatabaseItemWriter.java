@@ -0,0 +1,223 @@
+package nablarch.fw.batch.ee.chunk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import javax.batch.api.chunk.AbstractItemWriter;
+
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * チャンクの要素を複数行のSQLでデータベースに書き込む{@link javax.batch.api.chunk.ItemWriter}の抽象クラス。
+ * <p/>
+ * {@link BaseDatabaseItemWriter}のバッチ更新でも、JDBCドライバによってはバッチごとに往復が発生する。
+ * 本ライタは、チャンクの要素を{@code INSERT ... VALUES (...), (...)}のような複数行のSQLにまとめて実行することで、
+ * データベースとの往復を減らす。
+ * SQLの種類は{@link MultiRowSqlType}から選択でき、データベース製品固有のUPSERT(MERGE、ON CONFLICTなど)も使用できる。
+ * <p/>
+ * 1つのSQLに含めるバインド変数の数は{@link #setMaxBindParameters(int)}で指定した上限を超えないように、
+ * チャンクの要素を分割して実行する。
+ * <p/>
+ * 書き込みには{@link DbConnectionContext}に設定されたデータベース接続を使用するため、
+ * トランザクションは{@link nablarch.fw.batch.ee.listener.step.StepTransactionManagementListener}と
+ * {@link nablarch.fw.batch.ee.listener.chunk.ItemWriteTransactionManagementListener}で制御される。
+ * <p/>
+ * 本クラスを継承するクラスは、表名と列名を設定し、{@link #toValues(Object)}で要素を列の値に変換する。
+ * 表名と列名はSQLに埋め込むため、識別子として有効な形式(表名はスキーマ名による修飾を許可する)のみ設定できる。
+ * 複数行のSQLでは、失敗した行を特定できないため、失敗した場合はSQLの実行で発生した例外をそのまま送出する。
+ */
+@Published
+public abstract class MultiRowDatabaseItemWriter extends AbstractItemWriter {
+
+    /** デフォルトの1つのSQLに含めるバインド変数の上限 */
+    private static final int DEFAULT_MAX_BIND_PARAMETERS = 1000;
+
+    /** 表名として許可する形式 */
+    private static final Pattern TABLE_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_$#]*(\\.[A-Za-z_][A-Za-z0-9_$#]*)?");
+
+    /** 列名として許可する形式 */
+    private static final Pattern COLUMN_NAME = Pattern.compile("[A-Za-z_][A-Za-z0-9_$#]*");
+
+    /** SQLの種類 */
+    private MultiRowSqlType sqlType = MultiRowSqlType.INSERT;
+
+    /** 表名 */
+    private String tableName;
+
+    /** 列名 */
+    private List<String> columnNames;
+
+    /** キーの列名 */
+    private List<String> keyColumnNames = Collections.emptyList();
+
+    /** 1つのSQLに含めるバインド変数の上限 */
+    private int maxBindParameters = DEFAULT_MAX_BIND_PARAMETERS;
+
+    /** 書き込みに使用するデータベース接続名 */
+    private String connectionName = TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY;
+
+    /** 生成したSQL(キーは行数) */
+    private final Map<Integer, String> sqlCache = new HashMap<Integer, String>();
+
+    @Override
+    public void writeItems(final List<Object> items) throws Exception {
+        if (tableName == null || columnNames == null) {
+            throw new IllegalStateException("tableName and columnNames must be set.");
+        }
+        final int rowsPerStatement = Math.max(1, maxBindParameters / columnNames.size());
+        final AppDbConnection connection = DbConnectionContext.getConnection(connectionName);
+        for (int from = 0; from < items.size(); from += rowsPerStatement) {
+            execute(connection, items.subList(from, Math.min(from + rowsPerStatement, items.size())));
+        }
+    }
+
+    /**
+     * 要素を列の値に変換する。
+     * <p/>
+     * 値は、{@link #setColumnNames(List)}で設定した列名と同じ順序で返すこと。
+     *
+     * @param item 要素
+     * @return 列の値
+     */
+    protected abstract Object[] toValues(Object item);
+
+    /**
+     * SQLの種類を設定する。
+     * <p/>
+     * デフォルトは{@link MultiRowSqlType#INSERT}。
+     *
+     * @param sqlType SQLの種類
+     */
+    public void setSqlType(final MultiRowSqlType sqlType) {
+        this.sqlType = sqlType;
+        sqlCache.clear();
+    }
+
+    /**
+     * 表名を設定する。
+     *
+     * @param tableName 表名
+     */
+    public void setTableName(final String tableName) {
+        verifyIdentifier("tableName", TABLE_NAME, tableName);
+        this.tableName = tableName;
+        sqlCache.clear();
+    }
+
+    /**
+     * 列名を設定する。
+     *
+     * @param columnNames 列名
+     */
+    public void setColumnNames(final List<String> columnNames) {
+        if (columnNames.isEmpty()) {
+            throw new IllegalArgumentException("columnNames must not be empty.");
+        }
+        for (String columnName : columnNames) {
+            verifyIdentifier("columnNames", COLUMN_NAME, columnName);
+        }
+        this.columnNames = new ArrayList<String>(columnNames);
+        sqlCache.clear();
+    }
+
+    /**
+     * キーの列名を設定する。
+     * <p/>
+     * UPSERT({@link MultiRowSqlType#INSERT}以外)を使用する場合は必須。
+     *
+     * @param keyColumnNames キーの列名
+     */
+    public void setKeyColumnNames(final List<String> keyColumnNames) {
+        for (String keyColumnName : keyColumnNames) {
+            verifyIdentifier("keyColumnNames", COLUMN_NAME, keyColumnName);
+        }
+        this.keyColumnNames = new ArrayList<String>(keyColumnNames);
+        sqlCache.clear();
+    }
+
+    /**
+     * 1つのSQLに含めるバインド変数の上限を設定する。
+     * <p/>
+     * デフォルトは1000。上限が列数より小さい場合は、1行ずつ書き込む。
+     *
+     * @param maxBindParameters 1つのSQLに含めるバインド変数の上限
+     */
+    public void setMaxBindParameters(final int maxBindParameters) {
+        if (maxBindParameters < 1) {
+            throw new IllegalArgumentException("maxBindParameters must be greater than 0.");
+        }
+        this.maxBindParameters = maxBindParameters;
+    }
+
+    /**
+     * 書き込みに使用するデータベース接続名を設定する。
+     * <p/>
+     * デフォルトは{@link TransactionContext#DEFAULT_TRANSACTION_CONTEXT_KEY}。
+     *
+     * @param connectionName データベース接続名
+     */
+    public void setConnectionName(final String connectionName) {
+        this.connectionName = connectionName;
+    }
+
+    /**
+     * 要素を1つの複数行のSQLで書き込む。
+     *
+     * @param connection データベース接続
+     * @param items 要素
+     */
+    private void execute(final AppDbConnection connection, final List<Object> items) {
+        final SqlPStatement statement = connection.prepareStatement(getSql(items.size()));
+        int index = 1;
+        for (Object item : items) {
+            final Object[] values = toValues(item);
+            if (values.length != columnNames.size()) {
+                throw new IllegalStateException("the number of values must be the same as the number of columns."
+                        + " columns=" + columnNames + ", values=[" + values.length + ']');
+            }
+            for (Object value : values) {
+                statement.setObject(index++, value);
+            }
+        }
+        statement.executeUpdate();
+    }
+
+    /**
+     * 指定した行数のSQLを取得する。
+     * <p/>
+     * チャンクの要素は最後の端数を除いて同じ行数で分割されるため、生成したSQLを行数ごとに再利用する。
+     *
+     * @param rows 行数
+     * @return SQL
+     */
+    private String getSql(final int rows) {
+        String sql = sqlCache.get(rows);
+        if (sql == null) {
+            sql = sqlType.createSql(tableName, columnNames, keyColumnNames, rows);
+            sqlCache.put(rows, sql);
+        }
+        return sql;
+    }
+
+    /**
+     * SQLに埋め込む名前が識別子として有効な形式であることを確認する。
+     *
+     * @param name 設定項目名
+     * @param pattern 許可する形式
+     * @param value 値
+     */
+    private static void verifyIdentifier(final String name, final Pattern pattern, final String value) {
+        if (value == null || !pattern.matcher(value).matches()) {
+            throw new IllegalArgumentException(name + " must be specified as a valid identifier. "
+                    + name + "=[" + value + ']');
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package nablarch.fw.batch.ee.chunk;
+
+import java.util.List;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link MultiRowDatabaseItemWriter}が生成する複数行のSQLの種類。
+ */
+@Published
+public enum MultiRowSqlType {
+
+    /**
+     * 複数行のINSERT。
+     * <pre>
+     * INSERT INTO 表 (列1, 列2) VALUES (?, ?), (?, ?)
+     * </pre>
+     */
+    INSERT {
+        @Override
+        String createSql(final String tableName, final List<String> columnNames, final List<String> keyColumnNames,
+                final int rows) {
+            return insert(tableName, columnNames, rows).toString();
+        }
+    },
+
+    /**
+     * キーを指定したMERGE(H2)。
+     * <pre>
+     * MERGE INTO 表 (列1, 列2) KEY (列1) VALUES (?, ?), (?, ?)
+     * </pre>
+     */
+    MERGE_KEY {
+        @Override
+        String createSql(final String tableName, final List<String> columnNames, final List<String> keyColumnNames,
+                final int rows) {
+            final StringBuilder sql = new StringBuilder("MERGE INTO ").append(tableName).append(' ');
+            appendList(sql, columnNames);
+            sql.append(" KEY ");
+            appendList(sql, requireKeys(keyColumnNames));
+            return appendValues(sql, columnNames.size(), rows).toString();
+        }
+    },
+
+    /**
+     * ON CONFLICTを指定したINSERT(PostgreSQL)。
+     * <pre>
+     * INSERT INTO 表 (列1, 列2) VALUES (?, ?), (?, ?) ON CONFLICT (列1) DO UPDATE SET 列2 = EXCLUDED.列2
+     * </pre>
+     * キー以外の列が無い場合は、{@code DO NOTHING}で重複した行を無視する。
+     */
+    ON_CONFLICT {
+        @Override
+        String createSql(final String tableName, final List<String> columnNames, final List<String> keyColumnNames,
+                final int rows) {
+            final StringBuilder sql = insert(tableName, columnNames, rows).append(" ON CONFLICT ");
+            appendList(sql, requireKeys(keyColumnNames));
+            boolean updated = false;
+            for (String column : columnNames) {
+                if (!keyColumnNames.contains(column)) {
+                    sql.append(updated ? ", " : " DO UPDATE SET ").append(column).append(" = EXCLUDED.").append(column);
+                    updated = true;
+                }
+            }
+            // 更新する列が無い場合は、重複した行を無視する。
+            return updated ? sql.toString() : sql.append(" DO NOTHING").toString();
+        }
+    },
+
+    /**
+     * ON DUPLICATE KEY UPDATEを指定したINSERT(MySQL)。
+     * <pre>
+     * INSERT INTO 表 (列1, 列2) VALUES (?, ?), (?, ?) ON DUPLICATE KEY UPDATE 列2 = VALUES(列2)
+     * </pre>
+     * キー以外の列が無い場合は、{@code ON DUPLICATE KEY UPDATE 列1 = 列1}で重複した行を無視する。
+     */
+    ON_DUPLICATE_KEY {
+        @Override
+        String createSql(final String tableName, final List<String> columnNames, final List<String> keyColumnNames,
+                final int rows) {
+            final StringBuilder sql = insert(tableName, columnNames, rows);
+            requireKeys(keyColumnNames);
+            sql.append(" ON DUPLICATE KEY UPDATE ");
+            boolean updated = false;
+            for (String column : columnNames) {
+                if (!keyColumnNames.contains(column)) {
+                    sql.append(updated ? ", " : "").append(column).append(" = VALUES(").append(column).append(')');
+                    updated = true;
+                }
+            }
+            if (!updated) {
+                // 更新する列が無い場合は、値を変更しない更新で重複した行を無視する。
+                final String key = keyColumnNames.get(0);
+                sql.append(key).append(" = ").append(key);
+            }
+            return sql.toString();
+        }
+    };
+
+    /**
+     * 複数行のSQLを生成する。
+     *
+     * @param tableName 表名
+     * @param columnNames 列名
+     * @param keyColumnNames キーの列名
+     * @param rows 行数
+     * @return SQL
+     */
+    abstract String createSql(String tableName, List<String> columnNames, List<String> keyColumnNames, int rows);
+
+    /**
+     * 複数行のINSERTを生成する。
+     *
+     * @param tableName 表名
+     * @param columnNames 列名
+     * @param rows 行数
+     * @return SQL
+     */
+    private static StringBuilder insert(final String tableName, final List<String> columnNames, final int rows) {
+        final StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(' ');
+        appendList(sql, columnNames);
+        return appendValues(sql, columnNames.size(), rows);
+    }
+
+    /**
+     * 括弧で囲んだカンマ区切りの列名を追加する。
+     *
+     * @param sql SQL
+     * @param columnNames 列名
+     */
+    private static void appendList(final StringBuilder sql, final List<String> columnNames) {
+        sql.append('(');
+        for (int i = 0; i < columnNames.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(columnNames.get(i));
+        }
+        sql.append(')');
+    }
+
+    /**
+     * 行数分のバインド変数を持つVALUES句を追加する。
+     *
+     * @param sql SQL
+     * @param columns 列数
+     * @param rows 行数
+     * @return SQL
+     */
+    private static StringBuilder appendValues(final StringBuilder sql, final int columns, final int rows) {
+        sql.append(" VALUES ");
+        for (int row = 0; row < rows; row++) {
+            if (row > 0) {
+                sql.append(", ");
+            }
+            sql.append('(');
+            for (int column = 0; column < columns; column++) {
+                if (column > 0) {
+                    sql.append(", ");
+                }
+                sql.append('?');
+            }
+            sql.append(')');
+        }
+        return sql;
+    }
+
+    /**
+     * キーの列名が指定されていることを確認する。
+     *
+     * @param keyColumnNames キーの列名
+     * @return キーの列名
+     */
+    private static List<String> requireKeys(final List<String> keyColumnNames) {
+        if (keyColumnNames.isEmpty()) {
+            throw new IllegalStateException("keyColumnNames must be set for upsert.");
+        }
+        return keyColumnNames;
+    }
+}
@@ -0,0 +1,270 @@
+package nablarch.fw.batch.ee.chunk;
+
+import java.io.Serializable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.batch.api.chunk.ItemReader;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 委譲先の{@link ItemReader}をバックグラウンドのスレッドで先読みする{@link ItemReader}。
+ * <p/>
+ * 委譲先のリーダが読み込んだ要素を上限付きのキューに格納しておくことで、
+ * データベースなどからの読み込みとプロセッサやライタの処理を並行して行う。
+ * キューが上限に達した場合、委譲先のリーダの読み込みは要素が取り出されるまで待機するため、
+ * 先読みによって使用するメモリは上限の件数分に限られる。
+ * <p/>
+ * 委譲先のリーダの{@code open}、{@code readItem}、{@code checkpointInfo}、{@code close}は、
+ * 全て同じバックグラウンドのスレッドで呼び出される。
+ * このため、{@link BaseDatabaseItemReader}のサブクラスのように、リーダ専用のコネクションを使用するリーダも委譲先にできる。
+ * <p/>
+ * バックグラウンドのスレッドはバッチのスレッドではないため、委譲先のリーダの処理中は
+ * {@link javax.batch.runtime.context.StepContext}や{@link javax.batch.runtime.context.JobContext}の{@code @Inject}、
+ * {@link nablarch.fw.batch.ee.cdi.StepScoped}を設定したBeanは解決できない。
+ * これらが必要な値は、本リーダを生成する際に委譲先のリーダに設定しておくこと。
+ * <p/>
+ * 委譲先のリーダの{@code checkpointInfo}は要素を読み込むたびに呼び出し、要素と一緒にキューに格納する。
+ * 本リーダの{@link #checkpointInfo()}は、先読みした位置ではなく、最後に返した要素を読み込んだ時点のチェックポイントを返す。
+ * このため、委譲先のリーダの{@code checkpointInfo}は、呼び出し後に変更されないオブジェクトを返す必要がある。
+ * <p/>
+ * 委譲先のリーダの読み込みで例外が発生した場合は、それまでに先読みした要素を返した後に例外を送出する。
+ * 例外がスキップやリトライの対象で、再度{@link #readItem()}が呼び出された場合は、委譲先のリーダから先読みを再開する。
+ * ロールバックを伴うリトライで{@link #close()}と{@link #open(Serializable)}が呼び出された場合は、
+ * 先読みした要素を破棄し、指定されたチェックポイントから読み込み直す。
+ */
+@Published
+public class PrefetchItemReader implements ItemReader {
+
+    /** デフォルトの先読みする件数の上限 */
+    private static final int DEFAULT_CAPACITY = 1000;
+
+    /** 委譲先のリーダ */
+    private final ItemReader delegate;
+
+    /** 先読みした要素を格納するキュー */
+    private final BlockingQueue<Element> queue;
+
+    /** 委譲先のリーダを実行するスレッド */
+    private ExecutorService executor;
+
+    /** 先読みを行うタスク */
+    private Future<?> prefetch;
+
+    /** 最後に返した要素のチェックポイント */
+    private Serializable checkpoint;
+
+    /** 全ての要素を返したか否か */
+    private boolean finished;
+
+    /** 委譲先のリーダの読み込みで例外が発生し、先読みが停止しているか否か */
+    private boolean failed;
+
+    /**
+     * 先読みする件数の上限をデフォルト(1000件)としてリーダを生成する。
+     *
+     * @param delegate 委譲先のリーダ
+     */
+    public PrefetchItemReader(final ItemReader delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * リーダを生成する。
+     *
+     * @param delegate 委譲先のリーダ
+     * @param capacity 先読みする件数の上限
+     */
+    public PrefetchItemReader(final ItemReader delegate, final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be greater than 0.");
+        }
+        this.delegate = delegate;
+        queue = new ArrayBlockingQueue<Element>(capacity);
+    }
+
+    @Override
+    public void open(final Serializable checkpoint) throws Exception {
+        this.checkpoint = checkpoint;
+        finished = false;
+        failed = false;
+        queue.clear();
+        executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "prefetch-item-reader");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        await(executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                delegate.open(checkpoint);
+                return null;
+            }
+        }));
+        prefetch = executor.submit(new Prefetch());
+    }
+
+    @Override
+    public Object readItem() throws Exception {
+        if (finished) {
+            return null;
+        }
+        if (failed) {
+            // スキップやリトライにより読み込みが継続されたため、先読みを再開する。
+            failed = false;
+            prefetch = executor.submit(new Prefetch());
+        }
+        final Element element = queue.take();
+        if (element.failure != null) {
+            failed = true;
+            if (element.failure instanceof Exception) {
+                throw (Exception) element.failure;
+            }
+            throw (Error) element.failure;
+        }
+        if (element.item == null) {
+            finished = true;
+            return null;
+        }
+        checkpoint = element.checkpoint;
+        return element.item;
+    }
+
+    /**
+     * 最後に返した要素を読み込んだ時点の、委譲先のリーダのチェックポイントを返す。
+     *
+     * @return チェックポイント(要素を返していない場合は、開始時のチェックポイント)
+     * @throws Exception 発生した例外
+     */
+    @Override
+    public Serializable checkpointInfo() throws Exception {
+        return checkpoint;
+    }
+
+    /**
+     * 先読みを停止し、委譲先のリーダを閉じる。
+     *
+     * @throws Exception 委譲先のリーダを閉じる際に発生した例外
+     */
+    @Override
+    public void close() throws Exception {
+        if (executor == null) {
+            return;
+        }
+        try {
+            if (prefetch != null) {
+                // キューへの格納を待機している場合も、割り込みにより先読みを終了させる。
+                prefetch.cancel(true);
+            }
+            queue.clear();
+            await(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    delegate.close();
+                    return null;
+                }
+            }));
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+            queue.clear();
+        }
+    }
+
+    /**
+     * バックグラウンドのスレッドで実行した処理の終了を待つ。
+     *
+     * @param future 処理の結果
+     * @throws Exception 処理で発生した例外
+     */
+    private static void await(final Future<?> future) throws Exception {
+        try {
+            future.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * 委譲先のリーダから読み込んだ要素をキューに格納するタスク。
+     */
+    private final class Prefetch implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    final Object item = delegate.readItem();
+                    if (item == null) {
+                        queue.put(Element.END);
+                        return;
+                    }
+                    queue.put(new Element(item, delegate.checkpointInfo(), null));
+                }
+            } catch (InterruptedException ignored) {
+                // closeにより先読みが停止された。
+            } catch (Throwable t) {
+                putFailure(t);
+            }
+        }
+
+        /**
+         * 読み込み時に発生した例外をキューに格納する。
+         *
+         * @param failure 読み込み時に発生した例外
+         */
+        private void putFailure(final Throwable failure) {
+            try {
+                queue.put(new Element(null, null, failure));
+            } catch (InterruptedException ignored) {
+                // closeにより先読みが停止された。
+            }
+        }
+    }
+
+    /**
+     * キューに格納する要素。
+     */
+    private static final class Element {
+
+        /** 全ての要素を読み込んだことを表す要素 */
+        private static final Element END = new Element(null, null, null);
+
+        /** 委譲先のリーダが読み込んだ要素 */
+        private final Object item;
+
+        /** 要素を読み込んだ時点のチェックポイント */
+        private final Serializable checkpoint;
+
+        /** 読み込み時に発生した例外 */
+        private final Throwable failure;
+
+        /**
+         * 要素を生成する。
+         *
+         * @param item 委譲先のリーダが読み込んだ要素
+         * @param checkpoint 要素を読み込んだ時点のチェックポイント
+         * @param failure 読み込み時に発生した例外
+         */
+        private Element(final Object item, final Serializable checkpoint, final Throwable failure) {
+            this.item = item;
+            this.checkpoint = checkpoint;
+            this.failure = failure;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package nablarch.fw.batch.ee.chunk;
+
+import java.io.Serializable;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * リスタート時にコミット済みの要素を読み飛ばす、データベースを入力とする{@link javax.batch.api.chunk.ItemReader}の抽象クラス。
+ * <p/>
+ * 本リーダは、返した要素のキーを記録し、チャンクのコミット時に{@link #checkpointInfo()}で最後に返した要素のキーを
+ * チェックポイントとして返す。
+ * リスタート時には、コミット済みの最後の要素のキーが{@link #openAfter(Serializable)}に渡されるため、
+ * 継承クラスは「キー &gt; 指定されたキー ORDER BY キー」のように位置付けたクエリを開くだけでよい。
+ * これにより、先頭から読み込んで読み飛ばす必要がなくなり、リスタートのコストが残りの件数に比例するようになる。
+ * <p/>
+ * 本クラスを継承するクラスは、以下のメソッドを実装する。
+ * <ul>
+ * <li>{@link #openAfter(Serializable)}:指定されたキーより大きいキーを持つ要素を、キーの昇順に読み込むクエリを開く</li>
+ * <li>{@link #readNextItem()}:次の要素を読み込む</li>
+ * <li>{@link #getKey(Object)}:要素のキーを返す</li>
+ * </ul>
+ */
+@Published
+public abstract class RestartableDatabaseItemReader extends BaseDatabaseItemReader {
+
+    /** 最後に返した要素のキー */
+    private Serializable lastKey;
+
+    @Override
+    protected final void doOpen(final Serializable checkpoint) throws Exception {
+        lastKey = checkpoint;
+        openAfter(checkpoint);
+    }
+
+    @Override
+    public final Object readItem() throws Exception {
+        final Object item = readNextItem();
+        if (item != null) {
+            lastKey = getKey(item);
+        }
+        return item;
+    }
+
+    /**
+     * 最後に返した要素のキーをチェックポイントとして返す。
+     * <p/>
+     * 本メソッドはチャンクのコミット時に呼び出されるため、リスタート時にはコミット済みの最後の要素のキーとなる。
+     *
+     * @return 最後に返した要素のキー(要素を返していない場合は、開始時のチェックポイント)
+     * @throws Exception 発生した例外
+     */
+    @Override
+    public final Serializable checkpointInfo() throws Exception {
+        return lastKey;
+    }
+
+    /**
+     * 指定されたキーより大きいキーを持つ要素を、キーの昇順に読み込むクエリを開く。
+     *
+     * @param lastKey コミット済みの最後の要素のキー(初回実行時は{@code null})
+     * @throws Exception 発生した例外
+     */
+    protected abstract void openAfter(Serializable lastKey) throws Exception;
+
+    /**
+     * 次の要素を読み込む。
+     *
+     * @return 次の要素(要素が存在しない場合は{@code null})
+     * @throws Exception 発生した例外
+     */
+    protected abstract Object readNextItem() throws Exception;
+
+    /**
+     * 要素のキーを返す。
+     *
+     * @param item 要素
+     * @return キー
+     */
+    protected abstract Serializable getKey(Object item);
+}
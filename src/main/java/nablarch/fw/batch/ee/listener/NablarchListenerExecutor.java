@@ -3,13 +3,13 @@ package nablarch.fw.batch.ee.listener;
 import nablarch.core.log.Logger;
 import nablarch.core.log.LoggerManager;
 import nablarch.core.repository.SystemRepository;
+import nablarch.fw.batch.ee.partition.ParentContextRegistry;
 
 import javax.batch.runtime.context.JobContext;
 import javax.batch.runtime.context.StepContext;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -19,6 +19,7 @@ import java.util.List;
  * <ol>
  * <li>{@link NablarchListenerExecutor}のインスタンス変数をリスナー実行クラスに定義する</li>
  * <li>リスナー実行クラスの事前処理内で{@link NablarchListenerExecutor}のインスタンスを作成する</li>
+ * <li>チャンク毎のように同一ステップ内で繰り返し事前処理が呼び出される場合は、作成したインスタンスを再利用する</li>
  * <li>リスナー実行クラスで状況に応じて{@link #executeBefore(Runner)}、{@link #executeAfter(Runner)}、
  * {@link #executeOnError(Runner)}を呼び出す
  * <p/>
@@ -45,8 +46,13 @@ public class NablarchListenerExecutor<T> {
     /** ロガー */
     private static final Logger LOGGER = LoggerManager.get(NablarchListenerExecutor.class);
 
-    /** {@link #executeBefore(Runner)} (T)}で実行された{@link T}のスタック */
-    private final LinkedList<T> executedListenerStack = new LinkedList<T>();
+    /**
+     * {@link #executeBefore(Runner)} (T)}で実行された{@link T}のスタック
+     * <p/>
+     * 実行された順に格納し、末尾から参照することでスタックとして使用する。
+     * {@link #executeBefore(Runner)}の呼び出し毎にクリアして再利用する。
+     */
+    private final List<T> executedListenerStack = new ArrayList<T>();
 
     /** {@link SystemRepository}に登録されているデフォルトのリスナーリスト名 */
     private final String listenerListName;
@@ -57,6 +63,12 @@ public class NablarchListenerExecutor<T> {
     /** ステップ名 */
     private final StepContext stepContext;
 
+    /** リスナー実行時のコンテキスト情報(各処理の呼び出し毎に状態を初期化して再利用する) */
+    private final NablarchListenerContext context;
+
+    /** {@link SystemRepository}から取得した実行対象のリスナーリスト(未取得の場合は{@code null}) */
+    private List<T> listeners;
+
     /**
      * コンストラクタ
      *
@@ -78,18 +90,30 @@ public class NablarchListenerExecutor<T> {
         this.listenerListName = listenerListName;
         this.jobContext = jobContext;
         this.stepContext = stepContext;
+        context = new NablarchListenerContext(jobContext, stepContext);
     }
 
     /**
      * {@link SystemRepository}より実行対象となるリスナーのリストを取得し、リスナーの事前処理を順次実行する。
+     * <p/>
+     * リスナーのリストは初回の呼び出し時に{@link SystemRepository}から取得し、以降の呼び出しでは取得済みのリストを使用する。
+     * また、前回の呼び出しで実行されたリスナーのスタックは破棄した上で事前処理を実行する。
+     * <p/>
+     * リスナーに渡す{@link NablarchListenerContext}は本インスタンス内で再利用されるため、
+     * リスナーは渡されたコンテキストを呼び出しを跨いで保持してはならない。
      *
      * @param runner 事前処理を行う{@link Runner}
      */
     public final void executeBefore(Runner<T> runner) {
-        final NablarchListenerContext context = new NablarchListenerContext(jobContext, stepContext);
-        final List<T> listeners = lookupNablarchListenerList();
-        for (T listener : listeners) {
-            executedListenerStack.push(listener);
+        context.setProcessSucceeded(true);
+        if (listeners == null) {
+            // 添字でアクセスするため、ランダムアクセス可能なリストに詰め替えて保持する
+            listeners = new ArrayList<T>(lookupNablarchListenerList());
+        }
+        executedListenerStack.clear();
+        for (int i = 0; i < listeners.size(); i++) {
+            final T listener = listeners.get(i);
+            executedListenerStack.add(listener);
             try {
                 runner.run(listener, context);
             } catch (RuntimeException ex) {
@@ -114,18 +138,7 @@ public class NablarchListenerExecutor<T> {
      * @throws Exception {@link Runner#run(Object, NablarchListenerContext)}実行時に最初に送出された例外
      */
     public final void executeAfter(Runner<T> runner) throws Exception {
-        final NablarchListenerContext context = new NablarchListenerContext(jobContext, stepContext);
-        final ThrowableList throwableList = new ThrowableList();
-        for (T listener : executedListenerStack) {
-            try {
-                runner.run(listener, context);
-            } catch (Throwable t) {
-                context.setProcessSucceeded(false);
-                throwableList.add(t);
-                outputLog(t);
-            }
-        }
-        throwableList.throwFirstThrowable();
+        executeInReverseOrder(runner);
     }
 
     /**
@@ -140,18 +153,32 @@ public class NablarchListenerExecutor<T> {
      * @throws Exception {@link Runner#run(Object, NablarchListenerContext)}実行時に最初に送出された例外
      */
     public final void executeOnError(Runner<T> runner) throws Exception {
-        final NablarchListenerContext context = new NablarchListenerContext(jobContext, stepContext);
-        final ThrowableList throwableList = new ThrowableList();
-        for (T listener : executedListenerStack) {
+        executeInReverseOrder(runner);
+    }
+
+    /**
+     * {@link #executeBefore(Runner)}にて実行されたリスナーを、実行された順番とは逆順で実行する。
+     * <p/>
+     * 例外が発生した場合は、ワーニングログを出力して後続のリスナーを実行後、最初に発生した例外を呼び出し元に送出する。
+     *
+     * @param runner リスナーの処理を行う{@link Runner}
+     * @throws Exception {@link Runner#run(Object, NablarchListenerContext)}実行時に最初に送出された例外
+     */
+    private void executeInReverseOrder(Runner<T> runner) throws Exception {
+        context.setProcessSucceeded(true);
+        Throwable firstThrowable = null;
+        for (int i = executedListenerStack.size() - 1; i >= 0; i--) {
             try {
-                runner.run(listener, context);
+                runner.run(executedListenerStack.get(i), context);
             } catch (Throwable t) {
                 context.setProcessSucceeded(false);
-                throwableList.add(t);
+                if (firstThrowable == null) {
+                    firstThrowable = t;
+                }
                 outputLog(t);
             }
         }
-        throwableList.throwFirstThrowable();
+        throwIfNotNull(firstThrowable);
     }
 
     /**
@@ -164,19 +191,21 @@ public class NablarchListenerExecutor<T> {
      *     <li>デフォルト設定のリスナー</li>
      * </ol>
      * デフォルト設定が存在しない場合には、空のリストを返す。
+     * パーティションやスプリットのフローを実行するスレッドでは、ジョブ名に{@link ParentContextRegistry}から取得したジョブのジョブ名を使用する。
      *
      * @return リスナーのリスト
      */
     private List<T> lookupNablarchListenerList() {
+        final String jobName = ParentContextRegistry.getJobContext(jobContext).getJobName();
         if (stepContext != null) {
             final List<T> customStepListeners = SystemRepository.get(
-                    jobContext.getJobName() + '.' + stepContext.getStepName() + '.' + listenerListName);
+                    jobName + '.' + stepContext.getStepName() + '.' + listenerListName);
             if (customStepListeners != null) {
                 return customStepListeners;
             }
         }
         final List<T> customListeners = SystemRepository.get(
-                jobContext.getJobName() + '.' + listenerListName);
+                jobName + '.' + listenerListName);
         if (customListeners != null) {
             return customListeners;
         }
@@ -221,39 +250,19 @@ public class NablarchListenerExecutor<T> {
     }
 
     /**
-     * {@link Throwable}を保持するリスト
+     * {@link Throwable}が指定された場合、呼び出し元に送出する。
+     * <p/>
+     * 送出の際には、{@link Throwable}の型を{@link Exception}もしくは{@link Error}に変換する。
+     *
+     * @param throwable 送出する{@link Throwable}({@code null}の場合は何もしない)
+     * @throws Exception 指定された{@link Exception}
      */
-    private static class ThrowableList {
-
-        /** {@link Throwable}を格納するリスト */
-        private final List<Throwable> throwables = new ArrayList<Throwable>();
-
-        /**
-         * リストに{@link Throwable}を格納する
-         *
-         * @param throwable リストに追加する{@link Throwable}
-         */
-        public void add(Throwable throwable) {
-            throwables.add(throwable);
-        }
-
-        /**
-         * リストに格納されている先頭の{@link Throwable}を呼び出し元に送出する。
-         * <p/>
-         * 送出の際には、{@link Throwable}の型を{@link Exception}もしくは{@link Error}に変換する。
-         * <p/>
-         * リストに{@link Throwable}が格納されていない場合は何もしない。
-         *
-         * @throws Exception リストの先頭に格納された{@link Exception}
-         */
-        public void throwFirstThrowable() throws Exception {
-            if (!throwables.isEmpty()) {
-                Throwable throwable = throwables.get(0);
-                if (throwable instanceof Exception) {
-                    throw (Exception) throwable;
-                } else {
-                    throw (Error) throwable;
-                }
+    private static void throwIfNotNull(Throwable throwable) throws Exception {
+        if (throwable != null) {
+            if (throwable instanceof Exception) {
+                throw (Exception) throwable;
+            } else {
+                throw (Error) throwable;
             }
         }
     }
@@ -24,6 +24,9 @@ import java.util.List;
  * <li>itemWriteListenersでリスナーリストが登録されている場合、そのリストを使用する。</li>
  * <li>上記に該当しない場合、このリスナーは何もしない。</li>
  * </ol>
+ * <p/>
+ * リスナーリストの取得はステップ内の最初のチャンクでのみ行い、以降のチャンクでは取得済みのリスナーリストを使用する。
+ * また、リスナーの実行に必要なオブジェクトはステップ内で再利用するため、チャンク毎の処理でオブジェクトの生成は行わない。
  *
  * @author Naoki Yamamoto
  */
@@ -45,6 +48,15 @@ public class NablarchItemWriteListenerExecutor implements ItemWriteListener {
     /** {@link NablarchListenerExecutor} */
     private NablarchListenerExecutor<NablarchItemWriteListener> executor;
 
+    /** {@link NablarchItemWriteListener#beforeWrite(NablarchListenerContext, List)}を実行する{@link Runner} */
+    private final BeforeWriteRunner beforeWriteRunner = new BeforeWriteRunner();
+
+    /** {@link NablarchItemWriteListener#afterWrite(NablarchListenerContext, List)}を実行する{@link Runner} */
+    private final AfterWriteRunner afterWriteRunner = new AfterWriteRunner();
+
+    /** {@link NablarchItemWriteListener#onWriteError(NablarchListenerContext, List, Exception)}を実行する{@link Runner} */
+    private final OnWriteErrorRunner onWriteErrorRunner = new OnWriteErrorRunner();
+
     /**
      * {@link NablarchItemWriteListener#beforeWrite(NablarchListenerContext, List)}を順次実行する。
      *
@@ -53,13 +65,15 @@ public class NablarchItemWriteListenerExecutor implements ItemWriteListener {
      */
     @Override
     public void beforeWrite(final List<Object> items) throws Exception {
-        executor = new NablarchListenerExecutor<NablarchItemWriteListener>(LISTENER_LIST_NAME, jobContext, stepContext);
-        executor.executeBefore(new Runner<NablarchItemWriteListener>() {
-            @Override
-            public void run(NablarchItemWriteListener listener, NablarchListenerContext context) {
-                listener.beforeWrite(context, items);
-            }
-        });
+        if (executor == null) {
+            executor = new NablarchListenerExecutor<NablarchItemWriteListener>(LISTENER_LIST_NAME, jobContext, stepContext);
+        }
+        beforeWriteRunner.items = items;
+        try {
+            executor.executeBefore(beforeWriteRunner);
+        } finally {
+            beforeWriteRunner.items = null;
+        }
     }
 
     /**
@@ -71,12 +85,12 @@ public class NablarchItemWriteListenerExecutor implements ItemWriteListener {
     @Override
     public void afterWrite(final List<Object> items) throws Exception {
         if (executor != null) {
-            executor.executeAfter(new Runner<NablarchItemWriteListener>() {
-                @Override
-                public void run(NablarchItemWriteListener listener, NablarchListenerContext context) {
-                    listener.afterWrite(context, items);
-                }
-            });
+            afterWriteRunner.items = items;
+            try {
+                executor.executeAfter(afterWriteRunner);
+            } finally {
+                afterWriteRunner.items = null;
+            }
         }
     }
 
@@ -90,12 +104,65 @@ public class NablarchItemWriteListenerExecutor implements ItemWriteListener {
     @Override
     public void onWriteError(final List<Object> items, final Exception ex) throws Exception {
         if (executor != null) {
-            executor.executeOnError(new Runner<NablarchItemWriteListener>() {
-                @Override
-                public void run(NablarchItemWriteListener listener, NablarchListenerContext context) {
-                    listener.onWriteError(context, items, ex);
-                }
-            });
+            onWriteErrorRunner.items = items;
+            onWriteErrorRunner.ex = ex;
+            try {
+                executor.executeOnError(onWriteErrorRunner);
+            } finally {
+                onWriteErrorRunner.items = null;
+                onWriteErrorRunner.ex = null;
+            }
+        }
+    }
+
+    /**
+     * {@link NablarchItemWriteListener#beforeWrite(NablarchListenerContext, List)}を実行する{@link Runner}。
+     * <p/>
+     * チャンク毎にインスタンスを生成しないよう、書き込み対象のオブジェクトを呼び出し毎に設定して再利用する。
+     */
+    private static final class BeforeWriteRunner implements Runner<NablarchItemWriteListener> {
+
+        /** 書き込み対象のオブジェクト */
+        private List<Object> items;
+
+        @Override
+        public void run(final NablarchItemWriteListener listener, final NablarchListenerContext context) {
+            listener.beforeWrite(context, items);
+        }
+    }
+
+    /**
+     * {@link NablarchItemWriteListener#afterWrite(NablarchListenerContext, List)}を実行する{@link Runner}。
+     * <p/>
+     * チャンク毎にインスタンスを生成しないよう、書き込み対象のオブジェクトを呼び出し毎に設定して再利用する。
+     */
+    private static final class AfterWriteRunner implements Runner<NablarchItemWriteListener> {
+
+        /** 書き込み対象のオブジェクト */
+        private List<Object> items;
+
+        @Override
+        public void run(final NablarchItemWriteListener listener, final NablarchListenerContext context) {
+            listener.afterWrite(context, items);
+        }
+    }
+
+    /**
+     * {@link NablarchItemWriteListener#onWriteError(NablarchListenerContext, List, Exception)}を実行する{@link Runner}。
+     * <p/>
+     * チャンク毎にインスタンスを生成しないよう、書き込み対象のオブジェクトと例外を呼び出し毎に設定して再利用する。
+     */
+    private static final class OnWriteErrorRunner implements Runner<NablarchItemWriteListener> {
+
+        /** 書き込み対象のオブジェクト */
+        private List<Object> items;
+
+        /** 書き込み処理時に発生した例外 */
+        private Exception ex;
+
+        @Override
+        public void run(final NablarchItemWriteListener listener, final NablarchListenerContext context) {
+            listener.onWriteError(context, items, ex);
         }
     }
 }
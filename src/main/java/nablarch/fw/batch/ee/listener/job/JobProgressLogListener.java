@@ -3,11 +3,16 @@ package nablarch.fw.batch.ee.listener.job;
 import java.text.MessageFormat;
 
 import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+import nablarch.fw.batch.ee.progress.JBatchProcessName;
+import nablarch.fw.batch.ee.progress.JsonProgressLogPrinter;
 import nablarch.fw.batch.progress.ProgressLogger;
 
 /**
  * JOBの進捗ログを出力するリスナークラス。<br>
  * JOB開始時と終了時にログを出力し、終了時にはステータスも併せて出力する。
+ * <p/>
+ * ジョブプロパティ{@value nablarch.fw.batch.ee.progress.BasicProgressManager#PRINTER}にjsonが指定されている場合は、
+ * 進捗と同じJSON形式の1行({@link JsonProgressLogPrinter#printEvent(JBatchProcessName, String, String)})で出力する。
  *
  * @author Shohei Ukawa
  */
@@ -18,6 +23,10 @@ public class JobProgressLogListener extends AbstractNablarchJobListener {
      */
     @Override
     public void beforeJob(NablarchListenerContext context) {
+        if (JsonProgressLogPrinter.isSelected(context.getJobContext().getProperties())) {
+            JsonProgressLogPrinter.printEvent(new JBatchProcessName(context.getJobName(), null), "start", null);
+            return;
+        }
         ProgressLogger.write(MessageFormat.format("start job. job name: [{0}]", context.getJobName()));
     }
 
@@ -26,6 +35,10 @@ public class JobProgressLogListener extends AbstractNablarchJobListener {
      */
     @Override
     public void afterJob(NablarchListenerContext context) {
+        if (JsonProgressLogPrinter.isSelected(context.getJobContext().getProperties())) {
+            JsonProgressLogPrinter.printEvent(new JBatchProcessName(context.getJobName(), null), "finish", null);
+            return;
+        }
         ProgressLogger.write(MessageFormat.format("finish job. job name: [{0}]", context.getJobName()));
     }
 }
@@ -1,10 +1,13 @@
 package nablarch.fw.batch.ee.listener.job;
 
 import nablarch.core.repository.SystemRepository;
+import nablarch.fw.batch.ee.JobEndNotifier;
+import nablarch.fw.batch.ee.cdi.JobScopedContext;
 import nablarch.fw.batch.ee.initializer.LogInitializer;
 import nablarch.fw.batch.ee.initializer.RepositoryInitializer;
 import nablarch.fw.batch.ee.listener.NablarchListenerContext;
 import nablarch.fw.batch.ee.listener.NablarchListenerExecutor;
+import nablarch.fw.batch.ee.partition.ParentContextRegistry;
 
 import javax.batch.api.BatchProperty;
 import javax.batch.api.listener.JobListener;
@@ -23,6 +26,9 @@ import javax.inject.Named;
  * <li>jobListenersでリスナーリストが登録されている場合、そのリストを使用する。</li>
  * <li>上記に該当しない場合、このリスナーは何もしない。</li>
  * </ol>
+ * <p/>
+ * パーティションやスプリットのフローを実行するスレッドから、ジョブの{@link JobContext}を取得できるよう、
+ * ジョブの実行中は{@link ParentContextRegistry}にジョブコンテキストを登録する。
  *
  * @author Naoki Yamamoto
  */
@@ -55,6 +61,7 @@ public class NablarchJobListenerExecutor implements JobListener {
     @Override
     public void beforeJob() throws Exception {
 
+        ParentContextRegistry.register(jobContext);
         LogInitializer.initialize();
         RepositoryInitializer.initialize(diConfigFilePath);
 
@@ -69,18 +76,33 @@ public class NablarchJobListenerExecutor implements JobListener {
 
     /**
      * {@link NablarchJobListener#afterJob(NablarchListenerContext)}を逆順で実行する。
+     * <p/>
+     * リスナーの実行後に、ジョブスコープのBeanを破棄し、
+     * JOBの終了を待機している{@link nablarch.fw.batch.ee.JobExecutor}に終了を通知する。
      *
      * @throws Exception {@link NablarchJobListener#afterJob(NablarchListenerContext)}実行時に送出された例外
      */
     @Override
     public void afterJob() throws Exception {
-        if (executor != null) {
-            executor.executeAfter(new NablarchListenerExecutor.Runner<NablarchJobListener>() {
-                @Override
-                public void run(NablarchJobListener listener, NablarchListenerContext context) {
-                    listener.afterJob(context);
+        try {
+            if (executor != null) {
+                executor.executeAfter(new NablarchListenerExecutor.Runner<NablarchJobListener>() {
+                    @Override
+                    public void run(NablarchJobListener listener, NablarchListenerContext context) {
+                        listener.afterJob(context);
+                    }
+                });
+            }
+        } finally {
+            try {
+                JobScopedContext.destroy(jobContext);
+            } finally {
+                try {
+                    ParentContextRegistry.unregister(jobContext);
+                } finally {
+                    JobEndNotifier.notifyEnd(jobContext.getExecutionId());
                 }
-            });
+            }
         }
     }
 }
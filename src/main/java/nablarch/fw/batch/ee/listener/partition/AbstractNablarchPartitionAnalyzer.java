@@ -0,0 +1,27 @@
+package nablarch.fw.batch.ee.listener.partition;
+
+import java.io.Serializable;
+
+import javax.batch.runtime.BatchStatus;
+
+import nablarch.core.util.annotation.Published;
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+
+/**
+ * {@link NablarchPartitionAnalyzer}を実装した抽象クラス。
+ * <p/>
+ * 本クラスの実装では処理を何も行わない。サブクラス側で必要なメソッドをオーバライドし処理を追加すること。
+ */
+@Published(tag = "architect")
+public abstract class AbstractNablarchPartitionAnalyzer implements NablarchPartitionAnalyzer {
+
+    @Override
+    public void analyzeCollectorData(NablarchListenerContext context, Serializable data) {
+        // nop
+    }
+
+    @Override
+    public void analyzeStatus(NablarchListenerContext context, BatchStatus batchStatus, String exitStatus) {
+        // nop
+    }
+}
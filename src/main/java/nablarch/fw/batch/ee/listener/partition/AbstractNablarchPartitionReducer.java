@@ -0,0 +1,35 @@
+package nablarch.fw.batch.ee.listener.partition;
+
+import javax.batch.api.partition.PartitionReducer.PartitionStatus;
+
+import nablarch.core.util.annotation.Published;
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+
+/**
+ * {@link NablarchPartitionReducer}を実装した抽象クラス。
+ * <p/>
+ * 本クラスの実装では処理を何も行わない。サブクラス側で必要なメソッドをオーバライドし処理を追加すること。
+ */
+@Published(tag = "architect")
+public abstract class AbstractNablarchPartitionReducer implements NablarchPartitionReducer {
+
+    @Override
+    public void beginPartitionedStep(NablarchListenerContext context) {
+        // nop
+    }
+
+    @Override
+    public void beforePartitionedStepCompletion(NablarchListenerContext context) {
+        // nop
+    }
+
+    @Override
+    public void rollbackPartitionedStep(NablarchListenerContext context) {
+        // nop
+    }
+
+    @Override
+    public void afterPartitionedStepCompletion(NablarchListenerContext context, PartitionStatus status) {
+        // nop
+    }
+}
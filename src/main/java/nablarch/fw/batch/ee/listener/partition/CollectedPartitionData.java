@@ -0,0 +1,13 @@
+package nablarch.fw.batch.ee.listener.partition;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+
+/**
+ * {@link NablarchPartitionCollectorExecutor}が収集したデータをまとめてメインスレッドに送るためのリスト。
+ */
+class CollectedPartitionData extends ArrayList<Serializable> {
+
+    /** シリアルバージョンUID */
+    private static final long serialVersionUID = 1L;
+}
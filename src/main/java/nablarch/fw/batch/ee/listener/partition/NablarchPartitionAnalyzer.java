@@ -0,0 +1,35 @@
+package nablarch.fw.batch.ee.listener.partition;
+
+import java.io.Serializable;
+
+import javax.batch.runtime.BatchStatus;
+
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+
+/**
+ * メインスレッドで、パーティションから送られたデータとパーティションの終了状態を処理するインタフェース。
+ *
+ * @see javax.batch.api.partition.PartitionAnalyzer
+ */
+public interface NablarchPartitionAnalyzer {
+
+    /**
+     * パーティションから送られたデータを処理する。
+     * <p/>
+     * 全ての{@link NablarchPartitionCollector}が収集したデータが、1件ずつ渡される。
+     * 自身が処理すべきデータかどうかは、データの型で判断すること。
+     *
+     * @param context {@link NablarchListenerContext}
+     * @param data {@link NablarchPartitionCollector}が収集したデータ
+     */
+    void analyzeCollectorData(NablarchListenerContext context, Serializable data);
+
+    /**
+     * パーティションの終了状態を処理する。
+     *
+     * @param context {@link NablarchListenerContext}
+     * @param batchStatus パーティションのバッチステータス
+     * @param exitStatus パーティションの終了ステータス
+     */
+    void analyzeStatus(NablarchListenerContext context, BatchStatus batchStatus, String exitStatus);
+}
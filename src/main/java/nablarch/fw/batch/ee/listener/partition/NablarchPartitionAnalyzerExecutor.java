@@ -0,0 +1,116 @@
+package nablarch.fw.batch.ee.listener.partition;
+
+import java.io.Serializable;
+
+import javax.batch.api.partition.PartitionAnalyzer;
+import javax.batch.runtime.BatchStatus;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import nablarch.core.repository.SystemRepository;
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+import nablarch.fw.batch.ee.listener.NablarchListenerExecutor;
+
+/**
+ * {@link PartitionAnalyzer}を実装したクラスで、{@link NablarchPartitionAnalyzer}を順次実行するクラス。
+ * <p/>
+ * {@link NablarchPartitionCollectorExecutor}がまとめて送ったデータは、1件ずつに分けてリスナーに渡す。
+ * それ以外の{@link javax.batch.api.partition.PartitionCollector}が送ったデータは、そのままリスナーに渡す。
+ * <p/>
+ * 本クラスでは、{@link SystemRepository}から実行対象のリスナー({@link NablarchPartitionAnalyzer})のリストを取得する。
+ * {@link SystemRepository}からリスナーリストを取得する方法は以下のとおり。
+ * <ol>
+ * <li>ジョブ名称 + ステップ名 + ".partitionAnalyzers"でリスナーリストが登録されている場合、そのリストを使用する。</li>
+ * <li>ジョブ名称 + ".partitionAnalyzers"でリスナーリストが登録されている場合、そのリストを使用する。</li>
+ * <li>partitionAnalyzersでリスナーリストが登録されている場合、そのリストを使用する。</li>
+ * <li>上記に該当しない場合、このリスナーは何もしない。</li>
+ * </ol>
+ *
+ * @see javax.batch.api.partition.PartitionCollector
+ */
+@Named
+@Dependent
+public class NablarchPartitionAnalyzerExecutor implements PartitionAnalyzer {
+
+    /** {@link SystemRepository}からリスナーリストを取得する際のコンポーネント名 */
+    private static final String LISTENER_LIST_NAME = "partitionAnalyzers";
+
+    /** {@link JobContext} */
+    @Inject
+    private JobContext jobContext;
+
+    /** {@link StepContext} */
+    @Inject
+    private StepContext stepContext;
+
+    /** {@link NablarchListenerExecutor} */
+    private NablarchListenerExecutor<NablarchPartitionAnalyzer> executor;
+
+    /**
+     * {@link NablarchPartitionAnalyzer#analyzeCollectorData(NablarchListenerContext, Serializable)}を順次実行する。
+     *
+     * @param data パーティションから送られたデータ
+     * @throws Exception {@link NablarchPartitionAnalyzer#analyzeCollectorData(NablarchListenerContext, Serializable)}
+     * 実行時に送出された例外
+     */
+    @Override
+    public void analyzeCollectorData(final Serializable data) throws Exception {
+        if (data instanceof CollectedPartitionData) {
+            for (final Serializable element : (CollectedPartitionData) data) {
+                analyze(element);
+            }
+        } else if (data != null) {
+            analyze(data);
+        }
+    }
+
+    /**
+     * {@link NablarchPartitionAnalyzer#analyzeStatus(NablarchListenerContext, BatchStatus, String)}を順次実行する。
+     *
+     * @param batchStatus パーティションのバッチステータス
+     * @param exitStatus パーティションの終了ステータス
+     * @throws Exception {@link NablarchPartitionAnalyzer#analyzeStatus(NablarchListenerContext, BatchStatus, String)}
+     * 実行時に送出された例外
+     */
+    @Override
+    public void analyzeStatus(final BatchStatus batchStatus, final String exitStatus) throws Exception {
+        getExecutor().executeBefore(new NablarchListenerExecutor.Runner<NablarchPartitionAnalyzer>() {
+            @Override
+            public void run(NablarchPartitionAnalyzer listener, NablarchListenerContext context) {
+                listener.analyzeStatus(context, batchStatus, exitStatus);
+            }
+        });
+    }
+
+    /**
+     * 1件のデータをリスナーに渡す。
+     *
+     * @param data データ
+     */
+    private void analyze(final Serializable data) {
+        getExecutor().executeBefore(new NablarchListenerExecutor.Runner<NablarchPartitionAnalyzer>() {
+            @Override
+            public void run(NablarchPartitionAnalyzer listener, NablarchListenerContext context) {
+                listener.analyzeCollectorData(context, data);
+            }
+        });
+    }
+
+    /**
+     * {@link NablarchListenerExecutor}を取得する。
+     * <p/>
+     * パーティションの数だけ繰り返し呼び出されるため、初回に生成したインスタンスを再利用する。
+     *
+     * @return {@link NablarchListenerExecutor}
+     */
+    private NablarchListenerExecutor<NablarchPartitionAnalyzer> getExecutor() {
+        if (executor == null) {
+            executor = new NablarchListenerExecutor<NablarchPartitionAnalyzer>(
+                    LISTENER_LIST_NAME, jobContext, stepContext);
+        }
+        return executor;
+    }
+}
@@ -0,0 +1,27 @@
+package nablarch.fw.batch.ee.listener.partition;
+
+import java.io.Serializable;
+
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+
+/**
+ * パーティションのスレッドで、メインスレッドに送るデータを収集するインタフェース。
+ * <p/>
+ * 収集したデータは、メインスレッドの{@link NablarchPartitionAnalyzer#analyzeCollectorData(NablarchListenerContext, Serializable)}
+ * に渡される。
+ *
+ * @see javax.batch.api.partition.PartitionCollector
+ */
+public interface NablarchPartitionCollector {
+
+    /**
+     * メインスレッドに送るデータを収集する。
+     * <p/>
+     * チャンクステップの場合はチェックポイント毎とパーティションの終了時に、
+     * バッチレットステップの場合はパーティションの終了時に呼び出される。
+     *
+     * @param context {@link NablarchListenerContext}
+     * @return メインスレッドに送るデータ(送るデータがない場合は{@code null})
+     */
+    Serializable collectPartitionData(NablarchListenerContext context);
+}
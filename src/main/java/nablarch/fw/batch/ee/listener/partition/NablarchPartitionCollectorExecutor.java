@@ -0,0 +1,74 @@
+package nablarch.fw.batch.ee.listener.partition;
+
+import java.io.Serializable;
+
+import javax.batch.api.partition.PartitionCollector;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import nablarch.core.repository.SystemRepository;
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+import nablarch.fw.batch.ee.listener.NablarchListenerExecutor;
+
+/**
+ * {@link PartitionCollector}を実装したクラスで、{@link NablarchPartitionCollector}を順次実行するクラス。
+ * <p/>
+ * 各リスナーが収集したデータ({@code null}を除く)は、1つにまとめてメインスレッドに送られ、
+ * {@link NablarchPartitionAnalyzerExecutor}によって{@link NablarchPartitionAnalyzer}に1件ずつ渡される。
+ * <p/>
+ * 本クラスでは、{@link SystemRepository}から実行対象のリスナー({@link NablarchPartitionCollector})のリストを取得する。
+ * {@link SystemRepository}からリスナーリストを取得する方法は以下のとおり。
+ * <ol>
+ * <li>ジョブ名称 + ステップ名 + ".partitionCollectors"でリスナーリストが登録されている場合、そのリストを使用する。</li>
+ * <li>ジョブ名称 + ".partitionCollectors"でリスナーリストが登録されている場合、そのリストを使用する。</li>
+ * <li>partitionCollectorsでリスナーリストが登録されている場合、そのリストを使用する。</li>
+ * <li>上記に該当しない場合、このリスナーは何もしない。</li>
+ * </ol>
+ */
+@Named
+@Dependent
+public class NablarchPartitionCollectorExecutor implements PartitionCollector {
+
+    /** {@link SystemRepository}からリスナーリストを取得する際のコンポーネント名 */
+    private static final String LISTENER_LIST_NAME = "partitionCollectors";
+
+    /** {@link JobContext} */
+    @Inject
+    private JobContext jobContext;
+
+    /** {@link StepContext} */
+    @Inject
+    private StepContext stepContext;
+
+    /** {@link NablarchListenerExecutor} */
+    private NablarchListenerExecutor<NablarchPartitionCollector> executor;
+
+    /**
+     * {@link NablarchPartitionCollector#collectPartitionData(NablarchListenerContext)}を順次実行し、
+     * 収集したデータをまとめて返す。
+     *
+     * @return 収集したデータ(収集したデータがない場合は{@code null})
+     * @throws Exception {@link NablarchPartitionCollector#collectPartitionData(NablarchListenerContext)}実行時に送出された例外
+     */
+    @Override
+    public Serializable collectPartitionData() throws Exception {
+        if (executor == null) {
+            executor = new NablarchListenerExecutor<NablarchPartitionCollector>(
+                    LISTENER_LIST_NAME, jobContext, stepContext);
+        }
+        final CollectedPartitionData collected = new CollectedPartitionData();
+        executor.executeBefore(new NablarchListenerExecutor.Runner<NablarchPartitionCollector>() {
+            @Override
+            public void run(NablarchPartitionCollector listener, NablarchListenerContext context) {
+                final Serializable data = listener.collectPartitionData(context);
+                if (data != null) {
+                    collected.add(data);
+                }
+            }
+        });
+        return collected.isEmpty() ? null : collected;
+    }
+}
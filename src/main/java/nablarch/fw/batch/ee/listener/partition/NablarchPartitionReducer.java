@@ -0,0 +1,44 @@
+package nablarch.fw.batch.ee.listener.partition;
+
+import javax.batch.api.partition.PartitionReducer.PartitionStatus;
+
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+
+/**
+ * メインスレッドで、パーティションを使用したステップ全体の開始と終了時に任意の処理を行うためのインタフェース。
+ * <p/>
+ * 全てのパーティションの結果をまとめて確定するなど、ステップ全体で1回だけ行う処理を実装する。
+ *
+ * @see javax.batch.api.partition.PartitionReducer
+ */
+public interface NablarchPartitionReducer {
+
+    /**
+     * パーティションの開始前の処理を行う。
+     *
+     * @param context {@link NablarchListenerContext}
+     */
+    void beginPartitionedStep(NablarchListenerContext context);
+
+    /**
+     * 全てのパーティションが正常に終了した後、ステップの完了前の処理を行う。
+     *
+     * @param context {@link NablarchListenerContext}
+     */
+    void beforePartitionedStepCompletion(NablarchListenerContext context);
+
+    /**
+     * いずれかのパーティションが失敗した場合の処理を行う。
+     *
+     * @param context {@link NablarchListenerContext}
+     */
+    void rollbackPartitionedStep(NablarchListenerContext context);
+
+    /**
+     * ステップの終了時の処理を行う。
+     *
+     * @param context {@link NablarchListenerContext}
+     * @param status ステップの終了状態(コミットまたはロールバック)
+     */
+    void afterPartitionedStepCompletion(NablarchListenerContext context, PartitionStatus status);
+}
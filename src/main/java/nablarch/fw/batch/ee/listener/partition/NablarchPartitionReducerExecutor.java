@@ -0,0 +1,115 @@
+package nablarch.fw.batch.ee.listener.partition;
+
+import javax.batch.api.partition.PartitionReducer;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import nablarch.core.repository.SystemRepository;
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+import nablarch.fw.batch.ee.listener.NablarchListenerExecutor;
+
+/**
+ * {@link PartitionReducer}を実装したクラスで、{@link NablarchPartitionReducer}を順次実行するクラス。
+ * <p/>
+ * 本クラスでは、{@link SystemRepository}から実行対象のリスナー({@link NablarchPartitionReducer})のリストを取得する。
+ * {@link SystemRepository}からリスナーリストを取得する方法は以下のとおり。
+ * <ol>
+ * <li>ジョブ名称 + ステップ名 + ".partitionReducers"でリスナーリストが登録されている場合、そのリストを使用する。</li>
+ * <li>ジョブ名称 + ".partitionReducers"でリスナーリストが登録されている場合、そのリストを使用する。</li>
+ * <li>partitionReducersでリスナーリストが登録されている場合、そのリストを使用する。</li>
+ * <li>上記に該当しない場合、このリスナーは何もしない。</li>
+ * </ol>
+ */
+@Named
+@Dependent
+public class NablarchPartitionReducerExecutor implements PartitionReducer {
+
+    /** {@link SystemRepository}からリスナーリストを取得する際のコンポーネント名 */
+    private static final String LISTENER_LIST_NAME = "partitionReducers";
+
+    /** {@link JobContext} */
+    @Inject
+    private JobContext jobContext;
+
+    /** {@link StepContext} */
+    @Inject
+    private StepContext stepContext;
+
+    /** {@link NablarchListenerExecutor} */
+    private NablarchListenerExecutor<NablarchPartitionReducer> executor;
+
+    /**
+     * {@link NablarchPartitionReducer#beginPartitionedStep(NablarchListenerContext)}を順次実行する。
+     *
+     * @throws Exception {@link NablarchPartitionReducer#beginPartitionedStep(NablarchListenerContext)}実行時に送出された例外
+     */
+    @Override
+    public void beginPartitionedStep() throws Exception {
+        executor = new NablarchListenerExecutor<NablarchPartitionReducer>(LISTENER_LIST_NAME, jobContext, stepContext);
+        executor.executeBefore(new NablarchListenerExecutor.Runner<NablarchPartitionReducer>() {
+            @Override
+            public void run(NablarchPartitionReducer listener, NablarchListenerContext context) {
+                listener.beginPartitionedStep(context);
+            }
+        });
+    }
+
+    /**
+     * {@link NablarchPartitionReducer#beforePartitionedStepCompletion(NablarchListenerContext)}を逆順で実行する。
+     *
+     * @throws Exception {@link NablarchPartitionReducer#beforePartitionedStepCompletion(NablarchListenerContext)}
+     * 実行時に送出された例外
+     */
+    @Override
+    public void beforePartitionedStepCompletion() throws Exception {
+        if (executor != null) {
+            executor.executeAfter(new NablarchListenerExecutor.Runner<NablarchPartitionReducer>() {
+                @Override
+                public void run(NablarchPartitionReducer listener, NablarchListenerContext context) {
+                    listener.beforePartitionedStepCompletion(context);
+                }
+            });
+        }
+    }
+
+    /**
+     * {@link NablarchPartitionReducer#rollbackPartitionedStep(NablarchListenerContext)}を逆順で実行する。
+     *
+     * @throws Exception {@link NablarchPartitionReducer#rollbackPartitionedStep(NablarchListenerContext)}
+     * 実行時に送出された例外
+     */
+    @Override
+    public void rollbackPartitionedStep() throws Exception {
+        if (executor != null) {
+            executor.executeOnError(new NablarchListenerExecutor.Runner<NablarchPartitionReducer>() {
+                @Override
+                public void run(NablarchPartitionReducer listener, NablarchListenerContext context) {
+                    listener.rollbackPartitionedStep(context);
+                }
+            });
+        }
+    }
+
+    /**
+     * {@link NablarchPartitionReducer#afterPartitionedStepCompletion(NablarchListenerContext, PartitionStatus)}
+     * を逆順で実行する。
+     *
+     * @param status ステップの終了状態
+     * @throws Exception {@link NablarchPartitionReducer#afterPartitionedStepCompletion(NablarchListenerContext, PartitionStatus)}
+     * 実行時に送出された例外
+     */
+    @Override
+    public void afterPartitionedStepCompletion(final PartitionStatus status) throws Exception {
+        if (executor != null) {
+            executor.executeAfter(new NablarchListenerExecutor.Runner<NablarchPartitionReducer>() {
+                @Override
+                public void run(NablarchPartitionReducer listener, NablarchListenerContext context) {
+                    listener.afterPartitionedStepCompletion(context, status);
+                }
+            });
+        }
+    }
+}
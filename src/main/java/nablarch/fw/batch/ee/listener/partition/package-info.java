@@ -0,0 +1,10 @@
+/**
+ * パーティションを使用したステップで使用可能なリスナーを提供する。
+ * <p/>
+ * JBatch RIでは、ステップリスナーはパーティションのスレッドでは実行されない。
+ * このため、{@link nablarch.fw.batch.ee.listener.step.StepTransactionManagementListener}などのステップリスナーが
+ * 開始したトランザクションは、パーティションのスレッドでは使用できない点に注意すること
+ * (パーティションを使用したステップのitemWriteListenersには、
+ * {@link nablarch.fw.batch.ee.listener.chunk.ItemWriteTransactionManagementListener}を設定できない)。
+ */
+package nablarch.fw.batch.ee.listener.partition;
@@ -1,8 +1,12 @@
 package nablarch.fw.batch.ee.listener.step;
 
 import nablarch.core.repository.SystemRepository;
+import nablarch.fw.batch.ee.cdi.PartitionScopedContext;
+import nablarch.fw.batch.ee.cdi.StepScopedContext;
 import nablarch.fw.batch.ee.listener.NablarchListenerContext;
 import nablarch.fw.batch.ee.listener.NablarchListenerExecutor;
+import nablarch.fw.batch.ee.partition.ParentContextRegistry;
+import nablarch.fw.batch.ee.progress.ProgressStatisticsRegistry;
 
 import javax.batch.api.listener.StepListener;
 import javax.batch.runtime.context.JobContext;
@@ -22,6 +26,14 @@ import javax.inject.Named;
  * <li>stepListenersでリスナーリストが登録されている場合、そのリストを使用する。</li>
  * <li>上記に該当しない場合、このリスナーは何もしない。</li>
  * </ol>
+ * <p/>
+ * また、ステップスコープとパーティションスコープのBeanを高速に取得できるよう、ステップの実行中はステップを実行するスレッドに
+ * {@link StepScopedContext}と{@link PartitionScopedContext}の値の保持領域を関連付け、ステップの終了時に保持しているBeanを破棄する。
+ * パーティションを使用したステップのステップスコープのBeanは、同じステップで実行中の本クラスが無くなった時点で破棄する
+ * (詳細は{@link StepScopedContext}を参照)。
+ * パーティションを実行するスレッドから、ステップの{@link StepContext}を取得できるよう、
+ * ステップの実行中は{@link ParentContextRegistry}にステップのコンテキストを登録する。
+ * ステップの終了時には、{@link ProgressStatisticsRegistry}に登録されたステップの統計情報の登録も解除する。
  *
  * @author Hisaaki Shioiri
  */
@@ -50,6 +62,9 @@ public class NablarchStepListenerExecutor implements StepListener {
      */
     @Override
     public void beforeStep() throws Exception {
+        ParentContextRegistry.register(jobContext, stepContext);
+        StepScopedContext.bind(stepContext);
+        PartitionScopedContext.bind(stepContext);
         executor = new NablarchListenerExecutor<NablarchStepListener>(LISTENER_LIST_NAME, jobContext, stepContext);
         executor.executeBefore(new NablarchListenerExecutor.Runner<NablarchStepListener>() {
             @Override
@@ -65,13 +80,30 @@ public class NablarchStepListenerExecutor implements StepListener {
      */
     @Override
     public void afterStep() throws Exception {
-        if (executor != null) {
-            executor.executeAfter(new NablarchListenerExecutor.Runner<NablarchStepListener>() {
-                @Override
-                public void run(NablarchStepListener listener, NablarchListenerContext context) {
-                    listener.afterStep(context);
+        try {
+            if (executor != null) {
+                executor.executeAfter(new NablarchListenerExecutor.Runner<NablarchStepListener>() {
+                    @Override
+                    public void run(NablarchStepListener listener, NablarchListenerContext context) {
+                        listener.afterStep(context);
+                    }
+                });
+            }
+        } finally {
+            try {
+                PartitionScopedContext.unbind(stepContext);
+            } finally {
+                try {
+                    StepScopedContext.unbind();
+                    StepScopedContext.release(stepContext);
+                } finally {
+                    try {
+                        ProgressStatisticsRegistry.unregister(stepContext);
+                    } finally {
+                        ParentContextRegistry.unregister(jobContext, stepContext);
+                    }
                 }
-            });
+            }
         }
     }
 }
@@ -3,11 +3,16 @@ package nablarch.fw.batch.ee.listener.step;
 import java.text.MessageFormat;
 
 import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+import nablarch.fw.batch.ee.progress.JBatchProcessName;
+import nablarch.fw.batch.ee.progress.JsonProgressLogPrinter;
 import nablarch.fw.batch.progress.ProgressLogger;
 
 /**
  * ステップの進捗ログを出力するクラス。<br>
  * ステップ開始時と終了時にログを出力する。
+ * <p/>
+ * ステッププロパティ{@value nablarch.fw.batch.ee.progress.BasicProgressManager#PRINTER}にjsonが指定されている場合は、
+ * 進捗と同じJSON形式の1行({@link JsonProgressLogPrinter#printEvent(JBatchProcessName, String, String)})で出力する。
  *
  * @author Shohei Ukawa
  */
@@ -18,6 +23,11 @@ public class StepProgressLogListener extends AbstractNablarchStepListener {
      */
     @Override
     public void beforeStep(NablarchListenerContext context) {
+        if (JsonProgressLogPrinter.isSelected(context.getStepContext().getProperties())) {
+            JsonProgressLogPrinter.printEvent(
+                    new JBatchProcessName(context.getJobName(), context.getStepName()), "start", null);
+            return;
+        }
         ProgressLogger.write(MessageFormat.format("start step. job name: [{0}] step name: [{1}]",
                 context.getJobName(), context.getStepName()));
     }
@@ -27,6 +37,11 @@ public class StepProgressLogListener extends AbstractNablarchStepListener {
      */
     @Override
     public void afterStep(NablarchListenerContext context) {
+        if (JsonProgressLogPrinter.isSelected(context.getStepContext().getProperties())) {
+            JsonProgressLogPrinter.printEvent(new JBatchProcessName(context.getJobName(), context.getStepName()),
+                    "finish", context.getStepExitStatus());
+            return;
+        }
         ProgressLogger.write(MessageFormat.format(
                 "finish step. job name: [{0}] step name: [{1}] step status: [{2}]",
                 context.getJobName(),
@@ -0,0 +1,229 @@
+package nablarch.fw.batch.ee.partition;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+
+/**
+ * パーティションやスプリットのフローを実行するスレッドから、親のジョブとステップのコンテキストを取得するクラス。
+ * <p/>
+ * JBatch RIは、パーティションとスプリットのフローをサブジョブとして実行するため、
+ * これらのスレッドで取得できる{@link JobContext}と{@link StepContext}は、ジョブやステップとは別のインスタンスとなる。
+ * サブジョブのジョブ名は、以下の形式で親のIDを含む。
+ * <ul>
+ * <li>パーティション:{@code :親のジョブインスタンスID:ステップ名:パーティション番号}</li>
+ * <li>スプリットのフロー:{@code :ジョブの実行ID:スプリット名:フロー名}</li>
+ * </ul>
+ * JSLのIDにはコロンを使用できないため、コロンで始まるジョブ名はサブジョブのジョブ名と判断する。
+ * <p/>
+ * 本クラスは、ジョブとステップのコンテキストを親のIDごとに保持し、サブジョブのコンテキストから親のコンテキストを取得する。
+ * コンテキストの登録と解除は、{@link nablarch.fw.batch.ee.listener.job.NablarchJobListenerExecutor}と
+ * {@link nablarch.fw.batch.ee.listener.step.NablarchStepListenerExecutor}がジョブとステップの開始時と終了時に行う。
+ * 登録されていない場合は、サブジョブのコンテキストをそのまま返す。
+ */
+public final class ParentContextRegistry {
+
+    /** サブジョブのジョブ名の区切り文字 */
+    private static final char SEPARATOR = ':';
+
+    /** 実行中のジョブのジョブコンテキスト(キーはジョブの実行ID) */
+    private static final ConcurrentMap<Long, JobContext> JOBS = new ConcurrentHashMap<Long, JobContext>();
+
+    /** 実行中のステップのコンテキスト(キーは{@link #createStepKey(JobContext, StepContext)}で生成したキー) */
+    private static final ConcurrentMap<String, ParentStep> STEPS = new ConcurrentHashMap<String, ParentStep>();
+
+    /**
+     * 隠蔽コンストラクタ。
+     */
+    private ParentContextRegistry() {
+    }
+
+    /**
+     * ジョブのジョブコンテキストを登録する。
+     * <p/>
+     * サブジョブのジョブコンテキストは登録しない。
+     *
+     * @param jobContext ジョブコンテキスト
+     */
+    public static void register(final JobContext jobContext) {
+        if (!isSubJob(jobContext)) {
+            JOBS.put(jobContext.getExecutionId(), jobContext);
+        }
+    }
+
+    /**
+     * ジョブのジョブコンテキストの登録を解除する。
+     *
+     * @param jobContext ジョブコンテキスト
+     */
+    public static void unregister(final JobContext jobContext) {
+        JOBS.remove(jobContext.getExecutionId(), jobContext);
+    }
+
+    /**
+     * ステップのコンテキストを登録する。
+     * <p/>
+     * パーティションのコンテキストは登録しない。
+     *
+     * @param jobContext ジョブコンテキスト
+     * @param stepContext ステップコンテキスト
+     */
+    public static void register(final JobContext jobContext, final StepContext stepContext) {
+        if (getPartitionNames(jobContext, stepContext) == null) {
+            STEPS.put(createStepKey(jobContext, stepContext), new ParentStep(jobContext, stepContext));
+        }
+    }
+
+    /**
+     * ステップのコンテキストの登録を解除する。
+     *
+     * @param jobContext ジョブコンテキスト
+     * @param stepContext ステップコンテキスト
+     */
+    public static void unregister(final JobContext jobContext, final StepContext stepContext) {
+        final String key = createStepKey(jobContext, stepContext);
+        final ParentStep step = STEPS.get(key);
+        if (step != null && step.stepContext == stepContext) {
+            STEPS.remove(key, step);
+        }
+    }
+
+    /**
+     * ジョブのジョブコンテキストを取得する。
+     * <p/>
+     * サブジョブのジョブコンテキストが指定された場合は、親のジョブのジョブコンテキストを返す。
+     * 親が登録されていない場合や、サブジョブ以外のジョブコンテキストが指定された場合は、指定されたジョブコンテキストを返す。
+     *
+     * @param jobContext ジョブコンテキスト
+     * @return ジョブのジョブコンテキスト
+     */
+    public static JobContext getJobContext(final JobContext jobContext) {
+        final String[] names = splitSubJobName(jobContext);
+        if (names == null) {
+            return jobContext;
+        }
+        final ParentStep step = STEPS.get(names[1] + SEPARATOR + names[2]);
+        if (step != null) {
+            return getJobContext(step.jobContext);
+        }
+        final JobContext parent = JOBS.get(parseId(names[1]));
+        return parent != null ? parent : jobContext;
+    }
+
+    /**
+     * ステップのステップコンテキストを取得する。
+     * <p/>
+     * パーティションのステップコンテキストが指定された場合は、パーティションを実行しているステップのステップコンテキストを返す。
+     * ステップが登録されていない場合や、パーティション以外のステップコンテキストが指定された場合は、
+     * 指定されたステップコンテキストを返す。
+     *
+     * @param jobContext ジョブコンテキスト
+     * @param stepContext ステップコンテキスト
+     * @return ステップのステップコンテキスト
+     */
+    public static StepContext getStepContext(final JobContext jobContext, final StepContext stepContext) {
+        if (getPartitionNames(jobContext, stepContext) == null) {
+            return stepContext;
+        }
+        final ParentStep step = STEPS.get(createStepKey(jobContext, stepContext));
+        return step != null ? step.stepContext : stepContext;
+    }
+
+    /**
+     * ステップを識別するキーを生成する。
+     * <p/>
+     * パーティションのコンテキストが指定された場合は、パーティションを実行しているステップと同じキーを返す。
+     * ジョブやステップが登録されていなくてもキーは同じとなるため、パーティション間で共有する値の識別に使用できる。
+     *
+     * @param jobContext ジョブコンテキスト
+     * @param stepContext ステップコンテキスト
+     * @return キー({@code ジョブインスタンスID:ステップ名})
+     */
+    public static String createStepKey(final JobContext jobContext, final StepContext stepContext) {
+        final String[] names = getPartitionNames(jobContext, stepContext);
+        final String instanceId = names != null ? names[1] : String.valueOf(jobContext.getInstanceId());
+        return instanceId + SEPARATOR + stepContext.getStepName();
+    }
+
+    /**
+     * パーティションのジョブ名を分割する。
+     *
+     * @param jobContext ジョブコンテキスト
+     * @param stepContext ステップコンテキスト
+     * @return 分割したジョブ名(パーティション以外の場合は{@code null})
+     */
+    private static String[] getPartitionNames(final JobContext jobContext, final StepContext stepContext) {
+        final String[] names = splitSubJobName(jobContext);
+        if (names == null || !names[2].equals(stepContext.getStepName())) {
+            return null;
+        }
+        return names;
+    }
+
+    /**
+     * サブジョブのジョブ名を分割する。
+     *
+     * @param jobContext ジョブコンテキスト
+     * @return 分割したジョブ名(先頭は空文字列、サブジョブ以外の場合は{@code null})
+     */
+    private static String[] splitSubJobName(final JobContext jobContext) {
+        if (!isSubJob(jobContext)) {
+            return null;
+        }
+        final String[] names = jobContext.getJobName().split(String.valueOf(SEPARATOR), -1);
+        return names.length == 4 && parseId(names[1]) != null ? names : null;
+    }
+
+    /**
+     * サブジョブのジョブコンテキストか否かを判定する。
+     *
+     * @param jobContext ジョブコンテキスト
+     * @return サブジョブの場合は{@code true}
+     */
+    private static boolean isSubJob(final JobContext jobContext) {
+        if (jobContext == null) {
+            return false;
+        }
+        final String jobName = jobContext.getJobName();
+        return jobName != null && !jobName.isEmpty() && jobName.charAt(0) == SEPARATOR;
+    }
+
+    /**
+     * IDを数値に変換する。
+     *
+     * @param id ID
+     * @return 数値(数値でない場合は{@code null})
+     */
+    private static Long parseId(final String id) {
+        try {
+            return Long.valueOf(id);
+        } catch (NumberFormatException ignored) {
+            return null;
+        }
+    }
+
+    /**
+     * 登録したステップのコンテキストを保持するクラス。
+     */
+    private static final class ParentStep {
+
+        /** ジョブコンテキスト */
+        private final JobContext jobContext;
+
+        /** ステップコンテキスト */
+        private final StepContext stepContext;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param jobContext ジョブコンテキスト
+         * @param stepContext ステップコンテキスト
+         */
+        private ParentStep(final JobContext jobContext, final StepContext stepContext) {
+            this.jobContext = jobContext;
+            this.stepContext = stepContext;
+        }
+    }
+}
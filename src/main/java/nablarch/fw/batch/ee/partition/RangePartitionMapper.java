@@ -0,0 +1,267 @@
+package nablarch.fw.batch.ee.partition;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.regex.Pattern;
+
+import javax.batch.api.BatchProperty;
+import javax.batch.api.partition.PartitionMapper;
+import javax.batch.api.partition.PartitionPlan;
+import javax.batch.api.partition.PartitionPlanImpl;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.statement.SqlResultSet;
+import nablarch.core.db.statement.SqlRow;
+import nablarch.core.repository.SystemRepository;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * キーの範囲でパーティションを分割する{@link PartitionMapper}。
+ * <p/>
+ * バッチプロパティで指定した表とキー(数値型の列)から、パーティションごとのキーの範囲を算出し、
+ * パーティションプロパティ{@value #RANGE_START}(開始キー)と{@value #RANGE_END}(終了キー)に設定する。
+ * 範囲は開始キーと終了キーを含むため、リーダでは{@code WHERE キー BETWEEN #{partitionPlan['rangeStart']} AND ...}のように
+ * 範囲を指定して読み込む。
+ * 範囲の間に隙間は無く、先頭の範囲の開始キーは{@link Long#MIN_VALUE}、最後の範囲の終了キーは{@link Long#MAX_VALUE}とする。
+ * このため、分割後に追加された行も、キーの値に関わらずいずれかのパーティションで読み込まれる。
+ * <p/>
+ * 範囲の算出方法は以下の2通り。
+ * <ul>
+ * <li>デフォルト:キーの最小値から最大値までを均等に分割する。キーに偏りがない場合に適している。</li>
+ * <li>{@code quantile}にtrueを指定した場合:{@code NTILE}ウィンドウ関数で、件数が均等になるように分割する。
+ * キーに偏りがある場合に適しているが、データベースがウィンドウ関数をサポートしている必要がある。</li>
+ * </ul>
+ * 使用できるバッチプロパティは以下のとおり。
+ * <ul>
+ * <li>{@code tableName}:表名(必須)</li>
+ * <li>{@code keyColumnName}:キーの列名(必須)</li>
+ * <li>{@code partitionCount}:パーティション数(省略時は使用可能なプロセッサ数)</li>
+ * <li>{@code quantile}:件数が均等になるように分割するか否か(省略時はfalse)</li>
+ * </ul>
+ * 表が空の場合は、どの行も含まない範囲を持つパーティションを1つだけ返す(分割後に追加された行は読み込まれない)。
+ * <p/>
+ * キーの取得には、{@link nablarch.fw.batch.ee.chunk.BaseDatabaseItemReader}と同様に、コンポーネント名{@code connectionFactory}の
+ * {@link ConnectionFactory}から取得した専用のコネクションを使用する。
+ *
+ * @see nablarch.fw.batch.ee.chunk.BaseDatabaseItemReader
+ */
+@Named
+@Dependent
+@Published
+public class RangePartitionMapper implements PartitionMapper {
+
+    /** 開始キーを設定するパーティションプロパティ名 */
+    public static final String RANGE_START = "rangeStart";
+
+    /** 終了キーを設定するパーティションプロパティ名 */
+    public static final String RANGE_END = "rangeEnd";
+
+    /** 表名や列名として許可する形式 */
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$#]*(\\.[A-Za-z_][A-Za-z0-9_$#]*)?");
+
+    /** 表名 */
+    @Inject
+    @BatchProperty
+    private String tableName;
+
+    /** キーの列名 */
+    @Inject
+    @BatchProperty
+    private String keyColumnName;
+
+    /** パーティション数 */
+    @Inject
+    @BatchProperty
+    private String partitionCount;
+
+    /** 件数が均等になるように分割するか否か */
+    @Inject
+    @BatchProperty
+    private String quantile;
+
+    @Override
+    public PartitionPlan mapPartitions() throws Exception {
+        verifyIdentifier("tableName", tableName);
+        verifyIdentifier("keyColumnName", keyColumnName);
+        final int partitions = partitionCount == null
+                ? Runtime.getRuntime().availableProcessors()
+                : Integer.parseInt(partitionCount.trim());
+        if (partitions < 1) {
+            throw new IllegalArgumentException("partitionCount must be greater than 0. partitionCount=["
+                    + partitionCount + ']');
+        }
+
+        final ConnectionFactory connectionFactory = SystemRepository.get("connectionFactory");
+        if (connectionFactory == null) {
+            throw new IllegalStateException("ConnectionFactory was not found."
+                    + " must be set ConnectionFactory(component name=connectionFactory).");
+        }
+        final TransactionManagerConnection connection = connectionFactory.getConnection(
+                TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY);
+        final List<long[]> ranges;
+        try {
+            ranges = Boolean.parseBoolean(quantile)
+                    ? findQuantileRanges(connection, partitions)
+                    : findEvenRanges(connection, partitions);
+        } finally {
+            connection.terminate();
+        }
+        return createPartitionPlan(ranges == null ? emptyRange() : openEnds(ranges));
+    }
+
+    /**
+     * キーの最小値から最大値までを均等に分割した範囲を求める。
+     *
+     * @param connection コネクション
+     * @param partitions パーティション数
+     * @return 範囲(開始キーと終了キーの配列)のリスト(表が空の場合は{@code null})
+     */
+    private List<long[]> findEvenRanges(final TransactionManagerConnection connection, final int partitions) {
+        final SqlRow row = connection.prepareStatement(
+                "SELECT MIN(" + keyColumnName + ") MIN_KEY, MAX(" + keyColumnName + ") MAX_KEY FROM " + tableName)
+                                     .retrieve()
+                                     .get(0);
+        if (row.get("MIN_KEY") == null) {
+            return null;
+        }
+        return splitEvenly(row.getLong("MIN_KEY"), row.getLong("MAX_KEY"), partitions);
+    }
+
+    /**
+     * {@code NTILE}ウィンドウ関数で件数が均等になるように分割した範囲を求める。
+     *
+     * @param connection コネクション
+     * @param partitions パーティション数
+     * @return 範囲(開始キーと終了キーの配列)のリスト(表が空の場合は{@code null})
+     */
+    private List<long[]> findQuantileRanges(final TransactionManagerConnection connection, final int partitions) {
+        final SqlResultSet rows = connection.prepareStatement(
+                "SELECT BUCKET, MIN(" + keyColumnName + ") MIN_KEY, MAX(" + keyColumnName + ") MAX_KEY"
+                        + " FROM (SELECT " + keyColumnName + ", NTILE(" + partitions + ") OVER (ORDER BY "
+                        + keyColumnName + ") BUCKET FROM " + tableName + ") T"
+                        + " GROUP BY BUCKET ORDER BY BUCKET")
+                                            .retrieve();
+        if (rows.isEmpty()) {
+            return null;
+        }
+        final List<Long> bucketStarts = new ArrayList<Long>(rows.size());
+        for (SqlRow row : rows) {
+            bucketStarts.add(row.getLong("MIN_KEY"));
+        }
+        return splitByBucketStarts(bucketStarts, rows.get(rows.size() - 1).getLong("MAX_KEY"));
+    }
+
+    /**
+     * 最小値から最大値までを、指定した数に均等に分割する。
+     * <p/>
+     * 分割数がキーの範囲の件数より多い場合は、キーの範囲の件数に分割する。
+     *
+     * @param min 最小値
+     * @param max 最大値
+     * @param partitions 分割数
+     * @return 範囲(開始キーと終了キーの配列)のリスト
+     */
+    static List<long[]> splitEvenly(final long min, final long max, final int partitions) {
+        // キーの範囲の件数はlongの範囲を超える(最大2の64乗)ため、BigIntegerで計算する
+        final BigInteger span = BigInteger.valueOf(max).subtract(BigInteger.valueOf(min)).add(BigInteger.ONE);
+        final int count = span.min(BigInteger.valueOf(partitions)).intValue();
+        final BigInteger[] quotientAndRemainder = span.divideAndRemainder(BigInteger.valueOf(count));
+        final BigInteger base = quotientAndRemainder[0];
+        final int remainder = quotientAndRemainder[1].intValue();
+        final List<long[]> ranges = new ArrayList<long[]>(count);
+        BigInteger start = BigInteger.valueOf(min);
+        for (int i = 0; i < count; i++) {
+            final BigInteger next = start.add(base).add(i < remainder ? BigInteger.ONE : BigInteger.ZERO);
+            ranges.add(new long[] {start.longValue(), next.subtract(BigInteger.ONE).longValue()});
+            start = next;
+        }
+        return ranges;
+    }
+
+    /**
+     * 各バケットの最小のキーを開始キーとして分割する。
+     * <p/>
+     * 次のバケットの開始キーの直前を終了キーとするため、範囲の間に隙間は無い。
+     * 同じキーが複数のバケットにまたがる場合は、そのキーを後のバケットに含める(空となる範囲は除く)。
+     *
+     * @param bucketStarts 各バケットの最小のキー(昇順)
+     * @param max キーの最大値
+     * @return 範囲(開始キーと終了キーの配列)のリスト
+     */
+    static List<long[]> splitByBucketStarts(final List<Long> bucketStarts, final long max) {
+        final List<long[]> ranges = new ArrayList<long[]>(bucketStarts.size());
+        for (int i = 0; i < bucketStarts.size(); i++) {
+            final long start = bucketStarts.get(i);
+            final long end = i + 1 < bucketStarts.size() ? bucketStarts.get(i + 1) - 1 : max;
+            if (start <= end) {
+                ranges.add(new long[] {start, end});
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * 先頭の範囲の開始キーを{@link Long#MIN_VALUE}に、最後の範囲の終了キーを{@link Long#MAX_VALUE}に広げる。
+     * <p/>
+     * 分割時の最小値より小さいキーや最大値より大きいキーも、いずれかの範囲に含まれるようにする。
+     *
+     * @param ranges 範囲(開始キーと終了キーの配列)のリスト
+     * @return 範囲(開始キーと終了キーの配列)のリスト
+     */
+    static List<long[]> openEnds(final List<long[]> ranges) {
+        ranges.get(0)[0] = Long.MIN_VALUE;
+        ranges.get(ranges.size() - 1)[1] = Long.MAX_VALUE;
+        return ranges;
+    }
+
+    /**
+     * どの行も含まない範囲を返す。
+     *
+     * @return 範囲(開始キーと終了キーの配列)のリスト
+     */
+    private static List<long[]> emptyRange() {
+        final List<long[]> ranges = new ArrayList<long[]>(1);
+        ranges.add(new long[] {0L, -1L});
+        return ranges;
+    }
+
+    /**
+     * 範囲からパーティションプランを生成する。
+     *
+     * @param ranges 範囲(開始キーと終了キーの配列)のリスト
+     * @return パーティションプラン
+     */
+    private static PartitionPlan createPartitionPlan(final List<long[]> ranges) {
+        final Properties[] properties = new Properties[ranges.size()];
+        for (int i = 0; i < ranges.size(); i++) {
+            properties[i] = new Properties();
+            properties[i].setProperty(RANGE_START, String.valueOf(ranges.get(i)[0]));
+            properties[i].setProperty(RANGE_END, String.valueOf(ranges.get(i)[1]));
+        }
+        final PartitionPlanImpl plan = new PartitionPlanImpl();
+        plan.setPartitions(ranges.size());
+        plan.setThreads(ranges.size());
+        plan.setPartitionProperties(properties);
+        return plan;
+    }
+
+    /**
+     * SQLに埋め込む表名や列名の形式を検証する。
+     *
+     * @param name バッチプロパティ名
+     * @param value 値
+     */
+    private static void verifyIdentifier(final String name, final String value) {
+        if (value == null || !IDENTIFIER.matcher(value).matches()) {
+            throw new IllegalArgumentException(name + " must be specified as a valid identifier. "
+                    + name + "=[" + value + ']');
+        }
+    }
+}
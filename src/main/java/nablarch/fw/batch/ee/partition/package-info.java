@@ -0,0 +1,4 @@
+/**
+ * パーティションを使用したステップの実行を支援する機能を提供する。
+ */
+package nablarch.fw.batch.ee.partition;
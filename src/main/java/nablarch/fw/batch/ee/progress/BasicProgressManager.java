@@ -1,5 +1,10 @@
 package nablarch.fw.batch.ee.progress;
 
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
 import javax.batch.operations.BatchRuntimeException;
 import javax.batch.runtime.Metric;
 import javax.batch.runtime.Metric.MetricType;
@@ -8,7 +13,8 @@ import javax.batch.runtime.context.StepContext;
 import javax.enterprise.inject.Typed;
 import javax.inject.Inject;
 
-import nablarch.fw.batch.ee.cdi.StepScoped;
+import nablarch.fw.batch.ee.cdi.PartitionScoped;
+import nablarch.fw.batch.ee.partition.ParentContextRegistry;
 import nablarch.fw.batch.progress.ProcessedCountBasedProgressCalculator;
 import nablarch.fw.batch.progress.Progress;
 import nablarch.fw.batch.progress.ProgressCalculator;
@@ -17,14 +23,73 @@ import nablarch.fw.batch.progress.ProgressLogger;
 import nablarch.fw.batch.progress.ProgressPrinter;
 
 /**
- * 進捗を管理するステップスコープの{@link ProgressManager}実装クラス。
+ * 進捗を管理するパーティションスコープ(パーティションを使用しないステップではステップスコープ)の{@link ProgressManager}実装クラス。
+ * <p/>
+ * パーティションを使用したステップでは、パーティションごとに生成され、パーティションの{@link StepContext}の処理済み件数から進捗を求める。
+ * ジョブ名は、パーティションのスレッドでも{@link ParentContextRegistry}から取得したジョブのジョブ名を出力する。
+ * <p/>
+ * パーティションを使用したステップで{@link PartitionProgressReducer}が設定されている場合は、
+ * パーティション単位の進捗は出力せず、入力件数と処理済み件数を全パーティションで合算してステップ単位の進捗を出力する。
+ * <p/>
+ * チャンクごとに進捗を出力するとログが大量になる場合は、ステッププロパティで出力を間引くことができる。
+ * <ul>
+ * <li>{@value #OUTPUT_INTERVAL}:前回の出力から指定した時間(ミリ秒)が経過するまで出力しない。</li>
+ * <li>{@value #OUTPUT_RECORD_INTERVAL}:前回の出力から指定した件数を処理するまで出力しない。</li>
+ * </ul>
+ * 両方を指定した場合は、いずれかの条件を満たした時点で出力する。
+ * 間引いた場合でも、処理済み件数が入力件数に達した時点の進捗は必ず出力する。
+ * また、処理済み件数が入力件数に達しないままステップが終了した場合は、ステップの終了時
+ * (パーティションスコープのBeanの破棄時)に最後の進捗を出力する。
+ * <p/>
+ * 終了予測時間の求め方は、ステッププロパティ{@value #CALCULATOR}で選択できる。
+ * <ul>
+ * <li>processedCount(デフォルト):直前の区間のTPSから求める。</li>
+ * <li>ewma:指数加重移動平均で平滑化したTPSから求める。平滑化係数は{@value #EWMA_ALPHA}で指定する(デフォルトは0.3)。</li>
+ * <li>window:直近の一定時間のTPSから求める。時間(ミリ秒)は{@value #WINDOW}で指定する(デフォルトは60000)。</li>
+ * </ul>
+ * <p/>
+ * 進捗の出力形式は、ステッププロパティ{@value #PRINTER}で選択できる。
+ * <ul>
+ * <li>log(デフォルト):{@link ProgressLogPrinter}で人が読む形式で出力する。</li>
+ * <li>json:{@link JsonProgressLogPrinter}でJSON形式の1行で出力する。入力件数のログは出力しない。</li>
+ * </ul>
+ * JSON形式に出力するパーティション名は、ステッププロパティ{@value #PARTITION}で指定する
+ * (例:{@code #{partitionPlan['partitionName']}})。
+ * ステップの開始と終了のログ({@link nablarch.fw.batch.ee.listener.step.StepProgressLogListener})も
+ * 同じステッププロパティでJSON形式となる。ジョブの開始と終了のログ
+ * ({@link nablarch.fw.batch.ee.listener.job.JobProgressLogListener})をJSON形式とするには、
+ * ジョブプロパティに{@value #PRINTER}を指定する。
+ * <p/>
+ * {@link ProgressStatisticsRegistry}にステップの統計情報(例:{@link nablarch.fw.batch.ee.cache.LookupCache}のヒット数)が
+ * 登録されている場合は、進捗を出力する度に統計情報を進捗と同じ形式で出力する。
  *
  * @author siosio
  */
-@StepScoped
+@PartitionScoped
 @Typed(ProgressManager.class)
 public class BasicProgressManager implements ProgressManager {
 
+    /** 進捗を出力する最小の間隔(ミリ秒)を指定するステッププロパティ名 */
+    public static final String OUTPUT_INTERVAL = "progressOutputInterval";
+
+    /** 進捗を出力する最小の件数の間隔を指定するステッププロパティ名 */
+    public static final String OUTPUT_RECORD_INTERVAL = "progressOutputRecordInterval";
+
+    /** 終了予測時間の求め方を指定するステッププロパティ名 */
+    public static final String CALCULATOR = "progressCalculator";
+
+    /** 指数加重移動平均の平滑化係数を指定するステッププロパティ名 */
+    public static final String EWMA_ALPHA = "progressEwmaAlpha";
+
+    /** TPSを求める時間(ミリ秒)を指定するステッププロパティ名 */
+    public static final String WINDOW = "progressWindow";
+
+    /** 進捗の出力形式を指定するステッププロパティ名 */
+    public static final String PRINTER = "progressPrinter";
+
+    /** パーティション名を指定するステッププロパティ名 */
+    public static final String PARTITION = "progressPartition";
+
     /** ステップコンテキスト */
     private final StepContext stepContext;
     
@@ -32,7 +97,10 @@ public class BasicProgressManager implements ProgressManager {
     private final JBatchProcessName processName;
 
     /** 進捗状況をログに出力する機能 */
-    private final ProgressPrinter progressPrinter = new ProgressLogPrinter();
+    private ProgressPrinter progressPrinter;
+
+    /** JSON形式で出力するか否か */
+    private final boolean jsonOutput;
 
     /** 入力件数 */
     private long inputCount;
@@ -40,6 +108,30 @@ public class BasicProgressManager implements ProgressManager {
     /** 進捗状況を求める機能 */
     private ProgressCalculator calculator;
 
+    /** 全パーティションの進捗をまとめる機能(パーティション単位で進捗を出力する場合は{@code null}) */
+    private final PartitionProgressAggregator aggregator;
+
+    /** 全パーティションの処理済み件数に加算済みの件数 */
+    private long aggregatedCount;
+
+    /** 進捗を出力する最小の間隔(ナノ秒、間引かない場合は0) */
+    private final long outputIntervalNanos;
+
+    /** 進捗を出力する最小の件数の間隔(間引かない場合は0) */
+    private final long outputRecordInterval;
+
+    /** ステッププロパティ */
+    private final Properties properties;
+
+    /** 前回進捗を出力した時間(ナノ秒) */
+    private long lastOutputTime;
+
+    /** 前回進捗を出力した時の処理済み件数 */
+    private long lastOutputCount;
+
+    /** 前回指定された処理済み件数 */
+    private long lastProcessedCount;
+
     /**
      * コンストラクタ。
      *
@@ -49,7 +141,14 @@ public class BasicProgressManager implements ProgressManager {
     @Inject
     public BasicProgressManager(final JobContext jobContext, final StepContext stepContext) {
         this.stepContext = stepContext;
-        processName = new JBatchProcessName(jobContext.getJobName(), stepContext.getStepName());
+        properties = stepContext.getProperties();
+        processName = new JBatchProcessName(ParentContextRegistry.getJobContext(jobContext).getJobName(),
+                stepContext.getStepName(),
+                properties == null ? null : properties.getProperty(PARTITION));
+        aggregator = PartitionProgressAggregator.get(jobContext, stepContext);
+        jsonOutput = isJsonOutput(properties, processName);
+        outputIntervalNanos = TimeUnit.MILLISECONDS.toNanos(getLongProperty(properties, OUTPUT_INTERVAL));
+        outputRecordInterval = getLongProperty(properties, OUTPUT_RECORD_INTERVAL);
     }
 
     @Override
@@ -60,8 +159,19 @@ public class BasicProgressManager implements ProgressManager {
         }
             
         this.inputCount = inputCount;
-        calculator = new ProcessedCountBasedProgressCalculator(inputCount);
-        ProgressLogger.write(processName.formatProcessName() + " input count: [" + inputCount + ']');
+        calculator = createCalculator(inputCount);
+        lastOutputTime = System.nanoTime();
+        lastOutputCount = 0L;
+        lastProcessedCount = 0L;
+        if (aggregator != null) {
+            aggregator.addInputCount(inputCount);
+        }
+        if (jsonOutput) {
+            progressPrinter = new JsonProgressLogPrinter(inputCount);
+        } else {
+            progressPrinter = new ProgressLogPrinter();
+            ProgressLogger.write(processName.formatProcessName() + " input count: [" + inputCount + ']');
+        }
     }
 
     @Override
@@ -72,12 +182,176 @@ public class BasicProgressManager implements ProgressManager {
     @Override
     public void outputProgressInfo(final long processedCount) {
         verifyStatus(processedCount);
+        if (aggregator != null) {
+            aggregator.addProcessedCount(processedCount - aggregatedCount);
+            aggregatedCount = processedCount;
+            if (isOutputTiming(processedCount)) {
+                aggregator.print();
+                printStatistics();
+            }
+            return;
+        }
+        lastProcessedCount = processedCount;
         // 入力件数が0の場合は進捗を出力する必要が無いので何もしない。
-        if (inputCount == 0L) {
+        if (inputCount == 0L || !isOutputTiming(processedCount)) {
             return;
         }
         final Progress progress = calculator.calculate(processedCount);
         progressPrinter.print(processName, progress);
+        printStatistics();
+    }
+
+    /**
+     * ステップの終了時に、最後に指定された処理済み件数の進捗を出力する。
+     * <p/>
+     * 進捗の出力を間引いている場合、処理済み件数が入力件数に達しないままステップが終了すると、
+     * 最後の進捗が出力されないため、出力していない場合は間引きの条件に関わらず出力する。
+     * 間引いていない場合や、パーティションの進捗をまとめて出力する場合({@link PartitionProgressReducer}が出力する)は何もしない。
+     */
+    @PreDestroy
+    public void outputFinalProgressInfo() {
+        if (calculator == null || aggregator != null || inputCount == 0L
+                || (outputIntervalNanos == 0L && outputRecordInterval == 0L)
+                || lastProcessedCount == lastOutputCount) {
+            return;
+        }
+        lastOutputTime = System.nanoTime();
+        lastOutputCount = lastProcessedCount;
+        final Progress progress = calculator.calculate(lastProcessedCount);
+        progressPrinter.print(processName, progress);
+        printStatistics();
+    }
+
+    /**
+     * ステップに登録された統計情報を出力する。
+     */
+    private void printStatistics() {
+        for (ProgressStatistics statistics : ProgressStatisticsRegistry.get(stepContext)) {
+            if (jsonOutput) {
+                JsonProgressLogPrinter.printStatistics(processName, statistics);
+            } else {
+                printStatistics(processName, statistics);
+            }
+        }
+    }
+
+    /**
+     * 統計情報をログに出力する。
+     * <p/>
+     * {@code プロセス名 statistics: [統計情報の名前] 項目名: [値] ...}の形式で出力する。
+     *
+     * @param processName プロセス名
+     * @param statistics 統計情報
+     */
+    private static void printStatistics(final JBatchProcessName processName, final ProgressStatistics statistics) {
+        final StringBuilder buffer = new StringBuilder(processName.formatProcessName());
+        buffer.append(" statistics: [")
+              .append(statistics.getStatisticsName())
+              .append(']');
+        for (Map.Entry<String, Long> entry : statistics.getStatistics().entrySet()) {
+            buffer.append(' ')
+                  .append(entry.getKey())
+                  .append(": [")
+                  .append(entry.getValue())
+                  .append(']');
+        }
+        ProgressLogger.write(buffer.toString());
+    }
+
+    /**
+     * 進捗を出力するタイミングか否かを判定する。
+     * <p/>
+     * 出力するタイミングの場合は、前回出力した時間と件数を更新する。
+     *
+     * @param processedCount 処理済み件数
+     * @return 出力する場合は{@code true}
+     */
+    private boolean isOutputTiming(final long processedCount) {
+        if (outputIntervalNanos == 0L && outputRecordInterval == 0L) {
+            return true;
+        }
+        final long currentTime = System.nanoTime();
+        if (processedCount >= inputCount
+                || (outputIntervalNanos > 0L && currentTime - lastOutputTime >= outputIntervalNanos)
+                || (outputRecordInterval > 0L && processedCount - lastOutputCount >= outputRecordInterval)) {
+            lastOutputTime = currentTime;
+            lastOutputCount = processedCount;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * ステッププロパティで指定された、進捗状況を求める機能を生成する。
+     *
+     * @param inputCount 入力件数
+     * @return 進捗状況を求める機能
+     */
+    private ProgressCalculator createCalculator(final long inputCount) {
+        final String type = properties == null ? null : properties.getProperty(CALCULATOR);
+        if (type == null || "processedCount".equals(type)) {
+            return new ProcessedCountBasedProgressCalculator(inputCount);
+        }
+        if ("ewma".equals(type)) {
+            final String alpha = properties.getProperty(EWMA_ALPHA);
+            try {
+                return new EwmaProgressCalculator(inputCount,
+                        alpha == null ? EwmaProgressCalculator.DEFAULT_ALPHA : Double.parseDouble(alpha));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid step property. must set a number greater than 0 and 1 or less. "
+                        + processName.formatProcessName() + ' ' + EWMA_ALPHA + ": [" + alpha + ']', e);
+            }
+        }
+        if ("window".equals(type)) {
+            final long window = getLongProperty(properties, WINDOW);
+            return new SlidingWindowProgressCalculator(inputCount,
+                    window == 0L ? SlidingWindowProgressCalculator.DEFAULT_WINDOW_MILLIS : window);
+        }
+        throw new IllegalArgumentException("invalid step property. must set processedCount, ewma or window. "
+                + processName.formatProcessName() + ' ' + CALCULATOR + ": [" + type + ']');
+    }
+
+    /**
+     * ステッププロパティで、JSON形式での出力が指定されているか否かを判定する。
+     *
+     * @param properties ステッププロパティ
+     * @param processName プロセス名
+     * @return JSON形式で出力する場合は{@code true}
+     */
+    static boolean isJsonOutput(final Properties properties, final JBatchProcessName processName) {
+        final String type = properties == null ? null : properties.getProperty(PRINTER);
+        if (type == null || "log".equals(type)) {
+            return false;
+        }
+        if ("json".equals(type)) {
+            return true;
+        }
+        throw new IllegalArgumentException("invalid step property. must set log or json. "
+                + processName.formatProcessName() + ' ' + PRINTER + ": [" + type + ']');
+    }
+
+    /**
+     * ステッププロパティから0以上の数値を取得する。
+     *
+     * @param properties ステッププロパティ
+     * @param name プロパティ名
+     * @return 値(指定されていない場合は0)
+     */
+    private long getLongProperty(final Properties properties, final String name) {
+        final String value = properties == null ? null : properties.getProperty(name);
+        if (value == null || value.trim().isEmpty()) {
+            return 0L;
+        }
+        try {
+            final long result = Long.parseLong(value.trim());
+            if (result >= 0L) {
+                return result;
+            }
+        } catch (NumberFormatException ignored) {
+            // 下で例外を送出する
+        }
+        throw new IllegalArgumentException("invalid step property. must set a number of 0 or more. "
+                + processName.formatProcessName() + ' ' + name + ": [" + value + ']');
     }
 
     /**
@@ -0,0 +1,49 @@
+package nablarch.fw.batch.ee.progress;
+
+/**
+ * 指数加重移動平均(EWMA)で平滑化したTPSから終了予測時間を求める{@link nablarch.fw.batch.progress.ProgressCalculator}。
+ * <p/>
+ * 平滑化係数が大きいほど直近のTPSの影響が大きくなり、小さいほど変動が抑えられる。
+ */
+class EwmaProgressCalculator extends SmoothedProgressCalculator {
+
+    /** デフォルトの平滑化係数 */
+    static final double DEFAULT_ALPHA = 0.3;
+
+    /** 平滑化係数 */
+    private final double alpha;
+
+    /** 平滑化したTPS(未計算の場合は負数) */
+    private double smoothedTps = -1.0;
+
+    /**
+     * 計算機能を生成する。
+     *
+     * @param inputCount 入力件数
+     * @param alpha 平滑化係数(0より大きく1以下)
+     */
+    EwmaProgressCalculator(final long inputCount, final double alpha) {
+        this(inputCount, alpha, System.nanoTime());
+    }
+
+    /**
+     * 計算機能を生成する。
+     *
+     * @param inputCount 入力件数
+     * @param alpha 平滑化係数(0より大きく1以下)
+     * @param startTime 開始時間(ナノ秒)
+     */
+    EwmaProgressCalculator(final long inputCount, final double alpha, final long startTime) {
+        super(inputCount, startTime);
+        if (!(alpha > 0.0 && alpha <= 1.0)) {
+            throw new IllegalArgumentException("alpha must be greater than 0 and 1 or less. alpha=[" + alpha + ']');
+        }
+        this.alpha = alpha;
+    }
+
+    @Override
+    protected double smooth(final long processedCount, final long currentTime, final double currentTps) {
+        smoothedTps = smoothedTps < 0.0 ? currentTps : alpha * currentTps + (1.0 - alpha) * smoothedTps;
+        return smoothedTps;
+    }
+}
@@ -15,6 +15,12 @@ public class JBatchProcessName implements ProcessName {
     /** ステップ名 */
     private final String stepName;
 
+    /** パーティション名(パーティションを使用しない場合は{@code null}) */
+    private final String partition;
+
+    /** 書式化したプロセス名(出力の度に文字列を連結しないよう、構築時に生成する) */
+    private final String formattedName;
+
     /**
      * プロセス名を構築する。
      *
@@ -22,12 +28,55 @@ public class JBatchProcessName implements ProcessName {
      * @param stepName ステップ名
      */
     public JBatchProcessName(final String jobName, final String stepName) {
+        this(jobName, stepName, null);
+    }
+
+    /**
+     * パーティションを識別する名前を持つプロセス名を構築する。
+     * <p/>
+     * パーティション名は構造化された進捗({@link JsonProgressLogPrinter})にのみ出力し、
+     * {@link #formatProcessName()}には含めない。
+     *
+     * @param jobName ジョブ名
+     * @param stepName ステップ名
+     * @param partition パーティション名(パーティションを使用しない場合は{@code null})
+     */
+    public JBatchProcessName(final String jobName, final String stepName, final String partition) {
         this.jobName = jobName;
         this.stepName = stepName;
+        this.partition = partition;
+        formattedName = "job name: [" + jobName + "] step name: [" + stepName + ']';
     }
 
     @Override
     public String formatProcessName() {
-        return "job name: [" + jobName + "] step name: [" + stepName + ']';
+        return formattedName;
+    }
+
+    /**
+     * ジョブ名を取得する。
+     *
+     * @return ジョブ名
+     */
+    public String getJobName() {
+        return jobName;
+    }
+
+    /**
+     * ステップ名を取得する。
+     *
+     * @return ステップ名
+     */
+    public String getStepName() {
+        return stepName;
+    }
+
+    /**
+     * パーティション名を取得する。
+     *
+     * @return パーティション名(パーティションを使用しない場合は{@code null})
+     */
+    public String getPartition() {
+        return partition;
     }
 }
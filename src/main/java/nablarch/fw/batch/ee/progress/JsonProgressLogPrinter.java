@@ -0,0 +1,245 @@
+package nablarch.fw.batch.ee.progress;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Properties;
+
+import nablarch.fw.batch.progress.ProcessName;
+import nablarch.fw.batch.progress.Progress;
+import nablarch.fw.batch.progress.ProgressLogPrinter;
+import nablarch.fw.batch.progress.ProgressLogger;
+import nablarch.fw.batch.progress.ProgressPrinter;
+
+/**
+ * 進捗状況をJSON形式の1行でログに出力する{@link ProgressPrinter}実装クラス。
+ * <p/>
+ * 監視ツールなどで進捗を集計できるよう、以下の項目を1つのJSONオブジェクトとして進捗ログに出力する。
+ * <ul>
+ * <li>job:ジョブ名</li>
+ * <li>step:ステップ名</li>
+ * <li>partition:パーティション名(パーティションを使用しない場合や{@link JBatchProcessName}以外の場合はnull)</li>
+ * <li>processed:処理済み件数</li>
+ * <li>remaining:残件数</li>
+ * <li>tps:開始からのTPS</li>
+ * <li>currentTps:前回の出力からのTPS</li>
+ * <li>estimatedEndTime:終了予測時間(エポックミリ秒、不明な場合はnull)</li>
+ * <li>heapUsed:使用中のヒープサイズ(バイト)</li>
+ * <li>timestamp:出力した時間(エポックミリ秒)</li>
+ * </ul>
+ * ログのフォーマットで日時などを付加せず、メッセージのみを出力する設定とすることで、JSON Lines形式のファイルとなる。
+ * <p/>
+ * ジョブとステップの開始と終了は、{@link #printEvent(JBatchProcessName, String, String)}で同じ形式の1行として出力する。
+ * {@link nablarch.fw.batch.ee.listener.job.JobProgressLogListener}と
+ * {@link nablarch.fw.batch.ee.listener.step.StepProgressLogListener}は、
+ * プロパティ{@value BasicProgressManager#PRINTER}にjsonが指定されている場合に本メソッドで出力する。
+ * <p/>
+ * リフレクションは使用せず、スレッドごとに再利用する文字列バッファに直接書き込む。
+ */
+public class JsonProgressLogPrinter implements ProgressPrinter {
+
+    /** 文字列バッファの初期容量 */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** スレッドごとの文字列バッファ */
+    private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(INITIAL_CAPACITY);
+        }
+    };
+
+    /** 入力件数 */
+    private final long inputCount;
+
+    /**
+     * 入力件数を出力の度に指定する、進捗状況を出力する機能を生成する。
+     * <p/>
+     * 全パーティションの進捗のように入力件数が変わる場合に使用し、
+     * {@link #print(ProcessName, Progress, long)}で出力する。
+     */
+    public JsonProgressLogPrinter() {
+        this(0L);
+    }
+
+    /**
+     * 進捗状況を出力する機能を生成する。
+     *
+     * @param inputCount 入力件数(処理済み件数の算出に使用する)
+     */
+    public JsonProgressLogPrinter(final long inputCount) {
+        this.inputCount = inputCount;
+    }
+
+    @Override
+    public void print(final ProcessName processName, final Progress progress) {
+        print(processName, progress, inputCount);
+    }
+
+    /**
+     * 出力時点の入力件数を指定して、進捗状況を出力する。
+     *
+     * @param processName プロセス名
+     * @param progress 進捗状況
+     * @param inputCount 出力時点の入力件数(処理済み件数の算出に使用する)
+     */
+    public void print(final ProcessName processName, final Progress progress, final long inputCount) {
+        final StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        appendProcessName(buffer, processName);
+        final long remaining = progress.getRemainingCount();
+        buffer.append(",\"processed\":").append(Math.max(inputCount - remaining, 0L))
+              .append(",\"remaining\":").append(remaining)
+              .append(",\"tps\":");
+        appendNumber(buffer, progress.getTps());
+        buffer.append(",\"currentTps\":");
+        appendNumber(buffer, progress.getCurrentTps());
+        buffer.append(",\"estimatedEndTime\":");
+        final Date estimatedEndTime = progress.getEstimatedEndTime();
+        if (estimatedEndTime == null) {
+            buffer.append("null");
+        } else {
+            buffer.append(estimatedEndTime.getTime());
+        }
+        final Runtime runtime = Runtime.getRuntime();
+        buffer.append(",\"heapUsed\":").append(runtime.totalMemory() - runtime.freeMemory())
+              .append(",\"timestamp\":").append(System.currentTimeMillis())
+              .append('}');
+        ProgressLogger.write(buffer.toString());
+    }
+
+    /**
+     * 統計情報をJSON形式の1行でログに出力する。
+     * <p/>
+     * job、step、partitionに続けて、statisticsに統計情報の名前を、以降に統計情報の項目名と値を出力する。
+     *
+     * @param processName プロセス名
+     * @param statistics 統計情報
+     */
+    static void printStatistics(final ProcessName processName, final ProgressStatistics statistics) {
+        final StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        appendProcessName(buffer, processName);
+        buffer.append(",\"statistics\":");
+        appendString(buffer, statistics.getStatisticsName());
+        for (Map.Entry<String, Long> entry : statistics.getStatistics().entrySet()) {
+            buffer.append(',');
+            appendString(buffer, entry.getKey());
+            buffer.append(':').append(entry.getValue());
+        }
+        buffer.append('}');
+        ProgressLogger.write(buffer.toString());
+    }
+
+    /**
+     * ジョブやステップの開始と終了をJSON形式の1行でログに出力する。
+     * <p/>
+     * job、step、partitionに続けて、eventにイベント名(start、finish)を、statusに終了ステータスを出力する。
+     * ジョブのイベントの場合は、stepにnullを出力する。
+     *
+     * @param processName プロセス名
+     * @param event イベント名
+     * @param status 終了ステータス(開始時など、終了ステータスが無い場合は{@code null})
+     */
+    public static void printEvent(final JBatchProcessName processName, final String event, final String status) {
+        final StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        appendProcessName(buffer, processName);
+        buffer.append(",\"event\":");
+        appendString(buffer, event);
+        buffer.append(",\"status\":");
+        appendString(buffer, status);
+        buffer.append('}');
+        ProgressLogger.write(buffer.toString());
+    }
+
+    /**
+     * プロパティで、JSON形式での出力が指定されているか否かを判定する。
+     * <p/>
+     * プロパティ{@value BasicProgressManager#PRINTER}にjsonが指定されている場合にJSON形式で出力する。
+     *
+     * @param properties ジョブプロパティまたはステッププロパティ({@code null}の場合はJSON形式で出力しない)
+     * @return JSON形式で出力する場合は{@code true}
+     */
+    public static boolean isSelected(final Properties properties) {
+        return properties != null && "json".equals(properties.getProperty(BasicProgressManager.PRINTER));
+    }
+
+    /**
+     * JSONオブジェクトの開始と、プロセス名の項目(job、step、partition)を追加する。
+     *
+     * @param buffer 文字列バッファ
+     * @param processName プロセス名
+     */
+    private static void appendProcessName(final StringBuilder buffer, final ProcessName processName) {
+        if (processName instanceof JBatchProcessName) {
+            final JBatchProcessName name = (JBatchProcessName) processName;
+            buffer.append("{\"job\":");
+            appendString(buffer, name.getJobName());
+            buffer.append(",\"step\":");
+            appendString(buffer, name.getStepName());
+            buffer.append(",\"partition\":");
+            appendString(buffer, name.getPartition());
+        } else {
+            buffer.append("{\"job\":");
+            appendString(buffer, processName.formatProcessName());
+            buffer.append(",\"step\":null,\"partition\":null");
+        }
+    }
+
+    /**
+     * 数値を追加する。
+     * <p/>
+     * JSONで表現できない値(NaN、無限大)はnullとする。
+     *
+     * @param buffer 文字列バッファ
+     * @param value 数値
+     */
+    private static void appendNumber(final StringBuilder buffer, final double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            buffer.append("null");
+        } else {
+            ProgressLogPrinter.appendDecimal(buffer, value);
+        }
+    }
+
+    /**
+     * 文字列をJSONの文字列として追加する。
+     *
+     * @param buffer 文字列バッファ
+     * @param value 文字列
+     */
+    static void appendString(final StringBuilder buffer, final String value) {
+        if (value == null) {
+            buffer.append("null");
+            return;
+        }
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    buffer.append("\\\"");
+                    break;
+                case '\\':
+                    buffer.append("\\\\");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        buffer.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        buffer.append(c);
+                    }
+            }
+        }
+        buffer.append('"');
+    }
+}
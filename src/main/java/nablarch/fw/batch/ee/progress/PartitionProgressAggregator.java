@@ -0,0 +1,198 @@
+package nablarch.fw.batch.ee.progress;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+
+import nablarch.fw.batch.ee.partition.ParentContextRegistry;
+import nablarch.fw.batch.progress.Progress;
+import nablarch.fw.batch.progress.ProgressLogPrinter;
+import nablarch.fw.batch.progress.ProgressPrinter;
+
+/**
+ * パーティションを使用したステップで、全パーティションの進捗をまとめてステップ単位で出力するクラス。
+ * <p/>
+ * 各パーティションの入力件数と処理済み件数は、ロックを使用しないカウンタに加算する。
+ * 進捗の出力は1スレッドずつ行い、他のスレッドが出力中の場合は出力を省略するため、
+ * パーティションのスレッドが出力を待つことはない。
+ * <p/>
+ * インスタンスは、ステップごとに{@link #begin(JobContext, StepContext)}で生成し、
+ * {@link #end(JobContext, StepContext)}で破棄する。
+ * パーティションのスレッドでも同じインスタンスを取得できるよう、インスタンスは{@link ParentContextRegistry}で生成したステップのキーで識別する。
+ */
+final class PartitionProgressAggregator {
+
+    /** 実行中のステップのインスタンス(キーは{@link ParentContextRegistry#createStepKey(JobContext, StepContext)}で生成したキー) */
+    private static final ConcurrentMap<String, PartitionProgressAggregator> AGGREGATORS =
+            new ConcurrentHashMap<String, PartitionProgressAggregator>();
+
+    /** 1秒のナノ秒 */
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /** プロセス名 */
+    private final JBatchProcessName processName;
+
+    /** 進捗状況をログに出力する機能(JSON形式で出力する場合は{@code null}) */
+    private final ProgressPrinter progressPrinter;
+
+    /** 進捗状況をJSON形式で出力する機能(JSON形式で出力しない場合は{@code null}) */
+    private final JsonProgressLogPrinter jsonPrinter;
+
+    /** 全パーティションの入力件数 */
+    private final AtomicLong inputCount = new AtomicLong();
+
+    /** 全パーティションの処理済み件数 */
+    private final AtomicLong processedCount = new AtomicLong();
+
+    /** 進捗を出力中か否か */
+    private final AtomicBoolean printing = new AtomicBoolean();
+
+    /** 開始時間(ナノ秒) */
+    private final long startTime = System.nanoTime();
+
+    /** 前回出力時の時間(ナノ秒、出力中のスレッドのみが更新する) */
+    private long lastTime = startTime;
+
+    /** 前回出力時の処理済み件数(出力中のスレッドのみが更新する) */
+    private long lastProcessedCount;
+
+    /**
+     * インスタンスを生成する。
+     *
+     * @param processName プロセス名
+     * @param jsonOutput JSON形式で出力するか否か
+     */
+    private PartitionProgressAggregator(final JBatchProcessName processName, final boolean jsonOutput) {
+        this.processName = processName;
+        progressPrinter = jsonOutput ? null : new ProgressLogPrinter();
+        jsonPrinter = jsonOutput ? new JsonProgressLogPrinter() : null;
+    }
+
+    /**
+     * ステップのインスタンスを生成する。
+     *
+     * @param jobContext ジョブコンテキスト
+     * @param stepContext ステップコンテキスト
+     */
+    static void begin(final JobContext jobContext, final StepContext stepContext) {
+        final JBatchProcessName processName = new JBatchProcessName(jobContext.getJobName(), stepContext.getStepName());
+        AGGREGATORS.put(createKey(jobContext, stepContext), new PartitionProgressAggregator(
+                processName, BasicProgressManager.isJsonOutput(stepContext.getProperties(), processName)));
+    }
+
+    /**
+     * ステップのインスタンスを取得する。
+     *
+     * @param jobContext ジョブコンテキスト
+     * @param stepContext ステップコンテキスト
+     * @return インスタンス(進捗をまとめない場合は{@code null})
+     */
+    static PartitionProgressAggregator get(final JobContext jobContext, final StepContext stepContext) {
+        return AGGREGATORS.get(createKey(jobContext, stepContext));
+    }
+
+    /**
+     * ステップのインスタンスを破棄する。
+     *
+     * @param jobContext ジョブコンテキスト
+     * @param stepContext ステップコンテキスト
+     * @return 破棄したインスタンス(インスタンスが存在しない場合は{@code null})
+     */
+    static PartitionProgressAggregator end(final JobContext jobContext, final StepContext stepContext) {
+        return AGGREGATORS.remove(createKey(jobContext, stepContext));
+    }
+
+    /**
+     * パーティションの入力件数を加算する。
+     *
+     * @param count パーティションの入力件数
+     */
+    void addInputCount(final long count) {
+        inputCount.addAndGet(count);
+    }
+
+    /**
+     * パーティションで処理した件数を加算する。
+     *
+     * @param count 前回の加算以降に処理した件数
+     */
+    void addProcessedCount(final long count) {
+        processedCount.addAndGet(count);
+    }
+
+    /**
+     * ステップ全体の進捗状況を出力する。
+     * <p/>
+     * 他のスレッドが出力中の場合は何もしない。
+     * パーティションの開始に応じて入力件数が変わるため、JSON形式では出力時点の入力件数を指定して出力する。
+     */
+    void print() {
+        if (!printing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            final long total = inputCount.get();
+            if (total > 0L) {
+                final Progress progress = calculate(total, processedCount.get());
+                if (jsonPrinter != null) {
+                    jsonPrinter.print(processName, progress, total);
+                } else {
+                    progressPrinter.print(processName, progress);
+                }
+            }
+        } finally {
+            printing.set(false);
+        }
+    }
+
+    /**
+     * 進捗状況を求める。
+     * <p/>
+     * パーティションの開始に応じて入力件数が増えるため、終了予測時間は全パーティションの開始後に安定する。
+     *
+     * @param total 全パーティションの入力件数
+     * @param processed 全パーティションの処理済み件数
+     * @return 進捗状況
+     */
+    private Progress calculate(final long total, final long processed) {
+        final long currentTime = System.nanoTime();
+        final double tps = calculateTps(processed, currentTime - startTime);
+        final double currentTps = calculateTps(processed - lastProcessedCount, currentTime - lastTime);
+        lastTime = currentTime;
+        lastProcessedCount = processed;
+
+        final long remaining = Math.max(total - processed, 0L);
+        final Date estimatedEndTime = tps > 0.0
+                ? new Date(System.currentTimeMillis() + (long) (remaining / tps * 1000.0))
+                : null;
+        return new Progress(tps, currentTps, estimatedEndTime, remaining);
+    }
+
+    /**
+     * TPSを求める。
+     *
+     * @param count 件数
+     * @param elapsedNanos 経過時間(ナノ秒)
+     * @return TPS
+     */
+    private static double calculateTps(final long count, final long elapsedNanos) {
+        return elapsedNanos > 0L ? count / (elapsedNanos / NANOS_PER_SECOND) : 0.0;
+    }
+
+    /**
+     * インスタンスを識別するキーを生成する。
+     *
+     * @param jobContext ジョブコンテキスト
+     * @param stepContext ステップコンテキスト
+     * @return キー
+     */
+    private static String createKey(final JobContext jobContext, final StepContext stepContext) {
+        return ParentContextRegistry.createStepKey(jobContext, stepContext);
+    }
+}
@@ -0,0 +1,34 @@
+package nablarch.fw.batch.ee.progress;
+
+import javax.batch.api.partition.PartitionReducer.PartitionStatus;
+
+import nablarch.core.util.annotation.Published;
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+import nablarch.fw.batch.ee.listener.partition.AbstractNablarchPartitionReducer;
+
+/**
+ * パーティションを使用したステップの進捗を、ステップ単位でまとめて出力するリスナー。
+ * <p/>
+ * 本リスナーを{@link nablarch.fw.batch.ee.listener.partition.NablarchPartitionReducerExecutor}
+ * のリスナーリスト(partitionReducers)に設定すると、各パーティションの{@link BasicProgressManager}は
+ * パーティション単位の進捗を出力せず、入力件数と処理済み件数を全パーティションで合算し、
+ * ステップ全体のTPS、現在のTPS、終了予測時間を1行で出力する。
+ * ステップの終了時には、最終的な進捗を1行出力する。
+ */
+@Published(tag = "architect")
+public class PartitionProgressReducer extends AbstractNablarchPartitionReducer {
+
+    @Override
+    public void beginPartitionedStep(final NablarchListenerContext context) {
+        PartitionProgressAggregator.begin(context.getJobContext(), context.getStepContext());
+    }
+
+    @Override
+    public void afterPartitionedStepCompletion(final NablarchListenerContext context, final PartitionStatus status) {
+        final PartitionProgressAggregator aggregator = PartitionProgressAggregator.end(
+                context.getJobContext(), context.getStepContext());
+        if (aggregator != null) {
+            aggregator.print();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package nablarch.fw.batch.ee.progress;
+
+import java.util.Map;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 進捗状況と合わせて出力する統計情報を提供するインタフェース。
+ * <p/>
+ * {@link ProgressStatisticsRegistry}にステップ単位で登録すると、
+ * {@link BasicProgressManager}が進捗状況を出力する度に、統計情報を進捗ログに出力する。
+ *
+ * @see nablarch.fw.batch.ee.cache.LookupCache
+ */
+@Published(tag = "architect")
+public interface ProgressStatistics {
+
+    /**
+     * 統計情報の名前を取得する。
+     *
+     * @return 統計情報の名前
+     */
+    String getStatisticsName();
+
+    /**
+     * 統計情報を取得する。
+     * <p/>
+     * 項目名と値を、出力する順序で返すこと。
+     *
+     * @return 統計情報(キーは項目名)
+     */
+    Map<String, Long> getStatistics();
+}
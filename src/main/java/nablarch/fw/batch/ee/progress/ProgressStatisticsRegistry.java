@@ -0,0 +1,84 @@
+package nablarch.fw.batch.ee.progress;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.batch.runtime.context.StepContext;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 進捗状況と合わせて出力する統計情報を、ステップ単位で保持するクラス。
+ * <p/>
+ * 統計情報は{@link StepContext}のインスタンス単位で保持する。
+ * パーティションを使用したステップでは、パーティションごとに保持する。
+ * <p/>
+ * 保持した統計情報は、ステップの終了時に{@link nablarch.fw.batch.ee.listener.step.NablarchStepListenerExecutor}が
+ * {@link #unregister(StepContext)}で解除する。
+ * {@link nablarch.fw.batch.ee.listener.step.NablarchStepListenerExecutor}を使用しない場合でも、
+ * {@link StepContext}が不要となった時点で保持を解除する。
+ */
+@Published(tag = "architect")
+public final class ProgressStatisticsRegistry {
+
+    /** {@link StepContext}ごとの統計情報 */
+    private static final Map<StepContext, List<ProgressStatistics>> STATISTICS =
+            Collections.synchronizedMap(new WeakHashMap<StepContext, List<ProgressStatistics>>());
+
+    /**
+     * 隠蔽コンストラクタ。
+     */
+    private ProgressStatisticsRegistry() {
+    }
+
+    /**
+     * ステップの統計情報を登録する。
+     *
+     * @param stepContext ステップコンテキスト
+     * @param statistics 統計情報
+     */
+    public static void register(final StepContext stepContext, final ProgressStatistics statistics) {
+        synchronized (STATISTICS) {
+            List<ProgressStatistics> list = STATISTICS.get(stepContext);
+            if (list == null) {
+                list = new ArrayList<ProgressStatistics>();
+                STATISTICS.put(stepContext, list);
+            }
+            list.add(statistics);
+        }
+    }
+
+    /**
+     * ステップの統計情報を取得する。
+     *
+     * @param stepContext ステップコンテキスト
+     * @return 統計情報(登録されていない場合は空のリスト)
+     */
+    public static List<ProgressStatistics> get(final StepContext stepContext) {
+        synchronized (STATISTICS) {
+            final List<ProgressStatistics> list = STATISTICS.get(stepContext);
+            return list == null
+                    ? Collections.<ProgressStatistics>emptyList()
+                    : new ArrayList<ProgressStatistics>(list);
+        }
+    }
+
+    /**
+     * ステップの統計情報の登録を解除する。
+     *
+     * @param stepContext ステップコンテキスト
+     */
+    public static void unregister(final StepContext stepContext) {
+        STATISTICS.remove(stepContext);
+    }
+
+    /**
+     * 全ての統計情報の登録を解除する。
+     */
+    public static void clear() {
+        STATISTICS.clear();
+    }
+}
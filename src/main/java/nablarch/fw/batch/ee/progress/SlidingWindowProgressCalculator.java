@@ -0,0 +1,63 @@
+package nablarch.fw.batch.ee.progress;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 直近の一定時間(ウィンドウ)のTPSから終了予測時間を求める{@link nablarch.fw.batch.progress.ProgressCalculator}。
+ * <p/>
+ * ウィンドウ内の計算時の時間と処理済み件数を保持し、ウィンドウの始点からのTPSを終了予測時間に使用する。
+ */
+class SlidingWindowProgressCalculator extends SmoothedProgressCalculator {
+
+    /** デフォルトのウィンドウの長さ(ミリ秒) */
+    static final long DEFAULT_WINDOW_MILLIS = 60000L;
+
+    /** ウィンドウの長さ(ナノ秒) */
+    private final long windowNanos;
+
+    /** ウィンドウ内の計算時の時間と処理済み件数(古い順) */
+    private final Deque<long[]> samples = new ArrayDeque<long[]>();
+
+    /**
+     * 計算機能を生成する。
+     *
+     * @param inputCount 入力件数
+     * @param windowMillis ウィンドウの長さ(ミリ秒)
+     */
+    SlidingWindowProgressCalculator(final long inputCount, final long windowMillis) {
+        this(inputCount, windowMillis, System.nanoTime());
+    }
+
+    /**
+     * 計算機能を生成する。
+     *
+     * @param inputCount 入力件数
+     * @param windowMillis ウィンドウの長さ(ミリ秒)
+     * @param startTime 開始時間(ナノ秒)
+     */
+    SlidingWindowProgressCalculator(final long inputCount, final long windowMillis, final long startTime) {
+        super(inputCount, startTime);
+        if (windowMillis < 1L) {
+            throw new IllegalArgumentException("window must be greater than 0. window=[" + windowMillis + ']');
+        }
+        windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        samples.addLast(new long[] {startTime, 0L});
+    }
+
+    @Override
+    protected double smooth(final long processedCount, final long currentTime, final double currentTps) {
+        samples.addLast(new long[] {currentTime, processedCount});
+        // ウィンドウの始点より前の最も新しい計算結果を始点として残す
+        while (samples.size() > 2) {
+            final long[] first = samples.removeFirst();
+            if (currentTime - samples.getFirst()[0] < windowNanos) {
+                samples.addFirst(first);
+                break;
+            }
+        }
+        final long[] first = samples.getFirst();
+        return calculateTps(processedCount - first[1], currentTime - first[0]);
+    }
+}
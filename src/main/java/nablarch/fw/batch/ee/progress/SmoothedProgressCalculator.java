@@ -0,0 +1,93 @@
+package nablarch.fw.batch.ee.progress;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import nablarch.fw.batch.progress.Progress;
+import nablarch.fw.batch.progress.ProgressCalculator;
+
+/**
+ * 平滑化したTPSから終了予測時間を求める{@link ProgressCalculator}の抽象クラス。
+ * <p/>
+ * {@link nablarch.fw.batch.progress.ProcessedCountBasedProgressCalculator}は直前の区間のTPSから終了予測時間を求めるため、
+ * 一時的に遅いチャンクやGCの停止があると終了予測時間が大きく変動する。
+ * 本クラスのサブクラスは、複数の区間を平滑化したTPSを求めることで終了予測時間の変動を抑える。
+ * <p/>
+ * 進捗状況のTPSは開始からの平均、現在のTPSは前回の計算からの値であり、平滑化したTPSは終了予測時間にのみ使用する。
+ */
+abstract class SmoothedProgressCalculator implements ProgressCalculator {
+
+    /** 1秒のナノ秒 */
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /** 入力件数 */
+    private final long inputCount;
+
+    /** 開始時間(ナノ秒) */
+    private final long startTime;
+
+    /** 前回計算した時間(ナノ秒) */
+    private long lastTime;
+
+    /** 前回計算した時の処理済み件数 */
+    private long lastProcessedCount;
+
+    /**
+     * 計算機能を生成する。
+     *
+     * @param inputCount 入力件数
+     * @param startTime 開始時間(ナノ秒)
+     */
+    SmoothedProgressCalculator(final long inputCount, final long startTime) {
+        this.inputCount = inputCount;
+        this.startTime = startTime;
+        lastTime = startTime;
+    }
+
+    @Override
+    public Progress calculate(final long processedCount) {
+        return calculate(processedCount, System.nanoTime());
+    }
+
+    /**
+     * 指定した時間の進捗状況を求める。
+     *
+     * @param processedCount 処理済み件数
+     * @param currentTime 現在の時間(ナノ秒)
+     * @return 進捗状況
+     */
+    Progress calculate(final long processedCount, final long currentTime) {
+        final double tps = calculateTps(processedCount, currentTime - startTime);
+        final double currentTps = calculateTps(processedCount - lastProcessedCount, currentTime - lastTime);
+        final double smoothedTps = smooth(processedCount, currentTime, currentTps);
+        lastTime = currentTime;
+        lastProcessedCount = processedCount;
+
+        final long remaining = Math.max(inputCount - processedCount, 0L);
+        final Date estimatedEndTime = smoothedTps > 0.0
+                ? new Date(System.currentTimeMillis() + (long) (remaining / smoothedTps * 1000.0))
+                : null;
+        return new Progress(tps, currentTps, estimatedEndTime, remaining);
+    }
+
+    /**
+     * 終了予測時間に使用する平滑化したTPSを求める。
+     *
+     * @param processedCount 処理済み件数
+     * @param currentTime 現在の時間(ナノ秒)
+     * @param currentTps 前回の計算からのTPS
+     * @return 平滑化したTPS(求められない場合は0)
+     */
+    protected abstract double smooth(long processedCount, long currentTime, double currentTps);
+
+    /**
+     * TPSを求める。
+     *
+     * @param count 件数
+     * @param elapsedNanos 経過時間(ナノ秒)
+     * @return TPS
+     */
+    static double calculateTps(final long count, final long elapsedNanos) {
+        return elapsedNanos > 0L ? count / (elapsedNanos / NANOS_PER_SECOND) : 0.0;
+    }
+}
@@ -1,25 +1,80 @@
 package nablarch.fw.batch.progress;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
 /**
  * 進捗状況をログに出力するクラス。
+ * <p/>
+ * 終了予測時間は24時間表記({@code yyyy/MM/dd HH:mm:ss.SSS})で出力する。
+ * 日付フォーマットと文字列バッファはスレッドごとに再利用し、出力の度に生成しない。
+ * TPSは小数点以下2桁で出力する。小数点はロケールに関わらず{@code .}とする。
  *
  * @author siosio
  */
 public class ProgressLogPrinter implements ProgressPrinter {
-    
+
+    /** 終了予測時間のフォーマット */
+    private static final String DATE_PATTERN = "yyyy/MM/dd HH:mm:ss.SSS";
+
+    /** 文字列バッファの初期容量 */
+    private static final int INITIAL_CAPACITY = 256;
+
+    /** スレッドごとの日付フォーマット */
+    private static final ThreadLocal<DateFormat> DATE_FORMAT = new ThreadLocal<DateFormat>() {
+        @Override
+        protected DateFormat initialValue() {
+            return new SimpleDateFormat(DATE_PATTERN);
+        }
+    };
+
+    /** スレッドごとの文字列バッファ */
+    private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(INITIAL_CAPACITY);
+        }
+    };
+
     @Override
     public void print(final ProcessName processName, final Progress progress) {
-        final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy/MM/dd hh:mm:ss.SSS");
-
+        final StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        buffer.append(processName.formatProcessName())
+              .append(" total tps: [");
+        appendDecimal(buffer, progress.getTps());
+        buffer.append("] current tps: [");
+        appendDecimal(buffer, progress.getCurrentTps());
+        buffer.append("] estimated end time: [");
         final Date estimatedEndTime = progress.getEstimatedEndTime();
-        ProgressLogger.write(String.format("%s total tps: [%.2f] current tps: [%.2f] estimated end time: [%s] remaining count: [%d]",
-                processName.formatProcessName(),
-                progress.getTps(),
-                progress.getCurrentTps(),
-                estimatedEndTime == null ? "unknown" : dateFormat.format(estimatedEndTime),
-                progress.getRemainingCount()));
+        if (estimatedEndTime == null) {
+            buffer.append("unknown");
+        } else {
+            buffer.append(DATE_FORMAT.get().format(estimatedEndTime));
+        }
+        buffer.append("] remaining count: [")
+              .append(progress.getRemainingCount())
+              .append(']');
+        ProgressLogger.write(buffer.toString());
+    }
+
+    /**
+     * 数値を小数点以下2桁で追加する。
+     * <p/>
+     * {@code String.format("%.2f", value)}と同様に、数値の10進表記({@link Double#toString(double)})を四捨五入する。
+     * ただし、小数点はロケールに関わらず{@code .}とする。
+     *
+     * @param buffer 文字列バッファ
+     * @param value 数値
+     */
+    public static void appendDecimal(final StringBuilder buffer, final double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            buffer.append(value);
+        } else {
+            buffer.append(BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP).toPlainString());
+        }
     }
 }
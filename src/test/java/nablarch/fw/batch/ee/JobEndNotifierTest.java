@@ -0,0 +1,81 @@
+package nablarch.fw.batch.ee;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * {@link JobEndNotifier}のテスト
+ */
+public class JobEndNotifierTest {
+
+    @After
+    public void tearDown() throws Exception {
+        JobEndNotifier.unregister(1L);
+        JobEndNotifier.unregister(2L);
+    }
+
+    /**
+     * 登録した実行IDの終了を通知した場合、ラッチが解放されること。
+     */
+    @Test
+    public void testNotifyEnd() throws Exception {
+        final CountDownLatch latch1 = JobEndNotifier.register(1L);
+        final CountDownLatch latch2 = JobEndNotifier.register(2L);
+
+        JobEndNotifier.notifyEnd(1L);
+
+        assertThat(latch1.getCount(), is(0L));
+        assertThat("他の実行IDのラッチは解放されないこと", latch2.getCount(), is(1L));
+    }
+
+    /**
+     * 終了を通知した実行IDのラッチは登録が解除されること。
+     */
+    @Test
+    public void testNotifyEndUnregister() throws Exception {
+        final CountDownLatch latch = JobEndNotifier.register(1L);
+        JobEndNotifier.notifyEnd(1L);
+
+        final CountDownLatch registered = JobEndNotifier.register(1L);
+        assertThat("再登録時は新しいラッチが返されること", registered, is(not(sameInstance(latch))));
+        assertThat(registered.getCount(), is(1L));
+    }
+
+    /**
+     * 同じ実行IDで登録した場合、登録済みのラッチが返されること。
+     */
+    @Test
+    public void testRegisterTwice() throws Exception {
+        final CountDownLatch latch = JobEndNotifier.register(1L);
+        assertThat(JobEndNotifier.register(1L), is(sameInstance(latch)));
+    }
+
+    /**
+     * 登録を解除した実行IDの終了を通知しても、ラッチは解放されないこと。
+     */
+    @Test
+    public void testUnregister() throws Exception {
+        final CountDownLatch latch = JobEndNotifier.register(1L);
+        JobEndNotifier.unregister(1L);
+
+        JobEndNotifier.notifyEnd(1L);
+
+        assertThat(latch.getCount(), is(1L));
+        assertThat("再登録時は新しいラッチが返されること", JobEndNotifier.register(1L), is(not(sameInstance(latch))));
+    }
+
+    /**
+     * 登録されていない実行IDの終了を通知しても、例外が発生しないこと。
+     */
+    @Test
+    public void testNotifyEndWithoutRegister() throws Exception {
+        JobEndNotifier.notifyEnd(2L);
+    }
+}
@@ -4,8 +4,14 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
 
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import javax.batch.operations.JobOperator;
 import javax.batch.runtime.BatchRuntime;
@@ -17,6 +23,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import mockit.Deencapsulation;
 import mockit.Expectations;
 import mockit.Mocked;
 
@@ -235,4 +242,103 @@ public class JobExecutorTest {
         int exitCode = executor.execute(500);
         assertThat("終了コードが0か", exitCode, is(0));
     }
+
+    /**
+     * JOBの終了通知を受けた場合、ポーリング間隔を待たずに終了すること。
+     */
+    @Test
+    public void testNotifiedEnd() throws Exception {
+        final JobExecutor executor = new JobExecutor("job-notified", new Properties());
+        new Expectations() {{
+            final JobOperator jobOperator = BatchRuntime.getJobOperator();
+            jobOperator.start(executor.getJobXmlName(), new Properties());
+            result = 5L;
+            final JobExecution jobExecution = jobOperator.getJobExecution(5L);
+            jobExecution.getBatchStatus();
+            returns(BatchStatus.STARTED, BatchStatus.STARTED, BatchStatus.COMPLETED);
+        }};
+        final Thread notifier = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(500);
+                } catch (InterruptedException ignored) {
+                }
+                JobEndNotifier.notifyEnd(5L);
+            }
+        });
+        notifier.start();
+
+        final long start = System.nanoTime();
+        int exitCode = executor.execute(TimeUnit.MINUTES.toMillis(10));
+        final long elapsed = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+        notifier.join();
+
+        assertThat("終了コードが0か", exitCode, is(0));
+        assertThat("ポーリング間隔(10分)を待たずに終了すること", elapsed < 60, is(true));
+    }
+
+    /**
+     * 非同期で実行した場合、{@link java.util.concurrent.Future}から終了コードが取得できること。
+     */
+    @Test
+    public void testExecuteAsync() throws Exception {
+        final JobExecutor executor = new JobExecutor("job-async", new Properties());
+        new Expectations() {{
+            final JobOperator jobOperator = BatchRuntime.getJobOperator();
+            jobOperator.start(executor.getJobXmlName(), new Properties());
+            result = 6L;
+            final JobExecution jobExecution = jobOperator.getJobExecution(6L);
+            jobExecution.getBatchStatus();
+            returns(BatchStatus.STARTED, BatchStatus.STARTED, BatchStatus.COMPLETED);
+            jobExecution.getExitStatus();
+            result = "WARNING";
+        }};
+        final Future<Integer> future = executor.executeAsync(1);
+        assertNotNull("開始直後から実行情報が取得できること", executor.getJobExecution());
+        assertThat("実行中は終了していないこと", future.isDone(), is(false));
+        assertThat("終了コードが2か", future.get(), is(2));
+        assertThat("キャンセルはできないこと", future.cancel(true), is(false));
+        assertThat(future.isCancelled(), is(false));
+        assertThat(future.isDone(), is(true));
+        final Map<Long, CountDownLatch> latches = Deencapsulation.getField(JobEndNotifier.class, "LATCHES");
+        assertThat("終了後はラッチの登録が解除されること", latches.containsKey(6L), is(false));
+    }
+
+    /**
+     * 非同期で実行したJOBが指定時間内に終了しない場合、{@link TimeoutException}が送出されること。
+     */
+    @Test
+    public void testExecuteAsyncTimeout() throws Exception {
+        final JobExecutor executor = new JobExecutor("job-async-timeout", new Properties());
+        new Expectations() {{
+            final JobOperator jobOperator = BatchRuntime.getJobOperator();
+            jobOperator.start(executor.getJobXmlName(), new Properties());
+            result = 7L;
+            final JobExecution jobExecution = jobOperator.getJobExecution(7L);
+            jobExecution.getBatchStatus();
+            result = BatchStatus.STARTED;
+        }};
+        final Future<Integer> future = executor.executeAsync(10);
+
+        try {
+            future.get(50, TimeUnit.MILLISECONDS);
+            fail("TimeoutExceptionが送出されること");
+        } catch (TimeoutException e) {
+            assertThat(e.getMessage(), is("Job did not end within the timeout. JobXmlName=[job-async-timeout], executionId=[7]"));
+        }
+        final Map<Long, CountDownLatch> latches = Deencapsulation.getField(JobEndNotifier.class, "LATCHES");
+        assertThat("タイムアウトした場合もラッチの登録が解除されること", latches.containsKey(7L), is(false));
+    }
+
+    /**
+     * 非同期で実行する場合に、待機時間に1未満を指定したテスト
+     */
+    @Test
+    public void testExecuteAsyncLessThanOne() {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(is("mills must be greater than 0."));
+        final JobExecutor executor = new JobExecutor("job-async-wait-time=0", new Properties());
+        executor.executeAsync(0);
+    }
 }
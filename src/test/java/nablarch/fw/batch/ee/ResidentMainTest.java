@@ -0,0 +1,211 @@
+package nablarch.fw.batch.ee;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Properties;
+
+import javax.batch.operations.JobOperator;
+import javax.batch.runtime.BatchRuntime;
+import javax.batch.runtime.BatchStatus;
+import javax.batch.runtime.JobExecution;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import mockit.Expectations;
+import mockit.Mocked;
+
+/**
+ * {@link ResidentMain}のテスト。
+ */
+public class ResidentMainTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Rule
+    public final ExpectedException expectedException = ExpectedException.none();
+
+    @Mocked
+    BatchRuntime runtime;
+
+    private File spoolDirectory;
+
+    private ResidentMain sut;
+
+    @Before
+    public void setUp() throws Exception {
+        spoolDirectory = temporaryFolder.getRoot();
+        sut = new ResidentMain(spoolDirectory);
+    }
+
+    /**
+     * 実行要求に従ってJOBが実行され、終了コードが実行結果ファイルに出力されること。
+     * 実行要求の各行は、前後の空白や空行も含めてそのまま実行引数となること。
+     */
+    @Test
+    public void testProcessRequests() throws Exception {
+        final Properties properties = new Properties();
+        properties.put("name1", " value1 ");
+        properties.put("name2", "");
+        new Expectations() {{
+            final JobOperator jobOperator = BatchRuntime.getJobOperator();
+            jobOperator.start("resident-test-job", properties);
+            result = 1L;
+            final JobExecution jobExecution = jobOperator.getJobExecution(1L);
+            jobExecution.getBatchStatus();
+            result = BatchStatus.COMPLETED;
+            jobExecution.getExitStatus();
+            result = "WARNING";
+        }};
+        writeRequest("001", "resident-test-job", "--name1", " value1 ", "--name2", "");
+
+        assertThat(sut.processRequests(), is(1));
+
+        assertThat(readResult("001"), is("2"));
+        assertThat(new File(spoolDirectory, "001.request").exists(), is(false));
+        assertThat(new File(spoolDirectory, "001.running").exists(), is(false));
+    }
+
+    /**
+     * 実行要求が不正な場合、異常終了の終了コードが実行結果ファイルに出力されること。
+     */
+    @Test
+    public void testProcessInvalidRequest() throws Exception {
+        writeRequest("001");
+
+        assertThat(sut.processRequests(), is(1));
+
+        assertThat(readResult("001"), is("1"));
+    }
+
+    /**
+     * 実行結果の出力に失敗した場合でも、次の実行要求が実行されること。
+     */
+    @Test
+    public void testProcessRequestsFailedToWriteResult() throws Exception {
+        writeRequest("001");
+        writeRequest("002");
+        // 一時ファイルと同じ名前のディレクトリを作成し、001の実行結果の出力を失敗させる
+        assertThat(new File(spoolDirectory, "001.result.tmp").mkdir(), is(true));
+
+        assertThat(sut.processRequests(), is(2));
+
+        assertThat(new File(spoolDirectory, "001.result").exists(), is(false));
+        assertThat(readResult("002"), is("1"));
+    }
+
+    /**
+     * 実行中のまま残った要求に、異常終了の終了コードが実行結果ファイルに出力されること。
+     * 実行中の要求は再実行されないこと。
+     */
+    @Test
+    public void testRecoverRunningRequests() throws Exception {
+        writeRequest("001", "resident-test-job");
+        writeRequest("002", "resident-test-job");
+        assertThat(new File(spoolDirectory, "001.request").renameTo(new File(spoolDirectory, "001.running")), is(true));
+        assertThat(new File(spoolDirectory, "002.request").renameTo(new File(spoolDirectory, "002.running")), is(true));
+        // 一時ファイルと同じ名前のディレクトリを作成し、001の実行結果の出力を失敗させる
+        assertThat(new File(spoolDirectory, "001.result.tmp").mkdir(), is(true));
+
+        assertThat(sut.recoverRunningRequests(), is(1));
+
+        assertThat(new File(spoolDirectory, "001.result").exists(), is(false));
+        assertThat(new File(spoolDirectory, "001.running").exists(), is(true));
+        assertThat(readResult("002"), is("1"));
+        assertThat(new File(spoolDirectory, "002.running").exists(), is(false));
+        assertThat(new File(spoolDirectory, "002.request").exists(), is(false));
+    }
+
+    /**
+     * 起動時に、実行中のまま残った要求の実行結果が出力されること。
+     */
+    @Test
+    public void testRunRecoversRunningRequests() throws Exception {
+        writeRequest("001", "resident-test-job");
+        assertThat(new File(spoolDirectory, "001.request").renameTo(new File(spoolDirectory, "001.running")), is(true));
+        assertThat(new File(spoolDirectory, "stop").createNewFile(), is(true));
+
+        sut.run();
+
+        assertThat(readResult("001"), is("1"));
+        assertThat(new File(spoolDirectory, "001.running").exists(), is(false));
+    }
+
+    /**
+     * 実行要求が存在しない場合、何も実行されないこと。
+     */
+    @Test
+    public void testProcessNoRequest() throws Exception {
+        assertThat(sut.processRequests(), is(0));
+    }
+
+    /**
+     * 停止要求が配置されている場合、実行要求は実行されず常駐を終了すること。
+     */
+    @Test
+    public void testStopRequested() throws Exception {
+        writeRequest("001", "resident-test-job");
+        assertThat(new File(spoolDirectory, "stop").createNewFile(), is(true));
+
+        sut.run();
+
+        assertThat(new File(spoolDirectory, "001.request").exists(), is(true));
+        assertThat(new File(spoolDirectory, "001.result").exists(), is(false));
+    }
+
+    /**
+     * スプールディレクトリが指定されていない場合のテスト。
+     */
+    @Test
+    public void testMainNoArgument() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(is("Please specify spool directory as the first argument."));
+        ResidentMain.main();
+    }
+
+    /**
+     * 存在しないディレクトリが指定された場合のテスト。
+     */
+    @Test
+    public void testMainNotDirectory() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(is("Please specify spool directory as the first argument."));
+        ResidentMain.main(new File(temporaryFolder.getRoot(), "notFound").getPath());
+    }
+
+    private void writeRequest(final String name, final String... lines) throws Exception {
+        final File temporary = new File(spoolDirectory, name + ".tmp");
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(temporary), "UTF-8");
+        try {
+            for (String line : lines) {
+                writer.write(line);
+                writer.write('\n');
+            }
+        } finally {
+            writer.close();
+        }
+        assertThat(temporary.renameTo(new File(spoolDirectory, name + ".request")), is(true));
+    }
+
+    private String readResult(final String name) throws Exception {
+        final BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(new File(spoolDirectory, name + ".result")), "UTF-8"));
+        try {
+            return reader.readLine();
+        } finally {
+            reader.close();
+        }
+    }
+}
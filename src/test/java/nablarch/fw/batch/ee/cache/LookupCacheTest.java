@@ -0,0 +1,182 @@
+package nablarch.fw.batch.ee.cache;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.batch.runtime.context.StepContext;
+
+import nablarch.fw.batch.ee.progress.ProgressStatistics;
+import nablarch.fw.batch.ee.progress.ProgressStatisticsRegistry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import mockit.Mocked;
+
+/**
+ * {@link LookupCache}のテストクラス。
+ */
+public class LookupCacheTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    /**
+     * キャッシュに無い場合のみ読み込まれ、ヒット数とミス数が数えられること。
+     */
+    @Test
+    public void get() throws Exception {
+        final StubLoader loader = new StubLoader();
+        final LookupCache<String, String> sut = new LookupCache<String, String>(loader, 10);
+
+        assertThat(sut.get("1"), is("value1"));
+        assertThat(sut.get("1"), is("value1"));
+        assertThat(sut.get("2"), is("value2"));
+        assertThat(sut.get("1"), is("value1"));
+
+        assertThat(loader.loadedKeys, contains("1", "2"));
+        assertThat(sut.getHitCount(), is(2L));
+        assertThat(sut.getMissCount(), is(2L));
+        assertThat(sut.size(), is(2));
+    }
+
+    /**
+     * 存在しないキーもキャッシュされ、再度読み込まれないこと。
+     */
+    @Test
+    public void get_notFound() throws Exception {
+        final StubLoader loader = new StubLoader();
+        final LookupCache<String, String> sut = new LookupCache<String, String>(loader, 10);
+
+        assertThat(sut.get("none"), is(nullValue()));
+        assertThat(sut.get("none"), is(nullValue()));
+
+        assertThat(loader.loadedKeys, contains("none"));
+        assertThat(sut.getHitCount(), is(1L));
+        assertThat(sut.getMissCount(), is(1L));
+    }
+
+    /**
+     * 最大件数を超えた場合、最も長い間参照されていない値が破棄されること。
+     */
+    @Test
+    public void get_evict() throws Exception {
+        final StubLoader loader = new StubLoader();
+        final LookupCache<String, String> sut = new LookupCache<String, String>(loader, 2);
+
+        sut.get("1");
+        sut.get("2");
+        sut.get("1");
+        sut.get("3");
+        sut.get("1");
+        sut.get("2");
+
+        assertThat("2が破棄され、1は残ること", loader.loadedKeys, contains("1", "2", "3", "2"));
+        assertThat(sut.size(), is(2));
+        assertThat(sut.getEvictionCount(), is(2L));
+    }
+
+    /**
+     * 一括で読み込んだ値がキャッシュされ、読み込まれないこと。
+     */
+    @Test
+    public void preload() throws Exception {
+        final StubLoader loader = new StubLoader();
+        loader.all.put("1", "value1");
+        loader.all.put("2", "value2");
+        final LookupCache<String, String> sut = new LookupCache<String, String>(loader, 10);
+
+        assertThat(sut.preload(), is(2));
+        assertThat(sut.get("1"), is("value1"));
+        assertThat(sut.get("2"), is("value2"));
+
+        assertThat(loader.loadedKeys.isEmpty(), is(true));
+        assertThat(sut.getHitCount(), is(2L));
+        assertThat(sut.getMissCount(), is(0L));
+    }
+
+    /**
+     * キャッシュを空にした場合、再度読み込まれること。
+     */
+    @Test
+    public void clear() throws Exception {
+        final StubLoader loader = new StubLoader();
+        final LookupCache<String, String> sut = new LookupCache<String, String>(loader, 10);
+
+        sut.get("1");
+        sut.clear();
+        assertThat(sut.size(), is(0));
+        sut.get("1");
+
+        assertThat(loader.loadedKeys, contains("1", "1"));
+    }
+
+    /**
+     * 統計情報が出力する順序で返されること。
+     */
+    @Test
+    public void getStatistics() throws Exception {
+        final LookupCache<String, String> sut = new LookupCache<String, String>(new StubLoader(), 1);
+        sut.get("1");
+        sut.get("1");
+        sut.get("2");
+
+        final Map<String, Long> statistics = sut.getStatistics();
+        assertThat(new ArrayList<String>(statistics.keySet()), contains("hit", "miss", "size", "evicted"));
+        assertThat(new ArrayList<Long>(statistics.values()), contains(1L, 2L, 1L, 1L));
+        assertThat(sut.getStatisticsName(), is("LookupCache"));
+    }
+
+    /**
+     * ステップの統計情報として登録されること。
+     */
+    @Test
+    public void registerStatistics(@Mocked final StepContext stepContext) throws Exception {
+        final LookupCache<String, String> sut = new LookupCache<String, String>(new StubLoader(), 1);
+        sut.registerStatistics(stepContext);
+
+        assertThat(ProgressStatisticsRegistry.get(stepContext), contains((ProgressStatistics) sut));
+
+        ProgressStatisticsRegistry.unregister(stepContext);
+        assertThat(ProgressStatisticsRegistry.get(stepContext).isEmpty(), is(true));
+    }
+
+    /**
+     * 最大件数に1未満を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void maxSizeLessThanOne() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("maxSize must be greater than 0. maxSize=[0]");
+        new LookupCache<String, String>(new StubLoader(), 0);
+    }
+
+    /**
+     * キーに"value"を付加した値を返すローダ。キーが"none"の場合は値が存在しない。
+     */
+    private static class StubLoader implements LookupLoader<String, String> {
+
+        private final List<String> loadedKeys = new ArrayList<String>();
+
+        private final Map<String, String> all = new HashMap<String, String>();
+
+        @Override
+        public String load(final String key) {
+            loadedKeys.add(key);
+            return "none".equals(key) ? null : "value" + key;
+        }
+
+        @Override
+        public Map<String, String> loadAll() {
+            return all;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package nablarch.fw.batch.ee.cache;
+
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Map;
+
+import nablarch.common.dao.EntityList;
+import nablarch.common.dao.NoDataException;
+import nablarch.common.dao.UniversalDao;
+
+import org.junit.Test;
+
+import mockit.Expectations;
+import mockit.Mocked;
+
+/**
+ * {@link UniversalDaoLookupLoader}のテストクラス。
+ */
+public class UniversalDaoLookupLoaderTest {
+
+    @Mocked
+    private UniversalDao universalDao;
+
+    private final UniversalDaoLookupLoader<String, Code> sut = new UniversalDaoLookupLoader<String, Code>(Code.class) {
+        @Override
+        protected String getKey(final Code entity) {
+            return entity.id;
+        }
+    };
+
+    /**
+     * 主キーに対応するエンティティが読み込まれること。
+     */
+    @Test
+    public void load() throws Exception {
+        final Code code = new Code("1");
+        new Expectations() {{
+            UniversalDao.findById(Code.class, "1");
+            result = code;
+        }};
+
+        assertThat(sut.load("1"), is(code));
+    }
+
+    /**
+     * 主キーに対応するエンティティが存在しない場合、{@code null}が返されること。
+     */
+    @Test
+    public void load_notFound() throws Exception {
+        new Expectations() {{
+            UniversalDao.findById(Code.class, "1");
+            result = new NoDataException();
+        }};
+
+        assertThat(sut.load("1"), is(nullValue()));
+    }
+
+    /**
+     * 全てのエンティティが主キーをキーとして読み込まれること。
+     */
+    @Test
+    public void loadAll() throws Exception {
+        final Code code1 = new Code("1");
+        final Code code2 = new Code("2");
+        final EntityList<Code> entities = new EntityList<Code>();
+        entities.add(code1);
+        entities.add(code2);
+        new Expectations() {{
+            UniversalDao.findAll(Code.class);
+            result = entities;
+        }};
+
+        final Map<String, Code> result = sut.loadAll();
+        assertThat(result.size(), is(2));
+        assertThat(result, hasEntry("1", code1));
+        assertThat(result, hasEntry("2", code2));
+    }
+
+    public static class Code {
+
+        private final String id;
+
+        public Code(final String id) {
+            this.id = id;
+        }
+    }
+}
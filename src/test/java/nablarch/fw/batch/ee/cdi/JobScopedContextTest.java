@@ -0,0 +1,199 @@
+package nablarch.fw.batch.ee.cdi;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import javax.batch.operations.BatchRuntimeException;
+import javax.batch.runtime.context.JobContext;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.CDI;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import nablarch.fw.batch.ee.partition.ParentContextRegistry;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+
+/**
+ * {@link JobScopedContext}のテスト。
+ */
+public class JobScopedContextTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Mocked
+    CDI<Object> mockCdi;
+
+    @Mocked
+    Instance<JobContext> mockInstance;
+
+    @Mocked
+    Contextual<Object> mockContextual;
+
+    @Mocked
+    CreationalContext<Object> mockCreationalContext;
+
+    /** テスト対象 */
+    JobScopedContext sut = new JobScopedContext();
+
+    /**
+     * ジョブコンテキストの一時領域にBeanが保持され、ジョブの終了時に破棄されること。
+     */
+    @Test
+    public void testGetAndDestroy() throws Exception {
+        final StubJobContext jobContext = new StubJobContext();
+        final Object bean = new Object();
+        new Expectations() {{
+            CDI.current();
+            result = mockCdi;
+            mockCdi.select(JobContext.class);
+            result = mockInstance;
+            mockInstance.get();
+            result = jobContext;
+            mockContextual.create(mockCreationalContext);
+            result = bean;
+            times = 1;
+        }};
+
+        assertThat(sut.isActive(), is(true));
+        assertThat(sut.get(mockContextual, mockCreationalContext), is(sameInstance(bean)));
+        assertThat(sut.get(mockContextual, mockCreationalContext), is(sameInstance(bean)));
+        assertThat(sut.get(mockContextual), is(sameInstance(bean)));
+
+        JobScopedContext.destroy(jobContext);
+
+        new Verifications() {{
+            mockContextual.destroy(bean, mockCreationalContext);
+            times = 1;
+        }};
+    }
+
+    /**
+     * ジョブコンテキストの一時領域にアプリケーションが値を設定している場合はエラーとなること。
+     */
+    @Test
+    public void testGet_otherTransientUserData() throws Exception {
+        final StubJobContext jobContext = new StubJobContext();
+        jobContext.setTransientUserData("application data");
+        new Expectations() {{
+            CDI.current();
+            result = mockCdi;
+            mockCdi.select(JobContext.class);
+            result = mockInstance;
+            mockInstance.get();
+            result = jobContext;
+        }};
+
+        expectedException.expect(BatchRuntimeException.class);
+        expectedException.expectMessage("TransientUserData of JobContext must be StepScopedHolder type.");
+        sut.get(mockContextual, mockCreationalContext);
+    }
+
+    /**
+     * パーティションのスレッドでは、ジョブのジョブコンテキストでBeanが共有されること。
+     */
+    @Test
+    public void testGet_partition() throws Exception {
+        final StubJobContext jobContext = new StubJobContext();
+        final StubJobContext partitionJobContext = new StubJobContext(":0:step1:0");
+        final Object bean = new Object();
+        new Expectations() {{
+            CDI.current();
+            result = mockCdi;
+            mockCdi.select(JobContext.class);
+            result = mockInstance;
+            mockInstance.get();
+            returns(jobContext, partitionJobContext);
+            mockContextual.create(mockCreationalContext);
+            result = bean;
+            times = 1;
+        }};
+
+        ParentContextRegistry.register(jobContext);
+        try {
+            assertThat(sut.get(mockContextual, mockCreationalContext), is(sameInstance(bean)));
+            assertThat(sut.get(mockContextual, mockCreationalContext), is(sameInstance(bean)));
+            assertThat(partitionJobContext.getTransientUserData(), is(nullValue()));
+
+            JobScopedContext.destroy(jobContext);
+        } finally {
+            ParentContextRegistry.unregister(jobContext);
+        }
+
+        new Verifications() {{
+            mockContextual.destroy(bean, mockCreationalContext);
+            times = 1;
+        }};
+    }
+
+    /**
+     * 一時領域のみを実装した{@link JobContext}。
+     */
+    private static class StubJobContext implements JobContext {
+
+        private final String jobName;
+
+        private Object transientUserData;
+
+        StubJobContext() {
+            this("test-job");
+        }
+
+        StubJobContext(final String jobName) {
+            this.jobName = jobName;
+        }
+
+        @Override
+        public String getJobName() {
+            return jobName;
+        }
+
+        @Override
+        public Object getTransientUserData() {
+            return transientUserData;
+        }
+
+        @Override
+        public void setTransientUserData(final Object data) {
+            transientUserData = data;
+        }
+
+        @Override
+        public long getInstanceId() {
+            return 0;
+        }
+
+        @Override
+        public long getExecutionId() {
+            return 0;
+        }
+
+        @Override
+        public java.util.Properties getProperties() {
+            return null;
+        }
+
+        @Override
+        public javax.batch.runtime.BatchStatus getBatchStatus() {
+            return null;
+        }
+
+        @Override
+        public String getExitStatus() {
+            return null;
+        }
+
+        @Override
+        public void setExitStatus(final String status) {
+        }
+    }
+}
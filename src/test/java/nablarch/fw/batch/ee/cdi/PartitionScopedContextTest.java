@@ -0,0 +1,202 @@
+package nablarch.fw.batch.ee.cdi;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.CDI;
+
+import org.junit.Test;
+
+import nablarch.fw.batch.ee.partition.ParentContextRegistry;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+
+/**
+ * {@link PartitionScopedContext}のテスト。
+ */
+public class PartitionScopedContextTest {
+
+    @Mocked
+    CDI<Object> mockCdi;
+
+    @Mocked
+    StepContext mockPartition1;
+
+    @Mocked
+    StepContext mockPartition2;
+
+    @Mocked
+    Contextual<Object> mockContextual;
+
+    @Mocked
+    CreationalContext<Object> mockCreationalContext;
+
+    /** テスト対象 */
+    PartitionScopedContext sut = new PartitionScopedContext();
+
+    /**
+     * パーティション(ステップコンテキスト)ごとにBeanが生成され、パーティションの終了時に破棄されること。
+     */
+    @Test
+    public void testGet() throws Exception {
+        new Expectations() {{
+            mockContextual.create(mockCreationalContext);
+            returns(new Object(), new Object());
+        }};
+
+        PartitionScopedContext.bind(mockPartition1);
+        final Object bean1;
+        try {
+            assertThat(sut.isActive(), is(true));
+            bean1 = sut.get(mockContextual, mockCreationalContext);
+            assertThat(sut.get(mockContextual, mockCreationalContext), is(sameInstance(bean1)));
+        } finally {
+            PartitionScopedContext.unbind(mockPartition1);
+        }
+
+        PartitionScopedContext.bind(mockPartition2);
+        final Object bean2;
+        try {
+            bean2 = sut.get(mockContextual, mockCreationalContext);
+            assertThat(bean2, is(not(sameInstance(bean1))));
+        } finally {
+            PartitionScopedContext.unbind(mockPartition2);
+        }
+
+        new Verifications() {{
+            mockContextual.destroy(bean1, mockCreationalContext);
+            times = 1;
+            mockContextual.destroy(bean2, mockCreationalContext);
+            times = 1;
+            CDI.current();
+            times = 0;
+        }};
+    }
+
+    /**
+     * 別スレッドのパーティションとはBeanが共有されないこと。
+     */
+    @Test
+    public void testGet_otherThread() throws Exception {
+        new Expectations() {{
+            mockContextual.create(mockCreationalContext);
+            returns(new Object(), new Object());
+        }};
+
+        PartitionScopedContext.bind(mockPartition1);
+        try {
+            final Object bean1 = sut.get(mockContextual, mockCreationalContext);
+            final Object[] bean2 = new Object[1];
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    PartitionScopedContext.bind(mockPartition2);
+                    try {
+                        bean2[0] = sut.get(mockContextual, mockCreationalContext);
+                    } finally {
+                        PartitionScopedContext.unbind(mockPartition2);
+                    }
+                }
+            });
+            thread.start();
+            thread.join();
+            assertThat(bean2[0], is(not(sameInstance(bean1))));
+            assertThat(sut.get(mockContextual, mockCreationalContext), is(sameInstance(bean1)));
+        } finally {
+            PartitionScopedContext.unbind(mockPartition1);
+        }
+    }
+
+    /**
+     * パーティションのスレッドでステップリスナーが実行されない場合でも、
+     * パーティションごとにBeanが生成され、ステップの終了時に全パーティションのBeanが破棄されること。
+     */
+    @Test
+    public void testGet_partitionWithoutStepListener(@Mocked final StepContext mockStepContext,
+            @Mocked final JobContext mockJobContext, @Mocked final JobContext mockPartitionJobContext1,
+            @Mocked final JobContext mockPartitionJobContext2,
+            @Mocked final Instance<StepContext> mockStepInstance,
+            @Mocked final Instance<JobContext> mockJobInstance) throws Exception {
+        final Object bean1 = new Object();
+        final Object bean2 = new Object();
+        new Expectations() {{
+            mockJobContext.getJobName();
+            result = "test-job";
+            minTimes = 0;
+            mockJobContext.getInstanceId();
+            result = 10L;
+            minTimes = 0;
+            mockStepContext.getStepName();
+            result = "step1";
+            minTimes = 0;
+            mockPartitionJobContext1.getJobName();
+            result = ":10:step1:0";
+            mockPartition1.getStepName();
+            result = "step1";
+            mockPartitionJobContext2.getJobName();
+            result = ":10:step1:1";
+            mockPartition2.getStepName();
+            result = "step1";
+            CDI.current();
+            result = mockCdi;
+            mockCdi.select(StepContext.class);
+            result = mockStepInstance;
+            mockStepInstance.get();
+            returns(mockPartition1, mockPartition1, mockPartition2);
+            mockCdi.select(JobContext.class);
+            result = mockJobInstance;
+            mockJobInstance.get();
+            returns(mockPartitionJobContext1, mockPartitionJobContext2);
+            mockContextual.create(mockCreationalContext);
+            returns(bean1, bean2);
+        }};
+
+        ParentContextRegistry.register(mockJobContext, mockStepContext);
+        try {
+            PartitionScopedContext.bind(mockStepContext);
+
+            // パーティションのスレッド(ステップリスナーが実行されないため関連付けない)
+            final Object[] beans = new Object[3];
+            final Thread partition = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    // 1つ目のパーティション
+                    beans[0] = sut.get(mockContextual, mockCreationalContext);
+                    beans[1] = sut.get(mockContextual, mockCreationalContext);
+                    // 2つ目のパーティション
+                    beans[2] = sut.get(mockContextual, mockCreationalContext);
+                }
+            });
+            partition.start();
+            partition.join();
+            assertThat(beans[0], is(sameInstance(bean1)));
+            assertThat(beans[1], is(sameInstance(bean1)));
+            assertThat(beans[2], is(sameInstance(bean2)));
+
+            new Verifications() {{
+                mockContextual.destroy(any, mockCreationalContext);
+                times = 0;
+            }};
+
+            PartitionScopedContext.unbind(mockStepContext);
+        } finally {
+            ParentContextRegistry.unregister(mockJobContext, mockStepContext);
+        }
+
+        new Verifications() {{
+            mockContextual.destroy(bean1, mockCreationalContext);
+            times = 1;
+            mockContextual.destroy(bean2, mockCreationalContext);
+            times = 1;
+        }};
+    }
+}
@@ -0,0 +1,342 @@
+package nablarch.fw.batch.ee.cdi;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import javax.batch.operations.BatchRuntimeException;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+import javax.enterprise.inject.Instance;
+import javax.enterprise.inject.spi.CDI;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import nablarch.fw.batch.ee.partition.ParentContextRegistry;
+
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+
+/**
+ * {@link StepScopedContext}のテスト。
+ */
+public class StepScopedContextTest {
+
+    @Mocked
+    CDI<Object> mockCdi;
+
+    @Mocked
+    Instance<StepContext> mockInstance;
+
+    @Mocked
+    StepContext mockStepContext;
+
+    @Mocked
+    Contextual<Object> mockContextual;
+
+    @Mocked
+    CreationalContext<Object> mockCreationalContext;
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    /** テスト対象 */
+    StepScopedContext sut = new StepScopedContext();
+
+    @After
+    public void tearDown() throws Exception {
+        StepScopedContext.unbind();
+    }
+
+    /**
+     * スレッドに関連付けた場合、{@link CDI}からステップコンテキストを取得せずにBeanが取得できること。
+     */
+    @Test
+    public void testBind() throws Exception {
+        final Object bean = new Object();
+        useTransientUserData();
+        new Expectations() {{
+            mockContextual.create(mockCreationalContext);
+            result = bean;
+            times = 1;
+        }};
+
+        StepScopedContext.bind(mockStepContext);
+        assertThat(sut.isActive(), is(true));
+        assertThat(sut.get(mockContextual, mockCreationalContext), is(sameInstance(bean)));
+        assertThat(sut.get(mockContextual, mockCreationalContext), is(sameInstance(bean)));
+        assertThat(sut.get(mockContextual), is(sameInstance(bean)));
+
+        new Verifications() {{
+            CDI.current();
+            times = 0;
+            mockStepContext.setTransientUserData(withInstanceOf(StepScopedHolder.class));
+            times = 1;
+        }};
+    }
+
+    /**
+     * スレッドに関連付けた後に一時領域が上書きされた場合、例外が送出されること。
+     */
+    @Test
+    public void testBind_transientUserDataOverwritten() throws Exception {
+        useTransientUserData();
+
+        StepScopedContext.bind(mockStepContext);
+        mockStepContext.setTransientUserData("user data");
+
+        expectedException.expect(BatchRuntimeException.class);
+        expectedException.expectMessage("TransientUserData of StepContext must be StepScopedHolder type.");
+        sut.get(mockContextual, mockCreationalContext);
+    }
+
+    /**
+     * 関連付けを解除した場合、{@link CDI}からステップコンテキストを取得すること。
+     */
+    @Test
+    public void testUnbind() throws Exception {
+        new Expectations() {{
+            CDI.current();
+            result = mockCdi;
+            mockCdi.select(StepContext.class);
+            result = mockInstance;
+            mockInstance.get();
+            result = null;
+        }};
+
+        StepScopedContext.bind(mockStepContext);
+        StepScopedContext.unbind();
+        assertThat(sut.isActive(), is(false));
+    }
+
+    /**
+     * 関連付けを解除しても、保持しているBeanは破棄されないこと。
+     * (他のスレッドが同じ値の保持領域を使用していても、Beanが破棄されないこと)
+     */
+    @Test
+    public void testUnbind_notDestroy() throws Exception {
+        final Object bean = new Object();
+        useTransientUserData();
+        new Expectations() {{
+            mockContextual.create(mockCreationalContext);
+            result = bean;
+            times = 1;
+        }};
+
+        StepScopedContext.bind(mockStepContext);
+        sut.get(mockContextual, mockCreationalContext);
+        StepScopedContext.unbind();
+        StepScopedContext.bind(mockStepContext);
+        assertThat(sut.get(mockContextual, mockCreationalContext), is(sameInstance(bean)));
+
+        new Verifications() {{
+            mockContextual.destroy(any, mockCreationalContext);
+            times = 0;
+        }};
+    }
+
+    /**
+     * 使用を終了した場合、保持しているBeanが破棄されること。
+     */
+    @Test
+    public void testRelease() throws Exception {
+        final Object bean = new Object();
+        useTransientUserData();
+        new Expectations() {{
+            mockContextual.create(mockCreationalContext);
+            result = bean;
+        }};
+
+        StepScopedContext.bind(mockStepContext);
+        sut.get(mockContextual, mockCreationalContext);
+        StepScopedContext.unbind();
+        StepScopedContext.release(mockStepContext);
+
+        new Verifications() {{
+            mockContextual.destroy(bean, mockCreationalContext);
+            times = 1;
+        }};
+    }
+
+    /**
+     * 同じステップで使用中のステップリスナーが残っている場合は、Beanが破棄されず、
+     * 全てのステップリスナーが使用を終了した時点で破棄されること。
+     * (パーティションのスレッドでステップリスナーが実行される場合に、先に終了したパーティションがBeanを破棄しないこと)
+     */
+    @Test
+    public void testRelease_partitioned() throws Exception {
+        final Object bean = new Object();
+        useTransientUserData();
+        new Expectations() {{
+            mockContextual.create(mockCreationalContext);
+            result = bean;
+            times = 1;
+        }};
+
+        // メインスレッド
+        StepScopedContext.bind(mockStepContext);
+        sut.get(mockContextual, mockCreationalContext);
+
+        // 実行が重ならないパーティション
+        for (int i = 0; i < 2; i++) {
+            final Thread partition = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    StepScopedContext.bind(mockStepContext);
+                    try {
+                        assertThat(sut.get(mockContextual, mockCreationalContext), is(sameInstance(bean)));
+                    } finally {
+                        StepScopedContext.unbind();
+                        StepScopedContext.release(mockStepContext);
+                    }
+                }
+            });
+            partition.start();
+            partition.join();
+        }
+
+        new Verifications() {{
+            mockContextual.destroy(any, mockCreationalContext);
+            times = 0;
+        }};
+
+        StepScopedContext.unbind();
+        StepScopedContext.release(mockStepContext);
+
+        new Verifications() {{
+            mockContextual.destroy(bean, mockCreationalContext);
+            times = 1;
+        }};
+    }
+
+    /**
+     * パーティションごとにステップコンテキストが生成される場合でも、
+     * パーティションのスレッドではステップのBeanが共有され、ステップの使用終了時に破棄されること。
+     */
+    @Test
+    public void testGet_partition(@Mocked final JobContext mockJobContext,
+            @Mocked final JobContext mockPartitionJobContext, @Mocked final StepContext mockPartitionStepContext,
+            @Mocked final Instance<JobContext> mockJobInstance) throws Exception {
+        final Object bean = new Object();
+        final Object[] partitionUserData = new Object[1];
+        useTransientUserData();
+        new Expectations() {{
+            mockJobContext.getJobName();
+            result = "test-job";
+            minTimes = 0;
+            mockJobContext.getInstanceId();
+            result = 10L;
+            minTimes = 0;
+            mockStepContext.getStepName();
+            result = "step1";
+            minTimes = 0;
+            mockPartitionJobContext.getJobName();
+            result = ":10:step1:0";
+            minTimes = 0;
+            mockPartitionStepContext.getStepName();
+            result = "step1";
+            minTimes = 0;
+            mockPartitionStepContext.getTransientUserData();
+            result = new Delegate<Object>() {
+                @SuppressWarnings("unused")
+                Object delegate() {
+                    return partitionUserData[0];
+                }
+            };
+            mockPartitionStepContext.setTransientUserData(any);
+            result = new Delegate<Object>() {
+                @SuppressWarnings("unused")
+                void delegate(final Object data) {
+                    partitionUserData[0] = data;
+                }
+            };
+            CDI.current();
+            result = mockCdi;
+            mockCdi.select(StepContext.class);
+            result = mockInstance;
+            mockInstance.get();
+            result = mockPartitionStepContext;
+            mockCdi.select(JobContext.class);
+            result = mockJobInstance;
+            mockJobInstance.get();
+            result = mockPartitionJobContext;
+            mockContextual.create(mockCreationalContext);
+            result = bean;
+            times = 1;
+        }};
+
+        ParentContextRegistry.register(mockJobContext, mockStepContext);
+        try {
+            // メインスレッド
+            StepScopedContext.bind(mockStepContext);
+            assertThat(sut.get(mockContextual, mockCreationalContext), is(sameInstance(bean)));
+            StepScopedContext.unbind();
+
+            // ステップリスナーが実行されないパーティションのスレッド
+            assertThat(sut.get(mockContextual, mockCreationalContext), is(sameInstance(bean)));
+            assertThat(sut.get(mockContextual), is(sameInstance(bean)));
+            assertThat(partitionUserData[0], is(sameInstance(mockStepContext.getTransientUserData())));
+
+            StepScopedContext.release(mockStepContext);
+        } finally {
+            ParentContextRegistry.unregister(mockJobContext, mockStepContext);
+        }
+
+        new Verifications() {{
+            mockContextual.destroy(bean, mockCreationalContext);
+            times = 1;
+            mockJobInstance.get();
+            times = 1;
+        }};
+    }
+
+    /**
+     * 一時領域に値の保持領域が設定されていない場合、何もしないこと。
+     */
+    @Test
+    public void testRelease_noHolder() throws Exception {
+        new Expectations() {{
+            mockStepContext.getTransientUserData();
+            result = null;
+        }};
+
+        StepScopedContext.release(mockStepContext);
+
+        new Verifications() {{
+            mockStepContext.setTransientUserData(any);
+            times = 0;
+        }};
+    }
+
+    /**
+     * モックのステップコンテキストの一時領域に、設定した値を保持させる。
+     */
+    private void useTransientUserData() {
+        final Object[] transientUserData = new Object[1];
+        new Expectations() {{
+            mockStepContext.getTransientUserData();
+            result = new Delegate<Object>() {
+                @SuppressWarnings("unused")
+                Object delegate() {
+                    return transientUserData[0];
+                }
+            };
+            minTimes = 0;
+            mockStepContext.setTransientUserData(any);
+            result = new Delegate<Object>() {
+                @SuppressWarnings("unused")
+                void delegate(final Object data) {
+                    transientUserData[0] = data;
+                }
+            };
+            minTimes = 0;
+        }};
+    }
+}
@@ -0,0 +1,117 @@
+package nablarch.fw.batch.ee.cdi;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import javax.enterprise.context.spi.Contextual;
+import javax.enterprise.context.spi.CreationalContext;
+
+import org.junit.Test;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+
+/**
+ * {@link StepScopedHolder}のテスト。
+ */
+public class StepScopedHolderTest {
+
+    @Mocked
+    Contextual<Object> mockContextual1;
+
+    @Mocked
+    Contextual<Object> mockContextual2;
+
+    @Mocked
+    CreationalContext<Object> mockCreationalContext;
+
+    /** テスト対象 */
+    StepScopedHolder sut = new StepScopedHolder();
+
+    /**
+     * {@link CreationalContext}とともに設定した値が破棄され、破棄後は値が取得できないこと。
+     */
+    @Test
+    public void testDestroy() throws Exception {
+        final Object bean1 = new Object();
+        final Object bean2 = new Object();
+        sut.add(mockContextual1, bean1, mockCreationalContext);
+        sut.add(mockContextual2, bean2);
+
+        sut.destroy();
+
+        assertThat(sut.get(mockContextual1), is(nullValue()));
+        assertThat(sut.get(mockContextual2), is(nullValue()));
+        new Verifications() {{
+            mockContextual1.destroy(bean1, mockCreationalContext);
+            times = 1;
+            mockContextual2.destroy(bean2, withInstanceOf(CreationalContext.class));
+            times = 0;
+        }};
+    }
+
+    /**
+     * 破棄に失敗した値があっても、後続の値が破棄されること。
+     */
+    @Test
+    public void testDestroy_failed() throws Exception {
+        final Object bean1 = new Object();
+        final Object bean2 = new Object();
+        new Expectations() {{
+            mockContextual1.destroy(bean1, mockCreationalContext);
+            result = new IllegalStateException("destroy failed.");
+        }};
+        sut.add(mockContextual1, bean1, mockCreationalContext);
+        sut.add(mockContextual2, bean2, mockCreationalContext);
+
+        sut.destroy();
+
+        assertThat(sut.get(mockContextual2), is(nullValue()));
+        new Verifications() {{
+            mockContextual2.destroy(bean2, mockCreationalContext);
+            times = 1;
+        }};
+    }
+
+    /**
+     * 既に値が設定されている場合は設定済みの値が返され、指定した値は破棄されること。
+     */
+    @Test
+    public void testAdd_exists() throws Exception {
+        final Object bean1 = new Object();
+        final Object bean2 = new Object();
+        sut.add(mockContextual1, bean1, mockCreationalContext);
+
+        assertThat(sut.add(mockContextual1, bean2, mockCreationalContext), is(sameInstance(bean1)));
+        new Verifications() {{
+            mockContextual1.destroy(bean2, mockCreationalContext);
+            times = 1;
+            mockContextual1.destroy(bean1, mockCreationalContext);
+            times = 0;
+        }};
+    }
+
+    /**
+     * 使用中のステップリスナーが無くなった時点で、保持している値が破棄されること。
+     */
+    @Test
+    public void testRelease() throws Exception {
+        final Object bean = new Object();
+        sut.add(mockContextual1, bean, mockCreationalContext);
+        sut.acquire();
+        sut.acquire();
+
+        sut.release();
+        assertThat(sut.get(mockContextual1), is(sameInstance(bean)));
+
+        sut.release();
+        assertThat(sut.get(mockContextual1), is(nullValue()));
+        new Verifications() {{
+            mockContextual1.destroy(bean, mockCreationalContext);
+            times = 1;
+        }};
+    }
+}
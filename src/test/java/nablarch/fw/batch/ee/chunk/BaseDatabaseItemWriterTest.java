@@ -0,0 +1,222 @@
+package nablarch.fw.batch.ee.chunk;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.beans.HasPropertyWithValue.hasProperty;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.statement.ParameterizedSqlPStatement;
+import nablarch.core.db.statement.exception.DuplicateStatementException;
+import nablarch.core.db.statement.exception.SqlStatementException;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link BaseDatabaseItemWriter}のテストクラス。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class BaseDatabaseItemWriterTest {
+
+    @Rule
+    public SystemRepositoryResource systemRepositoryResource = new SystemRepositoryResource("db-default.xml");
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private TransactionManagerConnection connection;
+
+    @Before
+    public void before() {
+        VariousDbTestHelper.createTable(TestEntity.class);
+
+        final ConnectionFactory connectionFactory = systemRepositoryResource.getComponentByType(
+                ConnectionFactory.class);
+        connection = connectionFactory.getConnection(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY);
+        DbConnectionContext.setConnection(connection);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        connection.terminate();
+        DbConnectionContext.removeConnection();
+    }
+
+    /**
+     * チャンクの要素がバッチサイズごとにバッチ更新で書き込まれること。
+     */
+    @Test
+    public void writeItems() throws Exception {
+        final TestItemWriter sut = new TestItemWriter();
+        sut.setBatchSize(2);
+        sut.writeItems(items(1, 2, 3, 4, 5));
+        connection.commit();
+
+        assertThat(sut.batchSizes, contains(1, 2, 1, 2, 1));
+        final List<TestEntity> actual = VariousDbTestHelper.findAll(TestEntity.class, "id");
+        assertThat(actual.size(), is(5));
+        for (int i = 0; i < 5; i++) {
+            assertThat(actual.get(i), hasProperty("id", is(i + 1)));
+            assertThat(actual.get(i), hasProperty("name", is("name" + (i + 1))));
+        }
+    }
+
+    /**
+     * 要素数がバッチサイズで割り切れる場合、バッチサイズごとにバッチ更新が実行されること。
+     */
+    @Test
+    public void writeItems_multipleOfBatchSize() throws Exception {
+        final TestItemWriter sut = new TestItemWriter();
+        sut.setBatchSize(2);
+        sut.writeItems(items(1, 2, 3, 4));
+
+        assertThat(sut.batchSizes, contains(1, 2, 1, 2));
+    }
+
+    /**
+     * 書き込みは{@link DbConnectionContext}のデータベース接続のトランザクションで行われること。
+     */
+    @Test
+    public void writeItems_rollback() throws Exception {
+        final TestItemWriter sut = new TestItemWriter();
+        sut.writeItems(items(1, 2, 3));
+        connection.rollback();
+
+        assertThat(VariousDbTestHelper.findAll(TestEntity.class).size(), is(0));
+    }
+
+    /**
+     * バッチ更新に失敗した場合、失敗した要素とインデックスが例外に設定されること。
+     * メッセージには要素が出力されないこと。
+     */
+    @Test
+    public void writeItems_failed() throws Exception {
+        final List<Object> items = items(1, 2, 3, 4, 5);
+        ((TestEntity) items.get(2)).name = "12345678901234567";
+        final TestItemWriter sut = new TestItemWriter();
+        sut.setBatchSize(2);
+        try {
+            sut.writeItems(items);
+            fail("例外が発生する");
+        } catch (BatchWriteFailedException e) {
+            assertThat(e.getFailedIndex(), is(2));
+            assertThat(e.getFailedItem(), is(sameInstance(items.get(2))));
+            assertThat(e.getMessage(), is("failed to write item. index=[2]"));
+            assertThat(e.getCause(), is(instanceOf(SqlStatementException.class)));
+        }
+    }
+
+    /**
+     * 一意制約違反でバッチ更新に失敗した場合、{@link DuplicateStatementException}がそのまま送出されること。
+     */
+    @Test
+    public void writeItems_duplicate() throws Exception {
+        VariousDbTestHelper.setUpTable(new TestEntity(3, "name3"));
+
+        final TestItemWriter sut = new TestItemWriter();
+        sut.setBatchSize(2);
+        expectedException.expect(DuplicateStatementException.class);
+        sut.writeItems(items(1, 2, 3, 4, 5));
+    }
+
+    /**
+     * バッチサイズに1未満を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void setBatchSize_lessThanOne() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("batchSize must be greater than 0.");
+        new TestItemWriter().setBatchSize(0);
+    }
+
+    private static List<Object> items(final Integer... ids) {
+        final List<Object> items = new ArrayList<Object>();
+        for (Integer id : Arrays.asList(ids)) {
+            items.add(new TestEntity(id, "name" + id));
+        }
+        return items;
+    }
+
+    /**
+     * テストテーブルに登録するライタ
+     */
+    private static class TestItemWriter extends BaseDatabaseItemWriter {
+
+        /** 要素を追加するたびのバッチ件数 */
+        private final List<Integer> batchSizes = new ArrayList<Integer>();
+
+        @Override
+        protected ParameterizedSqlPStatement prepareStatement(final AppDbConnection connection) {
+            return connection.prepareParameterizedSqlStatementBySqlId(TestEntity.class.getName() + "#insert");
+        }
+
+        @Override
+        protected void addBatch(final ParameterizedSqlPStatement statement, final Object item) {
+            super.addBatch(statement, item);
+            batchSizes.add(statement.getBatchSize());
+        }
+    }
+
+    /**
+     * テストテーブルのエンティティ
+     */
+    @Entity
+    @Table(name = "TestEntity")
+    public static class TestEntity {
+
+        @Id
+        @Column(name = "id", length = 10)
+        public Integer id;
+
+        @Column(length = 16, name = "name")
+        public String name;
+
+        public TestEntity() {
+        }
+
+        public TestEntity(Integer id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
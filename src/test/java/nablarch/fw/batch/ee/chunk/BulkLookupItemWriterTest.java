@@ -0,0 +1,317 @@
+package nablarch.fw.batch.ee.chunk;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.batch.api.chunk.AbstractItemWriter;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.db.statement.SqlResultSet;
+import nablarch.core.db.statement.SqlRow;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import mockit.Expectations;
+import mockit.Mocked;
+import mockit.Verifications;
+
+/**
+ * {@link BulkLookupItemWriter}のテストクラス。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class BulkLookupItemWriterTest {
+
+    @Rule
+    public SystemRepositoryResource systemRepositoryResource = new SystemRepositoryResource("db-default.xml");
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Before
+    public void before() {
+        VariousDbTestHelper.createTable(CodeEntity.class);
+        VariousDbTestHelper.setUpTable(
+                new CodeEntity(1, "code1"),
+                new CodeEntity(2, "code2"),
+                new CodeEntity(3, "code3"));
+
+        final ConnectionFactory connectionFactory = systemRepositoryResource.getComponentByType(
+                ConnectionFactory.class);
+        DbConnectionContext.setConnection(
+                connectionFactory.getConnection(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (DbConnectionContext.containConnection(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY)) {
+            final TransactionManagerConnection connection = DbConnectionContext.getTransactionManagerConnection();
+            connection.terminate();
+            DbConnectionContext.removeConnection();
+        }
+    }
+
+    /**
+     * 要素のキーに対応する行が設定されてから、委譲先のライタに書き込まれること。
+     */
+    @Test
+    public void writeItems() throws Exception {
+        final RecordingWriter delegate = new RecordingWriter();
+        final TestItemWriter sut = new TestItemWriter(delegate);
+        final List<Object> items = items(1, 2, 1, 9, null);
+        sut.writeItems(items);
+
+        assertThat(delegate.written, is(sameInstance(items)));
+        assertThat(((Item) items.get(0)).codeName, is("code1"));
+        assertThat(((Item) items.get(1)).codeName, is("code2"));
+        assertThat(((Item) items.get(2)).codeName, is("code1"));
+        assertThat("行が存在しない場合", ((Item) items.get(3)).codeName, is("not found"));
+        assertThat("キーがnullの場合", ((Item) items.get(4)).codeName, is("not found"));
+    }
+
+    /**
+     * 重複を除いたキーが1つのSQLで取得されること。
+     */
+    @Test
+    public void writeItems_singleQuery(@Mocked final AppDbConnection connection,
+            @Mocked final SqlPStatement statement) throws Exception {
+        useMockConnection(connection, statement);
+        try {
+            new TestItemWriter(new RecordingWriter()).writeItems(items(1, 2, 1, 3, null));
+        } finally {
+            DbConnectionContext.removeConnection();
+        }
+
+        new Verifications() {{
+            connection.prepareStatement("SELECT ID, NAME FROM BULK_LOOKUP_CODE WHERE ID IN (?, ?, ?)");
+            times = 1;
+        }};
+    }
+
+    /**
+     * バインド変数の上限を超えないように、キーが分割されて取得されること。
+     */
+    @Test
+    public void writeItems_maxBindParameters(@Mocked final AppDbConnection connection,
+            @Mocked final SqlPStatement statement) throws Exception {
+        useMockConnection(connection, statement);
+        try {
+            final TestItemWriter sut = new TestItemWriter(new RecordingWriter());
+            sut.setMaxBindParameters(2);
+            sut.writeItems(items(1, 2, 3, 4, 5));
+        } finally {
+            DbConnectionContext.removeConnection();
+        }
+
+        new Verifications() {{
+            connection.prepareStatement("SELECT ID, NAME FROM BULK_LOOKUP_CODE WHERE ID IN (?, ?)");
+            times = 2;
+            connection.prepareStatement("SELECT ID, NAME FROM BULK_LOOKUP_CODE WHERE ID IN (?)");
+            times = 1;
+        }};
+    }
+
+    /**
+     * キーが無い場合、SQLが実行されないこと。
+     */
+    @Test
+    public void writeItems_noKeys(@Mocked final AppDbConnection connection,
+            @Mocked final SqlPStatement statement) throws Exception {
+        useMockConnection(connection, statement);
+        final RecordingWriter delegate = new RecordingWriter();
+        try {
+            new TestItemWriter(delegate).writeItems(items((Integer) null));
+        } finally {
+            DbConnectionContext.removeConnection();
+        }
+
+        assertThat(delegate.written.size(), is(1));
+        new Verifications() {{
+            connection.prepareStatement(anyString);
+            times = 0;
+        }};
+    }
+
+    /**
+     * SQLにキーを指定する位置が記述されていない場合、例外が送出されること。
+     */
+    @Test
+    public void writeItems_invalidSql() throws Exception {
+        final TestItemWriter sut = new TestItemWriter(new RecordingWriter()) {
+            @Override
+            protected String getSql() {
+                return "SELECT ID, NAME FROM BULK_LOOKUP_CODE";
+            }
+        };
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("sql must contain $keys. sql=[SELECT ID, NAME FROM BULK_LOOKUP_CODE]");
+        sut.writeItems(items(1));
+    }
+
+    /**
+     * open、checkpointInfo、closeが委譲先のライタに委譲されること。
+     */
+    @Test
+    public void delegate() throws Exception {
+        final RecordingWriter delegate = new RecordingWriter();
+        final TestItemWriter sut = new TestItemWriter(delegate);
+
+        sut.open(5);
+        assertThat(delegate.checkpoint, is((Serializable) 5));
+        assertThat(sut.checkpointInfo(), is((Serializable) 5));
+        sut.close();
+        assertThat(delegate.closed, is(true));
+    }
+
+    /**
+     * バインド変数の上限に1未満を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void setMaxBindParameters_lessThanOne() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("maxBindParameters must be greater than 0.");
+        new TestItemWriter(new RecordingWriter()).setMaxBindParameters(0);
+    }
+
+    private static void useMockConnection(final AppDbConnection connection, final SqlPStatement statement) {
+        DbConnectionContext.getTransactionManagerConnection().terminate();
+        DbConnectionContext.removeConnection();
+        DbConnectionContext.setConnection(connection);
+        new Expectations() {{
+            connection.prepareStatement(anyString);
+            result = statement;
+            minTimes = 0;
+            statement.retrieve();
+            result = new SqlResultSet(0) {};
+            minTimes = 0;
+        }};
+    }
+
+    private static List<Object> items(final Integer... codeIds) {
+        final List<Object> items = new ArrayList<Object>();
+        for (Integer codeId : codeIds) {
+            items.add(new Item(codeId));
+        }
+        return items;
+    }
+
+    /**
+     * コード名を設定するライタ
+     */
+    private static class TestItemWriter extends BulkLookupItemWriter {
+
+        TestItemWriter(final RecordingWriter delegate) {
+            super(delegate);
+        }
+
+        @Override
+        protected String getSql() {
+            return "SELECT ID, NAME FROM BULK_LOOKUP_CODE WHERE ID IN ($keys)";
+        }
+
+        @Override
+        protected Object getItemKey(final Object item) {
+            return ((Item) item).codeId;
+        }
+
+        @Override
+        protected Object getRowKey(final SqlRow row) {
+            return row.getInteger("ID");
+        }
+
+        @Override
+        protected void enrich(final Object item, final SqlRow row) {
+            ((Item) item).codeName = row == null ? "not found" : row.getString("NAME");
+        }
+    }
+
+    /**
+     * 書き込まれた要素を記録するライタ
+     */
+    private static class RecordingWriter extends AbstractItemWriter {
+
+        private List<Object> written;
+
+        private Serializable checkpoint;
+
+        private boolean closed;
+
+        @Override
+        public void open(final Serializable checkpoint) throws Exception {
+            this.checkpoint = checkpoint;
+        }
+
+        @Override
+        public void writeItems(final List<Object> items) throws Exception {
+            written = items;
+        }
+
+        @Override
+        public Serializable checkpointInfo() throws Exception {
+            return checkpoint;
+        }
+
+        @Override
+        public void close() throws Exception {
+            closed = true;
+        }
+    }
+
+    /**
+     * チャンクの要素
+     */
+    private static class Item {
+
+        private final Integer codeId;
+
+        private String codeName;
+
+        Item(final Integer codeId) {
+            this.codeId = codeId;
+        }
+    }
+
+    /**
+     * 参照データのエンティティ
+     */
+    @Entity
+    @Table(name = "BULK_LOOKUP_CODE")
+    public static class CodeEntity {
+
+        @Id
+        @Column(name = "ID", length = 10)
+        public Integer id;
+
+        @Column(name = "NAME", length = 16)
+        public String name;
+
+        public CodeEntity() {
+        }
+
+        public CodeEntity(Integer id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
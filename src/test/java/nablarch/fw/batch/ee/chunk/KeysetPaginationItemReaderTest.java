@@ -0,0 +1,303 @@
+package nablarch.fw.batch.ee.chunk;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.hamcrest.beans.HasPropertyWithValue.hasProperty;
+import static org.junit.Assert.assertThat;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.db.statement.SqlPStatement;
+import nablarch.core.db.statement.SqlRow;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link KeysetPaginationItemReader}のテストクラス。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class KeysetPaginationItemReaderTest {
+
+    @Rule
+    public SystemRepositoryResource systemRepositoryResource = new SystemRepositoryResource("db-default.xml");
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Before
+    public void before() {
+        VariousDbTestHelper.createTable(TestEntity.class);
+        VariousDbTestHelper.setUpTable(
+                new TestEntity(1, "name1"),
+                new TestEntity(2, "name2"),
+                new TestEntity(3, "name3"),
+                new TestEntity(4, "name4"),
+                new TestEntity(5, "name5"));
+
+        final ConnectionFactory connectionFactory = systemRepositoryResource.getComponentByType(
+                ConnectionFactory.class);
+        DbConnectionContext.setConnection(
+                connectionFactory.getConnection(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (DbConnectionContext.containConnection(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY)) {
+            final TransactionManagerConnection connection = DbConnectionContext.getTransactionManagerConnection();
+            connection.terminate();
+            DbConnectionContext.removeConnection();
+        }
+    }
+
+    /**
+     * ページ単位に全件読み込まれ、最後に返した要素のキーがチェックポイントとなること。
+     */
+    @Test
+    public void readItem() throws Exception {
+        final TestItemReader sut = new TestItemReader();
+        sut.setPageSize(2);
+        sut.open(null);
+        try {
+            assertThat(sut.checkpointInfo(), is(nullValue()));
+            for (int i = 1; i <= 5; i++) {
+                assertThat(sut.readItem(), hasProperty("id", is(i)));
+                assertThat(sut.checkpointInfo(), is((Serializable) i));
+            }
+            assertThat(sut.readItem(), is(nullValue()));
+            assertThat(sut.checkpointInfo(), is((Serializable) 5));
+        } finally {
+            sut.close();
+        }
+
+        // 前ページの最後のキーで次ページが読み込まれ、件数が満たないページで終了すること
+        assertThat(sut.lastKeys, contains(null, (Serializable) 2, 4));
+    }
+
+    /**
+     * 件数がページサイズで割り切れる場合、空のページで終了すること。
+     */
+    @Test
+    public void readItem_lastPageIsEmpty() throws Exception {
+        final TestItemReader sut = new TestItemReader();
+        sut.setPageSize(5);
+        sut.open(null);
+        try {
+            for (int i = 1; i <= 5; i++) {
+                assertThat(sut.readItem(), hasProperty("id", is(i)));
+            }
+            assertThat(sut.readItem(), is(nullValue()));
+        } finally {
+            sut.close();
+        }
+        assertThat(sut.lastKeys, contains(null, (Serializable) 5));
+    }
+
+    /**
+     * チェックポイントが指定された場合、チェックポイントのキーの次の要素から読み込まれること。
+     */
+    @Test
+    public void readItem_restart() throws Exception {
+        final TestItemReader sut = new TestItemReader();
+        sut.setPageSize(2);
+        sut.open(3);
+        try {
+            assertThat(sut.checkpointInfo(), is((Serializable) 3));
+            assertThat(sut.readItem(), hasProperty("id", is(4)));
+            assertThat(sut.readItem(), hasProperty("id", is(5)));
+            assertThat(sut.readItem(), is(nullValue()));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * ページの読み込みは、リーダ専用のコネクションを使用してバックグラウンドのスレッドで行われること。
+     */
+    @Test
+    public void readPage_backgroundThread() throws Exception {
+        final TransactionManagerConnection defaultConnection = DbConnectionContext.getTransactionManagerConnection();
+        final TestItemReader sut = new TestItemReader();
+        sut.open(null);
+        try {
+            sut.readItem();
+        } finally {
+            sut.close();
+        }
+        assertThat(sut.readThread, is(not(sameInstance(Thread.currentThread()))));
+        assertThat(sut.readConnection, is(not(sameInstance(defaultConnection))));
+        assertThat(DbConnectionContext.getTransactionManagerConnection(), sameInstance(defaultConnection));
+    }
+
+    /**
+     * ページの読み込みで発生した例外がreadItemから送出されること。
+     */
+    @Test
+    public void readItem_failed() throws Exception {
+        final TestItemReader sut = new TestItemReader() {
+            @Override
+            protected List<?> readPage(final Serializable lastKey, final int pageSize) throws Exception {
+                throw new IllegalStateException("readPageで例外");
+            }
+        };
+        sut.open(null);
+        try {
+            expectedException.expect(IllegalStateException.class);
+            expectedException.expectMessage("readPageで例外");
+            sut.readItem();
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * closeで読み込み中のページが取り消され、ページの読み込みの終了後に終了処理が呼び出されること。
+     */
+    @Test
+    public void close_cancelReadingPage() throws Exception {
+        final CountDownLatch reading = new CountDownLatch(1);
+        final boolean[] interrupted = new boolean[1];
+        final boolean[] pageRead = new boolean[1];
+        final boolean[] pageReadBeforeClose = new boolean[1];
+        final TestItemReader sut = new TestItemReader() {
+            @Override
+            protected List<?> readPage(final Serializable lastKey, final int pageSize) throws Exception {
+                reading.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    interrupted[0] = true;
+                }
+                pageRead[0] = true;
+                return Collections.emptyList();
+            }
+
+            @Override
+            protected void closeReader() throws Exception {
+                pageReadBeforeClose[0] = pageRead[0];
+            }
+        };
+        sut.open(null);
+        assertThat(reading.await(10, TimeUnit.SECONDS), is(true));
+
+        sut.close();
+
+        assertThat("読み込み中のページが取り消されること", interrupted[0], is(true));
+        assertThat("ページの読み込みの終了後に終了処理が呼び出されること", pageReadBeforeClose[0], is(true));
+    }
+
+    /**
+     * 読み込みを行っていない場合でも、closeは例外を送出しないこと。
+     */
+    @Test
+    public void close_notOpened() throws Exception {
+        new TestItemReader().close();
+    }
+
+    /**
+     * ページサイズに1未満を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void setPageSize_lessThanOne() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("pageSize must be greater than 0.");
+        new TestItemReader().setPageSize(0);
+    }
+
+    /**
+     * テストテーブルをキーセットページネーションで読み込むリーダ
+     */
+    private static class TestItemReader extends KeysetPaginationItemReader {
+
+        private final List<Serializable> lastKeys = Collections.synchronizedList(new ArrayList<Serializable>());
+
+        private volatile Thread readThread;
+
+        private volatile TransactionManagerConnection readConnection;
+
+        @Override
+        protected List<?> readPage(final Serializable lastKey, final int pageSize) throws Exception {
+            lastKeys.add(lastKey);
+            readThread = Thread.currentThread();
+            readConnection = DbConnectionContext.getTransactionManagerConnection();
+            final SqlPStatement statement = DbConnectionContext.getConnection()
+                                                               .prepareStatementBySqlId(
+                                                                       TestEntity.class.getName() + "#find_after");
+            statement.setMaxRows(pageSize);
+            statement.setInt(1, lastKey == null ? 0 : (Integer) lastKey);
+            final List<TestEntity> page = new ArrayList<TestEntity>();
+            for (SqlRow row : statement.executeQuery()) {
+                page.add(new TestEntity(row.getInteger("id"), row.getString("name")));
+            }
+            return page;
+        }
+
+        @Override
+        protected Serializable getKey(final Object item) {
+            return ((TestEntity) item).getId();
+        }
+    }
+
+    /**
+     * テストテーブルのエンティティ
+     */
+    @Entity
+    @Table(name = "TestEntity")
+    public static class TestEntity {
+
+        @Id
+        @Column(name = "id", length = 10)
+        public Integer id;
+
+        @Column(length = 16, name = "name")
+        public String name;
+
+        public TestEntity() {
+        }
+
+        public TestEntity(Integer id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
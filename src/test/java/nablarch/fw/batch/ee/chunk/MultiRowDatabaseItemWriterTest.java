@@ -0,0 +1,267 @@
+package nablarch.fw.batch.ee.chunk;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.beans.HasPropertyWithValue.hasProperty;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import nablarch.core.db.connection.AppDbConnection;
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import mockit.Mocked;
+import mockit.Verifications;
+
+/**
+ * {@link MultiRowDatabaseItemWriter}のテストクラス。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class MultiRowDatabaseItemWriterTest {
+
+    @Rule
+    public SystemRepositoryResource systemRepositoryResource = new SystemRepositoryResource("db-default.xml");
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    @Before
+    public void before() {
+        VariousDbTestHelper.createTable(TestEntity.class);
+
+        final ConnectionFactory connectionFactory = systemRepositoryResource.getComponentByType(
+                ConnectionFactory.class);
+        DbConnectionContext.setConnection(
+                connectionFactory.getConnection(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (DbConnectionContext.containConnection(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY)) {
+            final TransactionManagerConnection connection = DbConnectionContext.getTransactionManagerConnection();
+            connection.terminate();
+            DbConnectionContext.removeConnection();
+        }
+    }
+
+    /**
+     * チャンクの要素が複数行のINSERTで書き込まれること。
+     */
+    @Test
+    public void writeItems() throws Exception {
+        final TestItemWriter sut = new TestItemWriter();
+        sut.setMaxBindParameters(4);
+        sut.writeItems(items(1, 2, 3, 4, 5));
+        DbConnectionContext.getTransactionManagerConnection().commit();
+
+        final List<TestEntity> actual = VariousDbTestHelper.findAll(TestEntity.class, "id");
+        assertThat(actual.size(), is(5));
+        for (int i = 0; i < 5; i++) {
+            assertThat(actual.get(i), hasProperty("id", is(i + 1)));
+            assertThat(actual.get(i), hasProperty("name", is("name" + (i + 1))));
+        }
+    }
+
+    /**
+     * バインド変数の上限を超えないように、要素が分割されて書き込まれること。
+     */
+    @Test
+    public void writeItems_maxBindParameters(@Mocked final AppDbConnection connection) throws Exception {
+        DbConnectionContext.getTransactionManagerConnection().terminate();
+        DbConnectionContext.removeConnection();
+        DbConnectionContext.setConnection(connection);
+        try {
+            final TestItemWriter sut = new TestItemWriter();
+            sut.setMaxBindParameters(5);
+            sut.writeItems(items(1, 2, 3, 4, 5));
+        } finally {
+            DbConnectionContext.removeConnection();
+        }
+
+        new Verifications() {{
+            connection.prepareStatement("INSERT INTO TestEntity (id, name) VALUES (?, ?), (?, ?)");
+            times = 2;
+            connection.prepareStatement("INSERT INTO TestEntity (id, name) VALUES (?, ?)");
+            times = 1;
+        }};
+    }
+
+    /**
+     * バインド変数の上限が列数より小さい場合、1行ずつ書き込まれること。
+     */
+    @Test
+    public void writeItems_maxBindParametersLessThanColumns(@Mocked final AppDbConnection connection)
+            throws Exception {
+        DbConnectionContext.getTransactionManagerConnection().terminate();
+        DbConnectionContext.removeConnection();
+        DbConnectionContext.setConnection(connection);
+        try {
+            final TestItemWriter sut = new TestItemWriter();
+            sut.setMaxBindParameters(1);
+            sut.writeItems(items(1, 2, 3));
+        } finally {
+            DbConnectionContext.removeConnection();
+        }
+
+        new Verifications() {{
+            connection.prepareStatement("INSERT INTO TestEntity (id, name) VALUES (?, ?)");
+            times = 3;
+        }};
+    }
+
+    /**
+     * 表名と列名が設定されていない場合、例外が送出されること。
+     */
+    @Test
+    public void writeItems_notConfigured() throws Exception {
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("tableName and columnNames must be set.");
+        new MultiRowDatabaseItemWriter() {
+            @Override
+            protected Object[] toValues(final Object item) {
+                return new Object[0];
+            }
+        }.writeItems(items(1));
+    }
+
+    /**
+     * 列の値の数が列数と異なる場合、例外が送出されること。
+     */
+    @Test
+    public void writeItems_invalidValues() throws Exception {
+        final TestItemWriter sut = new TestItemWriter() {
+            @Override
+            protected Object[] toValues(final Object item) {
+                return new Object[] {((TestEntity) item).getId()};
+            }
+        };
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage(
+                "the number of values must be the same as the number of columns. columns=[id, name], values=[1]");
+        sut.writeItems(items(1));
+    }
+
+    /**
+     * バインド変数の上限に1未満を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void setMaxBindParameters_lessThanOne() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("maxBindParameters must be greater than 0.");
+        new TestItemWriter().setMaxBindParameters(0);
+    }
+
+    /**
+     * 識別子として無効な表名を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void setTableName_invalidIdentifier() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("tableName must be specified as a valid identifier. tableName=[T; DROP TABLE T]");
+        new TestItemWriter().setTableName("T; DROP TABLE T");
+    }
+
+    /**
+     * 識別子として無効な列名を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void setColumnNames_invalidIdentifier() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("columnNames must be specified as a valid identifier. columnNames=[S.NAME]");
+        new TestItemWriter().setColumnNames(Arrays.asList("ID", "S.NAME"));
+    }
+
+    /**
+     * 識別子として無効なキーの列名を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void setKeyColumnNames_invalidIdentifier() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("keyColumnNames must be specified as a valid identifier. keyColumnNames=[ID)]");
+        new TestItemWriter().setKeyColumnNames(Collections.singletonList("ID)"));
+    }
+
+    private static List<Object> items(final Integer... ids) {
+        final List<Object> items = new ArrayList<Object>();
+        for (Integer id : ids) {
+            items.add(new TestEntity(id, "name" + id));
+        }
+        return items;
+    }
+
+    /**
+     * テストテーブルに登録するライタ
+     */
+    private static class TestItemWriter extends MultiRowDatabaseItemWriter {
+
+        TestItemWriter() {
+            setTableName("TestEntity");
+            setColumnNames(Arrays.asList("id", "name"));
+        }
+
+        @Override
+        protected Object[] toValues(final Object item) {
+            final TestEntity entity = (TestEntity) item;
+            return new Object[] {entity.getId(), entity.getName()};
+        }
+    }
+
+    /**
+     * テストテーブルのエンティティ
+     */
+    @Entity
+    @Table(name = "TestEntity")
+    public static class TestEntity {
+
+        @Id
+        @Column(name = "id", length = 10)
+        public Integer id;
+
+        @Column(length = 16, name = "name")
+        public String name;
+
+        public TestEntity() {
+        }
+
+        public TestEntity(Integer id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
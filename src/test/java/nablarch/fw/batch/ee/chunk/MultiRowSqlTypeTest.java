@@ -0,0 +1,76 @@
+package nablarch.fw.batch.ee.chunk;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * {@link MultiRowSqlType}のテストクラス。
+ */
+public class MultiRowSqlTypeTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final List<String> columns = Arrays.asList("ID", "NAME", "AMOUNT");
+
+    private final List<String> keys = Collections.singletonList("ID");
+
+    @Test
+    public void insert() throws Exception {
+        assertThat(MultiRowSqlType.INSERT.createSql("T", columns, Collections.<String>emptyList(), 2),
+                is("INSERT INTO T (ID, NAME, AMOUNT) VALUES (?, ?, ?), (?, ?, ?)"));
+    }
+
+    @Test
+    public void mergeKey() throws Exception {
+        assertThat(MultiRowSqlType.MERGE_KEY.createSql("T", columns, keys, 2),
+                is("MERGE INTO T (ID, NAME, AMOUNT) KEY (ID) VALUES (?, ?, ?), (?, ?, ?)"));
+    }
+
+    @Test
+    public void onConflict() throws Exception {
+        assertThat(MultiRowSqlType.ON_CONFLICT.createSql("T", columns, keys, 1),
+                is("INSERT INTO T (ID, NAME, AMOUNT) VALUES (?, ?, ?)"
+                        + " ON CONFLICT (ID) DO UPDATE SET NAME = EXCLUDED.NAME, AMOUNT = EXCLUDED.AMOUNT"));
+    }
+
+    @Test
+    public void onConflict_allColumnsAreKeys() throws Exception {
+        assertThat(MultiRowSqlType.ON_CONFLICT.createSql("T", keys, keys, 2),
+                is("INSERT INTO T (ID) VALUES (?), (?) ON CONFLICT (ID) DO NOTHING"));
+    }
+
+    @Test
+    public void onConflict_keysNotInColumns() throws Exception {
+        assertThat(MultiRowSqlType.ON_CONFLICT.createSql("T", keys, Arrays.asList("ID", "NAME"), 1),
+                is("INSERT INTO T (ID) VALUES (?) ON CONFLICT (ID, NAME) DO NOTHING"));
+    }
+
+    @Test
+    public void onDuplicateKey() throws Exception {
+        assertThat(MultiRowSqlType.ON_DUPLICATE_KEY.createSql("T", columns, keys, 1),
+                is("INSERT INTO T (ID, NAME, AMOUNT) VALUES (?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE NAME = VALUES(NAME), AMOUNT = VALUES(AMOUNT)"));
+    }
+
+    @Test
+    public void onDuplicateKey_allColumnsAreKeys() throws Exception {
+        assertThat(MultiRowSqlType.ON_DUPLICATE_KEY.createSql("T", keys, keys, 2),
+                is("INSERT INTO T (ID) VALUES (?), (?) ON DUPLICATE KEY UPDATE ID = ID"));
+    }
+
+    @Test
+    public void upsertWithoutKeys() throws Exception {
+        expectedException.expect(IllegalStateException.class);
+        expectedException.expectMessage("keyColumnNames must be set for upsert.");
+        MultiRowSqlType.MERGE_KEY.createSql("T", columns, Collections.<String>emptyList(), 1);
+    }
+}
@@ -0,0 +1,338 @@
+package nablarch.fw.batch.ee.chunk;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.batch.api.chunk.AbstractItemReader;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * {@link PrefetchItemReader}のテストクラス。
+ */
+public class PrefetchItemReaderTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    /**
+     * 委譲先のリーダの要素が順番に返され、全て返した後は{@code null}が返されること。
+     */
+    @Test
+    public void readItem() throws Exception {
+        final CountingReader delegate = new CountingReader(5);
+        final PrefetchItemReader sut = new PrefetchItemReader(delegate, 2);
+        sut.open(null);
+        try {
+            for (int i = 1; i <= 5; i++) {
+                assertThat(sut.readItem(), is((Object) i));
+            }
+            assertThat(sut.readItem(), is(nullValue()));
+            assertThat(sut.readItem(), is(nullValue()));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * 先読みした位置ではなく、最後に返した要素のチェックポイントが返されること。
+     */
+    @Test
+    public void checkpointInfo() throws Exception {
+        final CountingReader delegate = new CountingReader(5);
+        final PrefetchItemReader sut = new PrefetchItemReader(delegate, 10);
+        sut.open(null);
+        try {
+            assertThat(sut.checkpointInfo(), is(nullValue()));
+            assertThat(sut.readItem(), is((Object) 1));
+            waitForRead(delegate, 5);
+            assertThat(sut.checkpointInfo(), is((Serializable) 1));
+            assertThat(sut.readItem(), is((Object) 2));
+            assertThat(sut.checkpointInfo(), is((Serializable) 2));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * 開始時のチェックポイントが委譲先のリーダに渡され、要素を返すまではそのチェックポイントが返されること。
+     */
+    @Test
+    public void open_restart() throws Exception {
+        final CountingReader delegate = new CountingReader(5);
+        final PrefetchItemReader sut = new PrefetchItemReader(delegate, 2);
+        sut.open(3);
+        try {
+            assertThat(sut.checkpointInfo(), is((Serializable) 3));
+            assertThat(sut.readItem(), is((Object) 4));
+            assertThat(sut.readItem(), is((Object) 5));
+            assertThat(sut.readItem(), is(nullValue()));
+            assertThat(sut.checkpointInfo(), is((Serializable) 5));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * 先読みする件数が上限を超えないこと。
+     */
+    @Test
+    public void readItem_bounded() throws Exception {
+        final CountingReader delegate = new CountingReader(100);
+        final PrefetchItemReader sut = new PrefetchItemReader(delegate, 3);
+        sut.open(null);
+        try {
+            // キューの3件と、格納を待機している1件まで読み込まれる
+            waitForRead(delegate, 4);
+            Thread.sleep(100);
+            assertThat(delegate.count.get(), is(lessThanOrEqualTo(4)));
+
+            assertThat(sut.readItem(), is((Object) 1));
+            waitForRead(delegate, 5);
+            Thread.sleep(100);
+            assertThat(delegate.count.get(), is(lessThanOrEqualTo(5)));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * 委譲先のリーダは、呼び出し元とは別の同じスレッドで実行され、closeで閉じられること。
+     */
+    @Test
+    public void close() throws Exception {
+        final CountingReader delegate = new CountingReader(100);
+        final PrefetchItemReader sut = new PrefetchItemReader(delegate, 1);
+        sut.open(null);
+        sut.readItem();
+        sut.close();
+
+        assertThat(delegate.closed, is(true));
+        assertThat(delegate.threads.size(), is(1));
+        assertThat(delegate.threads.iterator().next(), is(not(sameInstance(Thread.currentThread()))));
+    }
+
+    /**
+     * 開いていない場合でも、closeは例外を送出しないこと。
+     */
+    @Test
+    public void close_notOpened() throws Exception {
+        new PrefetchItemReader(new CountingReader(1)).close();
+    }
+
+    /**
+     * 委譲先のリーダのopenで発生した例外が送出されること。
+     */
+    @Test
+    public void open_failed() throws Exception {
+        final PrefetchItemReader sut = new PrefetchItemReader(new AbstractItemReader() {
+            @Override
+            public void open(final Serializable checkpoint) throws Exception {
+                throw new IllegalStateException("openで例外");
+            }
+
+            @Override
+            public Object readItem() throws Exception {
+                return null;
+            }
+        });
+        try {
+            expectedException.expect(IllegalStateException.class);
+            expectedException.expectMessage("openで例外");
+            sut.open(null);
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * 委譲先のリーダの読み込みで発生した例外が、それまでに読み込んだ要素を返した後に送出されること。
+     */
+    @Test
+    public void readItem_failed() throws Exception {
+        final PrefetchItemReader sut = new PrefetchItemReader(new CountingReader(2) {
+            @Override
+            public Object readItem() throws Exception {
+                final Object item = super.readItem();
+                if (item == null) {
+                    throw new IllegalStateException("readItemで例外");
+                }
+                return item;
+            }
+        });
+        sut.open(null);
+        try {
+            assertThat(sut.readItem(), is((Object) 1));
+            assertThat(sut.readItem(), is((Object) 2));
+            expectedException.expect(IllegalStateException.class);
+            expectedException.expectMessage("readItemで例外");
+            sut.readItem();
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * 読み込みで発生した例外がスキップされた場合、委譲先のリーダから先読みが再開され、後続の要素が返されること。
+     */
+    @Test
+    public void readItem_skip() throws Exception {
+        final PrefetchItemReader sut = new PrefetchItemReader(new FailingReader(5, 3), 2);
+        sut.open(null);
+        try {
+            assertThat(sut.readItem(), is((Object) 1));
+            assertThat(sut.readItem(), is((Object) 2));
+            try {
+                sut.readItem();
+                fail("例外が発生するはず");
+            } catch (IllegalStateException e) {
+                assertThat(e.getMessage(), is("readItemで例外"));
+            }
+            assertThat(sut.checkpointInfo(), is((Serializable) 2));
+            assertThat(sut.readItem(), is((Object) 4));
+            assertThat(sut.readItem(), is((Object) 5));
+            assertThat(sut.readItem(), is(nullValue()));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * ロールバックを伴うリトライでcloseとopenが呼び出された場合、指定したチェックポイントから読み込み直されること。
+     */
+    @Test
+    public void open_retryWithRollback() throws Exception {
+        final FailingReader delegate = new FailingReader(5, 3);
+        final PrefetchItemReader sut = new PrefetchItemReader(delegate, 2);
+        sut.open(null);
+        try {
+            assertThat(sut.readItem(), is((Object) 1));
+            assertThat(sut.readItem(), is((Object) 2));
+            try {
+                sut.readItem();
+                fail("例外が発生するはず");
+            } catch (IllegalStateException e) {
+                assertThat(e.getMessage(), is("readItemで例外"));
+            }
+            final Serializable checkpoint = sut.checkpointInfo();
+            sut.close();
+
+            sut.open(checkpoint);
+            assertThat(sut.readItem(), is((Object) 3));
+            assertThat(sut.readItem(), is((Object) 4));
+            assertThat(sut.readItem(), is((Object) 5));
+            assertThat(sut.readItem(), is(nullValue()));
+            sut.close();
+
+            // 全ての要素を返した後でも、開き直した場合は読み込み直されること
+            sut.open(4);
+            assertThat(sut.readItem(), is((Object) 5));
+            assertThat(sut.readItem(), is(nullValue()));
+        } finally {
+            sut.close();
+        }
+    }
+
+    /**
+     * 先読みする件数の上限に1未満を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void capacityLessThanOne() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("capacity must be greater than 0.");
+        new PrefetchItemReader(new CountingReader(1), 0);
+    }
+
+    private static void waitForRead(final CountingReader reader, final int count) throws InterruptedException {
+        final long limit = System.currentTimeMillis() + 10000;
+        while (reader.count.get() < count && System.currentTimeMillis() < limit) {
+            Thread.sleep(10);
+        }
+        assertThat(reader.count.get(), is(count));
+    }
+
+    /**
+     * 1から指定した件数までの数値を返すリーダ。チェックポイントは最後に読み込んだ数値。
+     */
+    private static class CountingReader extends AbstractItemReader {
+
+        private final int size;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        private final Set<Thread> threads = new HashSet<Thread>();
+
+        private volatile int current;
+
+        private volatile boolean closed;
+
+        CountingReader(final int size) {
+            this.size = size;
+        }
+
+        @Override
+        public void open(final Serializable checkpoint) throws Exception {
+            threads.add(Thread.currentThread());
+            current = checkpoint == null ? 0 : (Integer) checkpoint;
+        }
+
+        @Override
+        public Object readItem() throws Exception {
+            threads.add(Thread.currentThread());
+            if (current >= size) {
+                return null;
+            }
+            current++;
+            count.incrementAndGet();
+            return current;
+        }
+
+        @Override
+        public Serializable checkpointInfo() throws Exception {
+            return current;
+        }
+
+        @Override
+        public void close() throws Exception {
+            threads.add(Thread.currentThread());
+            closed = true;
+        }
+    }
+
+    /**
+     * 指定した数値を最初に読み込んだ時だけ例外を送出するリーダ。
+     */
+    private static class FailingReader extends CountingReader {
+
+        private final int failAt;
+
+        private boolean failed;
+
+        FailingReader(final int size, final int failAt) {
+            super(size);
+            this.failAt = failAt;
+        }
+
+        @Override
+        public Object readItem() throws Exception {
+            final Object item = super.readItem();
+            if (!failed && item != null && (Integer) item == failAt) {
+                failed = true;
+                throw new IllegalStateException("readItemで例外");
+            }
+            return item;
+        }
+    }
+}
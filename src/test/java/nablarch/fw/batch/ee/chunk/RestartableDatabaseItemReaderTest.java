@@ -0,0 +1,178 @@
+package nablarch.fw.batch.ee.chunk;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.beans.HasPropertyWithValue.hasProperty;
+import static org.junit.Assert.assertThat;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import nablarch.common.dao.UniversalDao;
+import nablarch.core.db.connection.ConnectionFactory;
+import nablarch.core.db.connection.DbConnectionContext;
+import nablarch.core.db.connection.TransactionManagerConnection;
+import nablarch.core.transaction.TransactionContext;
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+/**
+ * {@link RestartableDatabaseItemReader}のテストクラス。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class RestartableDatabaseItemReaderTest {
+
+    @Rule
+    public SystemRepositoryResource systemRepositoryResource = new SystemRepositoryResource("db-default.xml");
+
+    @Before
+    public void before() {
+        VariousDbTestHelper.createTable(TestEntity.class);
+        VariousDbTestHelper.setUpTable(
+                new TestEntity(1, "name1"),
+                new TestEntity(2, "name2"),
+                new TestEntity(3, "name3"),
+                new TestEntity(4, "name4"),
+                new TestEntity(5, "name5"));
+
+        final ConnectionFactory connectionFactory = systemRepositoryResource.getComponentByType(
+                ConnectionFactory.class);
+        DbConnectionContext.setConnection(
+                connectionFactory.getConnection(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (DbConnectionContext.containConnection(TransactionContext.DEFAULT_TRANSACTION_CONTEXT_KEY)) {
+            final TransactionManagerConnection connection = DbConnectionContext.getTransactionManagerConnection();
+            connection.terminate();
+            DbConnectionContext.removeConnection();
+        }
+    }
+
+    /**
+     * 初回実行時は先頭から読み込まれ、最後に返した要素のキーがチェックポイントとなること。
+     */
+    @Test
+    public void readItem() throws Exception {
+        final TestItemReader sut = new TestItemReader();
+        sut.open(null);
+        try {
+            assertThat(sut.checkpointInfo(), is(nullValue()));
+            for (int i = 1; i <= 5; i++) {
+                assertThat(sut.readItem(), hasProperty("id", is(i)));
+                assertThat(sut.checkpointInfo(), is((Serializable) i));
+            }
+            assertThat(sut.readItem(), is(nullValue()));
+
+            // 要素が存在しない場合、チェックポイントは変わらないこと
+            assertThat(sut.checkpointInfo(), is((Serializable) 5));
+        } finally {
+            sut.close();
+        }
+        assertThat(sut.openedKeys, contains((Serializable) null));
+    }
+
+    /**
+     * リスタート時は、チェックポイントのキーの次の要素から読み込まれること。
+     */
+    @Test
+    public void readItem_restart() throws Exception {
+        final TestItemReader sut = new TestItemReader();
+        sut.open(2);
+        try {
+            assertThat(sut.checkpointInfo(), is((Serializable) 2));
+            assertThat(sut.readItem(), hasProperty("id", is(3)));
+            assertThat(sut.readItem(), hasProperty("id", is(4)));
+            assertThat(sut.checkpointInfo(), is((Serializable) 4));
+            assertThat(sut.readItem(), hasProperty("id", is(5)));
+            assertThat(sut.readItem(), is(nullValue()));
+        } finally {
+            sut.close();
+        }
+        assertThat(sut.openedKeys, contains((Serializable) 2));
+    }
+
+    /**
+     * テストテーブルをキーの次の要素から読み込むリーダ
+     */
+    private static class TestItemReader extends RestartableDatabaseItemReader {
+
+        private final List<Serializable> openedKeys = new ArrayList<Serializable>();
+
+        private Iterator<TestEntity> entities;
+
+        @Override
+        protected void openAfter(final Serializable lastKey) throws Exception {
+            openedKeys.add(lastKey);
+            entities = UniversalDao.defer()
+                                   .findAllBySqlFile(TestEntity.class, "find_after",
+                                           new TestEntity(lastKey == null ? 0 : (Integer) lastKey, null))
+                                   .iterator();
+        }
+
+        @Override
+        protected Object readNextItem() throws Exception {
+            return entities.hasNext() ? entities.next() : null;
+        }
+
+        @Override
+        protected Serializable getKey(final Object item) {
+            return ((TestEntity) item).getId();
+        }
+    }
+
+    /**
+     * テストテーブルのエンティティ
+     */
+    @Entity
+    @Table(name = "TestEntity")
+    public static class TestEntity {
+
+        @Id
+        @Column(name = "id", length = 10)
+        public Integer id;
+
+        @Column(length = 16, name = "name")
+        public String name;
+
+        public TestEntity() {
+        }
+
+        public TestEntity(Integer id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
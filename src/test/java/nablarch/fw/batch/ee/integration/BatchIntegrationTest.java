@@ -3,6 +3,7 @@ package nablarch.fw.batch.ee.integration;
 import static org.hamcrest.CoreMatchers.*;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.isOneOf;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertThat;
 
@@ -13,6 +14,7 @@ import java.io.FileInputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -20,7 +22,10 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
 import java.util.logging.LogManager;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import javax.batch.runtime.BatchStatus;
 import javax.batch.runtime.JobExecution;
@@ -45,6 +50,7 @@ import nablarch.core.repository.SystemRepository;
 import nablarch.fw.batch.ee.JobExecutor;
 import nablarch.fw.batch.ee.initializer.RepositoryInitializer;
 import nablarch.fw.batch.ee.integration.app.FileWriter;
+import nablarch.fw.batch.ee.integration.app.PartitionEvents;
 import nablarch.fw.batch.ee.integration.app.RegisterBatchOutputTable;
 import nablarch.fw.batch.ee.integration.app.ThrowErrorWriter;
 
@@ -348,6 +354,35 @@ public class BatchIntegrationTest {
 
     }
 
+    /**
+     * 進捗の出力を間引いている場合に、処理済み件数が入力件数に達しないままステップが終了した場合、
+     * ステップの終了時に最後の進捗が出力されること。
+     */
+    @Test
+    public void executeChunk_Failed_outputFinalProgress() throws Exception {
+        // -------------------------------------------------- setup output table
+        resource.clearBatchOutputTable();
+        resource.insertBatchOutputTable(18);
+
+        // -------------------------------------------------- execute batch job
+        final JobExecution execution = resource.startJob("chunk-progress-interval-test");
+        assertThat("バッチ処理が異常終了していること", execution.getBatchStatus(), is(BatchStatus.FAILED));
+
+        List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat(messages, contains(
+                startsWith("INFO progress start job. job name: [chunk-progress-interval-test]"),
+                startsWith("INFO progress start step. job name: [chunk-progress-interval-test] step name: [myStep]"),
+                startsWith("INFO progress job name: [chunk-progress-interval-test] step name: [myStep] input count: [25]"),
+                startsWith("INFO progress chunk progress. write count=[10]"),
+                startsWith("INFO progress finish step. job name: [chunk-progress-interval-test] step name: [myStep] step status: [null]"),
+                allOf(
+                        startsWith("INFO progress job name: [chunk-progress-interval-test] step name: [myStep] total tps:"),
+                        containsString("remaining count: [15]")
+                ),
+                startsWith("INFO progress finish job. job name: [chunk-progress-interval-test]")
+        ));
+    }
+
     /**
      * Chunkステップ処理中に{@link Error}が発生した場合、そのChunk以前のデータはコミットされること。
      * <p/>
@@ -1167,6 +1202,165 @@ public class BatchIntegrationTest {
 
     }
 
+    /**
+     * パーティションを使用したステップで、コレクタ、アナライザ、リデューサのリスナーが実行されること。
+     * <p/>
+     * コレクタはパーティションのスレッドで、アナライザはステップのスレッドで実行され、
+     * コレクタが収集したデータが全パーティション分アナライザに渡されること。
+     */
+    @Test
+    public void testPartition_listeners() throws Exception {
+        PartitionEvents.clear();
+
+        // -------------------------------------------------- execute batch job
+        final JobExecution execution = resource.startJob("partition-integration-test");
+        assertThat(execution.getBatchStatus(), is(BatchStatus.COMPLETED));
+
+        // -------------------------------------------------- assert listener
+        final List<String> events = PartitionEvents.get();
+        final List<String> listenerEvents = new ArrayList<String>();
+        final Set<String> collectedData = new HashSet<String>();
+        final Set<String> analyzerThreads = new HashSet<String>();
+        final Set<String> partitionThreads = new HashSet<String>();
+        for (String event : events) {
+            if (event.startsWith("analyze collector data ")) {
+                final String[] values = event.split(" thread ");
+                collectedData.add(values[0].substring("analyze collector data ".length()));
+                analyzerThreads.add(values[1]);
+            } else if (event.startsWith("open ")) {
+                partitionThreads.add(event.split(" thread ")[1]);
+            } else if (!event.startsWith("close ") && !event.startsWith("destroy ") && !event.startsWith("next ")) {
+                listenerEvents.add(event);
+            }
+        }
+        assertThat("全パーティションのデータがアナライザに渡されること", collectedData, is(
+                (Set<String>) new HashSet<String>(Arrays.asList("p1", "p2", "p3"))));
+        assertThat("アナライザはステップのスレッドで実行されること", analyzerThreads.size(), is(1));
+        assertThat(partitionThreads, not(hasItem(analyzerThreads.iterator().next())));
+
+        assertThat(listenerEvents, contains(
+                is("begin partitioned step partitionedStep"),
+                is("analyze status COMPLETED"),
+                is("analyze status COMPLETED"),
+                is("analyze status COMPLETED"),
+                is("before partitioned step completion"),
+                startsWith("after partitioned step completion")));
+    }
+
+    /**
+     * パーティションを使用したステップで、全パーティションの進捗がまとめてステップ単位で出力されること。
+     */
+    @Test
+    public void testPartition_progress() throws Exception {
+        // -------------------------------------------------- execute batch job
+        final JobExecution execution = resource.startJob("partition-integration-test");
+        assertThat(execution.getBatchStatus(), is(BatchStatus.COMPLETED));
+
+        // -------------------------------------------------- assert log
+        final List<String> progress = new ArrayList<String>();
+        final List<String> events = new ArrayList<String>();
+        for (String message : InMemoryAppender.getLogMessages("PROGRESS")) {
+            if (message.contains("\"event\":")) {
+                events.add(message);
+            } else if (message.contains("{\"job\":")) {
+                progress.add(message);
+            }
+        }
+        assertThat("JSON形式が指定されたジョブとステップの開始と終了は、JSON形式で出力されること", events, contains(
+                containsString("{\"job\":\"partition-integration-test\",\"step\":null,\"partition\":null,"
+                        + "\"event\":\"start\",\"status\":null}"),
+                containsString("{\"job\":\"partition-integration-test\",\"step\":\"partitionedStep\",\"partition\":null,"
+                        + "\"event\":\"start\",\"status\":null}"),
+                containsString("{\"job\":\"partition-integration-test\",\"step\":\"partitionedStep\",\"partition\":null,"
+                        + "\"event\":\"finish\",\"status\":null}"),
+                containsString("{\"job\":\"partition-integration-test\",\"step\":null,\"partition\":null,"
+                        + "\"event\":\"finish\",\"status\":null}")));
+        assertThat("パーティション単位の進捗は出力されず、ジョブのジョブ名でステップ単位の進捗が出力されること",
+                progress, everyItem(containsString(
+                        "{\"job\":\"partition-integration-test\",\"step\":\"partitionedStep\",\"partition\":null,")));
+        assertThat("最後の進捗は全パーティションの件数で出力されること",
+                progress.get(progress.size() - 1), containsString("\"processed\":60,\"remaining\":0,"));
+    }
+
+    /**
+     * パーティションを使用したステップで、スコープごとにBeanが共有され、破棄されること。
+     * <ul>
+     * <li>ジョブスコープ:全パーティションと後続のステップで共有され、ジョブの終了時に破棄される。</li>
+     * <li>ステップスコープ:全パーティションで共有され、ステップの終了時に破棄される。</li>
+     * <li>パーティションスコープ:パーティションごとに生成され、ステップの終了時に破棄される。</li>
+     * </ul>
+     */
+    @Test
+    public void testPartition_scopes() throws Exception {
+        PartitionEvents.clear();
+
+        // -------------------------------------------------- execute batch job
+        final JobExecution execution = resource.startJob("partition-integration-test");
+        assertThat(execution.getBatchStatus(), is(BatchStatus.COMPLETED));
+
+        // -------------------------------------------------- assert bean
+        final Pattern pattern = Pattern.compile(
+                "open (p\\d) job bean (\\d+) step bean (\\d+) partition bean (\\d+) thread .*");
+        final Set<String> jobBeans = new HashSet<String>();
+        final Set<String> stepBeans = new HashSet<String>();
+        final Map<String, String> partitionBeans = new HashMap<String, String>();
+        final List<String> events = PartitionEvents.get();
+        for (String event : events) {
+            final Matcher matcher = pattern.matcher(event);
+            if (matcher.matches()) {
+                jobBeans.add(matcher.group(2));
+                stepBeans.add(matcher.group(3));
+                partitionBeans.put(matcher.group(1), matcher.group(4));
+            }
+        }
+        assertThat("ジョブスコープのBeanは全パーティションで共有されること", jobBeans.size(), is(1));
+        assertThat("ステップスコープのBeanは全パーティションで共有されること", stepBeans.size(), is(1));
+        assertThat(partitionBeans.keySet(), is((Set<String>) new HashSet<String>(Arrays.asList("p1", "p2", "p3"))));
+        assertThat("パーティションスコープのBeanはパーティションごとに生成されること",
+                new HashSet<String>(partitionBeans.values()).size(), is(3));
+
+        final String jobBean = jobBeans.iterator().next();
+        final String stepBean = stepBeans.iterator().next();
+        final List<String> destroyed = new ArrayList<String>();
+        String nextStep = null;
+        for (String event : events) {
+            if (event.startsWith("destroy ")) {
+                destroyed.add(event);
+            } else if (event.startsWith("next step ")) {
+                nextStep = event;
+                destroyed.add("next step");
+            }
+        }
+        assertThat("ジョブスコープのBeanは後続のステップでも共有され、ステップスコープのBeanは新たに生成されること",
+                nextStep, allOf(startsWith("next step job bean " + jobBean + " step bean "),
+                        not(endsWith(" step bean " + stepBean))));
+        assertThat("パーティションとステップのBeanはステップの終了時に、ジョブのBeanはジョブの終了時に1度だけ破棄されること",
+                destroyed, contains(
+                        isOneOf(partitionDestroyed(partitionBeans)),
+                        isOneOf(partitionDestroyed(partitionBeans)),
+                        isOneOf(partitionDestroyed(partitionBeans)),
+                        is("destroy step bean " + stepBean),
+                        is("next step"),
+                        startsWith("destroy step bean "),
+                        is("destroy job bean " + jobBean)));
+        assertThat(new HashSet<String>(destroyed.subList(0, 3)),
+                is((Set<String>) new HashSet<String>(Arrays.asList(partitionDestroyed(partitionBeans)))));
+    }
+
+    /**
+     * パーティションスコープのBeanを破棄した際に記録されるイベントを生成する。
+     *
+     * @param partitionBeans パーティション名とBeanのID
+     * @return イベント
+     */
+    private static String[] partitionDestroyed(final Map<String, String> partitionBeans) {
+        final List<String> events = new ArrayList<String>();
+        for (String id : partitionBeans.values()) {
+            events.add("destroy partition bean " + id);
+        }
+        return events.toArray(new String[events.size()]);
+    }
+
     @Test
     @RunAsClient
     public void RESTアクセスではStepContextが存在しないためStepScopedなBeanは利用できないこと(
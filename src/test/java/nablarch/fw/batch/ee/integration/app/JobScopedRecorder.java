@@ -0,0 +1,27 @@
+package nablarch.fw.batch.ee.integration.app;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import nablarch.fw.batch.ee.cdi.JobScoped;
+
+/**
+ * 生成と破棄を記録する{@link JobScoped}のBean
+ */
+@JobScoped
+public class JobScopedRecorder {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    private final int id = SEQUENCE.incrementAndGet();
+
+    public int getId() {
+        return id;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        PartitionEvents.add("destroy job bean " + id);
+    }
+}
@@ -0,0 +1,26 @@
+package nablarch.fw.batch.ee.integration.app;
+
+import javax.batch.api.AbstractBatchlet;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+/**
+ * 後続のステップで使用したスコープのBeanを記録するバッチレット
+ */
+@Dependent
+@Named
+public class PartitionCheckBatchlet extends AbstractBatchlet {
+
+    @Inject
+    JobScopedRecorder jobBean;
+
+    @Inject
+    StepScopedRecorder stepBean;
+
+    @Override
+    public String process() throws Exception {
+        PartitionEvents.add("next step job bean " + jobBean.getId() + " step bean " + stepBean.getId());
+        return "SUCCESS";
+    }
+}
@@ -0,0 +1,31 @@
+package nablarch.fw.batch.ee.integration.app;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * パーティションを使用したステップの結合テストで、Beanやリスナーの呼び出しを記録するクラス。
+ */
+public final class PartitionEvents {
+
+    /** 記録したイベント */
+    private static final List<String> EVENTS = Collections.synchronizedList(new ArrayList<String>());
+
+    private PartitionEvents() {
+    }
+
+    public static void add(final String event) {
+        EVENTS.add(event);
+    }
+
+    public static List<String> get() {
+        synchronized (EVENTS) {
+            return new ArrayList<String>(EVENTS);
+        }
+    }
+
+    public static void clear() {
+        EVENTS.clear();
+    }
+}
@@ -0,0 +1,69 @@
+package nablarch.fw.batch.ee.integration.app;
+
+import java.io.Serializable;
+
+import javax.batch.api.BatchProperty;
+import javax.batch.api.chunk.AbstractItemReader;
+import javax.enterprise.context.Dependent;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import nablarch.fw.batch.ee.progress.ProgressManager;
+
+/**
+ * パーティションごとに指定された件数を返し、使用したスコープのBeanを記録するリーダー
+ */
+@Dependent
+@Named
+public class PartitionedReader extends AbstractItemReader {
+
+    @Inject
+    @BatchProperty
+    String partitionName;
+
+    @Inject
+    @BatchProperty
+    String max;
+
+    @Inject
+    ProgressManager progressManager;
+
+    @Inject
+    JobScopedRecorder jobBean;
+
+    @Inject
+    StepScopedRecorder stepBean;
+
+    @Inject
+    PartitionScopedRecorder partitionBean;
+
+    private int count;
+
+    private int index;
+
+    @Override
+    public void open(final Serializable checkpoint) throws Exception {
+        count = Integer.parseInt(max);
+        progressManager.setInputCount(count);
+        record("open");
+    }
+
+    @Override
+    public Object readItem() throws Exception {
+        if (index >= count) {
+            return null;
+        }
+        index++;
+        return partitionName + '-' + index;
+    }
+
+    @Override
+    public void close() throws Exception {
+        record("close");
+    }
+
+    private void record(final String event) {
+        PartitionEvents.add(event + ' ' + partitionName + " job bean " + jobBean.getId() + " step bean " + stepBean.getId()
+                + " partition bean " + partitionBean.getId() + " thread " + Thread.currentThread().getName());
+    }
+}
@@ -0,0 +1,19 @@
+package nablarch.fw.batch.ee.integration.app;
+
+import java.util.List;
+
+import javax.batch.api.chunk.AbstractItemWriter;
+import javax.enterprise.context.Dependent;
+import javax.inject.Named;
+
+/**
+ * 何もしないライター
+ */
+@Dependent
+@Named
+public class PartitionedWriter extends AbstractItemWriter {
+
+    @Override
+    public void writeItems(final List<Object> items) throws Exception {
+    }
+}
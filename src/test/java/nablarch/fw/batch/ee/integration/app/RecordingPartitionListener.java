@@ -0,0 +1,54 @@
+package nablarch.fw.batch.ee.integration.app;
+
+import java.io.Serializable;
+
+import javax.batch.api.partition.PartitionReducer.PartitionStatus;
+import javax.batch.runtime.BatchStatus;
+
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+import nablarch.fw.batch.ee.listener.partition.NablarchPartitionAnalyzer;
+import nablarch.fw.batch.ee.listener.partition.NablarchPartitionCollector;
+import nablarch.fw.batch.ee.listener.partition.NablarchPartitionReducer;
+
+/**
+ * パーティションのリスナーの呼び出しを記録するリスナー
+ */
+public class RecordingPartitionListener
+        implements NablarchPartitionCollector, NablarchPartitionAnalyzer, NablarchPartitionReducer {
+
+    @Override
+    public Serializable collectPartitionData(final NablarchListenerContext context) {
+        return context.getStepContext().getProperties().getProperty("progressPartition");
+    }
+
+    @Override
+    public void analyzeCollectorData(final NablarchListenerContext context, final Serializable data) {
+        PartitionEvents.add("analyze collector data " + data + " thread " + Thread.currentThread().getName());
+    }
+
+    @Override
+    public void analyzeStatus(final NablarchListenerContext context, final BatchStatus batchStatus,
+            final String exitStatus) {
+        PartitionEvents.add("analyze status " + batchStatus);
+    }
+
+    @Override
+    public void beginPartitionedStep(final NablarchListenerContext context) {
+        PartitionEvents.add("begin partitioned step " + context.getStepContext().getStepName());
+    }
+
+    @Override
+    public void beforePartitionedStepCompletion(final NablarchListenerContext context) {
+        PartitionEvents.add("before partitioned step completion");
+    }
+
+    @Override
+    public void rollbackPartitionedStep(final NablarchListenerContext context) {
+        PartitionEvents.add("rollback partitioned step");
+    }
+
+    @Override
+    public void afterPartitionedStepCompletion(final NablarchListenerContext context, final PartitionStatus status) {
+        PartitionEvents.add("after partitioned step completion " + status);
+    }
+}
@@ -93,10 +93,9 @@ public class NablarchListenerExecutorTest {
         assertThat(listenerList.get(1), is("before:testListener2"));
 
         // スタックに積まれていること
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
         assertThat(stack.size(), is(2));
-        assertThat(stack.pop(), is("testListener2"));
-        assertThat(stack.pop(), is("testListener1"));
+        assertThat(stack, contains("testListener1", "testListener2"));
     }
 
     /**
@@ -136,10 +135,9 @@ public class NablarchListenerExecutorTest {
         assertThat(listenerList.get(1), is("before:testListener4"));
 
         // スタックに積まれていること
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
         assertThat(stack.size(), is(2));
-        assertThat(stack.pop(), is("testListener4"));
-        assertThat(stack.pop(), is("testListener3"));
+        assertThat(stack, contains("testListener3", "testListener4"));
     }
 
     /**
@@ -159,7 +157,7 @@ public class NablarchListenerExecutorTest {
         assertThat(listenerList.size(), is(0));
 
         // スタックに積まれていないこと
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
         assertThat(stack.size(), is(0));
     }
 
@@ -204,10 +202,9 @@ public class NablarchListenerExecutorTest {
         assertThat(listenerList.get(1), is("before:exceptionListener"));
 
         // 実行されたリスナーのみスタックに積まれていること
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
         assertThat(stack.size(), is(2));
-        assertThat(stack.pop(), is("exceptionListener"));
-        assertThat(stack.pop(), is("testListener1"));
+        assertThat(stack, contains("testListener1", "exceptionListener"));
     }
 
     /**
@@ -253,11 +250,9 @@ public class NablarchListenerExecutorTest {
         assertThat(listenerList.get(2), is("before:errorListener"));
 
         // 実行されたリスナーのみスタックに積まれていること
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
         assertThat(stack.size(), is(3));
-        assertThat(stack.pop(), is("errorListener"));
-        assertThat(stack.pop(), is("testListener2"));
-        assertThat(stack.pop(), is("testListener1"));
+        assertThat(stack, contains("testListener1", "testListener2", "errorListener"));
     }
 
     /**
@@ -267,10 +262,10 @@ public class NablarchListenerExecutorTest {
     @Test
     public void testExecuteAfter_basic() throws Exception {
 
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
-        stack.push("testListener1");
-        stack.push("testListener2");
-        stack.push("testListener3");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        stack.add("testListener1");
+        stack.add("testListener2");
+        stack.add("testListener3");
 
         sut.executeAfter(new Runner<String>() {
             @Override
@@ -311,10 +306,10 @@ public class NablarchListenerExecutorTest {
     @Test
     public void testExecuteAfter_exception() throws Exception {
 
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
-        stack.push("testListener1");
-        stack.push("exceptionListener");
-        stack.push("testListener3");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        stack.add("testListener1");
+        stack.add("exceptionListener");
+        stack.add("testListener3");
 
         try {
             sut.executeAfter(new Runner<String>() {
@@ -349,10 +344,10 @@ public class NablarchListenerExecutorTest {
     @Test
     public void testExecuteAfter_error() throws Exception {
 
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
-        stack.push("testListener1");
-        stack.push("errorListener");
-        stack.push("testListener3");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        stack.add("testListener1");
+        stack.add("errorListener");
+        stack.add("testListener3");
 
         try {
             sut.executeAfter(new Runner<String>() {
@@ -387,12 +382,12 @@ public class NablarchListenerExecutorTest {
     @Test
     public void testExecuteAfter_multiError() throws Exception {
 
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
-        stack.push("testListener1");
-        stack.push("exceptionListener");
-        stack.push("testListener3");
-        stack.push("errorListener");
-        stack.push("testListener5");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        stack.add("testListener1");
+        stack.add("exceptionListener");
+        stack.add("testListener3");
+        stack.add("errorListener");
+        stack.add("testListener5");
 
         try {
             sut.executeAfter(new Runner<String>() {
@@ -434,10 +429,10 @@ public class NablarchListenerExecutorTest {
 
         sut = new NablarchListenerExecutor<String>("testListeners", jobContext, stepContext);
 
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
-        stack.push("testListener1");
-        stack.push("exceptionListener");
-        stack.push("testListener3");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        stack.add("testListener1");
+        stack.add("exceptionListener");
+        stack.add("testListener3");
 
         try {
             sut.executeAfter(new Runner<String>() {
@@ -474,10 +469,10 @@ public class NablarchListenerExecutorTest {
 
         sut = new NablarchListenerExecutor<String>("testListeners", jobContext, stepContext);
 
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
-        stack.push("testListener1");
-        stack.push("testListener2");
-        stack.push("testListener3");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        stack.add("testListener1");
+        stack.add("testListener2");
+        stack.add("testListener3");
 
         final Exception e = new IllegalStateException("testException");
         sut.executeOnError(new Runner<String>() {
@@ -522,10 +517,10 @@ public class NablarchListenerExecutorTest {
 
         sut = new NablarchListenerExecutor<String>("testListeners", jobContext, stepContext);
 
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
-        stack.push("testListener1");
-        stack.push("exceptionListener");
-        stack.push("testListener3");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        stack.add("testListener1");
+        stack.add("exceptionListener");
+        stack.add("testListener3");
 
         try {
             final Exception e = new IllegalStateException("testException");
@@ -563,10 +558,10 @@ public class NablarchListenerExecutorTest {
 
         sut = new NablarchListenerExecutor<String>("testListeners", jobContext, stepContext);
 
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
-        stack.push("testListener1");
-        stack.push("testListener2");
-        stack.push("errorListener");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        stack.add("testListener1");
+        stack.add("testListener2");
+        stack.add("errorListener");
 
         try {
             final Exception e = new IllegalStateException("testException");
@@ -604,12 +599,12 @@ public class NablarchListenerExecutorTest {
 
         sut = new NablarchListenerExecutor<String>("testListeners", jobContext, stepContext);
 
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
-        stack.push("testListener1");
-        stack.push("errorListener");
-        stack.push("testListener3");
-        stack.push("exceptionListener");
-        stack.push("testListener5");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        stack.add("testListener1");
+        stack.add("errorListener");
+        stack.add("testListener3");
+        stack.add("exceptionListener");
+        stack.add("testListener5");
 
         try {
             final Exception e = new IllegalStateException("testException");
@@ -687,9 +682,52 @@ public class NablarchListenerExecutorTest {
         assertThat(listenerList.get(1), is("before:testStep2"));
 
         // スタックに積まれていること
-        LinkedList<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
         assertThat(stack.size(), is(2));
-        assertThat(stack.pop(), is("testStep2"));
-        assertThat(stack.pop(), is("testStep1"));
+        assertThat(stack, contains("testStep1", "testStep2"));
     }
-}
\ No newline at end of file
+
+    /**
+     * {@link NablarchListenerExecutor#executeBefore(NablarchListenerExecutor.Runner)}のテストケース<br />
+     * 同一インスタンスで繰り返し実行した場合、リスナーリストは初回に取得したものが使用され、
+     * スタックは実行毎に積み直されること。
+     */
+    @Test
+    public void testExecuteBefore_reuseListenerList() {
+        SystemRepository.load(new ObjectLoader() {
+            @Override
+            public Map<String, Object> load() {
+                List<String> listeners = new ArrayList<String>();
+                listeners.add("testListener1");
+                listeners.add("testListener2");
+
+                Map<String, Object> objects = new HashMap<String, Object>();
+                objects.put("testListeners", listeners);
+                return objects;
+            }
+        });
+
+        final Runner<String> runner = new Runner<String>() {
+            @Override
+            public void run(String listener, NablarchListenerContext context) {
+                listenerList.add("before:" + listener);
+            }
+        };
+        sut.executeBefore(runner);
+
+        // 初回実行後にリポジトリをクリアしても、取得済みのリスナーリストが使用されること
+        SystemRepository.clear();
+        sut.executeBefore(runner);
+
+        assertThat(listenerList, contains(
+                "before:testListener1",
+                "before:testListener2",
+                "before:testListener1",
+                "before:testListener2"));
+
+        // 前回分のスタックは破棄され、今回実行したリスナーのみスタックに積まれていること
+        List<String> stack = Deencapsulation.getField(sut, "executedListenerStack");
+        assertThat(stack.size(), is(2));
+        assertThat(stack, contains("testListener1", "testListener2"));
+    }
+}
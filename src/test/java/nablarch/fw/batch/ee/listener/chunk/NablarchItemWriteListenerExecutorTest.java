@@ -1,6 +1,7 @@
 package nablarch.fw.batch.ee.listener.chunk;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
@@ -150,6 +151,52 @@ public class NablarchItemWriteListenerExecutorTest {
         }};
     }
 
+    /**
+     * 複数のチャンクを処理した場合に、チャンク毎にリスナーが実行され、
+     * リスナーリストはステップ内で最初のチャンクでのみ取得されるケース。
+     */
+    @Test
+    public void testExecuteMultipleChunks() throws Exception {
+
+        SystemRepository.load(new ObjectLoader() {
+            @Override
+            public Map<String, Object> load() {
+                List<NablarchItemWriteListener> listeners = new ArrayList<NablarchItemWriteListener>();
+                listeners.add(mockListener1);
+                listeners.add(mockListener2);
+
+                Map<String, Object> objects = new HashMap<String, Object>();
+                objects.put("itemWriteListeners", listeners);
+                return objects;
+            }
+        });
+
+        final List<Object> items = new ArrayList<Object>();
+
+        sut.beforeWrite(items);
+        sut.afterWrite(items);
+        final Object executor = Deencapsulation.getField(sut, "executor");
+
+        SystemRepository.clear();
+        sut.beforeWrite(items);
+        sut.afterWrite(items);
+
+        // チャンク間で同じ実行クラスが使用されること
+        assertThat(Deencapsulation.getField(sut, "executor"), is(sameInstance(executor)));
+
+        new VerificationsInOrder() {{
+            mockListener1.beforeWrite(withInstanceOf(NablarchListenerContext.class), items);
+            mockListener2.beforeWrite(withInstanceOf(NablarchListenerContext.class), items);
+            mockListener2.afterWrite(withInstanceOf(NablarchListenerContext.class), items);
+            mockListener1.afterWrite(withInstanceOf(NablarchListenerContext.class), items);
+
+            mockListener1.beforeWrite(withInstanceOf(NablarchListenerContext.class), items);
+            mockListener2.beforeWrite(withInstanceOf(NablarchListenerContext.class), items);
+            mockListener2.afterWrite(withInstanceOf(NablarchListenerContext.class), items);
+            mockListener1.afterWrite(withInstanceOf(NablarchListenerContext.class), items);
+        }};
+    }
+
     /**
      * {@link NablarchItemWriteListener#beforeWrite(NablarchListenerContext, List)}が実行されず、
      * {@link NablarchItemWriteListener#afterWrite(NablarchListenerContext, List)}のみが実行されるケース。
@@ -4,6 +4,8 @@ import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
 
+import java.util.Properties;
+
 import javax.batch.runtime.context.JobContext;
 
 import mockit.Expectations;
@@ -70,4 +72,28 @@ public class JobProgressLogListenerTest {
 
         assertThat(InMemoryAppender.getLogMessages("PROGRESS"), contains(startsWith("INFO progress finish job. job name: [jobName]")));
     }
+
+    /**
+     * ジョブプロパティでJSON形式が指定されている場合、JOB開始時と終了時のログがJSON形式で出力されること。
+     */
+    @Test
+    public void testJson() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("progressPrinter", "json");
+        new Expectations() {
+            {
+                mockJobContext.getJobName();
+                result = "jobName";
+                mockJobContext.getProperties();
+                result = properties;
+            }
+        };
+
+        sut.beforeJob(new NablarchListenerContext(mockJobContext, null));
+        sut.afterJob(new NablarchListenerContext(mockJobContext, null));
+
+        assertThat(InMemoryAppender.getLogMessages("PROGRESS"), contains(
+                startsWith("INFO progress {\"job\":\"jobName\",\"step\":null,\"partition\":null,\"event\":\"start\",\"status\":null}"),
+                startsWith("INFO progress {\"job\":\"jobName\",\"step\":null,\"partition\":null,\"event\":\"finish\",\"status\":null}")));
+    }
 }
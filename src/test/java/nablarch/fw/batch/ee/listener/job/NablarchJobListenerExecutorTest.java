@@ -9,12 +9,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
 import javax.batch.runtime.context.JobContext;
 
 import mockit.Expectations;
 import nablarch.core.repository.ObjectLoader;
 import nablarch.core.repository.SystemRepository;
+import nablarch.fw.batch.ee.JobEndNotifier;
 import nablarch.fw.batch.ee.initializer.LogInitializer;
 import nablarch.fw.batch.ee.initializer.RepositoryInitializer;
 import nablarch.fw.batch.ee.listener.NablarchListenerContext;
@@ -118,6 +120,27 @@ public class NablarchJobListenerExecutorTest {
         }
     }
 
+    /**
+     * {@link NablarchJobListenerExecutor#afterJob()}の実行後に、JOBの終了が通知されること。
+     */
+    @Test
+    public void testNotifyJobEnd() throws Exception {
+        new Expectations() {{
+            mockJobContext.getExecutionId();
+            result = 10L;
+        }};
+        SystemRepository.clear();
+        final CountDownLatch latch = JobEndNotifier.register(10L);
+        try {
+            sut.beforeJob();
+            assertThat(latch.getCount(), is(1L));
+            sut.afterJob();
+            assertThat(latch.getCount(), is(0L));
+        } finally {
+            JobEndNotifier.unregister(10L);
+        }
+    }
+
     /**
      * ListenerでJobContextやStepContextを使えることを確認するテスト。
      * @throws Exception
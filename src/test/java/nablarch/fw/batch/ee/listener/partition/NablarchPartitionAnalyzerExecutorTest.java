@@ -0,0 +1,119 @@
+package nablarch.fw.batch.ee.listener.partition;
+
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.batch.runtime.BatchStatus;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+
+import nablarch.core.repository.ObjectLoader;
+import nablarch.core.repository.SystemRepository;
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import mockit.Deencapsulation;
+import mockit.Mocked;
+
+/**
+ * {@link NablarchPartitionAnalyzerExecutor}のテスト。
+ */
+public class NablarchPartitionAnalyzerExecutorTest {
+
+    @Mocked
+    StepContext mockStepContext;
+
+    @Mocked
+    JobContext mockJobContext;
+
+    /** テスト対象 */
+    NablarchPartitionAnalyzerExecutor sut = new NablarchPartitionAnalyzerExecutor();
+
+    /** リスナーの呼び出し履歴 */
+    final List<String> history = new ArrayList<String>();
+
+    @Before
+    public void setUp() throws Exception {
+        Deencapsulation.setField(sut, "jobContext", mockJobContext);
+        Deencapsulation.setField(sut, "stepContext", mockStepContext);
+        SystemRepository.load(new ObjectLoader() {
+            @Override
+            public Map<String, Object> load() {
+                return Collections.<String, Object>singletonMap("partitionAnalyzers", Arrays.asList(
+                        new RecordingAnalyzer("analyzer1"), new RecordingAnalyzer("analyzer2")));
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        SystemRepository.clear();
+    }
+
+    /**
+     * {@link NablarchPartitionCollectorExecutor}がまとめたデータが、1件ずつ設定順のリスナーに渡されること。
+     */
+    @Test
+    public void testAnalyzeCollectedData() throws Exception {
+        final CollectedPartitionData data = new CollectedPartitionData();
+        data.add("data1");
+        data.add("data2");
+
+        sut.analyzeCollectorData(data);
+
+        assertThat(history, contains(
+                "analyzer1:data1", "analyzer2:data1",
+                "analyzer1:data2", "analyzer2:data2"));
+    }
+
+    /**
+     * 他の{@link javax.batch.api.partition.PartitionCollector}が送ったデータは、そのままリスナーに渡されること。
+     */
+    @Test
+    public void testAnalyzeOtherData() throws Exception {
+        sut.analyzeCollectorData(new ArrayList<String>(Arrays.asList("a", "b")));
+        sut.analyzeCollectorData(null);
+
+        assertThat(history, contains("analyzer1:[a, b]", "analyzer2:[a, b]"));
+    }
+
+    /**
+     * パーティションの終了状態が設定順のリスナーに渡されること。
+     */
+    @Test
+    public void testAnalyzeStatus() throws Exception {
+        sut.analyzeStatus(BatchStatus.COMPLETED, "SUCCESS");
+
+        assertThat(history, contains("analyzer1:COMPLETED/SUCCESS", "analyzer2:COMPLETED/SUCCESS"));
+    }
+
+    private class RecordingAnalyzer extends AbstractNablarchPartitionAnalyzer {
+
+        private final String name;
+
+        RecordingAnalyzer(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void analyzeCollectorData(final NablarchListenerContext context, final Serializable data) {
+            history.add(name + ':' + data);
+        }
+
+        @Override
+        public void analyzeStatus(final NablarchListenerContext context, final BatchStatus batchStatus,
+                final String exitStatus) {
+            history.add(name + ':' + batchStatus + '/' + exitStatus);
+        }
+    }
+}
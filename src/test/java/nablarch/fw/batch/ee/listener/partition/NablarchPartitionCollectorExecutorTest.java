@@ -0,0 +1,106 @@
+package nablarch.fw.batch.ee.listener.partition;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+
+import nablarch.core.repository.ObjectLoader;
+import nablarch.core.repository.SystemRepository;
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import mockit.Deencapsulation;
+import mockit.Mocked;
+
+/**
+ * {@link NablarchPartitionCollectorExecutor}のテスト。
+ */
+public class NablarchPartitionCollectorExecutorTest {
+
+    @Mocked
+    StepContext mockStepContext;
+
+    @Mocked
+    JobContext mockJobContext;
+
+    /** テスト対象 */
+    NablarchPartitionCollectorExecutor sut = new NablarchPartitionCollectorExecutor();
+
+    @Before
+    public void setUp() throws Exception {
+        Deencapsulation.setField(sut, "jobContext", mockJobContext);
+        Deencapsulation.setField(sut, "stepContext", mockStepContext);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        SystemRepository.clear();
+    }
+
+    /**
+     * 各リスナーが収集したデータが、設定順にまとめて返されること。
+     * {@code null}を返したリスナーのデータは含まれないこと。
+     */
+    @Test
+    public void testCollect() throws Exception {
+        registerCollectors(new FixedCollector("data1"), new FixedCollector(null), new FixedCollector(2));
+
+        final Serializable actual = sut.collectPartitionData();
+        assertThat(actual, is(instanceOf(CollectedPartitionData.class)));
+        assertThat((CollectedPartitionData) actual, contains((Serializable) "data1", 2));
+    }
+
+    /**
+     * 全てのリスナーが{@code null}を返した場合、{@code null}が返されること。
+     */
+    @Test
+    public void testCollect_noData() throws Exception {
+        registerCollectors(new FixedCollector(null));
+
+        assertThat(sut.collectPartitionData(), is(nullValue()));
+    }
+
+    /**
+     * リスナーが登録されていない場合、{@code null}が返されること。
+     */
+    @Test
+    public void testCollect_noListener() throws Exception {
+        assertThat(sut.collectPartitionData(), is(nullValue()));
+    }
+
+    private static void registerCollectors(final NablarchPartitionCollector... collectors) {
+        SystemRepository.load(new ObjectLoader() {
+            @Override
+            public Map<String, Object> load() {
+                return Collections.<String, Object>singletonMap("partitionCollectors", Arrays.asList(collectors));
+            }
+        });
+    }
+
+    private static class FixedCollector implements NablarchPartitionCollector {
+
+        private final Serializable data;
+
+        FixedCollector(final Serializable data) {
+            this.data = data;
+        }
+
+        @Override
+        public Serializable collectPartitionData(final NablarchListenerContext context) {
+            return data;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package nablarch.fw.batch.ee.listener.partition;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.batch.api.partition.PartitionReducer.PartitionStatus;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+
+import nablarch.core.repository.ObjectLoader;
+import nablarch.core.repository.SystemRepository;
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import mockit.Deencapsulation;
+import mockit.Mocked;
+
+/**
+ * {@link NablarchPartitionReducerExecutor}のテスト。
+ */
+public class NablarchPartitionReducerExecutorTest {
+
+    @Mocked
+    StepContext mockStepContext;
+
+    @Mocked
+    JobContext mockJobContext;
+
+    /** テスト対象 */
+    NablarchPartitionReducerExecutor sut = new NablarchPartitionReducerExecutor();
+
+    /** リスナーの呼び出し履歴 */
+    final List<String> history = new ArrayList<String>();
+
+    @Before
+    public void setUp() throws Exception {
+        Deencapsulation.setField(sut, "jobContext", mockJobContext);
+        Deencapsulation.setField(sut, "stepContext", mockStepContext);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        SystemRepository.clear();
+    }
+
+    /**
+     * 全てのパーティションが正常に終了した場合、開始時は設定順に、終了時は逆順にリスナーが実行されること。
+     */
+    @Test
+    public void testCommit() throws Exception {
+        registerReducers(new RecordingReducer("reducer1"), new RecordingReducer("reducer2"));
+
+        sut.beginPartitionedStep();
+        sut.beforePartitionedStepCompletion();
+        sut.afterPartitionedStepCompletion(PartitionStatus.COMMIT);
+
+        assertThat(history, contains(
+                "reducer1:begin", "reducer2:begin",
+                "reducer2:beforeCompletion", "reducer1:beforeCompletion",
+                "reducer2:after:COMMIT", "reducer1:after:COMMIT"));
+    }
+
+    /**
+     * パーティションが失敗した場合、ロールバック処理が逆順に実行されること。
+     */
+    @Test
+    public void testRollback() throws Exception {
+        registerReducers(new RecordingReducer("reducer1"), new RecordingReducer("reducer2"));
+
+        sut.beginPartitionedStep();
+        sut.rollbackPartitionedStep();
+        sut.afterPartitionedStepCompletion(PartitionStatus.ROLLBACK);
+
+        assertThat(history, contains(
+                "reducer1:begin", "reducer2:begin",
+                "reducer2:rollback", "reducer1:rollback",
+                "reducer2:after:ROLLBACK", "reducer1:after:ROLLBACK"));
+    }
+
+    /**
+     * ロールバック処理で例外が発生した場合でも、後続のリスナーが実行され、最初の例外が送出されること。
+     */
+    @Test
+    public void testRollback_failed() throws Exception {
+        registerReducers(new RecordingReducer("reducer1"), new RecordingReducer("reducer2") {
+            @Override
+            public void rollbackPartitionedStep(final NablarchListenerContext context) {
+                super.rollbackPartitionedStep(context);
+                throw new IllegalStateException("rollbackで例外");
+            }
+        });
+
+        sut.beginPartitionedStep();
+        try {
+            sut.rollbackPartitionedStep();
+            fail("例外が発生すること");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("rollbackで例外"));
+        }
+        assertThat(history, contains("reducer1:begin", "reducer2:begin", "reducer2:rollback", "reducer1:rollback"));
+    }
+
+    /**
+     * 開始時の処理が実行されていない場合、終了時の処理は何もしないこと。
+     */
+    @Test
+    public void testWithoutBegin() throws Exception {
+        registerReducers(new RecordingReducer("reducer1"));
+
+        sut.beforePartitionedStepCompletion();
+        sut.rollbackPartitionedStep();
+        sut.afterPartitionedStepCompletion(PartitionStatus.COMMIT);
+
+        assertThat(history.isEmpty(), is(true));
+    }
+
+    private static void registerReducers(final NablarchPartitionReducer... reducers) {
+        SystemRepository.load(new ObjectLoader() {
+            @Override
+            public Map<String, Object> load() {
+                return Collections.<String, Object>singletonMap("partitionReducers", Arrays.asList(reducers));
+            }
+        });
+    }
+
+    private class RecordingReducer extends AbstractNablarchPartitionReducer {
+
+        private final String name;
+
+        RecordingReducer(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void beginPartitionedStep(final NablarchListenerContext context) {
+            history.add(name + ":begin");
+        }
+
+        @Override
+        public void beforePartitionedStepCompletion(final NablarchListenerContext context) {
+            history.add(name + ":beforeCompletion");
+        }
+
+        @Override
+        public void rollbackPartitionedStep(final NablarchListenerContext context) {
+            history.add(name + ":rollback");
+        }
+
+        @Override
+        public void afterPartitionedStepCompletion(final NablarchListenerContext context,
+                final PartitionStatus status) {
+            history.add(name + ":after:" + status);
+        }
+    }
+}
@@ -15,7 +15,11 @@ import javax.batch.runtime.context.StepContext;
 
 import nablarch.core.repository.ObjectLoader;
 import nablarch.core.repository.SystemRepository;
+import nablarch.fw.batch.ee.cdi.PartitionScopedContext;
+import nablarch.fw.batch.ee.cdi.StepScopedContext;
 import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+import nablarch.fw.batch.ee.progress.ProgressStatistics;
+import nablarch.fw.batch.ee.progress.ProgressStatisticsRegistry;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -23,6 +27,7 @@ import org.junit.Test;
 import mockit.Deencapsulation;
 import mockit.Mocked;
 import mockit.Expectations;
+import mockit.Verifications;
 import mockit.VerificationsInOrder;
 
 /**
@@ -119,6 +124,56 @@ public class NablarchStepListenerExecutorTest {
         }
     }
 
+    /**
+     * ステップの終了時に、ステップの統計情報の登録が解除されること。
+     */
+    @Test
+    public void testUnregisterStatistics(@Mocked final ProgressStatistics statistics) throws Exception {
+        SystemRepository.load(new ObjectLoader() {
+            @Override
+            public Map<String, Object> load() {
+                return Collections.emptyMap();
+            }
+        });
+
+        sut.beforeStep();
+        ProgressStatisticsRegistry.register(mockStepContext, statistics);
+        sut.afterStep();
+
+        assertThat(ProgressStatisticsRegistry.get(mockStepContext).isEmpty(), is(true));
+    }
+
+    /**
+     * ステップの終了時の後処理で例外が発生した場合でも、後続の後処理が実行されること。
+     */
+    @Test
+    public void testCleanup_failed(@Mocked final ProgressStatistics statistics,
+            @Mocked final PartitionScopedContext partitionScopedContext,
+            @Mocked final StepScopedContext stepScopedContext) throws Exception {
+        SystemRepository.clear();
+        new Expectations() {{
+            PartitionScopedContext.unbind(mockStepContext);
+            result = new IllegalStateException("unbind failed.");
+        }};
+
+        sut.beforeStep();
+        ProgressStatisticsRegistry.register(mockStepContext, statistics);
+        try {
+            sut.afterStep();
+            fail("例外が発生するはず");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("unbind failed."));
+        }
+
+        assertThat(ProgressStatisticsRegistry.get(mockStepContext).isEmpty(), is(true));
+        new Verifications() {{
+            StepScopedContext.unbind();
+            times = 1;
+            StepScopedContext.release(mockStepContext);
+            times = 1;
+        }};
+    }
+
     /**
      * ListenerでJobContextやStepContextを使えることを確認するテスト。
      * @throws Exception
@@ -4,6 +4,8 @@ import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.Assert.assertThat;
 
+import java.util.Properties;
+
 import javax.batch.runtime.context.JobContext;
 import javax.batch.runtime.context.StepContext;
 
@@ -79,4 +81,34 @@ public class StepProgressLogListenerTest {
 
         assertThat(InMemoryAppender.getLogMessages("PROGRESS"), contains(startsWith("INFO progress finish step. job name: [job1] step name: [step1] step status: [SUCCESS]")));
     }
+
+    /**
+     * ステッププロパティでJSON形式が指定されている場合、ステップ開始時と終了時のログがJSON形式で出力されること。
+     */
+    @Test
+    public void testJson() {
+        final Properties properties = new Properties();
+        properties.setProperty("progressPrinter", "json");
+        new Expectations() {
+            {
+                mockJobContext.getJobName();
+                result = "job1";
+
+                mockStepContext.getStepName();
+                result = "step1";
+
+                mockStepContext.getProperties();
+                result = properties;
+
+                mockStepContext.getExitStatus();
+                result = "SUCCESS";
+            }
+        };
+        sut.beforeStep(new NablarchListenerContext(mockJobContext, mockStepContext));
+        sut.afterStep(new NablarchListenerContext(mockJobContext, mockStepContext));
+
+        assertThat(InMemoryAppender.getLogMessages("PROGRESS"), contains(
+                startsWith("INFO progress {\"job\":\"job1\",\"step\":\"step1\",\"partition\":null,\"event\":\"start\",\"status\":null}"),
+                startsWith("INFO progress {\"job\":\"job1\",\"step\":\"step1\",\"partition\":null,\"event\":\"finish\",\"status\":\"SUCCESS\"}")));
+    }
 }
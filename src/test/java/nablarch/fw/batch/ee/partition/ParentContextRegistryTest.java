@@ -0,0 +1,266 @@
+package nablarch.fw.batch.ee.partition;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Properties;
+
+import javax.batch.runtime.BatchStatus;
+import javax.batch.runtime.Metric;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * {@link ParentContextRegistry}のテスト。
+ */
+public class ParentContextRegistryTest {
+
+    /** ジョブ(ジョブインスタンスID:10、実行ID:20) */
+    private final StubJobContext job = new StubJobContext("test-job", 10L, 20L);
+
+    /** ステップ */
+    private final StubStepContext step = new StubStepContext("step1");
+
+    /** パーティション */
+    private final StubJobContext partitionJob = new StubJobContext(":10:step1:0", 11L, 21L);
+
+    /** パーティションのステップ */
+    private final StubStepContext partitionStep = new StubStepContext("step1");
+
+    @After
+    public void tearDown() throws Exception {
+        ParentContextRegistry.unregister(job, step);
+        ParentContextRegistry.unregister(job);
+    }
+
+    /**
+     * パーティションのコンテキストから、ジョブとステップのコンテキストが取得できること。
+     */
+    @Test
+    public void testPartition() throws Exception {
+        ParentContextRegistry.register(job);
+        ParentContextRegistry.register(job, step);
+
+        assertThat(ParentContextRegistry.getJobContext(partitionJob), is(sameInstance((JobContext) job)));
+        assertThat(ParentContextRegistry.getStepContext(partitionJob, partitionStep),
+                is(sameInstance((StepContext) step)));
+        assertThat(ParentContextRegistry.getJobContext(job), is(sameInstance((JobContext) job)));
+        assertThat(ParentContextRegistry.getStepContext(job, step), is(sameInstance((StepContext) step)));
+    }
+
+    /**
+     * スプリットのフローのジョブコンテキストから、ジョブのジョブコンテキストが取得できること。
+     * フローで実行したステップのパーティションからも、ジョブのジョブコンテキストが取得できること。
+     */
+    @Test
+    public void testFlow() throws Exception {
+        final StubJobContext flowJob = new StubJobContext(":20:split1:flow1", 30L, 31L);
+        final StubJobContext flowPartitionJob = new StubJobContext(":30:step1:1", 32L, 33L);
+        ParentContextRegistry.register(job);
+        ParentContextRegistry.register(flowJob, step);
+        try {
+            assertThat(ParentContextRegistry.getJobContext(flowJob), is(sameInstance((JobContext) job)));
+            assertThat(ParentContextRegistry.getJobContext(flowPartitionJob), is(sameInstance((JobContext) job)));
+            assertThat(ParentContextRegistry.getStepContext(flowPartitionJob, partitionStep),
+                    is(sameInstance((StepContext) step)));
+        } finally {
+            ParentContextRegistry.unregister(flowJob, step);
+        }
+    }
+
+    /**
+     * 登録されていない場合や登録を解除した場合は、指定したコンテキストが返されること。
+     */
+    @Test
+    public void testNotRegistered() throws Exception {
+        assertThat(ParentContextRegistry.getJobContext(partitionJob), is(sameInstance((JobContext) partitionJob)));
+        assertThat(ParentContextRegistry.getStepContext(partitionJob, partitionStep),
+                is(sameInstance((StepContext) partitionStep)));
+
+        ParentContextRegistry.register(job);
+        ParentContextRegistry.register(job, step);
+        ParentContextRegistry.unregister(job, step);
+        ParentContextRegistry.unregister(job);
+
+        assertThat(ParentContextRegistry.getJobContext(partitionJob), is(sameInstance((JobContext) partitionJob)));
+        assertThat(ParentContextRegistry.getStepContext(partitionJob, partitionStep),
+                is(sameInstance((StepContext) partitionStep)));
+    }
+
+    /**
+     * パーティションのコンテキストは登録されないこと。
+     */
+    @Test
+    public void testRegisterPartition() throws Exception {
+        ParentContextRegistry.register(partitionJob);
+        ParentContextRegistry.register(partitionJob, partitionStep);
+
+        final StubJobContext otherPartitionJob = new StubJobContext(":10:step1:1", 12L, 22L);
+        final StubStepContext otherPartitionStep = new StubStepContext("step1");
+        assertThat(ParentContextRegistry.getJobContext(otherPartitionJob),
+                is(sameInstance((JobContext) otherPartitionJob)));
+        assertThat(ParentContextRegistry.getStepContext(otherPartitionJob, otherPartitionStep),
+                is(sameInstance((StepContext) otherPartitionStep)));
+    }
+
+    /**
+     * ジョブ名がサブジョブの形式でない場合は、サブジョブとして扱われないこと。
+     */
+    @Test
+    public void testInvalidSubJobName() throws Exception {
+        ParentContextRegistry.register(job);
+        ParentContextRegistry.register(job, step);
+
+        for (String name : new String[] {":", ":10", ":10:step1", ":x:step1:0", ":10:step1:0:0", ":10:step2:0"}) {
+            final StubJobContext subJob = new StubJobContext(name, 11L, 21L);
+            assertThat(name, ParentContextRegistry.getStepContext(subJob, partitionStep),
+                    is(sameInstance((StepContext) partitionStep)));
+        }
+        assertThat(ParentContextRegistry.getJobContext(null), is((JobContext) null));
+    }
+
+    /**
+     * パーティションのステップのキーは、パーティションを実行しているステップのキーと同じとなること。
+     */
+    @Test
+    public void testCreateStepKey() throws Exception {
+        assertThat(ParentContextRegistry.createStepKey(job, step), is("10:step1"));
+        assertThat(ParentContextRegistry.createStepKey(partitionJob, partitionStep), is("10:step1"));
+        assertThat(ParentContextRegistry.createStepKey(
+                new StubJobContext(":20:split1:flow1", 30L, 31L), step), is("30:step1"));
+    }
+
+    /**
+     * ジョブ名とIDのみを実装した{@link JobContext}。
+     */
+    private static class StubJobContext implements JobContext {
+
+        private final String jobName;
+
+        private final long instanceId;
+
+        private final long executionId;
+
+        StubJobContext(final String jobName, final long instanceId, final long executionId) {
+            this.jobName = jobName;
+            this.instanceId = instanceId;
+            this.executionId = executionId;
+        }
+
+        @Override
+        public String getJobName() {
+            return jobName;
+        }
+
+        @Override
+        public Object getTransientUserData() {
+            return null;
+        }
+
+        @Override
+        public void setTransientUserData(final Object data) {
+        }
+
+        @Override
+        public long getInstanceId() {
+            return instanceId;
+        }
+
+        @Override
+        public long getExecutionId() {
+            return executionId;
+        }
+
+        @Override
+        public Properties getProperties() {
+            return null;
+        }
+
+        @Override
+        public BatchStatus getBatchStatus() {
+            return null;
+        }
+
+        @Override
+        public String getExitStatus() {
+            return null;
+        }
+
+        @Override
+        public void setExitStatus(final String status) {
+        }
+    }
+
+    /**
+     * ステップ名のみを実装した{@link StepContext}。
+     */
+    private static class StubStepContext implements StepContext {
+
+        private final String stepName;
+
+        StubStepContext(final String stepName) {
+            this.stepName = stepName;
+        }
+
+        @Override
+        public String getStepName() {
+            return stepName;
+        }
+
+        @Override
+        public Object getTransientUserData() {
+            return null;
+        }
+
+        @Override
+        public void setTransientUserData(final Object data) {
+        }
+
+        @Override
+        public long getStepExecutionId() {
+            return 0;
+        }
+
+        @Override
+        public Properties getProperties() {
+            return null;
+        }
+
+        @Override
+        public java.io.Serializable getPersistentUserData() {
+            return null;
+        }
+
+        @Override
+        public void setPersistentUserData(final java.io.Serializable data) {
+        }
+
+        @Override
+        public BatchStatus getBatchStatus() {
+            return null;
+        }
+
+        @Override
+        public String getExitStatus() {
+            return null;
+        }
+
+        @Override
+        public void setExitStatus(final String status) {
+        }
+
+        @Override
+        public Exception getException() {
+            return null;
+        }
+
+        @Override
+        public Metric[] getMetrics() {
+            return new Metric[0];
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package nablarch.fw.batch.ee.partition;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import javax.batch.api.partition.PartitionPlan;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import nablarch.test.support.SystemRepositoryResource;
+import nablarch.test.support.db.helper.DatabaseTestRunner;
+import nablarch.test.support.db.helper.VariousDbTestHelper;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import mockit.Deencapsulation;
+
+/**
+ * {@link RangePartitionMapper}のテストクラス。
+ */
+@RunWith(DatabaseTestRunner.class)
+public class RangePartitionMapperTest {
+
+    @Rule
+    public SystemRepositoryResource systemRepositoryResource = new SystemRepositoryResource("db-default.xml");
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private final RangePartitionMapper sut = new RangePartitionMapper();
+
+    @Before
+    public void before() {
+        VariousDbTestHelper.createTable(TestEntity.class);
+        Deencapsulation.setField(sut, "tableName", "TestEntity");
+        Deencapsulation.setField(sut, "keyColumnName", "id");
+    }
+
+    /**
+     * キーの最小値から最大値までが均等に分割されること。
+     * 先頭と最後の範囲は、分割後に追加されたキーも含むよう、longの最小値と最大値まで広げられること。
+     */
+    @Test
+    public void mapPartitions() throws Exception {
+        final List<TestEntity> entities = new ArrayList<TestEntity>();
+        for (int i = 11; i <= 20; i++) {
+            entities.add(new TestEntity(i, "name" + i));
+        }
+        VariousDbTestHelper.setUpTable(entities.toArray());
+        Deencapsulation.setField(sut, "partitionCount", "3");
+
+        final PartitionPlan plan = sut.mapPartitions();
+
+        assertThat(plan.getPartitions(), is(3));
+        assertThat(plan.getThreads(), is(3));
+        assertRange(plan.getPartitionProperties()[0], String.valueOf(Long.MIN_VALUE), "14");
+        assertRange(plan.getPartitionProperties()[1], "15", "17");
+        assertRange(plan.getPartitionProperties()[2], "18", String.valueOf(Long.MAX_VALUE));
+    }
+
+    /**
+     * 表が空の場合、どの行も含まない範囲のパーティションが1つだけ返されること。
+     */
+    @Test
+    public void mapPartitions_emptyTable() throws Exception {
+        Deencapsulation.setField(sut, "partitionCount", "3");
+
+        final PartitionPlan plan = sut.mapPartitions();
+
+        assertThat(plan.getPartitions(), is(1));
+        assertRange(plan.getPartitionProperties()[0], "0", "-1");
+    }
+
+    /**
+     * パーティション数を省略した場合、使用可能なプロセッサ数で分割されること。
+     */
+    @Test
+    public void mapPartitions_defaultPartitionCount() throws Exception {
+        final int processors = Runtime.getRuntime().availableProcessors();
+        final List<TestEntity> entities = new ArrayList<TestEntity>();
+        for (int i = 1; i <= processors * 2; i++) {
+            entities.add(new TestEntity(i, "name" + i));
+        }
+        VariousDbTestHelper.setUpTable(entities.toArray());
+
+        assertThat(sut.mapPartitions().getPartitions(), is(processors));
+    }
+
+    /**
+     * パーティション数に1未満を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void mapPartitions_invalidPartitionCount() throws Exception {
+        Deencapsulation.setField(sut, "partitionCount", "0");
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("partitionCount must be greater than 0. partitionCount=[0]");
+        sut.mapPartitions();
+    }
+
+    /**
+     * 表名に識別子以外を指定した場合、例外が送出されること。
+     */
+    @Test
+    public void mapPartitions_invalidTableName() throws Exception {
+        Deencapsulation.setField(sut, "tableName", "TestEntity; DROP TABLE TestEntity");
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(
+                "tableName must be specified as a valid identifier. tableName=[TestEntity; DROP TABLE TestEntity]");
+        sut.mapPartitions();
+    }
+
+    /**
+     * キーの列名を指定しない場合、例外が送出されること。
+     */
+    @Test
+    public void mapPartitions_keyColumnNameNotSpecified() throws Exception {
+        Deencapsulation.setField(sut, "keyColumnName", null);
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage(
+                "keyColumnName must be specified as a valid identifier. keyColumnName=[null]");
+        sut.mapPartitions();
+    }
+
+    /**
+     * 分割数がキーの範囲の件数より多い場合、キーの範囲の件数に分割されること。
+     */
+    @Test
+    public void splitEvenly_partitionsGreaterThanSpan() throws Exception {
+        final List<long[]> ranges = RangePartitionMapper.splitEvenly(5, 6, 4);
+        assertThat(ranges.size(), is(2));
+        assertThat(ranges.get(0), is(new long[] {5, 5}));
+        assertThat(ranges.get(1), is(new long[] {6, 6}));
+    }
+
+    /**
+     * キーの範囲の件数がlongの範囲を超える場合でも、隙間なく均等に分割されること。
+     */
+    @Test
+    public void splitEvenly_fullRange() throws Exception {
+        final List<long[]> ranges = RangePartitionMapper.splitEvenly(Long.MIN_VALUE, Long.MAX_VALUE, 4);
+        assertThat(ranges.size(), is(4));
+        assertThat(ranges.get(0), is(new long[] {Long.MIN_VALUE, -4611686018427387905L}));
+        assertThat(ranges.get(1), is(new long[] {-4611686018427387904L, -1}));
+        assertThat(ranges.get(2), is(new long[] {0, 4611686018427387903L}));
+        assertThat(ranges.get(3), is(new long[] {4611686018427387904L, Long.MAX_VALUE}));
+
+        final List<long[]> single = RangePartitionMapper.splitEvenly(Long.MIN_VALUE, Long.MAX_VALUE, 1);
+        assertThat(single.size(), is(1));
+        assertThat(single.get(0), is(new long[] {Long.MIN_VALUE, Long.MAX_VALUE}));
+    }
+
+    /**
+     * 各バケットの最小のキーから、隙間のない範囲が作成されること。
+     */
+    @Test
+    public void splitByBucketStarts() throws Exception {
+        final List<long[]> ranges = RangePartitionMapper.splitByBucketStarts(Arrays.asList(1L, 100L, 1000L), 5000L);
+        assertThat(ranges.size(), is(3));
+        assertThat(ranges.get(0), is(new long[] {1, 99}));
+        assertThat(ranges.get(1), is(new long[] {100, 999}));
+        assertThat(ranges.get(2), is(new long[] {1000, 5000}));
+    }
+
+    /**
+     * 同じキーが複数のバケットにまたがる場合、空の範囲が除かれること。
+     */
+    @Test
+    public void splitByBucketStarts_duplicateKey() throws Exception {
+        final List<long[]> ranges = RangePartitionMapper.splitByBucketStarts(Arrays.asList(1L, 7L, 7L, 9L), 10L);
+        assertThat(ranges.size(), is(3));
+        assertThat(ranges.get(0), is(new long[] {1, 6}));
+        assertThat(ranges.get(1), is(new long[] {7, 8}));
+        assertThat(ranges.get(2), is(new long[] {9, 10}));
+    }
+
+    /**
+     * 先頭の範囲の開始キーと最後の範囲の終了キーが、longの最小値と最大値となること。
+     */
+    @Test
+    public void openEnds() throws Exception {
+        final List<long[]> ranges = RangePartitionMapper.openEnds(
+                RangePartitionMapper.splitByBucketStarts(Arrays.asList(1L, 100L), 500L));
+        assertThat(ranges.size(), is(2));
+        assertThat(ranges.get(0), is(new long[] {Long.MIN_VALUE, 99}));
+        assertThat(ranges.get(1), is(new long[] {100, Long.MAX_VALUE}));
+
+        final List<long[]> single = RangePartitionMapper.openEnds(RangePartitionMapper.splitEvenly(5, 6, 1));
+        assertThat(single.size(), is(1));
+        assertThat(single.get(0), is(new long[] {Long.MIN_VALUE, Long.MAX_VALUE}));
+    }
+
+    private static void assertRange(final Properties properties, final String start, final String end) {
+        assertThat(properties.getProperty(RangePartitionMapper.RANGE_START), is(start));
+        assertThat(properties.getProperty(RangePartitionMapper.RANGE_END), is(end));
+    }
+
+    /**
+     * テストテーブルのエンティティ
+     */
+    @Entity
+    @Table(name = "TestEntity")
+    public static class TestEntity {
+
+        @Id
+        @Column(name = "id", length = 10)
+        public Integer id;
+
+        @Column(length = 16, name = "name")
+        public String name;
+
+        public TestEntity() {
+        }
+
+        public TestEntity(Integer id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -2,11 +2,16 @@ package nablarch.fw.batch.ee.progress;
 
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.concurrent.TimeUnit;
 
 import javax.batch.operations.BatchRuntimeException;
@@ -19,6 +24,7 @@ import nablarch.fw.batch.ee.integration.InMemoryAppender;
 import nablarch.fw.batch.progress.ProcessedCountBasedProgressCalculator;
 import nablarch.fw.batch.progress.Progress;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -52,9 +58,14 @@ public class BasicProgressManagerTest {
         }};
     }
 
+    @After
+    public void tearDown() throws Exception {
+        ProgressStatisticsRegistry.clear();
+    }
+
     @Test
     public void 進捗状況がログ出力されること(@Mocked final ProcessedCountBasedProgressCalculator progressCalculator) throws Exception {
-        final SimpleDateFormat format = new SimpleDateFormat("yyyy/MM/dd hh:mm:ss.SSS");
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss.SSS");
         final Date estimatedDate1 = new Date();
         TimeUnit.MILLISECONDS.sleep(100);
         final Date estimatedDate2 = new Date();
@@ -98,7 +109,7 @@ public class BasicProgressManagerTest {
 
     @Test
     public void 入力件数を明示的に指定して進捗ログが出力できること(@Mocked final ProcessedCountBasedProgressCalculator progressCalculator) throws Exception {
-        final SimpleDateFormat format = new SimpleDateFormat("yyyy/MM/dd hh:mm:ss.SSS");
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy/MM/dd HH:mm:ss.SSS");
         final Date estimatedDate1 = new Date();
         TimeUnit.MILLISECONDS.sleep(100);
         final Date estimatedDate2 = new Date();
@@ -215,4 +226,266 @@ public class BasicProgressManagerTest {
         sut.outputProgressInfo();
     }
 
+    @Test
+    public void 件数の間隔を指定した場合は指定した件数を処理するまで進捗ログが出力されないこと() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("progressOutputRecordInterval", "300");
+        new Expectations() {{
+            mockStepContext.getProperties();
+            result = properties;
+        }};
+
+        final ProgressManager sut = new BasicProgressManager(mockJobContext, mockStepContext);
+        sut.setInputCount(1000L);
+        for (int i = 100; i <= 900; i += 100) {
+            sut.outputProgressInfo(i);
+        }
+        sut.outputProgressInfo(950);
+        sut.outputProgressInfo(1000);
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat("指定した件数ごとと、処理済み件数が入力件数に達した時に出力されること", messages, contains(
+                containsString("input count: [1000]"),
+                containsString("remaining count: [700]"),
+                containsString("remaining count: [400]"),
+                containsString("remaining count: [100]"),
+                containsString("remaining count: [0]")
+        ));
+    }
+
+    @Test
+    public void 間引いた場合に入力件数に達しないまま終了した時はステップの終了時に最後の進捗ログが出力されること() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("progressOutputRecordInterval", "300");
+        new Expectations() {{
+            mockStepContext.getProperties();
+            result = properties;
+        }};
+
+        final BasicProgressManager sut = new BasicProgressManager(mockJobContext, mockStepContext);
+        sut.setInputCount(1000L);
+        for (int i = 100; i <= 500; i += 100) {
+            sut.outputProgressInfo(i);
+        }
+        sut.outputFinalProgressInfo();
+        sut.outputFinalProgressInfo();
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat("最後の進捗は1回だけ出力されること", messages, contains(
+                containsString("input count: [1000]"),
+                containsString("remaining count: [700]"),
+                containsString("remaining count: [500]")
+        ));
+    }
+
+    @Test
+    public void 最後の進捗ログを出力済みの場合はステップの終了時に出力されないこと() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("progressOutputRecordInterval", "300");
+        new Expectations() {{
+            mockStepContext.getProperties();
+            result = properties;
+        }};
+
+        final BasicProgressManager sut = new BasicProgressManager(mockJobContext, mockStepContext);
+        sut.setInputCount(1000L);
+        sut.outputProgressInfo(300);
+        sut.outputFinalProgressInfo();
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat(messages, contains(
+                containsString("input count: [1000]"),
+                containsString("remaining count: [700]")
+        ));
+    }
+
+    @Test
+    public void 間引かない場合はステップの終了時に進捗ログが出力されないこと() throws Exception {
+        final BasicProgressManager sut = new BasicProgressManager(mockJobContext, mockStepContext);
+        sut.setInputCount(1000L);
+        sut.outputProgressInfo(100);
+        sut.outputFinalProgressInfo();
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat(messages, contains(
+                containsString("input count: [1000]"),
+                containsString("remaining count: [900]")
+        ));
+    }
+
+    @Test
+    public void 入力件数を設定していない場合はステップの終了時に何もしないこと() throws Exception {
+        final BasicProgressManager sut = new BasicProgressManager(mockJobContext, mockStepContext);
+        sut.outputFinalProgressInfo();
+
+        assertThat(InMemoryAppender.getLogMessages("PROGRESS"), is(nullValue()));
+    }
+
+    @Test
+    public void 時間の間隔を指定した場合は指定した時間が経過するまで進捗ログが出力されないこと() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("progressOutputInterval", "200");
+        new Expectations() {{
+            mockStepContext.getProperties();
+            result = properties;
+        }};
+
+        final ProgressManager sut = new BasicProgressManager(mockJobContext, mockStepContext);
+        sut.setInputCount(1000L);
+        sut.outputProgressInfo(100);
+        sut.outputProgressInfo(200);
+        TimeUnit.MILLISECONDS.sleep(300);
+        sut.outputProgressInfo(300);
+        sut.outputProgressInfo(400);
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat(messages, contains(
+                containsString("input count: [1000]"),
+                containsString("remaining count: [700]")
+        ));
+    }
+
+    @Test
+    public void 出力の間隔に不正な値を指定した場合はエラーとなること() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("progressOutputInterval", "-1");
+        new Expectations() {{
+            mockStepContext.getProperties();
+            result = properties;
+        }};
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("invalid step property. must set a number of 0 or more."
+                + " job name: [test-job] step name: [test-step] progressOutputInterval: [-1]");
+        new BasicProgressManager(mockJobContext, mockStepContext);
+    }
+
+    @Test
+    public void 終了予測時間の求め方に不正な値を指定した場合はエラーとなること() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("progressCalculator", "unknown");
+        new Expectations() {{
+            mockStepContext.getProperties();
+            result = properties;
+        }};
+
+        final ProgressManager sut = new BasicProgressManager(mockJobContext, mockStepContext);
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("invalid step property. must set processedCount, ewma or window."
+                + " job name: [test-job] step name: [test-step] progressCalculator: [unknown]");
+        sut.setInputCount(100L);
+    }
+
+    @Test
+    public void 終了予測時間の求め方にewmaを指定した場合は平滑化したTPSで進捗ログが出力されること() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("progressCalculator", "ewma");
+        properties.setProperty("progressEwmaAlpha", "0.5");
+        new Expectations() {{
+            mockStepContext.getProperties();
+            result = properties;
+        }};
+
+        final ProgressManager sut = new BasicProgressManager(mockJobContext, mockStepContext);
+        sut.setInputCount(100L);
+        sut.outputProgressInfo(0L);
+        sut.outputProgressInfo(100L);
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat(messages, contains(
+                containsString("input count: [100]"),
+                containsString("estimated end time: [unknown] remaining count: [100]"),
+                containsString("remaining count: [0]")
+        ));
+    }
+
+    @Test
+    public void 出力形式にjsonを指定した場合はJSON形式で進捗ログが出力されること() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("progressPrinter", "json");
+        properties.setProperty("progressPartition", "p1");
+        new Expectations() {{
+            mockStepContext.getProperties();
+            result = properties;
+        }};
+
+        final ProgressManager sut = new BasicProgressManager(mockJobContext, mockStepContext);
+        sut.setInputCount(100L);
+        sut.outputProgressInfo(0L);
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat("入力件数のログは出力されないこと", messages, contains(
+                containsString("{\"job\":\"test-job\",\"step\":\"test-step\",\"partition\":\"p1\","
+                        + "\"processed\":0,\"remaining\":100,\"tps\":0.00,\"currentTps\":0.00,\"estimatedEndTime\":null,")
+        ));
+    }
+
+    @Test
+    public void 出力形式に不正な値を指定した場合はエラーとなること() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("progressPrinter", "xml");
+        new Expectations() {{
+            mockStepContext.getProperties();
+            result = properties;
+        }};
+
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("invalid step property. must set log or json."
+                + " job name: [test-job] step name: [test-step] progressPrinter: [xml]");
+        new BasicProgressManager(mockJobContext, mockStepContext);
+    }
+
+    @Test
+    public void 統計情報が登録されている場合は進捗と合わせて統計情報が出力されること() throws Exception {
+        ProgressStatisticsRegistry.register(mockStepContext, new StubStatistics());
+
+        final ProgressManager sut = new BasicProgressManager(mockJobContext, mockStepContext);
+        sut.setInputCount(100L);
+        sut.outputProgressInfo(10L);
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat(messages, contains(
+                containsString("input count: [100]"),
+                containsString("remaining count: [90]"),
+                containsString("job name: [test-job] step name: [test-step] statistics: [stub] hit: [3] miss: [1]")
+        ));
+    }
+
+    @Test
+    public void 出力形式にjsonを指定した場合は統計情報がJSON形式で出力されること() throws Exception {
+        final Properties properties = new Properties();
+        properties.setProperty("progressPrinter", "json");
+        new Expectations() {{
+            mockStepContext.getProperties();
+            result = properties;
+        }};
+        ProgressStatisticsRegistry.register(mockStepContext, new StubStatistics());
+
+        final ProgressManager sut = new BasicProgressManager(mockJobContext, mockStepContext);
+        sut.setInputCount(100L);
+        sut.outputProgressInfo(10L);
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat(messages, contains(
+                containsString("\"remaining\":90"),
+                containsString("{\"job\":\"test-job\",\"step\":\"test-step\",\"partition\":null,"
+                        + "\"statistics\":\"stub\",\"hit\":3,\"miss\":1}")
+        ));
+    }
+
+    private static class StubStatistics implements ProgressStatistics {
+
+        @Override
+        public String getStatisticsName() {
+            return "stub";
+        }
+
+        @Override
+        public Map<String, Long> getStatistics() {
+            final Map<String, Long> statistics = new LinkedHashMap<String, Long>();
+            statistics.put("hit", 3L);
+            statistics.put("miss", 1L);
+            return statistics;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package nablarch.fw.batch.ee.progress;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import nablarch.fw.batch.progress.Progress;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * {@link EwmaProgressCalculator}のテスト。
+ */
+public class EwmaProgressCalculatorTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void 平滑化したTPSで終了予測時間が求められること() throws Exception {
+        final EwmaProgressCalculator sut = new EwmaProgressCalculator(10000L, 0.5, 0L);
+
+        // 1秒で100件(100tps)
+        final Progress progress1 = sut.calculate(100L, SECOND);
+        assertThat(progress1.getTps(), is(closeTo(100.0, 0.001)));
+        assertThat(progress1.getCurrentTps(), is(closeTo(100.0, 0.001)));
+        assertThat(progress1.getRemainingCount(), is(9900L));
+        assertEstimatedSeconds(progress1, 9900 / 100.0);
+
+        // 次の1秒は10件(10tps)、平滑化したTPSは55tps
+        final Progress progress2 = sut.calculate(110L, 2 * SECOND);
+        assertThat(progress2.getTps(), is(closeTo(55.0, 0.001)));
+        assertThat(progress2.getCurrentTps(), is(closeTo(10.0, 0.001)));
+        assertThat(progress2.getRemainingCount(), is(9890L));
+        assertEstimatedSeconds(progress2, 9890 / 55.0);
+
+        // 次の1秒は100件(100tps)、平滑化したTPSは77.5tps
+        final Progress progress3 = sut.calculate(210L, 3 * SECOND);
+        assertThat(progress3.getCurrentTps(), is(closeTo(100.0, 0.001)));
+        assertEstimatedSeconds(progress3, 9790 / 77.5);
+    }
+
+    @Test
+    public void 処理済み件数が0の場合は終了予測時間が求められないこと() throws Exception {
+        final EwmaProgressCalculator sut = new EwmaProgressCalculator(100L, 0.5, 0L);
+        final Progress progress = sut.calculate(0L, SECOND);
+        assertThat(progress.getEstimatedEndTime(), is(nullValue()));
+        assertThat(progress.getRemainingCount(), is(100L));
+    }
+
+    @Test
+    public void 平滑化係数が範囲外の場合はエラーとなること() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("alpha must be greater than 0 and 1 or less. alpha=[1.5]");
+        new EwmaProgressCalculator(100L, 1.5);
+    }
+
+    static void assertEstimatedSeconds(final Progress progress, final double expectedSeconds) {
+        final double actual = (progress.getEstimatedEndTime().getTime() - System.currentTimeMillis()) / 1000.0;
+        assertThat(actual, is(closeTo(expectedSeconds, 1.0)));
+    }
+}
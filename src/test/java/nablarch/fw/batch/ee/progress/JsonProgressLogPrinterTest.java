@@ -0,0 +1,102 @@
+package nablarch.fw.batch.ee.progress;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Properties;
+
+import nablarch.fw.batch.ee.integration.InMemoryAppender;
+import nablarch.fw.batch.progress.ProcessName;
+import nablarch.fw.batch.progress.Progress;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link JsonProgressLogPrinter}のテスト。
+ */
+public class JsonProgressLogPrinterTest {
+
+    @Before
+    public void setUp() throws Exception {
+        InMemoryAppender.clear();
+    }
+
+    @Test
+    public void 進捗状況がJSON形式で出力されること() throws Exception {
+        final JsonProgressLogPrinter sut = new JsonProgressLogPrinter(1000L);
+        sut.print(new JBatchProcessName("test-job", "test-step", "partition-1"),
+                new Progress(2.345, 6.789, new Date(1516687445678L), 100));
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat(messages.size(), is(1));
+        assertThat(messages.get(0), containsString("{\"job\":\"test-job\",\"step\":\"test-step\",\"partition\":\"partition-1\","
+                + "\"processed\":900,\"remaining\":100,\"tps\":2.35,\"currentTps\":6.79,"
+                + "\"estimatedEndTime\":1516687445678,\"heapUsed\":"));
+        assertThat(messages.get(0).trim().matches(".*,\"heapUsed\":\\d+,\"timestamp\":\\d+}$"), is(true));
+    }
+
+    @Test
+    public void 出力時点の入力件数で処理済み件数が出力されること() throws Exception {
+        final JsonProgressLogPrinter sut = new JsonProgressLogPrinter();
+        sut.print(new JBatchProcessName("test-job", "test-step"), new Progress(1, 1, null, 10), 30L);
+        sut.print(new JBatchProcessName("test-job", "test-step"), new Progress(1, 1, null, 10), 60L);
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat(messages.get(0), containsString("\"processed\":20,\"remaining\":10,"));
+        assertThat(messages.get(1), containsString("\"processed\":50,\"remaining\":10,"));
+    }
+
+    @Test
+    public void 不明な項目はnullで出力されること() throws Exception {
+        final JsonProgressLogPrinter sut = new JsonProgressLogPrinter(100L);
+        sut.print(new JBatchProcessName("test-job", "test-step"), new Progress(0, Double.NaN, null, 100));
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat(messages.get(0), containsString("{\"job\":\"test-job\",\"step\":\"test-step\",\"partition\":null,"
+                + "\"processed\":0,\"remaining\":100,\"tps\":0.00,\"currentTps\":null,\"estimatedEndTime\":null,"));
+    }
+
+    @Test
+    public void JBatchProcessName以外の場合はプロセス名がジョブ名として出力されること() throws Exception {
+        final JsonProgressLogPrinter sut = new JsonProgressLogPrinter(10L);
+        sut.print(new ProcessName() {
+            @Override
+            public String formatProcessName() {
+                return "name";
+            }
+        }, new Progress(1, 1, null, 5));
+
+        assertThat(InMemoryAppender.getLogMessages("PROGRESS").get(0),
+                containsString("{\"job\":\"name\",\"step\":null,\"partition\":null,\"processed\":5,"));
+    }
+
+    @Test
+    public void ジョブやステップのイベントがJSON形式で出力されること() throws Exception {
+        JsonProgressLogPrinter.printEvent(new JBatchProcessName("test-job", "test-step"), "finish", "COMPLETED");
+
+        assertThat(InMemoryAppender.getLogMessages("PROGRESS").get(0), containsString(
+                "{\"job\":\"test-job\",\"step\":\"test-step\",\"partition\":null,\"event\":\"finish\",\"status\":\"COMPLETED\"}"));
+    }
+
+    @Test
+    public void プロパティでjsonが指定されている場合のみ選択されること() throws Exception {
+        final Properties properties = new Properties();
+        assertThat(JsonProgressLogPrinter.isSelected(null), is(false));
+        assertThat(JsonProgressLogPrinter.isSelected(properties), is(false));
+        properties.setProperty("progressPrinter", "log");
+        assertThat(JsonProgressLogPrinter.isSelected(properties), is(false));
+        properties.setProperty("progressPrinter", "json");
+        assertThat(JsonProgressLogPrinter.isSelected(properties), is(true));
+    }
+
+    @Test
+    public void 文字列がエスケープされること() throws Exception {
+        final StringBuilder buffer = new StringBuilder();
+        JsonProgressLogPrinter.appendString(buffer, "a\"b\\c\nd\te\u0001");
+        assertThat(buffer.toString(), is("\"a\\\"b\\\\c\\nd\\te\\u0001\""));
+    }
+}
@@ -0,0 +1,91 @@
+package nablarch.fw.batch.ee.progress;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import javax.batch.api.partition.PartitionReducer.PartitionStatus;
+import javax.batch.runtime.context.JobContext;
+import javax.batch.runtime.context.StepContext;
+
+import nablarch.fw.batch.ee.integration.InMemoryAppender;
+import nablarch.fw.batch.ee.listener.NablarchListenerContext;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import mockit.Expectations;
+import mockit.Mocked;
+
+/**
+ * {@link PartitionProgressReducer}のテスト。
+ */
+public class PartitionProgressReducerTest {
+
+    @Mocked
+    private JobContext mockJobContext;
+
+    @Mocked
+    private StepContext mockStepContext;
+
+    @Before
+    public void setUp() throws Exception {
+        InMemoryAppender.clear();
+
+        new Expectations() {{
+            mockJobContext.getJobName();
+            result = "test-job";
+            mockJobContext.getInstanceId();
+            result = 1L;
+            mockStepContext.getStepName();
+            result = "test-step";
+        }};
+    }
+
+    @Test
+    public void 全パーティションの進捗が合算されてステップ単位で出力されること() throws Exception {
+        final NablarchListenerContext context = new NablarchListenerContext(mockJobContext, mockStepContext);
+        final PartitionProgressReducer sut = new PartitionProgressReducer();
+        sut.beginPartitionedStep(context);
+
+        final ProgressManager partition1 = new BasicProgressManager(mockJobContext, mockStepContext);
+        final ProgressManager partition2 = new BasicProgressManager(mockJobContext, mockStepContext);
+        partition1.setInputCount(100);
+        partition2.setInputCount(200);
+        partition1.outputProgressInfo(50);
+        partition2.outputProgressInfo(100);
+        partition1.outputProgressInfo(100);
+
+        sut.afterPartitionedStepCompletion(context, PartitionStatus.COMMIT);
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat(messages, contains(
+                containsString("job name: [test-job] step name: [test-step] input count: [100]"),
+                containsString("job name: [test-job] step name: [test-step] input count: [200]"),
+                containsString("remaining count: [250]"),
+                containsString("remaining count: [150]"),
+                containsString("remaining count: [100]"),
+                containsString("remaining count: [100]")
+        ));
+    }
+
+    @Test
+    public void ステップの終了後はパーティション単位で進捗が出力されること() throws Exception {
+        final NablarchListenerContext context = new NablarchListenerContext(mockJobContext, mockStepContext);
+        final PartitionProgressReducer sut = new PartitionProgressReducer();
+        sut.beginPartitionedStep(context);
+        sut.afterPartitionedStepCompletion(context, PartitionStatus.COMMIT);
+
+        final ProgressManager manager = new BasicProgressManager(mockJobContext, mockStepContext);
+        manager.setInputCount(100);
+        manager.outputProgressInfo(0);
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat(messages, contains(
+                containsString("input count: [100]"),
+                containsString("tps: [0.00] estimated end time: [unknown] remaining count: [100]")
+        ));
+    }
+}
@@ -0,0 +1,53 @@
+package nablarch.fw.batch.ee.progress;
+
+import static nablarch.fw.batch.ee.progress.EwmaProgressCalculatorTest.assertEstimatedSeconds;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import nablarch.fw.batch.progress.Progress;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/**
+ * {@link SlidingWindowProgressCalculator}のテスト。
+ */
+public class SlidingWindowProgressCalculatorTest {
+
+    @Rule
+    public ExpectedException expectedException = ExpectedException.none();
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void ウィンドウ内のTPSで終了予測時間が求められること() throws Exception {
+        final SlidingWindowProgressCalculator sut = new SlidingWindowProgressCalculator(10000L, 2000L, 0L);
+
+        // 開始から1秒で100件
+        assertEstimatedSeconds(sut.calculate(100L, SECOND), 9900 / 100.0);
+        // 開始から2秒で300件
+        assertEstimatedSeconds(sut.calculate(300L, 2 * SECOND), 9700 / 150.0);
+
+        // 3秒時点では1秒時点を始点とし、2秒間で400件(200tps)
+        final Progress progress = sut.calculate(500L, 3 * SECOND);
+        assertThat(progress.getTps(), is(closeTo(500.0 / 3, 0.001)));
+        assertThat(progress.getCurrentTps(), is(closeTo(200.0, 0.001)));
+        assertEstimatedSeconds(progress, 9500 / 200.0);
+
+        // 3.5秒時点で1件のみ処理しても、ウィンドウの始点より前の最も新しい計算結果(1秒時点)からのTPSで求められる
+        final Progress slow = sut.calculate(501L, 3 * SECOND + SECOND / 2);
+        assertThat(slow.getCurrentTps(), is(closeTo(2.0, 0.001)));
+        assertEstimatedSeconds(slow, 9499 / (401 / 2.5));
+    }
+
+    @Test
+    public void ウィンドウが1未満の場合はエラーとなること() throws Exception {
+        expectedException.expect(IllegalArgumentException.class);
+        expectedException.expectMessage("window must be greater than 0. window=[0]");
+        new SlidingWindowProgressCalculator(100L, 0L);
+    }
+}
@@ -6,8 +6,10 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 
 import java.text.SimpleDateFormat;
+import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
 
 import nablarch.fw.batch.ee.integration.InMemoryAppender;
 import nablarch.fw.batch.ee.progress.JBatchProcessName;
@@ -40,7 +42,7 @@ public class ProgressLogPrinterTest {
         final String message = messages.get(0);
         assertThat(message,
                 containsString("job name: [test-job] step name: [test-step] total tps: [2.35] current tps: [6.79] estimated end time: ["
-                        + new SimpleDateFormat("yyyy/MM/dd hh:mm:ss.SSS").format(estimatedEndTime) + ']'
+                        + new SimpleDateFormat("yyyy/MM/dd HH:mm:ss.SSS").format(estimatedEndTime) + ']'
                         + " remaining count: [100]"));
     }
 
@@ -55,4 +57,48 @@ public class ProgressLogPrinterTest {
                         + " estimated end time: [unknown] remaining count: [100]"))
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void 終了予測時間が24時間表記で出力されること() throws Exception {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.set(2018, Calendar.JANUARY, 23, 15, 4, 5);
+        calendar.set(Calendar.MILLISECOND, 678);
+        final Date estimatedEndTime = calendar.getTime();
+
+        sut.print(new JBatchProcessName("test-job", "test-step"), new Progress(2.345, 6.789, estimatedEndTime, 100));
+        sut.print(new JBatchProcessName("test-job", "test-step"), new Progress(1234.5, 0.004, estimatedEndTime, 0));
+
+        final List<String> messages = InMemoryAppender.getLogMessages("PROGRESS");
+        assertThat(messages, contains(
+                containsString("job name: [test-job] step name: [test-step] total tps: [2.35] current tps: [6.79]"
+                        + " estimated end time: [2018/01/23 15:04:05.678] remaining count: [100]"),
+                containsString("job name: [test-job] step name: [test-step] total tps: [1234.50] current tps: [0.00]"
+                        + " estimated end time: [2018/01/23 15:04:05.678] remaining count: [0]")
+        ));
+    }
+
+    @Test
+    public void 数値がString_formatと同じ形式で出力されること() throws Exception {
+        final double[] values = {0.0, 0.004, 2.345, 9.999, 10.0, 123456789.125, -1.5,
+                Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (double value : values) {
+            final StringBuilder buffer = new StringBuilder();
+            ProgressLogPrinter.appendDecimal(buffer, value);
+            assertThat(String.valueOf(value), buffer.toString(), is(String.format(Locale.ROOT, "%.2f", value)));
+        }
+    }
+
+    @Test
+    public void 小数点がロケールに関わらずピリオドで出力されること() throws Exception {
+        final Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            sut.print(new JBatchProcessName("test-job", "test-step"), new Progress(2.345, 6.789, null, 100));
+        } finally {
+            Locale.setDefault(locale);
+        }
+
+        assertThat(InMemoryAppender.getLogMessages("PROGRESS"), contains(
+                containsString("total tps: [2.35] current tps: [6.79]")));
+    }
+}
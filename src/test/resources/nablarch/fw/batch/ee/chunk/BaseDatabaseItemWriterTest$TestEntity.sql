@@ -0,0 +1,2 @@
+insert=
+insert into TestEntity (id, name) values (:id, :name)
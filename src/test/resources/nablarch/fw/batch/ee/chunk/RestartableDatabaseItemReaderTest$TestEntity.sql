@@ -0,0 +1,2 @@
+find_after=
+select * from TestEntity where id > :id order by id